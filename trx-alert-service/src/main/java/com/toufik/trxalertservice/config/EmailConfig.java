@@ -12,4 +12,24 @@ public class EmailConfig {
     private String senderEmail = "fraud-alert@company.com";
     private String senderName = "Transaction Fraud Alert System";
     private String subject = "FRAUD ALERT - Suspicious Transaction Detected";
+    private TransportPoolConfig transportPool = new TransportPoolConfig();
+
+    @Data
+    public static class TransportPoolConfig {
+
+        /**
+         * Keep SMTP connections open between sends instead of connecting and authenticating for every email.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Open connections kept between sends; more are opened while every one is in use.
+         */
+        private int maxIdle = 4;
+
+        /**
+         * Idle connections are closed after this long, before the mail server drops them.
+         */
+        private long idleTimeoutMillis = 60_000;
+    }
 }
\ No newline at end of file
@@ -1,11 +1,12 @@
 package com.toufik.trxalertservice.config;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import com.toufik.trxalertservice.model.TransactionWithMT103Event;
+import com.toufik.trxcommon.kafka.DeadLetterReplayer;
+import com.toufik.trxcommon.kafka.TransactionEventDeserializer;
+import com.toufik.trxcommon.model.TransactionWithMT103Event;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -14,9 +15,9 @@ import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -31,14 +32,6 @@ public class KafkaConsumerConfig {
     @Value("${spring.kafka.consumer.group-id}")
     private String groupId;
 
-    @Bean
-    public ObjectMapper kafkaObjectMapper() {
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
-        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-        return objectMapper;
-    }
-
     @Bean
     public ConsumerFactory<String, TransactionWithMT103Event> consumerFactory() {
         Map<String, Object> configProps = new HashMap<>();
@@ -47,15 +40,10 @@ public class KafkaConsumerConfig {
         configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
-        configProps.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class.getName());
-
-        JsonDeserializer<TransactionWithMT103Event> jsonDeserializer =
-                new JsonDeserializer<>(TransactionWithMT103Event.class, kafkaObjectMapper());
-        jsonDeserializer.setUseTypeHeaders(false);
-        jsonDeserializer.addTrustedPackages("*");
+        configProps.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, TransactionEventDeserializer.class.getName());
 
         ErrorHandlingDeserializer<TransactionWithMT103Event> errorHandlingDeserializer =
-                new ErrorHandlingDeserializer<>(jsonDeserializer);
+                new ErrorHandlingDeserializer<>(new TransactionEventDeserializer());
 
         return new DefaultKafkaConsumerFactory<>(
                 configProps,
@@ -74,8 +62,26 @@ public class KafkaConsumerConfig {
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
         factory.setConcurrency(1);
 
+        // Only reached when publishing to a retry topic fails; failed alerts are otherwise handed to the retry
+        // topics of TransactionAlertConsumerService
         factory.setCommonErrorHandler(new org.springframework.kafka.listener.DefaultErrorHandler());
 
         return factory;
     }
+
+    /**
+     * Reads the dead-letter topic as raw bytes, so alerts that could not be deserialized are replayed as they are.
+     */
+    @Bean
+    public DeadLetterReplayer deadLetterReplayer(
+            @Qualifier("replayKafkaTemplate") KafkaTemplate<String, byte[]> replayKafkaTemplate) {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+
+        return new DeadLetterReplayer(
+                new DefaultKafkaConsumerFactory<>(configProps, new StringDeserializer(), new ByteArrayDeserializer()),
+                replayKafkaTemplate,
+                groupId + "-dlt-replay",
+                DeadLetterReplayer.SPRING_RETRY_HEADER_PREFIXES);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.toufik.trxalertservice.config;
+
+import com.toufik.trxcommon.kafka.TransactionEventSerializer;
+import com.toufik.trxcommon.model.TransactionWithMT103Event;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Configuration
+public class KafkaProducerConfig {
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    /**
+     * Publishes failed alerts to the retry and dead-letter topics. Records that were read are written back as
+     * JSON; records that could not be deserialized are published with their original bytes.
+     */
+    @Bean
+    public KafkaTemplate<String, Object> retryKafkaTemplate() {
+        Map<Class<?>, Serializer<?>> serializers = new LinkedHashMap<>();
+        serializers.put(byte[].class, new ByteArraySerializer());
+        serializers.put(TransactionWithMT103Event.class, TransactionEventSerializer.forFormat("json"));
+
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(
+                producerProps(), new StringSerializer(), new DelegatingByTypeSerializer(serializers)));
+    }
+
+    /**
+     * Re-injects dead-lettered alerts as raw bytes.
+     */
+    @Bean
+    public KafkaTemplate<String, byte[]> replayKafkaTemplate() {
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(
+                producerProps(), new StringSerializer(), new ByteArraySerializer()));
+    }
+
+    private Map<String, Object> producerProps() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        return configProps;
+    }
+}
@@ -0,0 +1,41 @@
+package com.toufik.trxalertservice.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mail.MailProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Properties;
+
+/**
+ * Replaces Spring Boot's mail sender with {@link PooledJavaMailSender}, configured from the same
+ * {@code spring.mail} properties. With {@code fraud.email.transport-pool.enabled=false} Boot's sender, which
+ * connects for every email, is used instead.
+ */
+@Configuration
+@EnableConfigurationProperties(MailProperties.class)
+@ConditionalOnProperty(prefix = "fraud.email.transport-pool", name = "enabled", havingValue = "true",
+        matchIfMissing = true)
+public class MailSenderConfig {
+
+    @Bean
+    public PooledJavaMailSender mailSender(MailProperties properties, EmailConfig emailConfig) {
+        EmailConfig.TransportPoolConfig pool = emailConfig.getTransportPool();
+        PooledJavaMailSender sender = new PooledJavaMailSender(pool.getMaxIdle(), pool.getIdleTimeoutMillis());
+        sender.setHost(properties.getHost());
+        if (properties.getPort() != null) {
+            sender.setPort(properties.getPort());
+        }
+        sender.setUsername(properties.getUsername());
+        sender.setPassword(properties.getPassword());
+        sender.setProtocol(properties.getProtocol());
+        if (properties.getDefaultEncoding() != null) {
+            sender.setDefaultEncoding(properties.getDefaultEncoding().name());
+        }
+        Properties javaMailProperties = new Properties();
+        javaMailProperties.putAll(properties.getProperties());
+        sender.setJavaMailProperties(javaMailProperties);
+        return sender;
+    }
+}
@@ -0,0 +1,48 @@
+package com.toufik.trxalertservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "fraud.notification")
+@Data
+public class NotificationConfig {
+
+    /**
+     * Notifications queued or waiting for a retry at once; the listener is rejected beyond that.
+     */
+    private int queueCapacity = 1_000;
+
+    /**
+     * Threads rendering and sending notification emails.
+     */
+    private int workers = 2;
+
+    private long enqueueTimeoutMillis = 5_000;
+    private int maxAttempts = 5;
+    private long initialBackoffMillis = 1_000;
+    private long maxBackoffMillis = 60_000;
+    private DigestConfig digest = new DigestConfig();
+
+    @Data
+    public static class DigestConfig {
+
+        /**
+         * Collect non-HIGH alerts into one email per window instead of one email per transaction.
+         */
+        private boolean enabled = false;
+
+        private long windowMillis = 60_000;
+
+        /**
+         * Alerts that close a window early.
+         */
+        private int maxAlerts = 100;
+
+        /**
+         * After a HIGH alert is sent on its own, further alerts of the same account or rule go into the digest.
+         */
+        private long suppressionWindowMillis = 300_000;
+    }
+}
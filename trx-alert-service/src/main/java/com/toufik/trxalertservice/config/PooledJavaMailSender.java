@@ -0,0 +1,149 @@
+package com.toufik.trxalertservice.config;
+
+import jakarta.mail.Address;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.lang.Nullable;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link JavaMailSenderImpl} that keeps SMTP connections open between sends. The default implementation connects,
+ * negotiates TLS and authenticates for every {@code send} call, which costs several round trips per email. Here a
+ * connection is borrowed from a pool of up to {@code maxIdle} idle ones, checked with the transport's NOOP probe,
+ * and returned after the send. Connections idle for longer than {@code idleTimeoutMillis} are closed rather than
+ * reused, and a connection that failed a send is never reused.
+ */
+@Slf4j
+public class PooledJavaMailSender extends JavaMailSenderImpl implements DisposableBean {
+
+    private static final String HEADER_MESSAGE_ID = "Message-ID";
+
+    private final BlockingDeque<IdleTransport> idle;
+    private final long idleTimeoutNanos;
+    private final LongAdder connectCount = new LongAdder();
+    private final LongAdder reuseCount = new LongAdder();
+    private volatile boolean closed;
+
+    public PooledJavaMailSender(int maxIdle, long idleTimeoutMillis) {
+        this.idle = new LinkedBlockingDeque<>(Math.max(1, maxIdle));
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+    }
+
+    /**
+     * Connections opened so far, including the ones replacing stale or failed connections.
+     */
+    public long getConnectCount() {
+        return connectCount.sum();
+    }
+
+    /**
+     * Sends that reused an open connection.
+     */
+    public long getReuseCount() {
+        return reuseCount.sum();
+    }
+
+    @Override
+    protected void doSend(MimeMessage[] mimeMessages, @Nullable Object[] originalMessages) {
+        Map<Object, Exception> failedMessages = new LinkedHashMap<>();
+        Transport transport;
+        try {
+            transport = borrow();
+        } catch (AuthenticationFailedException ex) {
+            throw new MailAuthenticationException(ex);
+        } catch (Exception ex) {
+            for (int i = 0; i < mimeMessages.length; i++) {
+                failedMessages.put(originalMessages != null ? originalMessages[i] : mimeMessages[i], ex);
+            }
+            throw new MailSendException("Mail server connection failed", ex, failedMessages);
+        }
+
+        try {
+            for (int i = 0; i < mimeMessages.length; i++) {
+                MimeMessage mimeMessage = mimeMessages[i];
+                try {
+                    if (mimeMessage.getSentDate() == null) {
+                        mimeMessage.setSentDate(new Date());
+                    }
+                    String messageId = mimeMessage.getMessageID();
+                    mimeMessage.saveChanges();
+                    if (messageId != null) {
+                        // Preserve explicitly specified message id
+                        mimeMessage.setHeader(HEADER_MESSAGE_ID, messageId);
+                    }
+                    Address[] addresses = mimeMessage.getAllRecipients();
+                    transport.sendMessage(mimeMessage, addresses != null ? addresses : new Address[0]);
+                } catch (Exception ex) {
+                    failedMessages.put(originalMessages != null ? originalMessages[i] : mimeMessage, ex);
+                }
+            }
+        } finally {
+            release(transport, failedMessages.isEmpty());
+        }
+
+        if (!failedMessages.isEmpty()) {
+            throw new MailSendException(failedMessages);
+        }
+    }
+
+    /**
+     * Closes the idle connections; connections in use are closed when they are returned.
+     */
+    @Override
+    public void destroy() {
+        closed = true;
+        IdleTransport candidate;
+        while ((candidate = idle.pollFirst()) != null) {
+            close(candidate.transport());
+        }
+    }
+
+    private Transport borrow() throws MessagingException {
+        long now = System.nanoTime();
+        IdleTransport candidate;
+        // Most recently returned first, so connections beyond what the senders need go stale and are closed here
+        while ((candidate = idle.pollFirst()) != null) {
+            if (now - candidate.since() < idleTimeoutNanos && candidate.transport().isConnected()) {
+                reuseCount.increment();
+                return candidate.transport();
+            }
+            close(candidate.transport());
+        }
+        Transport transport = connectTransport();
+        connectCount.increment();
+        return transport;
+    }
+
+    private void release(Transport transport, boolean reusable) {
+        if (!reusable || closed || !idle.offerFirst(new IdleTransport(transport, System.nanoTime()))) {
+            close(transport);
+        } else if (closed) {
+            destroy();
+        }
+    }
+
+    private static void close(Transport transport) {
+        try {
+            transport.close();
+        } catch (MessagingException ex) {
+            log.debug("Could not close SMTP connection: {}", ex.getMessage());
+        }
+    }
+
+    private record IdleTransport(Transport transport, long since) {
+    }
+}
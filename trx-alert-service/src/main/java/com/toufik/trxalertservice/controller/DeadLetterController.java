@@ -0,0 +1,34 @@
+package com.toufik.trxalertservice.controller;
+
+import com.toufik.trxalertservice.service.TransactionAlertConsumerService;
+import com.toufik.trxcommon.kafka.DeadLetterReplayer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/transactions/alerts/dlt")
+@RequiredArgsConstructor
+@Slf4j
+public class DeadLetterController {
+
+    private final DeadLetterReplayer deadLetterReplayer;
+
+    @Value("${alert.retry.replay-max-records:10000}")
+    private int replayMaxRecords;
+
+    /**
+     * Re-injects dead-lettered alerts into {@code transaction_alert}; {@code maxRecords} of 0 uses the configured
+     * limit.
+     */
+    @PostMapping("/replay")
+    public ResponseEntity<DeadLetterReplayer.Result> replay(@RequestParam(defaultValue = "0") int maxRecords) {
+        log.info("Replaying up to {} dead-lettered alerts", maxRecords > 0 ? maxRecords : replayMaxRecords);
+        DeadLetterReplayer.Result result = deadLetterReplayer.replay(TransactionAlertConsumerService.DEAD_LETTER_TOPIC,
+                TransactionAlertConsumerService.TOPIC, maxRecords > 0 ? maxRecords : replayMaxRecords);
+        log.info("Replayed {} alerts", result.getReplayed());
+        return ResponseEntity.ok(result);
+    }
+}
@@ -0,0 +1,22 @@
+package com.toufik.trxalertservice.controller;
+
+import com.toufik.trxalertservice.fraud.FraudAlertNotificationService;
+import com.toufik.trxalertservice.fraud.model.NotificationStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/transactions/alerts/notifications")
+@RequiredArgsConstructor
+public class NotificationController {
+
+    private final FraudAlertNotificationService notificationService;
+
+    @GetMapping
+    public ResponseEntity<NotificationStats> getNotificationStats() {
+        return ResponseEntity.ok(notificationService.getStats());
+    }
+}
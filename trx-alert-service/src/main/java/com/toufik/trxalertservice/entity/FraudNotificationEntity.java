@@ -0,0 +1,41 @@
+package com.toufik.trxalertservice.entity;
+
+import com.toufik.trxalertservice.fraud.model.FraudAlert;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Fraud alerts of one transaction waiting to be emailed, keyed by transaction id, or a digest of the alerts of
+ * several transactions. A transaction collected into a digest is {@code BUFFERED} until the digest is stored, then
+ * {@code DIGESTED} with the id of its digest.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "fraud_notifications")
+public class FraudNotificationEntity {
+
+    public enum Status {
+        PENDING, SENT, FAILED, BUFFERED, DIGESTED
+    }
+
+    @Id
+    private String id;
+
+    private String transactionId;
+    private List<FraudAlert> alerts;
+    private String severity;
+    private Status status;
+    private int attempts;
+    private String lastError;
+    private LocalDateTime createdAt;
+    private LocalDateTime nextAttemptAt;
+    private LocalDateTime sentAt;
+    private String digestId;
+}
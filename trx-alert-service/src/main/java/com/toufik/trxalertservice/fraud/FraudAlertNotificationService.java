@@ -1,23 +1,509 @@
 package com.toufik.trxalertservice.fraud;
 
+import com.toufik.trxalertservice.config.NotificationConfig;
+import com.toufik.trxalertservice.entity.FraudNotificationEntity;
+import com.toufik.trxalertservice.entity.FraudNotificationEntity.Status;
 import com.toufik.trxalertservice.fraud.model.FraudAlert;
+import com.toufik.trxalertservice.fraud.model.NotificationStats;
 import com.toufik.trxalertservice.fraud.service.FraudAlertEmailService;
-import jakarta.mail.MessagingException;
-import lombok.RequiredArgsConstructor;
+import com.toufik.trxalertservice.repository.FraudNotificationRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.io.UnsupportedEncodingException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Sends fraud alert emails off the Kafka listener thread. The listener only enqueues: the alerts of a transaction
+ * are stored as a {@code PENDING} notification and queued, and a pool of {@code fraud.notification.workers} threads
+ * renders and sends them, most severe first and in arrival order within a severity.
+ * <p>
+ * A failed send is retried with exponential backoff, and marked {@code FAILED} after {@code max-attempts}. Queued
+ * and backing-off notifications together are bounded by {@code queue-capacity}; when it stays exhausted for the
+ * enqueue timeout the listener is rejected, so its record goes through the retry topics instead. Notifications
+ * still pending when the service stops are queued again at the next start. An email may be sent twice if the
+ * service stops between sending it and recording it as sent.
+ * <p>
+ * With {@code fraud.notification.digest.enabled}, alerts below HIGH severity are stored as {@code BUFFERED} and
+ * collected into one digest email per {@code window-millis}, or sooner once {@code max-alerts} have been collected.
+ * HIGH alerts are still sent on their own, except that further HIGH alerts of the same account or the same rule
+ * within {@code suppression-window-millis} join the digest too. Digests hold no queue capacity: they are already bounded by
+ * their window and size.
+ */
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class FraudAlertNotificationService {
 
+    private static final String IMMEDIATE_SEVERITY = "HIGH";
+    private static final String DIGEST_ID_PREFIX = "digest-";
+
     private final FraudAlertEmailService emailService;
+    private final FraudNotificationRepository repository;
+    private final NotificationConfig config;
+
+    private final PriorityBlockingQueue<QueuedNotification> queue = new PriorityBlockingQueue<>(
+            64, Comparator.comparingInt(QueuedNotification::rank).thenComparingLong(QueuedNotification::sequence));
+    private final Semaphore capacity;
+    private final AtomicLong sequence = new AtomicLong();
+    private final ScheduledExecutorService scheduler;
+
+    private final Object digestLock = new Object();
+    private final List<FraudNotificationEntity> digestBuffer = new ArrayList<>();
+    private int digestAlertCount;
+    private ScheduledFuture<?> digestFlush;
+    private final Map<String, Long> lastSentAlone = new ConcurrentHashMap<>();
+    private volatile long nextSuppressionPurge;
+
+    private final LongAdder enqueuedCount = new LongAdder();
+    private final LongAdder duplicateCount = new LongAdder();
+    private final LongAdder recoveredCount = new LongAdder();
+    private final LongAdder sentCount = new LongAdder();
+    private final LongAdder retryCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder bufferedCount = new LongAdder();
+    private final LongAdder suppressedCount = new LongAdder();
+    private final LongAdder digestCount = new LongAdder();
+
+    private volatile boolean running;
+    private final List<Thread> threads = new ArrayList<>();
+
+    public FraudAlertNotificationService(FraudAlertEmailService emailService, FraudNotificationRepository repository,
+                                         NotificationConfig config) {
+        this.emailService = emailService;
+        this.repository = repository;
+        this.config = config;
+        this.capacity = new Semaphore(Math.max(1, config.getQueueCapacity()));
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "fraud-notification-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts the workers, and queues the notifications a previous run left pending from a separate thread, so a
+     * large backlog does not hold up startup.
+     */
+    @PostConstruct
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < Math.max(1, config.getWorkers()); i++) {
+            startThread(this::runWorker, "fraud-notification-" + i);
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        startThread(() -> recoverPending(startedAt), "fraud-notification-recovery");
+    }
+
+    /**
+     * Stops the workers. Notifications that are queued or waiting for a retry stay pending, and alerts waiting for
+     * a digest stay buffered; both are picked up again at the next start.
+     */
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        scheduler.shutdownNow();
+        threads.forEach(Thread::interrupt);
+        for (Thread thread : threads) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        threads.clear();
+        log.info("Fraud notifications stopped: {}", getStats());
+    }
+
+    /**
+     * Stores the alerts of a transaction as a pending notification and queues it, or buffers them for the next
+     * digest. Alerts of a transaction that is already known and has not failed are ignored, so a redelivered record
+     * does not send its email twice.
+     *
+     * @throws IllegalStateException if the queue stays full for the enqueue timeout
+     */
+    public void enqueueFraudAlerts(List<FraudAlert> alerts) {
+        if (alerts.isEmpty()) {
+            return;
+        }
+        String transactionId = alerts.get(0).getTransactionId();
+        Optional<FraudNotificationEntity> existing = repository.findById(transactionId);
+        if (existing.isPresent() && existing.get().getStatus() != Status.FAILED) {
+            duplicateCount.increment();
+            log.info("Fraud notification for transaction {} is already {}", transactionId,
+                    existing.get().getStatus());
+            return;
+        }
+
+        FraudNotificationEntity notification = new FraudNotificationEntity();
+        notification.setId(transactionId);
+        notification.setTransactionId(transactionId);
+        notification.setAlerts(alerts);
+        notification.setSeverity(highestSeverity(alerts));
+        notification.setCreatedAt(LocalDateTime.now());
+        if (joinsDigest(notification)) {
+            notification.setStatus(Status.BUFFERED);
+            repository.save(notification);
+            bufferedCount.increment();
+            addToDigest(notification);
+            return;
+        }
+
+        if (!acquire()) {
+            rejectedCount.increment();
+            log.warn("Fraud notification queue full ({} notifications), rejected transaction {}",
+                    config.getQueueCapacity(), transactionId);
+            throw new IllegalStateException("Fraud notification queue full, rejected transaction " + transactionId);
+        }
+        notification.setStatus(Status.PENDING);
+        try {
+            repository.save(notification);
+        } catch (RuntimeException e) {
+            capacity.release();
+            throw e;
+        }
+        queue.add(queued(notification, true));
+        enqueuedCount.increment();
+    }
+
+    public NotificationStats getStats() {
+        int queueCapacity = Math.max(1, config.getQueueCapacity());
+        return NotificationStats.builder()
+                .queueDepth(queue.size())
+                .inFlight(queueCapacity - capacity.availablePermits())
+                .queueCapacity(queueCapacity)
+                .workers(Math.max(1, config.getWorkers()))
+                .enqueuedCount(enqueuedCount.sum())
+                .duplicateCount(duplicateCount.sum())
+                .recoveredCount(recoveredCount.sum())
+                .sentCount(sentCount.sum())
+                .retryCount(retryCount.sum())
+                .failedCount(failedCount.sum())
+                .rejectedCount(rejectedCount.sum())
+                .bufferedAlerts(bufferedAlerts())
+                .bufferedCount(bufferedCount.sum())
+                .suppressedCount(suppressedCount.sum())
+                .digestCount(digestCount.sum())
+                .build();
+    }
+
+    private int bufferedAlerts() {
+        synchronized (digestLock) {
+            return digestAlertCount;
+        }
+    }
+
+    /**
+     * Whether a notification waits for the next digest: with digests enabled, any below HIGH severity, and a HIGH
+     * one when every one of its HIGH alerts repeats an account or a rule that was sent on its own within the
+     * suppression window.
+     */
+    private boolean joinsDigest(FraudNotificationEntity notification) {
+        NotificationConfig.DigestConfig digest = config.getDigest();
+        if (!digest.isEnabled()) {
+            return false;
+        }
+        if (!IMMEDIATE_SEVERITY.equals(notification.getSeverity())) {
+            return true;
+        }
+
+        long now = System.currentTimeMillis();
+        long suppressedSince = now - digest.getSuppressionWindowMillis();
+        if (now >= nextSuppressionPurge) {
+            lastSentAlone.values().removeIf(sent -> sent < suppressedSince);
+            nextSuppressionPurge = now + digest.getSuppressionWindowMillis();
+        }
+        List<FraudAlert> highAlerts = notification.getAlerts().stream()
+                .filter(alert -> IMMEDIATE_SEVERITY.equals(alert.getSeverity()))
+                .toList();
+        boolean suppressed = highAlerts.stream().allMatch(alert -> suppressionKeys(alert).stream()
+                .anyMatch(key -> lastSentAlone.getOrDefault(key, Long.MIN_VALUE) >= suppressedSince));
+        if (suppressed) {
+            suppressedCount.increment();
+            return true;
+        }
+        highAlerts.forEach(alert -> suppressionKeys(alert).forEach(key -> lastSentAlone.put(key, now)));
+        return false;
+    }
+
+    /**
+     * Keys a HIGH alert is suppressed by: its account, when known, and its rule.
+     */
+    private static List<String> suppressionKeys(FraudAlert alert) {
+        String rule = "rule:" + alert.getRuleName();
+        return alert.getAccount() == null ? List.of(rule) : List.of("account:" + alert.getAccount(), rule);
+    }
+
+    private void addToDigest(FraudNotificationEntity notification) {
+        List<FraudNotificationEntity> full = null;
+        synchronized (digestLock) {
+            digestBuffer.add(notification);
+            digestAlertCount += notification.getAlerts().size();
+            if (digestAlertCount >= Math.max(1, config.getDigest().getMaxAlerts())) {
+                full = takeDigest();
+            } else if (digestFlush == null) {
+                try {
+                    digestFlush = scheduler.schedule(this::flushDigest, config.getDigest().getWindowMillis(),
+                            TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    // Shutting down: the alerts stay buffered and are collected again at the next start
+                }
+            }
+        }
+        if (full != null) {
+            queueDigest(full);
+        }
+    }
+
+    private void flushDigest() {
+        List<FraudNotificationEntity> members;
+        synchronized (digestLock) {
+            members = takeDigest();
+        }
+        if (!members.isEmpty()) {
+            queueDigest(members);
+        }
+    }
+
+    private List<FraudNotificationEntity> takeDigest() {
+        List<FraudNotificationEntity> members = new ArrayList<>(digestBuffer);
+        digestBuffer.clear();
+        digestAlertCount = 0;
+        if (digestFlush != null) {
+            digestFlush.cancel(false);
+            digestFlush = null;
+        }
+        return members;
+    }
+
+    /**
+     * Stores the alerts of the buffered transactions as one pending digest notification and queues it. The digest
+     * is stored before its transactions are marked as digested, so a failure in between sends their alerts twice
+     * rather than not at all.
+     */
+    private void queueDigest(List<FraudNotificationEntity> members) {
+        List<FraudAlert> alerts = new ArrayList<>();
+        for (FraudNotificationEntity member : members) {
+            alerts.addAll(member.getAlerts());
+        }
+        FraudNotificationEntity digest = new FraudNotificationEntity();
+        digest.setId(DIGEST_ID_PREFIX + UUID.randomUUID());
+        digest.setAlerts(alerts);
+        digest.setSeverity(highestSeverity(alerts));
+        digest.setStatus(Status.PENDING);
+        digest.setCreatedAt(LocalDateTime.now());
+        try {
+            repository.save(digest);
+        } catch (RuntimeException e) {
+            log.error("Could not store fraud alert digest of {} transactions, they stay buffered until the next "
+                    + "start: {}", members.size(), e.getMessage());
+            return;
+        }
+        for (FraudNotificationEntity member : members) {
+            member.setStatus(Status.DIGESTED);
+            member.setDigestId(digest.getId());
+        }
+        try {
+            repository.saveAll(members);
+        } catch (RuntimeException e) {
+            log.error("Could not mark {} transactions as digested in {}, they are digested again at the next "
+                    + "start: {}", members.size(), digest.getId(), e.getMessage());
+        }
+        digestCount.increment();
+        queue.add(queued(digest, false));
+        log.info("Fraud alert digest {} queued ({} alerts of {} transactions)", digest.getId(), alerts.size(),
+                members.size());
+    }
+
+    private void startThread(Runnable task, String name) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        thread.start();
+        threads.add(thread);
+    }
+
+    private boolean acquire() {
+        try {
+            return capacity.tryAcquire(config.getEnqueueTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void runWorker() {
+        while (running) {
+            QueuedNotification next;
+            try {
+                next = queue.take();
+            } catch (InterruptedException e) {
+                continue;
+            }
+            deliver(next);
+        }
+    }
+
+    private void deliver(QueuedNotification queued) {
+        FraudNotificationEntity notification = queued.notification();
+        notification.setAttempts(notification.getAttempts() + 1);
+        try {
+            emailService.sendFraudAlertEmail(notification.getAlerts());
+        } catch (Exception e) {
+            retryOrFail(queued, e);
+            return;
+        }
+        notification.setStatus(Status.SENT);
+        notification.setSentAt(LocalDateTime.now());
+        notification.setNextAttemptAt(null);
+        notification.setLastError(null);
+        store(notification);
+        release(queued);
+        sentCount.increment();
+        log.info("Fraud notification {} sent ({} alerts, {})", notification.getId(),
+                notification.getAlerts().size(), notification.getSeverity());
+    }
+
+    private void retryOrFail(QueuedNotification queued, Exception failure) {
+        FraudNotificationEntity notification = queued.notification();
+        notification.setLastError(failure.getClass().getName() + ": " + failure.getMessage());
+        if (notification.getAttempts() >= Math.max(1, config.getMaxAttempts())) {
+            notification.setStatus(Status.FAILED);
+            notification.setNextAttemptAt(null);
+            failedCount.increment();
+            store(notification);
+            release(queued);
+            log.error("Fraud notification {} failed after {} attempts: {}",
+                    notification.getId(), notification.getAttempts(), failure.getMessage(), failure);
+            return;
+        }
+
+        long delayMillis = backoffMillis(notification.getAttempts());
+        notification.setNextAttemptAt(LocalDateTime.now().plus(Duration.ofMillis(delayMillis)));
+        retryCount.increment();
+        store(notification);
+        log.warn("Fraud notification {} failed attempt {}, retrying in {} ms: {}",
+                notification.getId(), notification.getAttempts(), delayMillis, failure.getMessage());
+        requeueAfter(queued, delayMillis);
+    }
+
+    /**
+     * Records the state of a notification. A failure is only logged: the notification then stays in its previous
+     * state and, if that is pending, is sent again after a restart.
+     */
+    private void store(FraudNotificationEntity notification) {
+        try {
+            repository.save(notification);
+        } catch (RuntimeException e) {
+            log.error("Could not record fraud notification {} as {}: {}",
+                    notification.getId(), notification.getStatus(), e.getMessage());
+        }
+    }
+
+    private void requeueAfter(QueuedNotification queued, long delayMillis) {
+        if (delayMillis <= 0) {
+            queue.add(queued);
+            return;
+        }
+        try {
+            scheduler.schedule(() -> queue.add(queued), delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shutting down: the notification stays pending and is recovered at the next start
+            release(queued);
+        }
+    }
+
+    private void release(QueuedNotification queued) {
+        if (queued.holdsCapacity()) {
+            capacity.release();
+        }
+    }
+
+    /**
+     * Queues the notifications left pending by a previous run, and collects the alerts it left buffered into the
+     * next digest, or queues them on their own if digests have been disabled since.
+     */
+    private void recoverPending(LocalDateTime startedAt) {
+        List<FraudNotificationEntity> pending;
+        List<FraudNotificationEntity> buffered;
+        try {
+            pending = new ArrayList<>(repository.findByStatusAndCreatedAtBefore(Status.PENDING, startedAt));
+            buffered = repository.findByStatusAndCreatedAtBefore(Status.BUFFERED, startedAt);
+        } catch (RuntimeException e) {
+            log.error("Could not load pending fraud notifications: {}", e.getMessage());
+            return;
+        }
+        if (pending.isEmpty() && buffered.isEmpty()) {
+            return;
+        }
+        log.info("Recovering {} pending and {} buffered fraud notifications", pending.size(), buffered.size());
+        for (FraudNotificationEntity notification : buffered) {
+            if (config.getDigest().isEnabled()) {
+                recoveredCount.increment();
+                addToDigest(notification);
+            } else {
+                notification.setStatus(Status.PENDING);
+                store(notification);
+                pending.add(notification);
+            }
+        }
+        for (FraudNotificationEntity notification : pending) {
+            try {
+                capacity.acquire();
+            } catch (InterruptedException e) {
+                return;
+            }
+            recoveredCount.increment();
+            LocalDateTime due = notification.getNextAttemptAt();
+            long delayMillis = due == null ? 0 : Duration.between(LocalDateTime.now(), due).toMillis();
+            requeueAfter(queued(notification, true), delayMillis);
+        }
+    }
+
+    private long backoffMillis(int attempts) {
+        double delay = config.getInitialBackoffMillis() * Math.pow(2, attempts - 1);
+        return (long) Math.min(delay, config.getMaxBackoffMillis());
+    }
+
+    private QueuedNotification queued(FraudNotificationEntity notification, boolean holdsCapacity) {
+        return new QueuedNotification(notification, FraudAlert.severityRank(notification.getSeverity()),
+                sequence.getAndIncrement(), holdsCapacity);
+    }
+
+    private static String highestSeverity(List<FraudAlert> alerts) {
+        String highest = null;
+        for (FraudAlert alert : alerts) {
+            if (highest == null || FraudAlert.severityRank(alert.getSeverity()) < FraudAlert.severityRank(highest)) {
+                highest = alert.getSeverity();
+            }
+        }
+        return highest;
+    }
 
-    public void sendFraudAlerts(List<FraudAlert> alerts) throws MessagingException, UnsupportedEncodingException {
-            emailService.sendFraudAlertEmail(alerts);
+    private record QueuedNotification(FraudNotificationEntity notification, int rank, long sequence,
+                                      boolean holdsCapacity) {
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,6 @@
 package com.toufik.trxalertservice.fraud;
 
-import com.toufik.trxalertservice.model.TransactionWithMT103Event;
+import com.toufik.trxcommon.model.TransactionWithMT103Event;
 
 public interface FraudDetectionRule {
     boolean isSuspicious(TransactionWithMT103Event event);
@@ -3,16 +3,35 @@ package com.toufik.trxalertservice.fraud.model;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class FraudAlert {
+
+    private static final List<String> SEVERITIES = List.of("HIGH", "MEDIUM", "LOW");
+
     private String transactionId;
     private String ruleName;
     private String description;
     private String severity; // HIGH, MEDIUM, LOW
     private LocalDateTime alertTime;
     private String details;
-}
\ No newline at end of file
+    private String account; // sending account, used to group alerts in digests
+
+    public FraudAlert(String transactionId, String ruleName, String description, String severity,
+                      LocalDateTime alertTime, String details) {
+        this(transactionId, ruleName, description, severity, alertTime, details, null);
+    }
+
+    /**
+     * Position of a severity from most to least severe; unknown severities come last.
+     */
+    public static int severityRank(String severity) {
+        int rank = SEVERITIES.indexOf(severity);
+        return rank < 0 ? SEVERITIES.size() : rank;
+    }
+}
@@ -0,0 +1,80 @@
+package com.toufik.trxalertservice.fraud.model;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Alerts of one rule for one account, rendered as a single card of a fraud alert email.
+ */
+@Data
+public class FraudAlertGroup {
+    private String account;
+    private String ruleName;
+    private String description;
+    private String severity;
+    private String details;
+    private List<String> transactionIds = new ArrayList<>();
+    private int count;
+    private LocalDateTime firstAlertTime;
+    private LocalDateTime lastAlertTime;
+
+    public static FraudAlertGroup of(FraudAlert alert) {
+        FraudAlertGroup group = new FraudAlertGroup();
+        group.setAccount(alert.getAccount());
+        group.setRuleName(alert.getRuleName());
+        group.setDescription(alert.getDescription());
+        group.setSeverity(alert.getSeverity());
+        group.setDetails(alert.getDetails());
+        group.setFirstAlertTime(alert.getAlertTime());
+        group.add(alert);
+        return group;
+    }
+
+    public void add(FraudAlert alert) {
+        count++;
+        if (!transactionIds.contains(alert.getTransactionId())) {
+            transactionIds.add(alert.getTransactionId());
+        }
+        if (FraudAlert.severityRank(alert.getSeverity()) < FraudAlert.severityRank(severity)) {
+            severity = alert.getSeverity();
+        }
+        LocalDateTime time = alert.getAlertTime();
+        if (time != null && (firstAlertTime == null || time.isBefore(firstAlertTime))) {
+            firstAlertTime = time;
+        }
+        if (time != null && (lastAlertTime == null || time.isAfter(lastAlertTime))) {
+            lastAlertTime = time;
+        }
+    }
+
+    /**
+     * Groups alerts by account and rule, most severe group first and in order of first appearance otherwise.
+     */
+    public static List<FraudAlertGroup> groupByAccountAndRule(List<FraudAlert> alerts) {
+        Map<String, FraudAlertGroup> groups = new LinkedHashMap<>();
+        for (FraudAlert alert : alerts) {
+            FraudAlertGroup group = groups.get(key(alert));
+            if (group == null) {
+                groups.put(key(alert), of(alert));
+            } else {
+                group.add(alert);
+            }
+        }
+        List<FraudAlertGroup> sorted = new ArrayList<>(groups.values());
+        sorted.sort(Comparator.comparingInt(group -> FraudAlert.severityRank(group.getSeverity())));
+        return sorted;
+    }
+
+    /**
+     * Account and rule an alert is grouped by.
+     */
+    public static String key(FraudAlert alert) {
+        return (alert.getAccount() == null ? "" : alert.getAccount()) + "|" + alert.getRuleName();
+    }
+}
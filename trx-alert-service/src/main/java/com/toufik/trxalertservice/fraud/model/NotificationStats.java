@@ -0,0 +1,28 @@
+package com.toufik.trxalertservice.fraud.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class NotificationStats {
+    private int queueDepth;
+    private int inFlight;
+    private int queueCapacity;
+    private int workers;
+    private long enqueuedCount;
+    private long duplicateCount;
+    private long recoveredCount;
+    private long sentCount;
+    private long retryCount;
+    private long failedCount;
+    private long rejectedCount;
+    private int bufferedAlerts;
+    private long bufferedCount;
+    private long suppressedCount;
+    private long digestCount;
+}
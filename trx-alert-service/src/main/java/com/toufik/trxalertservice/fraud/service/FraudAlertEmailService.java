@@ -2,6 +2,7 @@ package com.toufik.trxalertservice.fraud.service;
 
 import com.toufik.trxalertservice.config.EmailConfig;
 import com.toufik.trxalertservice.fraud.model.FraudAlert;
+import com.toufik.trxalertservice.fraud.model.FraudAlertGroup;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
@@ -13,20 +14,33 @@ import org.springframework.stereotype.Service;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
 
+import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 
+/**
+ * Renders {@code fraud-alert-email.html} and sends it. With {@code spring.thymeleaf.cache} on, the parsed template is
+ * reused and only rendered per email, into a per-thread buffer that keeps its capacity between emails. The message
+ * is a single HTML part, without the multipart structure that nothing here attaches to.
+ */
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class FraudAlertEmailService {
 
+    static final String TEMPLATE = "fraud-alert-email";
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int INITIAL_BUFFER_SIZE = 16 * 1024;
+    private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+
     private final JavaMailSender mailSender;
     private final EmailConfig emailConfig;
     private final TemplateEngine templateEngine;
 
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private final ThreadLocal<StringWriter> renderBuffer =
+            ThreadLocal.withInitial(() -> new StringWriter(INITIAL_BUFFER_SIZE));
 
     public void sendFraudAlertEmail(List<FraudAlert> alerts) throws MessagingException, UnsupportedEncodingException {
             sendHtmlEmail(alerts);
@@ -35,7 +49,7 @@ public class FraudAlertEmailService {
 
     private void sendHtmlEmail(List<FraudAlert> alerts) throws MessagingException, UnsupportedEncodingException {
         MimeMessage message = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        MimeMessageHelper helper = new MimeMessageHelper(message, false, "UTF-8");
 
         helper.setFrom(emailConfig.getSenderEmail(), emailConfig.getSenderName());
         helper.setTo(emailConfig.getRecipientEmail());
@@ -45,14 +59,27 @@ public class FraudAlertEmailService {
         Context context = new Context();
         context.setVariable("alerts", alerts);
         context.setVariable("alertCount", alerts.size());
+        context.setVariable("groups", FraudAlertGroup.groupByAccountAndRule(alerts));
         context.setVariable("timestamp", java.time.LocalDateTime.now().format(FORMATTER));
 
-        // Process HTML template
-        String htmlContent = templateEngine.process("fraud-alert-email", context);
-        helper.setText(htmlContent, true);
+        helper.setText(render(context), true);
 
         mailSender.send(message);
     }
+
+    private String render(Context context) {
+        StringWriter buffer = renderBuffer.get();
+        buffer.getBuffer().setLength(0);
+        try {
+            templateEngine.process(TEMPLATE, context, buffer);
+            return buffer.toString();
+        } finally {
+            // A large digest should not pin its buffer to the worker thread
+            if (buffer.getBuffer().capacity() > MAX_RETAINED_BUFFER_SIZE) {
+                renderBuffer.remove();
+            }
+        }
+    }
 //
 //    private void sendPlainTextEmail(List<FraudAlert> alerts) {
 //        SimpleMailMessage message = new SimpleMailMessage();
@@ -2,7 +2,7 @@ package com.toufik.trxalertservice.fraud.service;
 
 import com.toufik.trxalertservice.fraud.FraudDetectionRule;
 import com.toufik.trxalertservice.fraud.model.FraudAlert;
-import com.toufik.trxalertservice.model.TransactionWithMT103Event;
+import com.toufik.trxcommon.model.TransactionWithMT103Event;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -45,7 +45,7 @@ public class FraudDetectionEngine {
             log.info("Executing fraud rule: {}", rule.getRuleName());
 
             if (rule.isSuspicious(event)) {
-                FraudAlert alert = createFraudAlert(transactionId, rule);
+                FraudAlert alert = createFraudAlert(transactionId, event.getTransaction().getFromAccount(), rule);
                 alerts.add(alert);
 
                 log.error("FRAUD RULE TRIGGERED: {} - {}", rule.getRuleName(), rule.getDescription());
@@ -63,14 +63,15 @@ public class FraudDetectionEngine {
         return alerts;
     }
 
-    private FraudAlert createFraudAlert(String transactionId, FraudDetectionRule rule) {
+    private FraudAlert createFraudAlert(String transactionId, String account, FraudDetectionRule rule) {
         return new FraudAlert(
                 transactionId,
                 rule.getRuleName(),
                 rule.getDescription(),
                 determineSeverity(rule.getRuleName()),
                 LocalDateTime.now(),
-                String.format("Transaction %s triggered fraud rule: %s", transactionId, rule.getRuleName())
+                String.format("Transaction %s triggered fraud rule: %s", transactionId, rule.getRuleName()),
+                account
         );
     }
 
@@ -1,8 +1,8 @@
 package com.toufik.trxalertservice.fraud.service;
 
 import com.toufik.trxalertservice.fraud.FraudDetectionRule;
-import com.toufik.trxalertservice.model.Transaction;
-import com.toufik.trxalertservice.model.TransactionWithMT103Event;
+import com.toufik.trxcommon.model.Transaction;
+import com.toufik.trxcommon.model.TransactionWithMT103Event;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
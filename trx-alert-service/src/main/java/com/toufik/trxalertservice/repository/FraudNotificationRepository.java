@@ -0,0 +1,15 @@
+package com.toufik.trxalertservice.repository;
+
+import com.toufik.trxalertservice.entity.FraudNotificationEntity;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface FraudNotificationRepository extends MongoRepository<FraudNotificationEntity, String> {
+
+    List<FraudNotificationEntity> findByStatusAndCreatedAtBefore(FraudNotificationEntity.Status status,
+                                                                 LocalDateTime createdAt);
+}
@@ -1,54 +1,86 @@
 package com.toufik.trxalertservice.service;
 
 import com.toufik.trxalertservice.entity.TransactionEntity;
-import com.toufik.trxalertservice.fraud.model.FraudAlert;
 import com.toufik.trxalertservice.fraud.FraudAlertNotificationService;
+import com.toufik.trxalertservice.fraud.model.FraudAlert;
 import com.toufik.trxalertservice.fraud.service.FraudDetectionEngine;
-import com.toufik.trxalertservice.model.TransactionWithMT103Event;
-import jakarta.mail.MessagingException;
+import com.toufik.trxcommon.model.TransactionWithMT103Event;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.kafka.annotation.DltHandler;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.retrytopic.DltStrategy;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.retry.annotation.Backoff;
 import org.springframework.stereotype.Service;
 
-import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
+/**
+ * Failures are not retried in place: a failed alert is published to {@code transaction_alert-retry-0},
+ * {@code -retry-1}, ..., each consumed after an exponentially growing delay, and to {@code transaction_alert-dlt}
+ * after its last attempt, so it never holds up the alerts behind it on its partition. Records that cannot be
+ * deserialized go to the dead-letter topic straight away.
+ * <p>
+ * Emails are not sent from the listener: fraud alerts are handed to {@link FraudAlertNotificationService}, and
+ * only a full notification queue fails the record.
+ */
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class TransactionAlertConsumerService {
 
+    public static final String TOPIC = "transaction_alert";
+    public static final String DEAD_LETTER_TOPIC = TOPIC + "-dlt";
+
     private final FraudDetectionEngine fraudDetectionEngine;
     private final FraudAlertNotificationService fraudAlertNotificationService;
     private final TransactionService transactionService;
 
+    @RetryableTopic(
+            attempts = "${alert.retry.attempts:4}",
+            backoff = @Backoff(
+                    delayExpression = "${alert.retry.initial-delay-millis:1000}",
+                    multiplierExpression = "${alert.retry.multiplier:2.0}",
+                    maxDelayExpression = "${alert.retry.max-delay-millis:30000}"),
+            topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+            dltTopicSuffix = "-dlt",
+            dltStrategy = DltStrategy.FAIL_ON_ERROR,
+            kafkaTemplate = "retryKafkaTemplate"
+    )
     @KafkaListener(
-            topics = "transaction_alert",
+            topics = TOPIC,
             groupId = "transaction-alert-group",
             properties = {
                     "auto.offset.reset=latest"
             }
     )
     public void consumeTransactionAlert(@Payload TransactionWithMT103Event transactionWithMT103Event) {
-        try {
-            log.info("======================= ALERT SERVICE RECEIVED TRANSACTION =============================");
-            log.info("ALERT SERVICE RECEIVED TRANSACTION ALERT {}", transactionWithMT103Event);
-            List<FraudAlert> fraudAlerts = fraudDetectionEngine.detectFraud(transactionWithMT103Event);
-            TransactionEntity savedTransaction = transactionService.saveTransaction(transactionWithMT103Event, fraudAlerts);
-            if (!fraudAlerts.isEmpty()) {
-                log.warn("Fraud detected for transaction: {} - Sending email notification",
-                        savedTransaction.getTransactionId());
-                fraudAlertNotificationService.sendFraudAlerts(fraudAlerts);
-            }
-            log.info("Transaction processing completed for: {}", savedTransaction.getTransactionId());
-        } catch (MessagingException | UnsupportedEncodingException e) {
-            log.error("Failed to send fraud alert email for transaction: {}",
-                    transactionWithMT103Event.getTransaction().getTransactionId(), e);
-        } catch (Exception e) {
-            log.error("Error processing transaction: {}",
-                    transactionWithMT103Event.getTransaction().getTransactionId(), e);
+        log.info("======================= ALERT SERVICE RECEIVED TRANSACTION =============================");
+        log.info("ALERT SERVICE RECEIVED TRANSACTION ALERT {}", transactionWithMT103Event);
+        List<FraudAlert> fraudAlerts = fraudDetectionEngine.detectFraud(transactionWithMT103Event);
+        TransactionEntity savedTransaction = transactionService.saveTransaction(transactionWithMT103Event, fraudAlerts);
+        if (!fraudAlerts.isEmpty()) {
+            log.warn("Fraud detected for transaction: {} - Queueing email notification",
+                    savedTransaction.getTransactionId());
+            fraudAlertNotificationService.enqueueFraudAlerts(fraudAlerts);
         }
+        log.info("Transaction processing completed for: {}", savedTransaction.getTransactionId());
+    }
+
+    /**
+     * Alerts that failed every attempt stay on the dead-letter topic until they are replayed.
+     */
+    @DltHandler
+    public void handleDeadLetter(ConsumerRecord<String, TransactionWithMT103Event> record) {
+        Header error = record.headers().lastHeader(KafkaHeaders.DLT_EXCEPTION_MESSAGE);
+        log.error("Transaction {} dead-lettered at {}-{}@{}: {}", record.key(), record.topic(), record.partition(),
+                record.offset(), error == null ? "unknown error" : new String(error.value(), StandardCharsets.UTF_8));
     }
-}
\ No newline at end of file
+}
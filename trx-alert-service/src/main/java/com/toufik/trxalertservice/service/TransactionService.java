@@ -2,9 +2,10 @@ package com.toufik.trxalertservice.service;
 
 import com.toufik.trxalertservice.entity.TransactionEntity;
 import com.toufik.trxalertservice.fraud.model.FraudAlert;
-import com.toufik.trxalertservice.model.Transaction;
-import com.toufik.trxalertservice.model.TransactionWithMT103Event;
 import com.toufik.trxalertservice.repository.AlertRepository;
+import com.toufik.trxalertservice.util.TransactionMapper;
+import com.toufik.trxcommon.model.Transaction;
+import com.toufik.trxcommon.model.TransactionWithMT103Event;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -23,23 +24,9 @@ public class TransactionService {
     public TransactionEntity saveTransaction(TransactionWithMT103Event event, List<FraudAlert> fraudAlerts) {
         Transaction transaction = event.getTransaction();
 
-        TransactionEntity entity = new TransactionEntity();
-        entity.setTransactionId(transaction.getTransactionId());
-        entity.setFromAccount(transaction.getFromAccount());
-        entity.setToAccount(transaction.getToAccount());
-        entity.setAmount(transaction.getAmount());
-        entity.setCurrency(transaction.getCurrency());
-        entity.setFromBankSwift(transaction.getFromBankSwift());
-        entity.setToBankSwift(transaction.getToBankSwift());
-        entity.setFromBankName(transaction.getFromBankName());
-        entity.setToBankName(transaction.getToBankName());
-        entity.setTimestamp(transaction.getTimestamp());
-        entity.setStatus(transaction.getStatus());
-        entity.setFromIBAN(transaction.getFromIBAN());
-        entity.setToIBAN(transaction.getToIBAN());
-        entity.setFromCountryCode(transaction.getFromCountryCode());
-        entity.setToCountryCode(transaction.getToCountryCode());
-        entity.setMt103Content(event.getMt103Content());
+        TransactionEntity entity = TransactionMapper.toEntity(transaction, event.getMt103Content());
+        // Keyed by transaction id, so a redelivered alert replaces its document instead of adding another
+        entity.setId(transaction.getTransactionId());
 
         entity.setFraudulent(!fraudAlerts.isEmpty());
         entity.setFraudReasons(fraudAlerts.stream()
@@ -0,0 +1,34 @@
+package com.toufik.trxalertservice.util;
+
+import com.toufik.trxalertservice.entity.TransactionEntity;
+import com.toufik.trxcommon.model.Transaction;
+
+/**
+ * Copies a consumed transaction and its MT103 content into a new entity; fraud fields are left for the caller.
+ */
+public final class TransactionMapper {
+
+    private TransactionMapper() {
+    }
+
+    public static TransactionEntity toEntity(Transaction transaction, String mt103Content) {
+        TransactionEntity entity = new TransactionEntity();
+        entity.setTransactionId(transaction.getTransactionId());
+        entity.setFromAccount(transaction.getFromAccount());
+        entity.setToAccount(transaction.getToAccount());
+        entity.setAmount(transaction.getAmount());
+        entity.setCurrency(transaction.getCurrency());
+        entity.setFromBankSwift(transaction.getFromBankSwift());
+        entity.setToBankSwift(transaction.getToBankSwift());
+        entity.setFromBankName(transaction.getFromBankName());
+        entity.setToBankName(transaction.getToBankName());
+        entity.setTimestamp(transaction.getTimestamp());
+        entity.setStatus(transaction.getStatus());
+        entity.setFromIBAN(transaction.getFromIBAN());
+        entity.setToIBAN(transaction.getToIBAN());
+        entity.setFromCountryCode(transaction.getFromCountryCode());
+        entity.setToCountryCode(transaction.getToCountryCode());
+        entity.setMt103Content(mt103Content);
+        return entity;
+    }
+}
@@ -0,0 +1,89 @@
+package com.toufik.trxalertservice.config;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PooledJavaMailSenderTest {
+
+    private GreenMail greenMail;
+    private PooledJavaMailSender mailSender;
+
+    @BeforeEach
+    void setUp() {
+        greenMail = new GreenMail(ServerSetupTest.SMTP.dynamicPort());
+        greenMail.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (mailSender != null) {
+            mailSender.destroy();
+        }
+        greenMail.stop();
+    }
+
+    @Test
+    void testSend_ReusesConnectionBetweenEmails() throws Exception {
+        mailSender = sender(60_000);
+
+        for (int i = 0; i < 3; i++) {
+            mailSender.send(message("Alert " + i));
+        }
+
+        assertTrue(greenMail.waitForIncomingEmail(5_000, 3));
+        assertEquals("Alert 2", greenMail.getReceivedMessages()[2].getSubject());
+        assertEquals(1, mailSender.getConnectCount());
+        assertEquals(2, mailSender.getReuseCount());
+    }
+
+    @Test
+    void testSend_ReconnectsOnceIdleConnectionTimedOut() throws Exception {
+        mailSender = sender(0);
+
+        mailSender.send(message("Alert 1"));
+        mailSender.send(message("Alert 2"));
+
+        assertTrue(greenMail.waitForIncomingEmail(5_000, 2));
+        assertEquals(2, mailSender.getConnectCount());
+        assertEquals(0, mailSender.getReuseCount());
+    }
+
+    @Test
+    void testSend_DoesNotReuseConnectionOfFailedEmail() throws Exception {
+        mailSender = sender(60_000);
+        MimeMessage withoutRecipients = mailSender.createMimeMessage();
+        withoutRecipients.setSubject("No recipients");
+        withoutRecipients.setText("Body");
+
+        assertThrows(MailSendException.class, () -> mailSender.send(withoutRecipients));
+        mailSender.send(message("Alert 1"));
+
+        assertTrue(greenMail.waitForIncomingEmail(5_000, 1));
+        assertEquals(2, mailSender.getConnectCount());
+    }
+
+    private PooledJavaMailSender sender(long idleTimeoutMillis) {
+        PooledJavaMailSender sender = new PooledJavaMailSender(2, idleTimeoutMillis);
+        sender.setHost("localhost");
+        sender.setPort(greenMail.getSmtp().getPort());
+        return sender;
+    }
+
+    private MimeMessage message(String subject) throws Exception {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, false, "UTF-8");
+        helper.setFrom("fraud-alert@test.com");
+        helper.setTo("recipient@test.com");
+        helper.setSubject(subject);
+        helper.setText("<html><body>" + subject + "</body></html>", true);
+        return message;
+    }
+}
@@ -0,0 +1,294 @@
+package com.toufik.trxalertservice.fraud;
+
+import com.toufik.trxalertservice.config.NotificationConfig;
+import com.toufik.trxalertservice.entity.FraudNotificationEntity;
+import com.toufik.trxalertservice.entity.FraudNotificationEntity.Status;
+import com.toufik.trxalertservice.fraud.model.FraudAlert;
+import com.toufik.trxalertservice.fraud.service.FraudAlertEmailService;
+import com.toufik.trxalertservice.repository.FraudNotificationRepository;
+import jakarta.mail.MessagingException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FraudAlertNotificationServiceTest {
+
+    @Mock
+    private FraudAlertEmailService emailService;
+
+    @Mock
+    private FraudNotificationRepository repository;
+
+    private NotificationConfig config;
+    private FraudAlertNotificationService notificationService;
+
+    @BeforeEach
+    void setUp() {
+        config = new NotificationConfig();
+        config.setWorkers(1);
+        config.setEnqueueTimeoutMillis(50);
+        config.setInitialBackoffMillis(1);
+        config.setMaxBackoffMillis(5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (notificationService != null) {
+            notificationService.shutdown();
+        }
+    }
+
+    @Test
+    void shouldStorePendingNotificationAndSendItFromWorker() throws Exception {
+        List<FraudAlert> alerts = alerts("TXN001", "HIGH");
+        start();
+
+        notificationService.enqueueFraudAlerts(alerts);
+
+        verify(emailService, timeout(5_000)).sendFraudAlertEmail(alerts);
+        verify(repository, timeout(5_000).atLeastOnce()).save(argThat(notification -> notification.getStatus() == Status.SENT
+                && notification.getAttempts() == 1 && "TXN001".equals(notification.getId())));
+        assertEquals(1, notificationService.getStats().getEnqueuedCount());
+        awaitSent(1);
+        assertEquals(0, notificationService.getStats().getInFlight());
+    }
+
+    @Test
+    void shouldSendMostSevereNotificationsFirst() throws Exception {
+        CountDownLatch blocking = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<FraudAlert> first = alerts("TXN000", "LOW");
+        List<FraudAlert> low = alerts("TXN001", "LOW");
+        List<FraudAlert> medium = alerts("TXN002", "MEDIUM");
+        List<FraudAlert> high = List.of(alert("TXN003", "LOW"), alert("TXN003", "HIGH"));
+        doAnswer(invocation -> {
+            if (invocation.getArgument(0) == first) {
+                blocking.countDown();
+                assertTrue(release.await(5, TimeUnit.SECONDS));
+            }
+            return null;
+        }).when(emailService).sendFraudAlertEmail(any());
+        start();
+
+        notificationService.enqueueFraudAlerts(first);
+        assertTrue(blocking.await(5, TimeUnit.SECONDS));
+        notificationService.enqueueFraudAlerts(low);
+        notificationService.enqueueFraudAlerts(medium);
+        notificationService.enqueueFraudAlerts(high);
+        release.countDown();
+
+        awaitSent(4);
+        InOrder inOrder = inOrder(emailService);
+        inOrder.verify(emailService).sendFraudAlertEmail(first);
+        inOrder.verify(emailService).sendFraudAlertEmail(high);
+        inOrder.verify(emailService).sendFraudAlertEmail(medium);
+        inOrder.verify(emailService).sendFraudAlertEmail(low);
+    }
+
+    @Test
+    void shouldRetryFailedSendAndMarkItFailedAfterLastAttempt() throws Exception {
+        config.setMaxAttempts(3);
+        List<FraudAlert> alerts = alerts("TXN001", "HIGH");
+        doThrow(new MessagingException("SMTP unavailable")).when(emailService).sendFraudAlertEmail(alerts);
+        start();
+
+        notificationService.enqueueFraudAlerts(alerts);
+
+        verify(repository, timeout(5_000).atLeastOnce()).save(argThat(notification -> notification.getStatus() == Status.FAILED
+                && notification.getAttempts() == 3
+                && notification.getLastError().endsWith("SMTP unavailable")));
+        verify(emailService, times(3)).sendFraudAlertEmail(alerts);
+        assertEquals(2, notificationService.getStats().getRetryCount());
+        assertEquals(1, notificationService.getStats().getFailedCount());
+    }
+
+    @Test
+    void shouldRejectNotificationWhenQueueStaysFull() throws Exception {
+        config.setQueueCapacity(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> release.await(5, TimeUnit.SECONDS)).when(emailService).sendFraudAlertEmail(any());
+        start();
+
+        notificationService.enqueueFraudAlerts(alerts("TXN001", "LOW"));
+        assertThrows(IllegalStateException.class,
+                () -> notificationService.enqueueFraudAlerts(alerts("TXN002", "HIGH")));
+        release.countDown();
+
+        assertEquals(1, notificationService.getStats().getRejectedCount());
+        verify(repository, never()).save(argThat(notification -> "TXN002".equals(notification.getId())));
+    }
+
+    @Test
+    void shouldIgnoreAlertsOfTransactionAlreadyPendingOrSent() {
+        FraudNotificationEntity sent = new FraudNotificationEntity();
+        sent.setStatus(Status.SENT);
+        when(repository.findById("TXN001")).thenReturn(Optional.of(sent));
+        start();
+
+        notificationService.enqueueFraudAlerts(alerts("TXN001", "HIGH"));
+
+        verify(repository, never()).save(any());
+        verifyNoInteractions(emailService);
+        assertEquals(1, notificationService.getStats().getDuplicateCount());
+    }
+
+    @Test
+    void shouldSendNotificationsLeftPendingByPreviousRun() throws Exception {
+        List<FraudAlert> alerts = alerts("TXN001", "MEDIUM");
+        FraudNotificationEntity pending = new FraudNotificationEntity();
+        pending.setId("TXN001");
+        pending.setTransactionId("TXN001");
+        pending.setAlerts(alerts);
+        pending.setSeverity("MEDIUM");
+        pending.setStatus(Status.PENDING);
+        pending.setAttempts(1);
+        pending.setCreatedAt(LocalDateTime.now().minusMinutes(5));
+        leftByPreviousRun(pending);
+        start();
+
+        verify(emailService, timeout(5_000)).sendFraudAlertEmail(alerts);
+        awaitSent(1);
+        assertEquals(1, notificationService.getStats().getRecoveredCount());
+        assertEquals(2, pending.getAttempts());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldCollectAlertsBelowHighIntoDigestOnceMaxAlertsReached() throws Exception {
+        enableDigest(60_000, 3);
+        List<FraudAlert> high = alerts("TXN000", "HIGH");
+        start();
+
+        notificationService.enqueueFraudAlerts(alerts("TXN001", "LOW"));
+        notificationService.enqueueFraudAlerts(high);
+        notificationService.enqueueFraudAlerts(alerts("TXN002", "MEDIUM"));
+        notificationService.enqueueFraudAlerts(alerts("TXN003", "LOW"));
+
+        awaitSent(2);
+        ArgumentCaptor<List<FraudAlert>> sent = ArgumentCaptor.forClass(List.class);
+        verify(emailService, times(2)).sendFraudAlertEmail(sent.capture());
+        assertEquals(high, sent.getAllValues().get(0));
+        assertEquals(List.of("TXN001", "TXN002", "TXN003"),
+                sent.getAllValues().get(1).stream().map(FraudAlert::getTransactionId).toList());
+        verify(repository).saveAll(argThat(members -> {
+            int count = 0;
+            for (FraudNotificationEntity member : members) {
+                if (member.getStatus() != Status.DIGESTED || !member.getDigestId().startsWith("digest-")) {
+                    return false;
+                }
+                count++;
+            }
+            return count == 3;
+        }));
+        assertEquals(3, notificationService.getStats().getBufferedCount());
+        assertEquals(1, notificationService.getStats().getDigestCount());
+    }
+
+    @Test
+    void shouldSendDigestWhenWindowCloses() throws Exception {
+        enableDigest(50, 100);
+        start();
+
+        notificationService.enqueueFraudAlerts(alerts("TXN001", "LOW"));
+        notificationService.enqueueFraudAlerts(alerts("TXN002", "MEDIUM"));
+        assertEquals(2, notificationService.getStats().getBufferedAlerts());
+
+        awaitSent(1);
+        verify(emailService).sendFraudAlertEmail(argThat(alerts -> alerts.size() == 2));
+        assertEquals(0, notificationService.getStats().getBufferedAlerts());
+    }
+
+    @Test
+    void shouldGroupRepeatedHighAlertsOfSameAccountOrRuleIntoDigest() throws Exception {
+        enableDigest(50, 100);
+        start();
+
+        notificationService.enqueueFraudAlerts(List.of(alert("TXN001", "HIGH", "ACC1", "HIGH_AMOUNT")));
+        notificationService.enqueueFraudAlerts(List.of(alert("TXN002", "HIGH", "ACC1", "HIGH_RISK_COUNTRY")));
+        notificationService.enqueueFraudAlerts(List.of(alert("TXN003", "HIGH", "ACC2", "HIGH_AMOUNT")));
+        notificationService.enqueueFraudAlerts(List.of(alert("TXN004", "HIGH", "ACC3", "HIGH_RISK_COUNTRY")));
+
+        awaitSent(3);
+        verify(emailService).sendFraudAlertEmail(argThat(alerts -> alerts.size() == 1
+                && "TXN001".equals(alerts.get(0).getTransactionId())));
+        verify(emailService).sendFraudAlertEmail(argThat(alerts -> alerts.size() == 1
+                && "TXN004".equals(alerts.get(0).getTransactionId())));
+        verify(emailService).sendFraudAlertEmail(argThat(alerts -> alerts.size() == 2
+                && List.of("TXN002", "TXN003")
+                        .equals(alerts.stream().map(FraudAlert::getTransactionId).toList())));
+        assertEquals(2, notificationService.getStats().getSuppressedCount());
+    }
+
+    @Test
+    void shouldCollectAlertsLeftBufferedByPreviousRunIntoDigest() throws Exception {
+        enableDigest(50, 100);
+        FraudNotificationEntity buffered = new FraudNotificationEntity();
+        buffered.setId("TXN001");
+        buffered.setTransactionId("TXN001");
+        buffered.setAlerts(alerts("TXN001", "LOW"));
+        buffered.setSeverity("LOW");
+        buffered.setStatus(Status.BUFFERED);
+        leftByPreviousRun(buffered);
+        start();
+
+        awaitSent(1);
+        verify(emailService).sendFraudAlertEmail(buffered.getAlerts());
+        assertEquals(Status.DIGESTED, buffered.getStatus());
+    }
+
+    private void leftByPreviousRun(FraudNotificationEntity notification) {
+        when(repository.findByStatusAndCreatedAtBefore(any(), any())).thenAnswer(invocation ->
+                invocation.getArgument(0) == notification.getStatus()
+                        ? new ArrayList<>(List.of(notification))
+                        : new ArrayList<>());
+    }
+
+    private void enableDigest(long windowMillis, int maxAlerts) {
+        config.getDigest().setEnabled(true);
+        config.getDigest().setWindowMillis(windowMillis);
+        config.getDigest().setMaxAlerts(maxAlerts);
+    }
+
+    private void start() {
+        notificationService = new FraudAlertNotificationService(emailService, repository, config);
+        notificationService.start();
+    }
+
+    private void awaitSent(long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (notificationService.getStats().getSentCount() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, notificationService.getStats().getSentCount());
+    }
+
+    private static List<FraudAlert> alerts(String transactionId, String severity) {
+        return List.of(alert(transactionId, severity));
+    }
+
+    private static FraudAlert alert(String transactionId, String severity) {
+        return new FraudAlert(transactionId, "RULE_" + severity, "Detected", severity, LocalDateTime.now(), "Details");
+    }
+
+    private static FraudAlert alert(String transactionId, String severity, String account, String rule) {
+        return new FraudAlert(transactionId, rule, "Detected", severity, LocalDateTime.now(), "Details", account);
+    }
+}
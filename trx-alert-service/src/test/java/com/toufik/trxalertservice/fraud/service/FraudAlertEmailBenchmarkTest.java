@@ -0,0 +1,136 @@
+package com.toufik.trxalertservice.fraud.service;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.toufik.trxalertservice.config.EmailConfig;
+import com.toufik.trxalertservice.config.PooledJavaMailSender;
+import com.toufik.trxalertservice.fraud.model.FraudAlert;
+import com.toufik.trxalertservice.fraud.model.FraudAlertGroup;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Time per fraud alert email against a local GreenMail SMTP server, for the former setup (template re-parsed for
+ * every email, one SMTP connection per email) and with a cached template and pooled connections, plus the time to
+ * render the template alone. GreenMail runs on loopback without TLS or authentication, so the connection cost
+ * measured here is a lower bound of a real server's.
+ * Run with {@code mvn test -pl trx-alert-service -Dtest=FraudAlertEmailBenchmarkTest -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class FraudAlertEmailBenchmarkTest {
+
+    private static final int EMAILS = 500;
+    private static final int WARMUP_EMAILS = 100;
+    private static final int RENDERS = 5_000;
+
+    @Test
+    void compareRenderingAndTransportModes() throws Exception {
+        List<FraudAlert> alerts = List.of(
+                new FraudAlert("TXN001", "HIGH_AMOUNT_DETECTION", "High amount detected", "HIGH",
+                        LocalDateTime.now(), "Transaction TXN001 triggered fraud rule: HIGH_AMOUNT_DETECTION", "ACC1"),
+                new FraudAlert("TXN001", "OFF_HOURS_DETECTION", "Off hours detected", "LOW",
+                        LocalDateTime.now(), "Transaction TXN001 triggered fraud rule: OFF_HOURS_DETECTION", "ACC1"));
+
+        double uncachedRender = measureRendering("render, uncached template", templateEngine(false), alerts);
+        double cachedRender = measureRendering("render, cached template", templateEngine(true), alerts);
+        assertTrue(cachedRender < uncachedRender);
+
+        GreenMail greenMail = new GreenMail(ServerSetupTest.SMTP.dynamicPort());
+        greenMail.start();
+        try {
+            int port = greenMail.getSmtp().getPort();
+            JavaMailSenderImpl perEmail = configure(new JavaMailSenderImpl(), port);
+            PooledJavaMailSender pooled = configure(new PooledJavaMailSender(4, 60_000), port);
+
+            double baseline = measure("uncached template, connection per email",
+                    service(perEmail, false), alerts, greenMail);
+            double cachedOnly = measure("cached template, connection per email",
+                    service(perEmail, true), alerts, greenMail);
+            double cachedPooled = measure("cached template, pooled connection",
+                    service(pooled, true), alerts, greenMail);
+            pooled.destroy();
+
+            assertEquals(1, pooled.getConnectCount());
+            assertTrue(cachedOnly < baseline);
+            assertTrue(cachedPooled < cachedOnly);
+        } finally {
+            greenMail.stop();
+        }
+    }
+
+    private double measure(String name, FraudAlertEmailService service, List<FraudAlert> alerts,
+                           GreenMail greenMail) throws Exception {
+        for (int i = 0; i < WARMUP_EMAILS; i++) {
+            service.sendFraudAlertEmail(alerts);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < EMAILS; i++) {
+            service.sendFraudAlertEmail(alerts);
+        }
+        double micros = (System.nanoTime() - start) / 1e3 / EMAILS;
+        assertTrue(greenMail.waitForIncomingEmail(10_000, WARMUP_EMAILS + EMAILS));
+        greenMail.purgeEmailFromAllMailboxes();
+        System.out.printf("%-40s %8.1f µs/email  %7.0f emails/s%n", name, micros, 1e6 / micros);
+        return micros;
+    }
+
+    private double measureRendering(String name, SpringTemplateEngine templateEngine, List<FraudAlert> alerts) {
+        Context context = new Context();
+        context.setVariable("alerts", alerts);
+        context.setVariable("alertCount", alerts.size());
+        context.setVariable("groups", FraudAlertGroup.groupByAccountAndRule(alerts));
+        context.setVariable("timestamp", "2024-01-01 12:00:00");
+        StringWriter buffer = new StringWriter();
+        for (int i = 0; i < RENDERS / 5; i++) {
+            buffer.getBuffer().setLength(0);
+            templateEngine.process(FraudAlertEmailService.TEMPLATE, context, buffer);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < RENDERS; i++) {
+            buffer.getBuffer().setLength(0);
+            templateEngine.process(FraudAlertEmailService.TEMPLATE, context, buffer);
+        }
+        double micros = (System.nanoTime() - start) / 1e3 / RENDERS;
+        System.out.printf("%-40s %8.1f µs/email%n", name, micros);
+        return micros;
+    }
+
+    private static FraudAlertEmailService service(JavaMailSenderImpl mailSender, boolean cacheTemplate) {
+        EmailConfig emailConfig = new EmailConfig();
+        emailConfig.setRecipientEmail("recipient@test.com");
+        emailConfig.setSenderEmail("fraud-alert@test.com");
+        return new FraudAlertEmailService(mailSender, emailConfig, templateEngine(cacheTemplate));
+    }
+
+    private static SpringTemplateEngine templateEngine(boolean cacheTemplate) {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(cacheTemplate);
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+        return templateEngine;
+    }
+
+    private static <T extends JavaMailSenderImpl> T configure(T mailSender, int port) {
+        mailSender.setHost("localhost");
+        mailSender.setPort(port);
+        // Skip the local host name lookup for EHLO, which can take longer than the SMTP exchange itself
+        mailSender.getJavaMailProperties().setProperty("mail.smtp.localhost", "localhost");
+        return mailSender;
+    }
+}
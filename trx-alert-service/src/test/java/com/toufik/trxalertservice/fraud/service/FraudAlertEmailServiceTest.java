@@ -2,21 +2,28 @@ package com.toufik.trxalertservice.fraud.service;
 
 import com.toufik.trxalertservice.config.EmailConfig;
 import com.toufik.trxalertservice.fraud.model.FraudAlert;
+import com.toufik.trxalertservice.fraud.model.FraudAlertGroup;
 import jakarta.mail.internet.MimeMessage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
 
+import java.io.Writer;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -57,15 +64,15 @@ class FraudAlertEmailServiceTest {
     void shouldSendHtmlEmailSuccessfully() throws Exception {
         // Given
         when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-        when(templateEngine.process(eq("fraud-alert-email"), any(Context.class)))
-                .thenReturn("<html><body>Fraud Alert</body></html>");
+        doAnswer(renders("<html><body>Fraud Alert</body></html>"))
+                .when(templateEngine).process(eq("fraud-alert-email"), any(Context.class), any(Writer.class));
 
         // When
         fraudAlertEmailService.sendFraudAlertEmail(testAlerts);
 
         // Then
         verify(mailSender).createMimeMessage();
-        verify(templateEngine).process(eq("fraud-alert-email"), any(Context.class));
+        verify(templateEngine).process(eq("fraud-alert-email"), any(Context.class), any(Writer.class));
         verify(mailSender).send(mimeMessage);
     }
 
@@ -73,8 +80,8 @@ class FraudAlertEmailServiceTest {
     void shouldSetCorrectEmailProperties() throws Exception {
         // Given
         when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-        when(templateEngine.process(anyString(), any(Context.class)))
-                .thenReturn("<html><body>Test</body></html>");
+        doAnswer(renders("<html><body>Test</body></html>"))
+                .when(templateEngine).process(anyString(), any(Context.class), any(Writer.class));
 
         // When
         fraudAlertEmailService.sendFraudAlertEmail(testAlerts);
@@ -90,8 +97,8 @@ class FraudAlertEmailServiceTest {
     void shouldProcessTemplateWithCorrectContext() throws Exception {
         // Given
         when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-        when(templateEngine.process(anyString(), any(Context.class)))
-                .thenReturn("<html><body>Test</body></html>");
+        doAnswer(renders("<html><body>Test</body></html>"))
+                .when(templateEngine).process(anyString(), any(Context.class), any(Writer.class));
 
         // When
         fraudAlertEmailService.sendFraudAlertEmail(testAlerts);
@@ -101,7 +108,56 @@ class FraudAlertEmailServiceTest {
             Context ctx = (Context) context;
             return ctx.getVariable("alerts").equals(testAlerts) &&
                     ctx.getVariable("alertCount").equals(2);
-        }));
+        }), any(Writer.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldGroupAlertsByAccountAndRule_MostSevereFirst() throws Exception {
+        // Given
+        List<FraudAlert> alerts = Arrays.asList(
+                new FraudAlert("TXN001", "OFF_HOURS_DETECTION", "Off hours", "LOW", LocalDateTime.now(), "D1", "ACC1"),
+                new FraudAlert("TXN002", "HIGH_AMOUNT_DETECTION", "High amount", "HIGH", LocalDateTime.now(), "D2", "ACC1"),
+                new FraudAlert("TXN003", "OFF_HOURS_DETECTION", "Off hours", "LOW", LocalDateTime.now(), "D3", "ACC1"),
+                new FraudAlert("TXN004", "OFF_HOURS_DETECTION", "Off hours", "LOW", LocalDateTime.now(), "D4", "ACC2")
+        );
+        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
+        ArgumentCaptor<Context> context = ArgumentCaptor.forClass(Context.class);
+        doAnswer(renders("<html><body>Digest</body></html>"))
+                .when(templateEngine).process(eq("fraud-alert-email"), context.capture(), any(Writer.class));
+
+        // When
+        fraudAlertEmailService.sendFraudAlertEmail(alerts);
+
+        // Then
+        List<FraudAlertGroup> groups = (List<FraudAlertGroup>) context.getValue().getVariable("groups");
+        assertEquals(3, groups.size());
+        assertEquals("HIGH_AMOUNT_DETECTION", groups.get(0).getRuleName());
+        assertEquals(List.of("TXN001", "TXN003"), groups.get(1).getTransactionIds());
+        assertEquals(2, groups.get(1).getCount());
+        assertEquals("ACC2", groups.get(2).getAccount());
+        assertEquals(4, context.getValue().getVariable("alertCount"));
+    }
+
+    @Test
+    void shouldRenderIntoReusedBufferWithoutLeftovers() throws Exception {
+        // Given
+        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
+        List<Writer> writers = new ArrayList<>();
+        doAnswer(invocation -> {
+            Writer writer = invocation.getArgument(2);
+            writers.add(writer);
+            writer.write(writers.size() == 1 ? "<html>first, longer</html>" : "<html>2</html>");
+            return null;
+        }).when(templateEngine).process(eq("fraud-alert-email"), any(Context.class), any(Writer.class));
+
+        // When
+        fraudAlertEmailService.sendFraudAlertEmail(testAlerts);
+        fraudAlertEmailService.sendFraudAlertEmail(testAlerts);
+
+        // Then
+        assertSame(writers.get(0), writers.get(1));
+        verify(mimeMessage).setContent("<html>2</html>", "text/html;charset=UTF-8");
     }
 
     @Test
@@ -109,8 +165,8 @@ class FraudAlertEmailServiceTest {
         // Given
         List<FraudAlert> emptyAlerts = Arrays.asList();
         when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-        when(templateEngine.process(anyString(), any(Context.class)))
-                .thenReturn("<html><body>No alerts</body></html>");
+        doAnswer(renders("<html><body>No alerts</body></html>"))
+                .when(templateEngine).process(anyString(), any(Context.class), any(Writer.class));
 
         // When
         fraudAlertEmailService.sendFraudAlertEmail(emptyAlerts);
@@ -118,4 +174,12 @@ class FraudAlertEmailServiceTest {
         // Then
         verify(mailSender).send(mimeMessage);
     }
-}
\ No newline at end of file
+
+    private static Answer<Void> renders(String html) {
+        return invocation -> {
+            Writer writer = invocation.getArgument(2);
+            writer.write(html);
+            return null;
+        };
+    }
+}
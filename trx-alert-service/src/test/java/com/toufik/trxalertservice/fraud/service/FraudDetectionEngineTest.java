@@ -1,8 +1,8 @@
 package com.toufik.trxalertservice.fraud.service;
 
 import com.toufik.trxalertservice.fraud.model.FraudAlert;
-import com.toufik.trxalertservice.model.Transaction;
-import com.toufik.trxalertservice.model.TransactionWithMT103Event;
+import com.toufik.trxcommon.model.Transaction;
+import com.toufik.trxcommon.model.TransactionWithMT103Event;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -0,0 +1,92 @@
+package com.toufik.trxalertservice.service;
+
+import com.toufik.trxalertservice.entity.TransactionEntity;
+import com.toufik.trxalertservice.fraud.FraudAlertNotificationService;
+import com.toufik.trxalertservice.fraud.model.FraudAlert;
+import com.toufik.trxalertservice.fraud.service.FraudDetectionEngine;
+import com.toufik.trxcommon.model.Transaction;
+import com.toufik.trxcommon.model.TransactionWithMT103Event;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.support.KafkaHeaders;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionAlertConsumerServiceTest {
+
+    @Mock
+    private FraudDetectionEngine fraudDetectionEngine;
+
+    @Mock
+    private FraudAlertNotificationService fraudAlertNotificationService;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @InjectMocks
+    private TransactionAlertConsumerService consumerService;
+
+    private TransactionWithMT103Event event;
+    private TransactionEntity savedEntity;
+
+    @BeforeEach
+    void setUp() {
+        event = TransactionWithMT103Event.of(Transaction.builder().transactionId("TXN001").build(), "MT103 content");
+        savedEntity = new TransactionEntity();
+        savedEntity.setTransactionId("TXN001");
+    }
+
+    @Test
+    void shouldRethrowStoreFailure_SoAlertIsRetried() {
+        when(fraudDetectionEngine.detectFraud(event)).thenReturn(List.of());
+        when(transactionService.saveTransaction(any(), any())).thenThrow(new IllegalStateException("Mongo down"));
+
+        assertThrows(IllegalStateException.class, () -> consumerService.consumeTransactionAlert(event));
+    }
+
+    @Test
+    void shouldOnlyQueueEmailNotification() {
+        List<FraudAlert> alerts = List.of(new FraudAlert("TXN001", "HIGH_AMOUNT", "High amount detected", "HIGH",
+                LocalDateTime.now(), "Details"));
+        when(fraudDetectionEngine.detectFraud(event)).thenReturn(alerts);
+        when(transactionService.saveTransaction(event, alerts)).thenReturn(savedEntity);
+
+        consumerService.consumeTransactionAlert(event);
+
+        verify(fraudAlertNotificationService).enqueueFraudAlerts(alerts);
+    }
+
+    @Test
+    void shouldRethrowRejectedNotification_SoAlertIsRetried() {
+        List<FraudAlert> alerts = List.of(new FraudAlert("TXN001", "HIGH_AMOUNT", "High amount detected", "HIGH",
+                LocalDateTime.now(), "Details"));
+        when(fraudDetectionEngine.detectFraud(event)).thenReturn(alerts);
+        when(transactionService.saveTransaction(event, alerts)).thenReturn(savedEntity);
+        doThrow(new IllegalStateException("Fraud notification queue full"))
+                .when(fraudAlertNotificationService).enqueueFraudAlerts(alerts);
+
+        assertThrows(IllegalStateException.class, () -> consumerService.consumeTransactionAlert(event));
+    }
+
+    @Test
+    void shouldOnlyLogDeadLetteredAlert() {
+        ConsumerRecord<String, TransactionWithMT103Event> record =
+                new ConsumerRecord<>("transaction_alert-dlt", 0, 3L, "TXN001", event);
+        record.headers().add(KafkaHeaders.DLT_EXCEPTION_MESSAGE, "Mongo down".getBytes(StandardCharsets.UTF_8));
+
+        assertDoesNotThrow(() -> consumerService.handleDeadLetter(record));
+        verifyNoInteractions(transactionService, fraudAlertNotificationService);
+    }
+}
@@ -2,9 +2,9 @@ package com.toufik.trxalertservice.service;
 
 import com.toufik.trxalertservice.entity.TransactionEntity;
 import com.toufik.trxalertservice.fraud.model.FraudAlert;
-import com.toufik.trxalertservice.model.Transaction;
-import com.toufik.trxalertservice.model.TransactionWithMT103Event;
 import com.toufik.trxalertservice.repository.AlertRepository;
+import com.toufik.trxcommon.model.Transaction;
+import com.toufik.trxcommon.model.TransactionWithMT103Event;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -53,7 +53,7 @@ class TransactionServiceTest {
                 .toCountryCode("GB")
                 .build();
 
-        testEvent = new TransactionWithMT103Event(transaction, "MT103 content");
+        testEvent = TransactionWithMT103Event.of(transaction, "MT103 content");
 
         savedEntity = new TransactionEntity();
         savedEntity.setTransactionId("TXN001");
@@ -68,6 +68,7 @@ class TransactionServiceTest {
         TransactionEntity result = transactionService.saveTransaction(testEvent, emptyFraudAlerts);
         verify(transactionRepository).save(argThat(entity -> {
             return entity.getTransactionId().equals("TXN001") &&
+                    "TXN001".equals(entity.getId()) &&
                     entity.getAmount().equals(new BigDecimal("50000")) &&
                     entity.getCurrency().equals("USD") &&
                     !entity.isFraudulent() &&
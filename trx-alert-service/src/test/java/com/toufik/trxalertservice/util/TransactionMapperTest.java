@@ -0,0 +1,70 @@
+package com.toufik.trxalertservice.util;
+
+import com.toufik.trxalertservice.entity.TransactionEntity;
+import com.toufik.trxcommon.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionMapperTest {
+
+    @Test
+    void testToEntity_CopiesEveryTransactionField() throws Exception {
+        Transaction transaction = populated();
+
+        TransactionEntity entity = TransactionMapper.toEntity(transaction, "{1:F01BANKDEFFXXX0000000000}");
+
+        for (Field field : Transaction.class.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            Field target = TransactionEntity.class.getDeclaredField(field.getName());
+            field.setAccessible(true);
+            target.setAccessible(true);
+            assertNotNull(field.get(transaction), field.getName());
+            assertEquals(field.get(transaction), target.get(entity), field.getName());
+        }
+        assertEquals("{1:F01BANKDEFFXXX0000000000}", entity.getMt103Content());
+    }
+
+    @Test
+    void testToEntity_LeavesFraudFieldsToCaller() throws Exception {
+        TransactionEntity entity = TransactionMapper.toEntity(populated(), null);
+
+        assertNull(entity.getId());
+        assertNull(entity.getMt103Content());
+        assertFalse(entity.isFraudulent());
+        assertNull(entity.getFraudReasons());
+        assertNull(entity.getProcessedAt());
+    }
+
+    /**
+     * Every field set to a distinct value, so a missed or swapped field fails the comparison.
+     */
+    private static Transaction populated() throws IllegalAccessException {
+        Transaction transaction = Transaction.builder().build();
+        int counter = 0;
+        for (Field field : Transaction.class.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            field.setAccessible(true);
+            counter++;
+            if (field.getType() == String.class) {
+                field.set(transaction, field.getName() + "-" + counter);
+            } else if (field.getType() == BigDecimal.class) {
+                field.set(transaction, new BigDecimal("1234.5" + counter));
+            } else if (field.getType() == LocalDateTime.class) {
+                field.set(transaction, LocalDateTime.of(2024, 1, 15, 10, counter));
+            } else {
+                fail("Unhandled field type " + field.getType() + " for " + field.getName());
+            }
+        }
+        return transaction;
+    }
+}
@@ -0,0 +1,44 @@
+package com.toufik.trxcommon.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Read-only {@link CharSequence} view of ISO-8859-1 bytes, so SWIFT text can be inspected where it lies in a
+ * record buffer. The bytes are not copied; the view must not outlive changes to them.
+ */
+public final class Latin1Chars implements CharSequence {
+
+    private final byte[] data;
+    private final int offset;
+    private final int length;
+
+    public Latin1Chars(byte[] data, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, data.length);
+        this.data = data;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        Objects.checkIndex(index, length);
+        return (char) (data[offset + index] & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        Objects.checkFromToIndex(start, end, length);
+        return new Latin1Chars(data, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return new String(data, offset, length, StandardCharsets.ISO_8859_1);
+    }
+}
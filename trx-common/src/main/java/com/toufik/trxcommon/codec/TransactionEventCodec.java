@@ -0,0 +1,373 @@
+package com.toufik.trxcommon.codec;
+
+import com.toufik.trxcommon.model.Transaction;
+import com.toufik.trxcommon.model.TransactionWithMT103Event;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Compact binary encoding of {@link TransactionWithMT103Event}, the alternative to JSON on the Kafka topics.
+ *
+ * <pre>
+ * header   magic:byte version:byte flags:byte presence:short    presence bit i set = field i is non-null
+ * fields   in field order, present ones only:
+ *          strings    varint length + UTF-8
+ *          amount     zigzag varint scale + zigzag varlong unscaled value
+ *                     (FLAG_BIG_AMOUNT: varint length + two's-complement bytes instead)
+ *          timestamp  zigzag varlong epoch second (UTC) + varint nano
+ *          mt103      varint length + ISO-8859-1 bytes, i.e. the raw ASCII of SWIFT text
+ *                     (FLAG_UTF8_MT103: UTF-8 for content outside Latin-1)
+ * </pre>
+ * Encodes every field of {@link Transaction}.
+ */
+public final class TransactionEventCodec {
+
+    public static final String CONTENT_TYPE_HEADER = "content-type";
+    public static final String JSON_CONTENT_TYPE = "application/json";
+    public static final String BINARY_CONTENT_TYPE = "application/vnd.trx.transaction-event.v1";
+
+    static final byte MAGIC = (byte) 0xB7;
+    static final byte VERSION = 1;
+
+    private static final int HEADER_SIZE = 5;
+
+    private static final int FLAG_TRANSACTION = 1;
+    private static final int FLAG_BIG_AMOUNT = 1 << 1;
+    private static final int FLAG_UTF8_MT103 = 1 << 2;
+
+    private static final int TRANSACTION_ID = 0;
+    private static final int FROM_ACCOUNT = 1;
+    private static final int TO_ACCOUNT = 2;
+    private static final int AMOUNT = 3;
+    private static final int CURRENCY = 4;
+    private static final int FROM_BANK_SWIFT = 5;
+    private static final int TO_BANK_SWIFT = 6;
+    private static final int FROM_BANK_NAME = 7;
+    private static final int TO_BANK_NAME = 8;
+    private static final int TIMESTAMP = 9;
+    private static final int STATUS = 10;
+    private static final int FROM_IBAN = 11;
+    private static final int TO_IBAN = 12;
+    private static final int FROM_COUNTRY_CODE = 13;
+    private static final int TO_COUNTRY_CODE = 14;
+    private static final int MT103_CONTENT = 15;
+
+    private TransactionEventCodec() {
+    }
+
+    public static byte[] encode(TransactionWithMT103Event event) {
+        Transaction transaction = event.getTransaction();
+        String mt103 = event.getMt103Content();
+        Writer out = new Writer(256 + (mt103 == null ? 0 : mt103.length()));
+        out.position = HEADER_SIZE;
+        int flags = 0;
+        int presence = 0;
+
+        if (transaction != null) {
+            flags |= FLAG_TRANSACTION;
+            presence |= out.writeString(TRANSACTION_ID, transaction.getTransactionId());
+            presence |= out.writeString(FROM_ACCOUNT, transaction.getFromAccount());
+            presence |= out.writeString(TO_ACCOUNT, transaction.getToAccount());
+            BigDecimal amount = transaction.getAmount();
+            if (amount != null) {
+                presence |= 1 << AMOUNT;
+                BigInteger unscaled = amount.unscaledValue();
+                out.writeVarLong(zigzag(amount.scale()));
+                if (unscaled.bitLength() < Long.SIZE) {
+                    out.writeVarLong(zigzag(unscaled.longValue()));
+                } else {
+                    flags |= FLAG_BIG_AMOUNT;
+                    out.writeBytes(unscaled.toByteArray());
+                }
+            }
+            presence |= out.writeString(CURRENCY, transaction.getCurrency());
+            presence |= out.writeString(FROM_BANK_SWIFT, transaction.getFromBankSwift());
+            presence |= out.writeString(TO_BANK_SWIFT, transaction.getToBankSwift());
+            presence |= out.writeString(FROM_BANK_NAME, transaction.getFromBankName());
+            presence |= out.writeString(TO_BANK_NAME, transaction.getToBankName());
+            LocalDateTime timestamp = transaction.getTimestamp();
+            if (timestamp != null) {
+                presence |= 1 << TIMESTAMP;
+                out.writeVarLong(zigzag(timestamp.toEpochSecond(ZoneOffset.UTC)));
+                out.writeVarLong(timestamp.getNano());
+            }
+            presence |= out.writeString(STATUS, transaction.getStatus());
+            presence |= out.writeString(FROM_IBAN, transaction.getFromIBAN());
+            presence |= out.writeString(TO_IBAN, transaction.getToIBAN());
+            presence |= out.writeString(FROM_COUNTRY_CODE, transaction.getFromCountryCode());
+            presence |= out.writeString(TO_COUNTRY_CODE, transaction.getToCountryCode());
+        }
+        if (mt103 != null) {
+            presence |= 1 << MT103_CONTENT;
+            if (isLatin1(mt103)) {
+                out.writeBytes(mt103.getBytes(StandardCharsets.ISO_8859_1));
+            } else {
+                flags |= FLAG_UTF8_MT103;
+                out.writeBytes(mt103.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        byte[] buffer = out.buffer;
+        buffer[0] = MAGIC;
+        buffer[1] = VERSION;
+        buffer[2] = (byte) flags;
+        buffer[3] = (byte) (presence >>> 8);
+        buffer[4] = (byte) presence;
+        return Arrays.copyOf(buffer, out.position);
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code data} is not a binary transaction event of a known version
+     */
+    public static TransactionWithMT103Event decode(byte[] data) {
+        if (!isBinary(data)) {
+            throw new IllegalArgumentException("Not a binary transaction event");
+        }
+        if (data[1] != VERSION) {
+            throw new IllegalArgumentException("Unsupported transaction event version: " + data[1]);
+        }
+        if (data.length < HEADER_SIZE) {
+            throw new IllegalArgumentException("Truncated transaction event");
+        }
+        int flags = data[2] & 0xFF;
+        int presence = (data[3] & 0xFF) << 8 | data[4] & 0xFF;
+        Reader in = new Reader(data, HEADER_SIZE);
+
+        Transaction transaction = null;
+        if ((flags & FLAG_TRANSACTION) != 0) {
+            Transaction.TransactionBuilder builder = Transaction.builder()
+                    .transactionId(in.readString(presence, TRANSACTION_ID))
+                    .fromAccount(in.readString(presence, FROM_ACCOUNT))
+                    .toAccount(in.readString(presence, TO_ACCOUNT));
+            if (isPresent(presence, AMOUNT)) {
+                int scale = (int) unzigzag(in.readVarLong());
+                builder.amount((flags & FLAG_BIG_AMOUNT) != 0
+                        ? new BigDecimal(new BigInteger(in.readBytes()), scale)
+                        : BigDecimal.valueOf(unzigzag(in.readVarLong()), scale));
+            }
+            builder.currency(in.readString(presence, CURRENCY))
+                    .fromBankSwift(in.readString(presence, FROM_BANK_SWIFT))
+                    .toBankSwift(in.readString(presence, TO_BANK_SWIFT))
+                    .fromBankName(in.readString(presence, FROM_BANK_NAME))
+                    .toBankName(in.readString(presence, TO_BANK_NAME));
+            if (isPresent(presence, TIMESTAMP)) {
+                long epochSecond = unzigzag(in.readVarLong());
+                builder.timestamp(LocalDateTime.ofEpochSecond(epochSecond, (int) in.readVarLong(), ZoneOffset.UTC));
+            }
+            transaction = builder.status(in.readString(presence, STATUS))
+                    .fromIBAN(in.readString(presence, FROM_IBAN))
+                    .toIBAN(in.readString(presence, TO_IBAN))
+                    .fromCountryCode(in.readString(presence, FROM_COUNTRY_CODE))
+                    .toCountryCode(in.readString(presence, TO_COUNTRY_CODE))
+                    .build();
+        }
+        String mt103 = null;
+        if (isPresent(presence, MT103_CONTENT)) {
+            mt103 = in.readString((flags & FLAG_UTF8_MT103) != 0 ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1);
+        }
+        if (in.position != data.length) {
+            throw new IllegalArgumentException("Trailing bytes after transaction event");
+        }
+        return TransactionWithMT103Event.of(transaction, mt103);
+    }
+
+    /**
+     * The MT103 text of a binary event without decoding the transaction: Latin-1 content is returned as a
+     * {@link Latin1Chars} view over {@code data}, UTF-8 content as a String, absent content as null.
+     *
+     * @throws IllegalArgumentException if {@code data} is not a binary transaction event of a known version
+     */
+    public static CharSequence mt103Content(byte[] data) {
+        if (!isBinary(data)) {
+            throw new IllegalArgumentException("Not a binary transaction event");
+        }
+        if (data[1] != VERSION) {
+            throw new IllegalArgumentException("Unsupported transaction event version: " + data[1]);
+        }
+        if (data.length < HEADER_SIZE) {
+            throw new IllegalArgumentException("Truncated transaction event");
+        }
+        int flags = data[2] & 0xFF;
+        int presence = (data[3] & 0xFF) << 8 | data[4] & 0xFF;
+        if (!isPresent(presence, MT103_CONTENT)) {
+            return null;
+        }
+        Reader in = new Reader(data, HEADER_SIZE);
+
+        if ((flags & FLAG_TRANSACTION) != 0) {
+            for (int field = TRANSACTION_ID; field < MT103_CONTENT; field++) {
+                if (!isPresent(presence, field)) {
+                    continue;
+                }
+                if (field == AMOUNT) {
+                    in.readVarLong();
+                    if ((flags & FLAG_BIG_AMOUNT) != 0) {
+                        in.skip();
+                    } else {
+                        in.readVarLong();
+                    }
+                } else if (field == TIMESTAMP) {
+                    in.readVarLong();
+                    in.readVarLong();
+                } else {
+                    in.skip();
+                }
+            }
+        }
+        int length = in.readLength();
+        if (in.position + length != data.length) {
+            throw new IllegalArgumentException("Trailing bytes after transaction event");
+        }
+        if ((flags & FLAG_UTF8_MT103) != 0) {
+            return new String(data, in.position, length, StandardCharsets.UTF_8);
+        }
+        return new Latin1Chars(data, in.position, length);
+    }
+
+    /**
+     * True if {@code data} starts with the binary magic byte. JSON text never does, so payloads without a
+     * content-type header can still be told apart.
+     */
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length > 1 && data[0] == MAGIC;
+    }
+
+    private static boolean isPresent(int presence, int field) {
+        return (presence & 1 << field) != 0;
+    }
+
+    private static boolean isLatin1(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long zigzag(long value) {
+        return value << 1 ^ value >> 63;
+    }
+
+    private static long unzigzag(long value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    private static final class Writer {
+
+        private byte[] buffer;
+        private int position;
+
+        Writer(int capacity) {
+            this.buffer = new byte[capacity];
+        }
+
+        /**
+         * Writes {@code value} if non-null and returns its presence bit, 0 otherwise.
+         */
+        int writeString(int field, String value) {
+            if (value == null) {
+                return 0;
+            }
+            int length = value.length();
+            ensureCapacity(5 + length);
+            int start = position;
+            writeVarLong(length);
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c >= 0x80) {
+                    position = start;
+                    writeBytes(value.getBytes(StandardCharsets.UTF_8));
+                    return 1 << field;
+                }
+                buffer[position++] = (byte) c;
+            }
+            return 1 << field;
+        }
+
+        void writeBytes(byte[] bytes) {
+            writeVarLong(bytes.length);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) (value & 0x7F | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (position + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+            }
+        }
+    }
+
+    private static final class Reader {
+
+        private final byte[] data;
+        private int position;
+
+        Reader(byte[] data, int position) {
+            this.data = data;
+            this.position = position;
+        }
+
+        String readString(int presence, int field) {
+            return isPresent(presence, field) ? readString(StandardCharsets.UTF_8) : null;
+        }
+
+        String readString(Charset charset) {
+            int length = readLength();
+            String value = new String(data, position, length, charset);
+            position += length;
+            return value;
+        }
+
+        void skip() {
+            int length = readLength();
+            position += length;
+        }
+
+        byte[] readBytes() {
+            int length = readLength();
+            byte[] bytes = Arrays.copyOfRange(data, position, position + length);
+            position += length;
+            return bytes;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < Long.SIZE; shift += 7) {
+                if (position >= data.length) {
+                    throw new IllegalArgumentException("Truncated transaction event");
+                }
+                byte b = data[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint in transaction event");
+        }
+
+        private int readLength() {
+            long length = readVarLong();
+            if (length < 0 || length > data.length - position) {
+                throw new IllegalArgumentException("Truncated transaction event");
+            }
+            return (int) length;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.toufik.trxcommon.json;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+/**
+ * The one {@link ObjectMapper} configuration used for transaction events on Kafka.
+ * <p>
+ * Blackbird replaces reflective getter/setter/constructor calls with generated lambdas, which removes most of
+ * the per-property reflection cost on the hot (de)serialization path. Dates are written as ISO-8601 strings;
+ * unknown properties are ignored so producers can add fields before consumers know them.
+ */
+public final class TransactionJson {
+
+    private static final ObjectMapper SHARED = newObjectMapper();
+
+    private TransactionJson() {
+    }
+
+    /**
+     * The shared instance. ObjectMapper is thread-safe once configured; callers must not reconfigure it.
+     */
+    public static ObjectMapper objectMapper() {
+        return SHARED;
+    }
+
+    /**
+     * A fresh mapper with the shared configuration, for callers that need to customize further.
+     */
+    public static ObjectMapper newObjectMapper() {
+        return JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .addModule(new BlackbirdModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build();
+    }
+}
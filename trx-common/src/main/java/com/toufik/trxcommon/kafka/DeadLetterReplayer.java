@@ -0,0 +1,149 @@
+package com.toufik.trxcommon.kafka;
+
+import lombok.Value;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.support.SendResult;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Re-injects the records of a dead-letter topic into the topic they were first consumed from, in bulk, once the
+ * cause of their failure has been fixed.
+ * <p>
+ * Progress is tracked by a consumer group of its own: each replay picks up where the previous one stopped, and
+ * stops at the end offsets the topic had when it started, so records that fail again while it runs wait for the
+ * next replay. Offsets are committed only after every re-injected record has been acknowledged. The headers that
+ * recorded the failed attempts are dropped, so a replayed record gets a full set of retries again.
+ */
+public class DeadLetterReplayer {
+
+    /**
+     * Headers added by Spring Kafka's dead-letter publishing and retry topics.
+     */
+    public static final List<String> SPRING_RETRY_HEADER_PREFIXES = List.of("kafka_dlt-", "retry_topic-");
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+    private static final int MAX_EMPTY_POLLS = 10;
+
+    private final ConsumerFactory<String, byte[]> consumerFactory;
+    private final KafkaOperations<String, byte[]> kafkaTemplate;
+    private final String groupId;
+    private final List<String> droppedHeaderPrefixes;
+
+    /**
+     * @param consumerFactory       reads the dead-letter topic as raw bytes, so records that could not be
+     *                              deserialized are replayed as they are
+     * @param groupId               consumer group that tracks how far the dead-letter topic has been replayed
+     * @param droppedHeaderPrefixes headers starting with any of these are not copied to the replayed records
+     */
+    public DeadLetterReplayer(ConsumerFactory<String, byte[]> consumerFactory,
+                              KafkaOperations<String, byte[]> kafkaTemplate,
+                              String groupId, List<String> droppedHeaderPrefixes) {
+        this.consumerFactory = consumerFactory;
+        this.kafkaTemplate = kafkaTemplate;
+        this.groupId = groupId;
+        this.droppedHeaderPrefixes = List.copyOf(droppedHeaderPrefixes);
+    }
+
+    /**
+     * Re-publishes up to {@code maxRecords} records of {@code deadLetterTopic} to {@code targetTopic}, with their
+     * keys and values unchanged, and returns once they have been acknowledged and the replay committed.
+     *
+     * @throws IllegalStateException if a record could not be re-published; nothing is committed then, so the
+     *                               next replay starts from the same records
+     */
+    public Result replay(String deadLetterTopic, String targetTopic, int maxRecords) {
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        overrides.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, Math.max(1, Math.min(maxRecords, 500)));
+
+        try (Consumer<String, byte[]> consumer = consumerFactory.createConsumer(groupId, null, "-replay", overrides)) {
+            List<TopicPartition> partitions = new ArrayList<>();
+            for (PartitionInfo info : consumer.partitionsFor(deadLetterTopic)) {
+                partitions.add(new TopicPartition(info.topic(), info.partition()));
+            }
+            if (partitions.isEmpty() || maxRecords <= 0) {
+                return new Result(deadLetterTopic, targetTopic, 0);
+            }
+            consumer.assign(partitions);
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+
+            Map<TopicPartition, OffsetAndMetadata> replayedOffsets = new HashMap<>();
+            List<CompletableFuture<SendResult<String, byte[]>>> sends = new ArrayList<>();
+            int emptyPolls = 0;
+            while (sends.size() < maxRecords && !reachedEnd(consumer, partitions, endOffsets)
+                    && emptyPolls < MAX_EMPTY_POLLS) {
+                boolean polled = false;
+                for (ConsumerRecord<String, byte[]> record : consumer.poll(POLL_TIMEOUT)) {
+                    TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                    if (sends.size() == maxRecords || record.offset() >= endOffsets.get(partition)) {
+                        continue;
+                    }
+                    polled = true;
+                    sends.add(kafkaTemplate.send(new ProducerRecord<>(targetTopic, null, record.key(),
+                            record.value(), replayedHeaders(record))));
+                    replayedOffsets.put(partition, new OffsetAndMetadata(record.offset() + 1));
+                }
+                emptyPolls = polled ? 0 : emptyPolls + 1;
+            }
+            if (sends.isEmpty()) {
+                return new Result(deadLetterTopic, targetTopic, 0);
+            }
+
+            kafkaTemplate.flush();
+            try {
+                CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).join();
+            } catch (CompletionException e) {
+                throw new IllegalStateException("Failed to replay " + sends.size() + " records of " + deadLetterTopic
+                        + " to " + targetTopic, e.getCause());
+            }
+            consumer.commitSync(replayedOffsets);
+            return new Result(deadLetterTopic, targetTopic, sends.size());
+        }
+    }
+
+    private static boolean reachedEnd(Consumer<String, byte[]> consumer, List<TopicPartition> partitions,
+                                      Map<TopicPartition, Long> endOffsets) {
+        for (TopicPartition partition : partitions) {
+            if (consumer.position(partition) < endOffsets.get(partition)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private RecordHeaders replayedHeaders(ConsumerRecord<String, byte[]> record) {
+        RecordHeaders headers = new RecordHeaders();
+        for (Header header : record.headers()) {
+            if (droppedHeaderPrefixes.stream().noneMatch(header.key()::startsWith)) {
+                headers.add(header);
+            }
+        }
+        return headers;
+    }
+
+    @Value
+    public static class Result {
+        String deadLetterTopic;
+        String targetTopic;
+        int replayed;
+    }
+}
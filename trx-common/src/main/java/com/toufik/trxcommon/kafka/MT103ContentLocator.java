@@ -0,0 +1,86 @@
+package com.toufik.trxcommon.kafka;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.toufik.trxcommon.codec.TransactionEventCodec;
+import com.toufik.trxcommon.json.TransactionJson;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads only {@code mt103Content} from a serialized transaction event, for consumers that inspect the MT103 text
+ * and pass the record on as is. The format is chosen like {@link TransactionEventDeserializer} does.
+ * <p>
+ * Binary records yield a view over the record bytes. JSON records are streamed up to the field, skipping the
+ * transaction without binding it, and yield the unescaped text as a String.
+ */
+public final class MT103ContentLocator {
+
+    private static final String MT103_CONTENT = "mt103Content";
+
+    private static final JsonFactory JSON_FACTORY = TransactionJson.objectMapper().getFactory();
+
+    private MT103ContentLocator() {
+    }
+
+    /**
+     * The MT103 text of the record, or null when the event has none.
+     *
+     * @throws SerializationException if the record is not a readable transaction event
+     */
+    public static CharSequence locate(Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        Header contentType = headers == null ? null : headers.lastHeader(TransactionEventCodec.CONTENT_TYPE_HEADER);
+        if (contentType == null) {
+            return TransactionEventCodec.isBinary(data) ? fromBinary(data) : fromJson(data);
+        }
+        String type = new String(contentType.value(), StandardCharsets.US_ASCII);
+        if (TransactionEventCodec.BINARY_CONTENT_TYPE.equals(type)) {
+            return fromBinary(data);
+        }
+        if (TransactionEventCodec.JSON_CONTENT_TYPE.equals(type)) {
+            return fromJson(data);
+        }
+        throw new SerializationException("Unsupported transaction event content type: " + type);
+    }
+
+    private static CharSequence fromBinary(byte[] data) {
+        try {
+            return TransactionEventCodec.mt103Content(data);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException(e.getMessage(), e);
+        }
+    }
+
+    private static String fromJson(byte[] data) {
+        try (JsonParser parser = JSON_FACTORY.createParser(data)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new SerializationException("Transaction event is not a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (MT103_CONTENT.equals(name)) {
+                    if (value == JsonToken.VALUE_NULL) {
+                        return null;
+                    }
+                    if (!value.isScalarValue()) {
+                        throw new SerializationException("mt103Content is not a JSON string");
+                    }
+                    return parser.getText();
+                }
+                parser.skipChildren();
+            }
+            return null;
+        } catch (IOException e) {
+            throw new SerializationException("Cannot read transaction event JSON", e);
+        }
+    }
+}
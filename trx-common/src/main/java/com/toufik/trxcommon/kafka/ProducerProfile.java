@@ -0,0 +1,54 @@
+package com.toufik.trxcommon.kafka;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Named batching/compression presets for the Kafka producer. MT103 payloads are repetitive text, so every
+ * profile compresses; they differ in how long records may wait for a batch to fill.
+ * All profiles keep idempotence on, which needs acks=all and at most 5 in-flight requests per connection.
+ */
+public enum ProducerProfile {
+
+    /** Sends almost immediately; lz4 is cheap enough not to add noticeable latency. */
+    LATENCY(16_384, 0, "lz4", true),
+
+    /** A few milliseconds of linger buys full batches at moderate rates. */
+    BALANCED(65_536, 5, "lz4", true),
+
+    /** Large batches and zstd for the best ratio when bytes on the wire matter more than per-record latency. */
+    THROUGHPUT(262_144, 20, "zstd", true);
+
+    private final int batchSize;
+    private final int lingerMs;
+    private final String compressionType;
+    private final boolean idempotence;
+
+    ProducerProfile(int batchSize, int lingerMs, String compressionType, boolean idempotence) {
+        this.batchSize = batchSize;
+        this.lingerMs = lingerMs;
+        this.compressionType = compressionType;
+        this.idempotence = idempotence;
+    }
+
+    public static ProducerProfile fromName(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Unknown producer profile '" + name
+                    + "', expected one of latency, balanced, throughput", e);
+        }
+    }
+
+    public Map<String, Object> producerProperties() {
+        return Map.of(
+                ProducerConfig.BATCH_SIZE_CONFIG, batchSize,
+                ProducerConfig.LINGER_MS_CONFIG, lingerMs,
+                ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType,
+                ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, idempotence,
+                ProducerConfig.ACKS_CONFIG, "all",
+                ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+    }
+}
@@ -0,0 +1,79 @@
+package com.toufik.trxcommon.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.toufik.trxcommon.codec.TransactionEventCodec;
+import com.toufik.trxcommon.json.TransactionJson;
+import com.toufik.trxcommon.model.MT103FieldIndex;
+import com.toufik.trxcommon.model.TransactionWithMT103Event;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Kafka value deserializer accepting both JSON and binary {@link TransactionEventCodec} records. The
+ * {@code content-type} header decides; records from producers that do not set it are recognized by the binary
+ * magic byte and otherwise read as JSON. An {@link MT103FieldIndex} forwarded in its header is attached to the
+ * event.
+ */
+public class TransactionEventDeserializer implements Deserializer<TransactionWithMT103Event> {
+
+    private final JsonDeserializer<TransactionWithMT103Event> jsonDeserializer;
+
+    public TransactionEventDeserializer() {
+        this(TransactionJson.objectMapper());
+    }
+
+    public TransactionEventDeserializer(ObjectMapper objectMapper) {
+        this.jsonDeserializer = new JsonDeserializer<>(TransactionWithMT103Event.class, objectMapper);
+        this.jsonDeserializer.setUseTypeHeaders(false);
+        this.jsonDeserializer.addTrustedPackages("*");
+    }
+
+    @Override
+    public TransactionWithMT103Event deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        return TransactionEventCodec.isBinary(data) ? decode(data) : jsonDeserializer.deserialize(topic, data);
+    }
+
+    @Override
+    public TransactionWithMT103Event deserialize(String topic, Headers headers, byte[] data) {
+        Header contentType = headers == null ? null : headers.lastHeader(TransactionEventCodec.CONTENT_TYPE_HEADER);
+        TransactionWithMT103Event event;
+        if (data == null || contentType == null) {
+            event = deserialize(topic, data);
+        } else {
+            String type = new String(contentType.value(), StandardCharsets.US_ASCII);
+            if (TransactionEventCodec.BINARY_CONTENT_TYPE.equals(type)) {
+                event = decode(data);
+            } else if (TransactionEventCodec.JSON_CONTENT_TYPE.equals(type)) {
+                event = jsonDeserializer.deserialize(topic, headers, data);
+            } else {
+                throw new SerializationException("Unsupported transaction event content type: " + type);
+            }
+        }
+        Header fieldIndex = headers == null ? null : headers.lastHeader(MT103FieldIndex.HEADER);
+        if (event != null && fieldIndex != null) {
+            event = event.withForwardedFieldIndex(fieldIndex.value());
+        }
+        return event;
+    }
+
+    @Override
+    public void close() {
+        jsonDeserializer.close();
+    }
+
+    private static TransactionWithMT103Event decode(byte[] data) {
+        try {
+            return TransactionEventCodec.decode(data);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException(e.getMessage(), e);
+        }
+    }
+}
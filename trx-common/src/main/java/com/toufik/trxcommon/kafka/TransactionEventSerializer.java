@@ -0,0 +1,70 @@
+package com.toufik.trxcommon.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.toufik.trxcommon.codec.TransactionEventCodec;
+import com.toufik.trxcommon.json.TransactionJson;
+import com.toufik.trxcommon.model.TransactionWithMT103Event;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Kafka value serializer writing either JSON or the binary {@link TransactionEventCodec} format, and tagging each
+ * record with a {@code content-type} header so consumers can read both while producers are switched over.
+ */
+public class TransactionEventSerializer implements Serializer<TransactionWithMT103Event> {
+
+    private static final byte[] JSON_CONTENT_TYPE = TransactionEventCodec.JSON_CONTENT_TYPE.getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] BINARY_CONTENT_TYPE = TransactionEventCodec.BINARY_CONTENT_TYPE.getBytes(StandardCharsets.US_ASCII);
+
+    private final JsonSerializer<TransactionWithMT103Event> jsonSerializer;
+    private final boolean binary;
+
+    public TransactionEventSerializer(ObjectMapper objectMapper, boolean binary) {
+        this.jsonSerializer = new JsonSerializer<>(objectMapper);
+        this.jsonSerializer.setAddTypeInfo(false);
+        this.binary = binary;
+    }
+
+    /**
+     * @param format {@code json} or {@code binary}
+     */
+    public static TransactionEventSerializer forFormat(String format) {
+        return forFormat(format, TransactionJson.objectMapper());
+    }
+
+    public static TransactionEventSerializer forFormat(String format, ObjectMapper objectMapper) {
+        return switch (format == null ? "" : format.trim().toLowerCase(Locale.ROOT)) {
+            case "json" -> new TransactionEventSerializer(objectMapper, false);
+            case "binary" -> new TransactionEventSerializer(objectMapper, true);
+            default -> throw new IllegalArgumentException(
+                    "Unknown transaction event format '" + format + "', expected json or binary");
+        };
+    }
+
+    @Override
+    public byte[] serialize(String topic, TransactionWithMT103Event data) {
+        if (data == null) {
+            return null;
+        }
+        return binary ? TransactionEventCodec.encode(data) : jsonSerializer.serialize(topic, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, TransactionWithMT103Event data) {
+        if (data == null) {
+            return null;
+        }
+        headers.remove(TransactionEventCodec.CONTENT_TYPE_HEADER);
+        headers.add(TransactionEventCodec.CONTENT_TYPE_HEADER, binary ? BINARY_CONTENT_TYPE : JSON_CONTENT_TYPE);
+        return serialize(topic, data);
+    }
+
+    @Override
+    public void close() {
+        jsonSerializer.close();
+    }
+}
@@ -0,0 +1,262 @@
+package com.toufik.trxcommon.model;
+
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+/**
+ * Where the block 4 fields of an MT103 message lie: the tag of each field and the offset and length of its value
+ * in the message text, in characters. A value runs from after its tag to the line break before the next tag, or to
+ * the end of block 4, without trailing whitespace; multi-line values such as :50K: keep their inner line breaks.
+ * <p>
+ * The validation service builds the index while it checks the message and forwards it in the {@value #HEADER}
+ * record header, so consumers can read fields without parsing the text again:
+ * <pre>
+ * version:byte count:varint
+ * per field   tag length:byte + ASCII tag, value offset:varint (from the end of the previous value), length:varint
+ * </pre>
+ */
+public final class MT103FieldIndex {
+
+    public static final String HEADER = "mt103-fields";
+
+    static final byte VERSION = 1;
+
+    private static final MT103FieldIndex EMPTY = new MT103FieldIndex(new String[0], new int[0], new int[0]);
+
+    private final String[] tags;
+    private final int[] offsets;
+    private final int[] lengths;
+
+    private MT103FieldIndex(String[] tags, int[] offsets, int[] lengths) {
+        this.tags = tags;
+        this.offsets = offsets;
+        this.lengths = lengths;
+    }
+
+    public static MT103FieldIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Indexes {@code content} by looking for field tags at the start of each line.
+     */
+    public static MT103FieldIndex scan(CharSequence content) {
+        if (content == null) {
+            return EMPTY;
+        }
+        int[] tagStarts = new int[16];
+        int count = 0;
+        for (int i = 0; i < content.length(); i++) {
+            if (content.charAt(i) == ':' && (i == 0 || content.charAt(i - 1) == '\n') && tagLength(content, i) > 0) {
+                if (count == tagStarts.length) {
+                    tagStarts = Arrays.copyOf(tagStarts, count * 2);
+                }
+                tagStarts[count++] = i;
+            }
+        }
+        return of(content, tagStarts, count);
+    }
+
+    /**
+     * Indexes the fields whose tags open at the first {@code count} offsets of {@code tagStarts}, given in
+     * ascending order.
+     */
+    public static MT103FieldIndex of(CharSequence content, int[] tagStarts, int count) {
+        if (count == 0) {
+            return EMPTY;
+        }
+        String[] tags = new String[count];
+        int[] offsets = new int[count];
+        int[] lengths = new int[count];
+        for (int k = 0; k < count; k++) {
+            int start = tagStarts[k];
+            int tagLength = tagLength(content, start);
+            int from = Math.min(start + tagLength + 2, content.length());
+            int end = k + 1 < count ? tagStarts[k + 1] : endOfBlock4(content, from);
+            while (end > from && content.charAt(end - 1) <= ' ') {
+                end--;
+            }
+            tags[k] = content.subSequence(start + 1, start + 1 + tagLength).toString();
+            offsets[k] = from;
+            lengths[k] = end - from;
+        }
+        return new MT103FieldIndex(tags, offsets, lengths);
+    }
+
+    /**
+     * Length of the tag when a field opens at {@code colon} as ":nn:" or ":nnA:", otherwise -1.
+     */
+    public static int tagLength(CharSequence content, int colon) {
+        int length = content.length();
+        if (colon + 3 >= length || content.charAt(colon) != ':'
+                || !isDigit(content.charAt(colon + 1)) || !isDigit(content.charAt(colon + 2))) {
+            return -1;
+        }
+        char next = content.charAt(colon + 3);
+        if (next == ':') {
+            return 2;
+        }
+        return next >= 'A' && next <= 'Z' && colon + 4 < length && content.charAt(colon + 4) == ':' ? 3 : -1;
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code data} is not an index of a known version
+     */
+    public static MT103FieldIndex decode(byte[] data) {
+        if (data == null || data.length < 2) {
+            throw new IllegalArgumentException("Truncated MT103 field index");
+        }
+        if (data[0] != VERSION) {
+            throw new IllegalArgumentException("Unsupported MT103 field index version: " + data[0]);
+        }
+        int[] position = {1};
+        int count = readVarInt(data, position);
+        if (count > data.length) {
+            throw new IllegalArgumentException("Truncated MT103 field index");
+        }
+        String[] tags = new String[count];
+        int[] offsets = new int[count];
+        int[] lengths = new int[count];
+        int previousEnd = 0;
+        for (int k = 0; k < count; k++) {
+            int tagLength = position[0] < data.length ? data[position[0]++] : -1;
+            if (tagLength < 0 || position[0] + tagLength > data.length) {
+                throw new IllegalArgumentException("Truncated MT103 field index");
+            }
+            char[] tag = new char[tagLength];
+            for (int i = 0; i < tagLength; i++) {
+                tag[i] = (char) (data[position[0]++] & 0x7F);
+            }
+            tags[k] = new String(tag);
+            offsets[k] = Math.addExact(previousEnd, readVarInt(data, position));
+            lengths[k] = readVarInt(data, position);
+            previousEnd = Math.addExact(offsets[k], lengths[k]);
+        }
+        if (position[0] != data.length) {
+            throw new IllegalArgumentException("Trailing bytes after MT103 field index");
+        }
+        return count == 0 ? EMPTY : new MT103FieldIndex(tags, offsets, lengths);
+    }
+
+    public byte[] encode() {
+        byte[] buffer = new byte[6 + tags.length * 14];
+        int position = 0;
+        buffer[position++] = VERSION;
+        position = writeVarInt(buffer, position, tags.length);
+        int previousEnd = 0;
+        for (int k = 0; k < tags.length; k++) {
+            String tag = tags[k];
+            buffer[position++] = (byte) tag.length();
+            for (int i = 0; i < tag.length(); i++) {
+                buffer[position++] = (byte) tag.charAt(i);
+            }
+            position = writeVarInt(buffer, position, offsets[k] - previousEnd);
+            position = writeVarInt(buffer, position, lengths[k]);
+            previousEnd = offsets[k] + lengths[k];
+        }
+        return Arrays.copyOf(buffer, position);
+    }
+
+    public int size() {
+        return tags.length;
+    }
+
+    public String tag(int field) {
+        return tags[field];
+    }
+
+    public int offset(int field) {
+        return offsets[field];
+    }
+
+    public int length(int field) {
+        return lengths[field];
+    }
+
+    /**
+     * Position of the first field tagged {@code tag}, such as "32A", or -1.
+     */
+    public int indexOf(String tag) {
+        for (int k = 0; k < tags.length; k++) {
+            if (tags[k].equals(tag)) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * A read-only view of the value of {@code field} in {@code content}; nothing is copied.
+     */
+    public CharSequence value(CharSequence content, int field) {
+        return CharBuffer.wrap(content, offsets[field], offsets[field] + lengths[field]);
+    }
+
+    /**
+     * True if every value lies within a message of {@code contentLength} characters.
+     */
+    public boolean fits(int contentLength) {
+        int last = tags.length - 1;
+        return last < 0 || offsets[last] + lengths[last] <= contentLength;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("MT103FieldIndex[");
+        for (int k = 0; k < tags.length; k++) {
+            if (k > 0) {
+                text.append(", ");
+            }
+            text.append(tags[k]).append('@').append(offsets[k]).append('+').append(lengths[k]);
+        }
+        return text.append(']').toString();
+    }
+
+    /**
+     * Offset of the line break that closes block 4 ("\n}" or "\n-}") at or after {@code from}, or the content
+     * length.
+     */
+    private static int endOfBlock4(CharSequence content, int from) {
+        int length = content.length();
+        for (int i = from; i < length - 1; i++) {
+            if (content.charAt(i) == '\n') {
+                char next = content.charAt(i + 1);
+                if (next == '}' || next == '-' && i + 2 < length && content.charAt(i + 2) == '}') {
+                    return i;
+                }
+            }
+        }
+        return length;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int writeVarInt(byte[] buffer, int position, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer[position++] = (byte) (value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return position;
+    }
+
+    private static int readVarInt(byte[] data, int[] position) {
+        int value = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+            if (position[0] >= data.length) {
+                throw new IllegalArgumentException("Truncated MT103 field index");
+            }
+            byte b = data[position[0]++];
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                if (value < 0) {
+                    break;
+                }
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in MT103 field index");
+    }
+}
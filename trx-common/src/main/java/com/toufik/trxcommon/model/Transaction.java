@@ -0,0 +1,47 @@
+package com.toufik.trxcommon.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Builder;
+import lombok.Value;
+import lombok.With;
+import lombok.extern.jackson.Jacksonized;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A transaction as it travels between the services. Immutable, so one instance can be shared by the formatter,
+ * the producer and persistence without defensive copies; derive variants with the {@code with*} methods or
+ * {@link #toBuilder()}.
+ */
+@Value
+@With
+@Builder(toBuilder = true)
+@Jacksonized
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class Transaction {
+    String transactionId;
+    String fromAccount;
+    String toAccount;
+    BigDecimal amount;
+    String currency;
+    String fromBankSwift;
+    String toBankSwift;
+    String fromBankName;
+    String toBankName;
+    LocalDateTime timestamp;
+    String status;
+
+    String fromIBAN;
+    String toIBAN;
+
+    String fromCountryCode;
+    String toCountryCode;
+
+    @JsonIgnore
+    public boolean isCrossBorder() {
+        return fromCountryCode != null && toCountryCode != null &&
+                !fromCountryCode.equals(toCountryCode);
+    }
+}
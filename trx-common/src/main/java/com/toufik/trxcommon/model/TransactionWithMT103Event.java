@@ -0,0 +1,98 @@
+package com.toufik.trxcommon.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.Value;
+import lombok.With;
+import lombok.extern.jackson.Jacksonized;
+
+/**
+ * Payload of the {@code transaction_generator} and {@code transaction_alert} topics: a transaction and the MT103
+ * message rendered for it.
+ * <p>
+ * Block 4 fields are read through an {@link MT103FieldIndex}, built on first use: from the index the validation
+ * service forwarded, when the event carries one, otherwise by scanning {@code mt103Content} once. Field values are
+ * views over the content, not copies. The built index is only cached; it does not change what the event holds.
+ */
+@Value
+@Builder
+@Jacksonized
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TransactionWithMT103Event {
+    Transaction transaction;
+    String mt103Content;
+
+    /**
+     * Encoded {@link MT103FieldIndex} of {@code mt103Content}, as found in the {@value MT103FieldIndex#HEADER}
+     * record header, or null. It is only decoded when a field is read, and ignored if it cannot be decoded or does
+     * not fit the content.
+     */
+    @With
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    byte[] forwardedFieldIndex;
+
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    FieldIndexHolder fieldIndexHolder = new FieldIndexHolder();
+
+    public static TransactionWithMT103Event of(Transaction transaction, String mt103Content) {
+        return new TransactionWithMT103Event(transaction, mt103Content, null);
+    }
+
+    @JsonIgnore
+    public MT103FieldIndex getFieldIndex() {
+        MT103FieldIndex index = fieldIndexHolder.index;
+        if (index == null) {
+            index = decodeOrScan();
+            fieldIndexHolder.index = index;
+        }
+        return index;
+    }
+
+    /**
+     * Value of the first field tagged {@code tag}, such as "32A", or null when the message has none.
+     */
+    public CharSequence getField(String tag) {
+        MT103FieldIndex index = getFieldIndex();
+        int field = index.indexOf(tag);
+        return field < 0 ? null : index.value(mt103Content, field);
+    }
+
+    private MT103FieldIndex decodeOrScan() {
+        if (mt103Content == null) {
+            return MT103FieldIndex.empty();
+        }
+        byte[] encoded = forwardedFieldIndex;
+        if (encoded != null) {
+            try {
+                MT103FieldIndex index = MT103FieldIndex.decode(encoded);
+                if (index.fits(mt103Content.length())) {
+                    return index;
+                }
+            } catch (IllegalArgumentException | ArithmeticException e) {
+                // Fall back to scanning the content
+            }
+        }
+        return MT103FieldIndex.scan(mt103Content);
+    }
+
+    /**
+     * Lazily built index, kept out of construction, equality and serialization. Racing readers may both build
+     * it; they build equal indexes.
+     */
+    private static final class FieldIndexHolder {
+        private volatile MT103FieldIndex index;
+    }
+}
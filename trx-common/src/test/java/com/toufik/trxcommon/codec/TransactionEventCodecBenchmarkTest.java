@@ -0,0 +1,97 @@
+package com.toufik.trxcommon.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.toufik.trxcommon.json.TransactionJson;
+import com.toufik.trxcommon.kafka.TransactionEventDeserializer;
+import com.toufik.trxcommon.kafka.TransactionEventSerializer;
+import com.toufik.trxcommon.model.TestTransactions;
+import com.toufik.trxcommon.model.TransactionWithMT103Event;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Per-record cost of the Kafka value formats as seen by a consumer and a producer: JSON through the mapper each
+ * service used to configure for itself, JSON through the shared {@link TransactionJson} mapper, and the binary
+ * codec. Run with {@code mvn test -pl trx-common -Dtest=TransactionEventCodecBenchmarkTest -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TransactionEventCodecBenchmarkTest {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 5;
+    private static final int RECORDS_PER_ROUND = 200_000;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    void compareFormats() {
+        ObjectMapper perServiceMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        TransactionWithMT103Event event = TestTransactions.event(new BigDecimal("1500.75"));
+
+        TransactionEventSerializer plainSerializer = TransactionEventSerializer.forFormat("json", perServiceMapper);
+        JsonDeserializer<TransactionWithMT103Event> plainDeserializer =
+                new JsonDeserializer<>(TransactionWithMT103Event.class, perServiceMapper);
+        plainDeserializer.setUseTypeHeaders(false);
+        TransactionEventSerializer sharedSerializer = TransactionEventSerializer.forFormat("json");
+        JsonDeserializer<TransactionWithMT103Event> sharedDeserializer =
+                new JsonDeserializer<>(TransactionWithMT103Event.class, TransactionJson.objectMapper());
+        sharedDeserializer.setUseTypeHeaders(false);
+        TransactionEventDeserializer deserializer = new TransactionEventDeserializer();
+
+        byte[] json = sharedSerializer.serialize("transaction_alert", event);
+        byte[] binary = TransactionEventCodec.encode(event);
+        System.out.printf("Record size: JSON %d B, binary %d B%n", json.length, binary.length);
+
+        double[] plainRead = measure("JSON deserialize", json, data -> plainDeserializer.deserialize("t", data));
+        double[] sharedRead = measure("JSON+Blackbird deserialize", json, data -> sharedDeserializer.deserialize("t", data));
+        double[] binaryRead = measure("Binary deserialize", binary, data -> deserializer.deserialize("t", new RecordHeaders(), data));
+        double[] plainWrite = measure("JSON serialize", event, data -> plainSerializer.serialize("t", data));
+        double[] sharedWrite = measure("JSON+Blackbird serialize", event, data -> sharedSerializer.serialize("t", data));
+        double[] binaryWrite = measure("Binary serialize", event, TransactionEventCodec::encode);
+
+        assertTrue(binaryRead[0] < Math.min(plainRead[0], sharedRead[0]));
+        assertTrue(binaryWrite[0] < Math.min(plainWrite[0], sharedWrite[0]));
+    }
+
+    private <T> double[] measure(String name, T input, Function<T, Object> operation) {
+        long sink = 0;
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            sink += run(input, operation);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            sink += run(input, operation);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        long records = (long) MEASURED_ROUNDS * RECORDS_PER_ROUND;
+        double[] result = {elapsed / (double) records, allocated / (double) records};
+        System.out.printf("%-28s %8.1f ns/record %8.1f B/record (checksum %d)%n", name, result[0], result[1], sink);
+        return result;
+    }
+
+    private static <T> long run(T input, Function<T, Object> operation) {
+        long sink = 0;
+        for (int i = 0; i < RECORDS_PER_ROUND; i++) {
+            sink += operation.apply(input).hashCode() & 1;
+        }
+        return sink;
+    }
+}
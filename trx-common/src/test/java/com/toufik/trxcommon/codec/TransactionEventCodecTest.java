@@ -0,0 +1,82 @@
+package com.toufik.trxcommon.codec;
+
+import com.toufik.trxcommon.json.TransactionJson;
+import com.toufik.trxcommon.model.TestTransactions;
+import com.toufik.trxcommon.model.Transaction;
+import com.toufik.trxcommon.model.TransactionWithMT103Event;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionEventCodecTest {
+
+    @Test
+    void testEncodeDecode_RoundTripsEveryField() {
+        TransactionWithMT103Event event = TestTransactions.event(new BigDecimal("1500.75"));
+
+        TransactionWithMT103Event decoded = TransactionEventCodec.decode(TransactionEventCodec.encode(event));
+
+        assertEquals(event, decoded);
+        assertEquals(2, decoded.getTransaction().getAmount().scale());
+    }
+
+    @Test
+    void testEncodeDecode_KeepsAmountScaleSignAndPrecision() {
+        for (String amount : new String[]{"0.00", "-250.10", "1E+3", "0.0000001", "9223372036854775807",
+                "123456789012345678901234.5", "-98765432109876543210.123"}) {
+            TransactionWithMT103Event event = TestTransactions.event(new BigDecimal(amount));
+
+            BigDecimal decoded = TransactionEventCodec.decode(TransactionEventCodec.encode(event)).getTransaction().getAmount();
+
+            assertEquals(new BigDecimal(amount), decoded, amount);
+        }
+    }
+
+    @Test
+    void testEncodeDecode_NullFieldsAndNonAsciiText() {
+        Transaction transaction = Transaction.builder()
+                .transactionId("TXN-1")
+                .fromBankName("Crédit Agricole")
+                .toBankName("三菱UFJ銀行")
+                .build();
+        TransactionWithMT103Event event = TransactionWithMT103Event.of(transaction, ":70:Überweisung → 東京\n");
+
+        assertEquals(event, TransactionEventCodec.decode(TransactionEventCodec.encode(event)));
+
+        TransactionWithMT103Event empty = TransactionWithMT103Event.of(null, null);
+        assertEquals(empty, TransactionEventCodec.decode(TransactionEventCodec.encode(empty)));
+    }
+
+    @Test
+    void testEncode_MuchSmallerThanJson() throws Exception {
+        TransactionWithMT103Event event = TestTransactions.event(new BigDecimal("1500.75"));
+
+        byte[] binary = TransactionEventCodec.encode(event);
+        byte[] json = TransactionJson.objectMapper().writeValueAsBytes(event);
+
+        assertTrue(binary.length < json.length * 0.75, binary.length + " vs " + json.length);
+        assertTrue(TransactionEventCodec.isBinary(binary));
+        assertFalse(TransactionEventCodec.isBinary(json));
+    }
+
+    @Test
+    void testDecode_RejectsForeignUnknownAndTruncatedPayloads() {
+        byte[] valid = TransactionEventCodec.encode(TestTransactions.event(new BigDecimal("10.00")));
+        byte[] futureVersion = valid.clone();
+        futureVersion[1] = 2;
+
+        assertThrows(IllegalArgumentException.class,
+                () -> TransactionEventCodec.decode("{\"transaction\":{}}".getBytes(StandardCharsets.UTF_8)));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> TransactionEventCodec.decode(futureVersion));
+        assertTrue(e.getMessage().contains("version"));
+        for (int length : new int[]{2, 4, 10, valid.length / 2, valid.length - 1}) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> TransactionEventCodec.decode(Arrays.copyOf(valid, length)), "length " + length);
+        }
+    }
+}
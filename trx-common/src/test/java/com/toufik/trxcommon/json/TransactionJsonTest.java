@@ -0,0 +1,63 @@
+package com.toufik.trxcommon.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.toufik.trxcommon.model.TestTransactions;
+import com.toufik.trxcommon.model.TransactionWithMT103Event;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionJsonTest {
+
+    private final ObjectMapper objectMapper = TransactionJson.objectMapper();
+
+    @Test
+    void testObjectMapper_IsSharedAndUsesBlackbird() {
+        assertSame(objectMapper, TransactionJson.objectMapper());
+        assertNotSame(objectMapper, TransactionJson.newObjectMapper());
+        assertTrue(objectMapper.getRegisteredModuleIds().contains(new BlackbirdModule().getTypeId()));
+    }
+
+    @Test
+    void testRoundTrip_ImmutableEvent() throws Exception {
+        TransactionWithMT103Event event = TestTransactions.event(new BigDecimal("1500.75"));
+
+        byte[] json = objectMapper.writeValueAsBytes(event);
+
+        assertEquals(event, objectMapper.readValue(json, TransactionWithMT103Event.class));
+    }
+
+    @Test
+    void testWrite_IsoTimestampsAndNoDerivedProperties() throws Exception {
+        JsonNode transaction = objectMapper.valueToTree(TestTransactions.event(BigDecimal.ONE)).get("transaction");
+
+        assertEquals("2024-01-15T10:30:45.123456789", transaction.get("timestamp").asText());
+        assertFalse(transaction.has("crossBorder"));
+    }
+
+    /**
+     * Payloads written by the per-service models before they were merged: the generator's derived
+     * {@code crossBorder} flag, the validation service's outcome fields, and array-style timestamps.
+     */
+    @Test
+    void testRead_PayloadsFromPreviousServiceModels() throws Exception {
+        String legacy = """
+                {"transaction":{"transactionId":"TXN-1","amount":1500.75,"timestamp":[2024,1,15,10,30,45],
+                "fromCountryCode":"DE","toCountryCode":"FR","crossBorder":true,
+                "valid":true,"validationReason":"Valid","processedAt":"2024-01-15T10:31:00"},
+                "mt103Content":"{1:F01DEUTDEFFXXX0}"}""";
+
+        TransactionWithMT103Event event = objectMapper.readValue(legacy, TransactionWithMT103Event.class);
+
+        assertEquals("TXN-1", event.getTransaction().getTransactionId());
+        assertEquals(new BigDecimal("1500.75"), event.getTransaction().getAmount());
+        assertEquals(LocalDateTime.of(2024, 1, 15, 10, 30, 45), event.getTransaction().getTimestamp());
+        assertTrue(event.getTransaction().isCrossBorder());
+        assertEquals("{1:F01DEUTDEFFXXX0}", event.getMt103Content());
+    }
+}
@@ -0,0 +1,119 @@
+package com.toufik.trxcommon.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeadLetterReplayerTest {
+
+    private static final String DLT = "transaction_alert-dlt";
+    private static final TopicPartition PARTITION = new TopicPartition(DLT, 0);
+
+    @Mock
+    private ConsumerFactory<String, byte[]> consumerFactory;
+
+    @Mock
+    private KafkaOperations<String, byte[]> kafkaTemplate;
+
+    private final Map<TopicPartition, OffsetAndMetadata> committed = new HashMap<>();
+    private MockConsumer<String, byte[]> consumer;
+    private DeadLetterReplayer replayer;
+
+    @BeforeEach
+    void setUp() {
+        consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST) {
+            @Override
+            public synchronized void commitSync(Map<TopicPartition, OffsetAndMetadata> offsets) {
+                committed.putAll(offsets);
+                super.commitSync(offsets);
+            }
+        };
+        consumer.updatePartitions(DLT, List.of(new PartitionInfo(DLT, 0, null, null, null)));
+        consumer.updateBeginningOffsets(Map.of(PARTITION, 0L));
+        when(consumerFactory.createConsumer(any(), any(), any(), any())).thenReturn(consumer);
+        replayer = new DeadLetterReplayer(consumerFactory, kafkaTemplate, "replay-group",
+                DeadLetterReplayer.SPRING_RETRY_HEADER_PREFIXES);
+    }
+
+    @Test
+    void testReplay_RepublishesUpToLimitWithoutRetryHeaders() {
+        addRecords(3);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+        DeadLetterReplayer.Result result = replayer.replay(DLT, "transaction_alert", 2);
+
+        assertEquals(2, result.getReplayed());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ProducerRecord<String, byte[]>> sent = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(2)).send(sent.capture());
+        ProducerRecord<String, byte[]> first = sent.getAllValues().get(0);
+        assertEquals("transaction_alert", first.topic());
+        assertEquals("TXN-0", first.key());
+        assertEquals("value-0", new String(first.value(), StandardCharsets.UTF_8));
+        assertNotNull(first.headers().lastHeader("content-type"));
+        assertNull(first.headers().lastHeader("kafka_dlt-exception-message"));
+        assertNull(first.headers().lastHeader("retry_topic-attempts"));
+        verify(kafkaTemplate).flush();
+        assertEquals(Map.of(PARTITION, new OffsetAndMetadata(2)), committed);
+    }
+
+    @Test
+    void testReplay_DoesNotCommitWhenRepublishFails() {
+        addRecords(2);
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.completedFuture(null))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Broker unavailable")));
+
+        assertThrows(IllegalStateException.class, () -> replayer.replay(DLT, "transaction_alert", 10));
+
+        assertTrue(committed.isEmpty());
+    }
+
+    @Test
+    void testReplay_ReturnsNothingForEmptyTopic() {
+        consumer.updateEndOffsets(Map.of(PARTITION, 0L));
+
+        DeadLetterReplayer.Result result = replayer.replay(DLT, "transaction_alert", 10);
+
+        assertEquals(0, result.getReplayed());
+        verifyNoInteractions(kafkaTemplate);
+        assertTrue(committed.isEmpty());
+    }
+
+    private void addRecords(int count) {
+        consumer.updateEndOffsets(Map.of(PARTITION, (long) count));
+        consumer.schedulePollTask(() -> {
+            for (int i = 0; i < count; i++) {
+                ConsumerRecord<String, byte[]> record = new ConsumerRecord<>(DLT, 0, i, "TXN-" + i,
+                        ("value-" + i).getBytes(StandardCharsets.UTF_8));
+                record.headers().add("content-type", "application/json".getBytes(StandardCharsets.US_ASCII));
+                record.headers().add("kafka_dlt-exception-message", "Mongo down".getBytes(StandardCharsets.UTF_8));
+                record.headers().add("retry_topic-attempts", new byte[]{0, 0, 0, 4});
+                consumer.addRecord(record);
+            }
+        });
+    }
+}
@@ -0,0 +1,102 @@
+package com.toufik.trxcommon.kafka;
+
+import com.toufik.trxcommon.codec.Latin1Chars;
+import com.toufik.trxcommon.codec.TransactionEventCodec;
+import com.toufik.trxcommon.json.TransactionJson;
+import com.toufik.trxcommon.model.TestTransactions;
+import com.toufik.trxcommon.model.Transaction;
+import com.toufik.trxcommon.model.TransactionWithMT103Event;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MT103ContentLocatorTest {
+
+    @Test
+    void testLocate_BinaryIsViewOverRecordBytes() {
+        for (BigDecimal amount : new BigDecimal[]{new BigDecimal("1500.75"), new BigDecimal("1E+40"), null}) {
+            TransactionWithMT103Event event = TestTransactions.event(amount);
+            RecordHeaders headers = new RecordHeaders();
+            byte[] binary = TransactionEventSerializer.forFormat("binary").serialize("transaction_generator", headers, event);
+
+            CharSequence content = MT103ContentLocator.locate(headers, binary);
+
+            assertInstanceOf(Latin1Chars.class, content);
+            assertEquals(TestTransactions.MT103, content.toString());
+            assertEquals(TestTransactions.MT103, MT103ContentLocator.locate(new RecordHeaders(), binary).toString());
+        }
+    }
+
+    @Test
+    void testLocate_BinaryWithoutTransactionOrContent() {
+        byte[] contentOnly = TransactionEventCodec.encode(TransactionWithMT103Event.of(null, TestTransactions.MT103));
+        byte[] transactionOnly = TransactionEventCodec.encode(
+                TransactionWithMT103Event.of(TestTransactions.transaction(BigDecimal.ONE), null));
+        byte[] nonLatin1 = TransactionEventCodec.encode(TransactionWithMT103Event.of(null, "{1:F01} Zürich → Paris"));
+
+        assertEquals(TestTransactions.MT103, MT103ContentLocator.locate(null, contentOnly).toString());
+        assertNull(MT103ContentLocator.locate(null, transactionOnly));
+        assertEquals("{1:F01} Zürich → Paris", MT103ContentLocator.locate(null, nonLatin1));
+    }
+
+    @Test
+    void testLocate_JsonSkipsTransactionWithoutBinding() throws Exception {
+        TransactionWithMT103Event event = TestTransactions.event(new BigDecimal("1500.75"));
+        RecordHeaders headers = new RecordHeaders();
+        byte[] json = TransactionEventSerializer.forFormat("json").serialize("transaction_generator", headers, event);
+        byte[] contentFirst = ("{\"mt103Content\":" + TransactionJson.objectMapper().writeValueAsString(TestTransactions.MT103)
+                + ",\"transaction\":{\"transactionId\":\"x\"}}").getBytes(StandardCharsets.UTF_8);
+        byte[] unknownFields = ("{\"crossBorder\":true,\"nested\":{\"a\":[1,{\"b\":null}]},\"transaction\":null,"
+                + "\"mt103Content\":\"{1:\\u0046\\n\"}").getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(TestTransactions.MT103, MT103ContentLocator.locate(headers, json));
+        assertEquals(TestTransactions.MT103, MT103ContentLocator.locate(new RecordHeaders(), json));
+        assertEquals(TestTransactions.MT103, MT103ContentLocator.locate(null, contentFirst));
+        assertEquals("{1:F\n", MT103ContentLocator.locate(null, unknownFields));
+    }
+
+    @Test
+    void testLocate_JsonWithoutContent() throws Exception {
+        byte[] nullContent = TransactionJson.objectMapper().writeValueAsBytes(
+                TransactionWithMT103Event.of(Transaction.builder().transactionId("x").build(), null));
+
+        assertNull(MT103ContentLocator.locate(null, nullContent));
+        assertNull(MT103ContentLocator.locate(null, "{\"transaction\":{}}".getBytes(StandardCharsets.UTF_8)));
+        assertNull(MT103ContentLocator.locate(null, null));
+    }
+
+    @Test
+    void testLocate_RejectsMalformedRecords() {
+        byte[] binary = TransactionEventCodec.encode(TestTransactions.event(new BigDecimal("1500.75")));
+
+        assertThrows(SerializationException.class,
+                () -> MT103ContentLocator.locate(null, Arrays.copyOf(binary, binary.length - 3)));
+        assertThrows(SerializationException.class,
+                () -> MT103ContentLocator.locate(null, "{\"mt103Content\":".getBytes(StandardCharsets.UTF_8)));
+        assertThrows(SerializationException.class,
+                () -> MT103ContentLocator.locate(null, "{\"mt103Content\":{}}".getBytes(StandardCharsets.UTF_8)));
+        assertThrows(SerializationException.class,
+                () -> MT103ContentLocator.locate(null, "[]".getBytes(StandardCharsets.UTF_8)));
+        RecordHeaders avro = new RecordHeaders();
+        avro.add(TransactionEventCodec.CONTENT_TYPE_HEADER, "avro/binary".getBytes(StandardCharsets.US_ASCII));
+        assertThrows(SerializationException.class, () -> MT103ContentLocator.locate(avro, binary));
+    }
+
+    @Test
+    void testLatin1Chars_SubSequence() {
+        byte[] data = "xx{4:\n:20:REF\nyy".getBytes(StandardCharsets.ISO_8859_1);
+        Latin1Chars chars = new Latin1Chars(data, 2, data.length - 4);
+
+        assertEquals("{4:\n:20:REF\n", chars.toString());
+        assertEquals(':', chars.charAt(2));
+        assertEquals("20:REF", chars.subSequence(5, 11).toString());
+        assertThrows(IndexOutOfBoundsException.class, () -> chars.charAt(chars.length()));
+        assertThrows(IndexOutOfBoundsException.class, () -> new Latin1Chars(data, 10, data.length));
+    }
+}
@@ -0,0 +1,54 @@
+package com.toufik.trxcommon.kafka;
+
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProducerProfileTest {
+
+    @Test
+    void testFromName_IsCaseInsensitive() {
+        assertEquals(ProducerProfile.THROUGHPUT, ProducerProfile.fromName(" Throughput "));
+        assertEquals(ProducerProfile.LATENCY, ProducerProfile.fromName("latency"));
+    }
+
+    @Test
+    void testFromName_RejectsUnknownProfile() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> ProducerProfile.fromName("fastest"));
+        assertTrue(e.getMessage().contains("fastest"));
+        assertThrows(IllegalArgumentException.class, () -> ProducerProfile.fromName(null));
+    }
+
+    @Test
+    void testProducerProperties_LingerGrowsWithThroughputOrientation() {
+        int latency = (int) ProducerProfile.LATENCY.producerProperties().get(ProducerConfig.LINGER_MS_CONFIG);
+        int balanced = (int) ProducerProfile.BALANCED.producerProperties().get(ProducerConfig.LINGER_MS_CONFIG);
+        int throughput = (int) ProducerProfile.THROUGHPUT.producerProperties().get(ProducerConfig.LINGER_MS_CONFIG);
+
+        assertTrue(latency < balanced && balanced < throughput);
+    }
+
+    /**
+     * The Kafka client validates the configuration on construction, e.g. idempotence against acks and in-flight
+     * requests, and the compression codec name; no broker is contacted.
+     */
+    @ParameterizedTest
+    @EnumSource(ProducerProfile.class)
+    void testProducerProperties_AcceptedByKafkaClient(ProducerProfile profile) {
+        Map<String, Object> props = new HashMap<>(profile.producerProperties());
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+
+        assertDoesNotThrow(() -> new KafkaProducer<>(props, new StringSerializer(), new StringSerializer()).close());
+        assertEquals(true, props.get(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG));
+        assertNotEquals("none", props.get(ProducerConfig.COMPRESSION_TYPE_CONFIG));
+    }
+}
@@ -0,0 +1,97 @@
+package com.toufik.trxcommon.kafka;
+
+import com.toufik.trxcommon.codec.TransactionEventCodec;
+import com.toufik.trxcommon.json.TransactionJson;
+import com.toufik.trxcommon.model.MT103FieldIndex;
+import com.toufik.trxcommon.model.TestTransactions;
+import com.toufik.trxcommon.model.TransactionWithMT103Event;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionEventSerdeTest {
+
+    private final TransactionEventDeserializer deserializer = new TransactionEventDeserializer();
+
+    @Test
+    void testSerializer_TagsContentTypeForEachFormat() throws Exception {
+        TransactionWithMT103Event event = TestTransactions.event(new BigDecimal("1500.75"));
+
+        RecordHeaders binaryHeaders = new RecordHeaders();
+        byte[] binary = TransactionEventSerializer.forFormat("binary")
+                .serialize("transaction_generator", binaryHeaders, event);
+        RecordHeaders jsonHeaders = new RecordHeaders();
+        byte[] json = TransactionEventSerializer.forFormat("JSON")
+                .serialize("transaction_generator", jsonHeaders, event);
+
+        assertEquals(TransactionEventCodec.BINARY_CONTENT_TYPE, contentType(binaryHeaders));
+        assertEquals(event, TransactionEventCodec.decode(binary));
+        assertEquals(TransactionEventCodec.JSON_CONTENT_TYPE, contentType(jsonHeaders));
+        assertEquals(event, TransactionJson.objectMapper().readValue(json, TransactionWithMT103Event.class));
+        assertThrows(IllegalArgumentException.class, () -> TransactionEventSerializer.forFormat("avro"));
+    }
+
+    @Test
+    void testDeserializer_NegotiatesOnContentTypeHeader() {
+        TransactionWithMT103Event event = TestTransactions.event(new BigDecimal("1500.75"));
+
+        RecordHeaders binaryHeaders = new RecordHeaders();
+        byte[] binary = TransactionEventSerializer.forFormat("binary").serialize("transaction_alert", binaryHeaders, event);
+        RecordHeaders jsonHeaders = new RecordHeaders();
+        byte[] json = TransactionEventSerializer.forFormat("json").serialize("transaction_alert", jsonHeaders, event);
+
+        assertEquals(event, deserializer.deserialize("transaction_alert", binaryHeaders, binary));
+        assertEquals(event, deserializer.deserialize("transaction_alert", jsonHeaders, json));
+    }
+
+    @Test
+    void testDeserializer_RecordsWithoutHeaderFromLegacyProducers() throws Exception {
+        TransactionWithMT103Event event = TestTransactions.event(new BigDecimal("1500.75"));
+        byte[] legacyJson = TransactionJson.objectMapper().writeValueAsBytes(event);
+
+        assertEquals(event, deserializer.deserialize("transaction_generator", new RecordHeaders(), legacyJson));
+        assertEquals(event, deserializer.deserialize("transaction_generator", new RecordHeaders(),
+                TransactionEventCodec.encode(event)));
+        assertNull(deserializer.deserialize("transaction_generator", new RecordHeaders(), (byte[]) null));
+    }
+
+    @Test
+    void testDeserializer_RejectsUnknownContentTypeAndCorruptBinary() {
+        byte[] binary = TransactionEventCodec.encode(TestTransactions.event(new BigDecimal("1500.75")));
+
+        assertThrows(SerializationException.class,
+                () -> deserializer.deserialize("transaction_generator", headers("avro/binary"), binary));
+        assertThrows(SerializationException.class, () -> deserializer.deserialize("transaction_generator",
+                headers(TransactionEventCodec.BINARY_CONTENT_TYPE), Arrays.copyOf(binary, binary.length - 3)));
+    }
+
+    @Test
+    void testDeserializer_AttachesForwardedFieldIndex() {
+        TransactionWithMT103Event event = TestTransactions.event(new BigDecimal("1500.75"));
+        RecordHeaders headers = new RecordHeaders();
+        byte[] binary = TransactionEventSerializer.forFormat("binary").serialize("transaction_alert", headers, event);
+        int[] firstTwoFields = {TestTransactions.MT103.indexOf(":20:"), TestTransactions.MT103.indexOf(":23B:")};
+        headers.add(MT103FieldIndex.HEADER, MT103FieldIndex.of(TestTransactions.MT103, firstTwoFields, 2).encode());
+
+        TransactionWithMT103Event received = deserializer.deserialize("transaction_alert", headers, binary);
+
+        assertEquals(2, received.getFieldIndex().size(), "The forwarded index is used instead of a scan");
+        assertEquals("0HZ8Q4K2M1N3P5R7", received.getField("20").toString());
+    }
+
+    private static RecordHeaders headers(String contentType) {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(TransactionEventCodec.CONTENT_TYPE_HEADER, contentType.getBytes(StandardCharsets.US_ASCII));
+        return headers;
+    }
+
+    private static String contentType(RecordHeaders headers) {
+        return new String(headers.lastHeader(TransactionEventCodec.CONTENT_TYPE_HEADER).value(), StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,81 @@
+package com.toufik.trxcommon.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MT103FieldIndexTest {
+
+    @Test
+    void testScan_IndexesEveryFieldOfBlock4() {
+        MT103FieldIndex index = MT103FieldIndex.scan(TestTransactions.MT103);
+
+        assertEquals(6, index.size());
+        assertEquals("20", index.tag(0));
+        assertEquals("0HZ8Q4K2M1N3P5R7", value(index, "20"));
+        assertEquals("CRED", value(index, "23B"));
+        assertEquals("240115EUR1500,75", value(index, "32A"));
+        assertEquals("/DE89370400440532013000\nDeutsche Bank", value(index, "50K"));
+        assertEquals("/FR1420041010050500013M02606\nBNP Paribas", value(index, "59"));
+        assertEquals("SHA", value(index, "71A"));
+        assertEquals(-1, index.indexOf("70"));
+        assertEquals(-1, index.indexOf("108"), "Block 3 tags are not fields");
+    }
+
+    @Test
+    void testDecode_RoundTripsEncodedIndex() {
+        MT103FieldIndex index = MT103FieldIndex.scan(TestTransactions.MT103);
+
+        MT103FieldIndex decoded = MT103FieldIndex.decode(index.encode());
+
+        assertEquals(index.toString(), decoded.toString());
+        assertTrue(index.encode().length < 48, "A few bytes per field");
+        assertEquals(0, MT103FieldIndex.decode(MT103FieldIndex.empty().encode()).size());
+    }
+
+    @Test
+    void testDecode_RejectsMalformedIndex() {
+        byte[] encoded = MT103FieldIndex.scan(TestTransactions.MT103).encode();
+
+        assertThrows(IllegalArgumentException.class, () -> MT103FieldIndex.decode(new byte[]{9, 0}));
+        assertThrows(IllegalArgumentException.class,
+                () -> MT103FieldIndex.decode(Arrays.copyOf(encoded, encoded.length - 1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> MT103FieldIndex.decode(Arrays.copyOf(encoded, encoded.length + 1)));
+    }
+
+    @Test
+    void testGetField_ReadsViewsThroughAttachedIndex() {
+        TransactionWithMT103Event event = TestTransactions.event(new BigDecimal("1500.75"))
+                .withForwardedFieldIndex(MT103FieldIndex.scan(TestTransactions.MT103).encode());
+
+        CharSequence amount = event.getField("32A");
+
+        assertInstanceOf(CharBuffer.class, amount);
+        assertEquals("240115EUR1500,75", amount.toString());
+        assertNull(event.getField("70"));
+        assertEquals(TestTransactions.event(new BigDecimal("1500.75")), event);
+    }
+
+    @Test
+    void testGetField_ScansContentWhenIndexIsMissingOrDoesNotFit() {
+        TransactionWithMT103Event withoutIndex = TestTransactions.event(BigDecimal.ONE);
+        TransactionWithMT103Event staleIndex = TransactionWithMT103Event.of(null, ":20:REF\n:23B:CRED")
+                .withForwardedFieldIndex(MT103FieldIndex.scan(TestTransactions.MT103).encode());
+
+        assertEquals("CRED", withoutIndex.getField("23B").toString());
+        assertEquals("CRED", staleIndex.getField("23B").toString());
+        assertEquals("REF", staleIndex.getField("20").toString());
+        assertNull(TransactionWithMT103Event.of(null, null).getField("20"));
+    }
+
+    private static String value(MT103FieldIndex index, String tag) {
+        int field = index.indexOf(tag);
+        assertTrue(field >= 0, "Missing field " + tag);
+        return index.value(TestTransactions.MT103, field).toString();
+    }
+}
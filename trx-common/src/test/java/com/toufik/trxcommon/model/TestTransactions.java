@@ -0,0 +1,41 @@
+package com.toufik.trxcommon.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Fully populated events shared by the codec, serde and JSON tests.
+ */
+public final class TestTransactions {
+
+    public static final String MT103 = "{1:F01DEUTDEFFXXX0}{2:I103BNPAFRPPXXXN}{3:{108:0HZ8Q4K2M1N3P5R7}}\n{4:\n"
+            + ":20:0HZ8Q4K2M1N3P5R7\n:23B:CRED\n:32A:240115EUR1500,75\n:50K:/DE89370400440532013000\nDeutsche Bank\n"
+            + ":59:/FR1420041010050500013M02606\nBNP Paribas\n:71A:SHA\n}\n{5:{MAC:A1B2C3D4}{CHK:123456789ABC}}";
+
+    private TestTransactions() {
+    }
+
+    public static Transaction transaction(BigDecimal amount) {
+        return Transaction.builder()
+                .transactionId("0HZ8Q4K2M1N3P5R7")
+                .fromAccount("DE89370400440532013000")
+                .toAccount("FR1420041010050500013M02606")
+                .amount(amount)
+                .currency("EUR")
+                .fromBankSwift("DEUTDEFFXXX")
+                .toBankSwift("BNPAFRPPXXX")
+                .fromBankName("Deutsche Bank")
+                .toBankName("BNP Paribas")
+                .timestamp(LocalDateTime.of(2024, 1, 15, 10, 30, 45, 123_456_789))
+                .status("PENDING")
+                .fromIBAN("DE89370400440532013000")
+                .toIBAN("FR1420041010050500013M02606")
+                .fromCountryCode("DE")
+                .toCountryCode("FR")
+                .build();
+    }
+
+    public static TransactionWithMT103Event event(BigDecimal amount) {
+        return TransactionWithMT103Event.of(transaction(amount), MT103);
+    }
+}
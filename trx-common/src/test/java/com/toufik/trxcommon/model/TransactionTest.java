@@ -0,0 +1,32 @@
+package com.toufik.trxcommon.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionTest {
+
+    @Test
+    void testWith_ReturnsCopyAndLeavesOriginalUntouched() {
+        Transaction original = TestTransactions.transaction(new BigDecimal("1500.75"));
+
+        Transaction changed = original.withAmount(new BigDecimal("99.00")).withToCountryCode("KP");
+
+        assertEquals(new BigDecimal("1500.75"), original.getAmount());
+        assertEquals("FR", original.getToCountryCode());
+        assertEquals(new BigDecimal("99.00"), changed.getAmount());
+        assertEquals("KP", changed.getToCountryCode());
+        assertEquals(original.getTransactionId(), changed.getTransactionId());
+    }
+
+    @Test
+    void testIsCrossBorder() {
+        Transaction transaction = TestTransactions.transaction(BigDecimal.TEN);
+
+        assertTrue(transaction.isCrossBorder());
+        assertFalse(transaction.withToCountryCode("DE").isCrossBorder());
+        assertFalse(transaction.withFromCountryCode(null).isCrossBorder());
+    }
+}
@@ -0,0 +1,18 @@
+package com.toufik.trxgeneratorservice.mt103trx.config;
+
+import com.toufik.trxcommon.kafka.ProducerProfile;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "generator.producer")
+@Data
+public class KafkaProducerConfig {
+    private String topic = "transaction_generator";
+    private ProducerProfile profile = ProducerProfile.BALANCED;
+    private String format = "json";
+    private int maxInFlight = 5_000;
+    private double saturationRatio = 0.8;
+    private long sendTimeoutMillis = 1_000;
+}
@@ -0,0 +1,16 @@
+package com.toufik.trxgeneratorservice.mt103trx.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "generator.load")
+@Data
+public class LoadGeneratorConfig {
+    private boolean enabled = false;
+    private double targetTps = 100;
+    private double fraudRatio = 0.1;
+    private double invalidRatio = 0.3;
+    private int workerThreads = 4;
+}
@@ -0,0 +1,15 @@
+package com.toufik.trxgeneratorservice.mt103trx.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "generator.persistence")
+@Data
+public class PersistenceConfig {
+    private int queueCapacity = 10_000;
+    private int batchSize = 500;
+    private long flushIntervalMillis = 200;
+    private long enqueueTimeoutMillis = 5_000;
+}
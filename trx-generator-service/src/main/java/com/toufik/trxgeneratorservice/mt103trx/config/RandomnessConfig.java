@@ -0,0 +1,27 @@
+package com.toufik.trxgeneratorservice.mt103trx.config;
+
+import com.toufik.trxgeneratorservice.mt103trx.util.RandomStreams;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Applies {@code generator.random.seed} to {@link RandomStreams}. With a fixed seed and worker count,
+ * load runs draw the same random numbers on every worker; without one, a fresh seed is used and logged.
+ */
+@Configuration
+@Slf4j
+public class RandomnessConfig {
+
+    @Value("${generator.random.seed:#{null}}")
+    private Long seed;
+
+    @PostConstruct
+    public void applySeed() {
+        if (seed != null) {
+            RandomStreams.reseed(seed);
+        }
+        log.info("Random streams seeded with {}", RandomStreams.seed());
+    }
+}
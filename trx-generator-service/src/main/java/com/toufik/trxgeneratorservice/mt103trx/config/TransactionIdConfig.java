@@ -0,0 +1,34 @@
+package com.toufik.trxgeneratorservice.mt103trx.config;
+
+import com.toufik.trxgeneratorservice.mt103trx.util.TimeOrderedIdGenerator;
+import com.toufik.trxgeneratorservice.mt103trx.util.TransactionIdGenerator;
+import com.toufik.trxgeneratorservice.mt103trx.util.UuidTransactionIdGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Selects the transaction ID strategy: "time-ordered" (default, 16-character IDs sorted by creation time)
+ * or "uuid" (random UUIDs). Each generator instance in a deployment needs its own node ID.
+ */
+@Configuration
+@Slf4j
+public class TransactionIdConfig {
+
+    @Value("${generator.ids.strategy:time-ordered}")
+    private String strategy;
+
+    @Value("${generator.ids.node-id:0}")
+    private int nodeId;
+
+    @Bean
+    public TransactionIdGenerator transactionIdGenerator() {
+        if ("uuid".equalsIgnoreCase(strategy)) {
+            log.info("Using random UUID transaction IDs");
+            return new UuidTransactionIdGenerator();
+        }
+        log.info("Using time-ordered transaction IDs with node ID {}", nodeId);
+        return new TimeOrderedIdGenerator(nodeId);
+    }
+}
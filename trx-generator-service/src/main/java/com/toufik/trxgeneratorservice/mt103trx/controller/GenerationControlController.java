@@ -0,0 +1,103 @@
+package com.toufik.trxgeneratorservice.mt103trx.controller;
+
+import com.toufik.trxgeneratorservice.mt103trx.model.GenerationSettings;
+import com.toufik.trxgeneratorservice.mt103trx.model.GenerationStats;
+import com.toufik.trxgeneratorservice.mt103trx.model.PersistenceStats;
+import com.toufik.trxgeneratorservice.mt103trx.model.ProducerStats;
+import com.toufik.trxgeneratorservice.mt103trx.model.RampProfile;
+import com.toufik.trxgeneratorservice.mt103trx.service.TransactionGenerationEngine;
+import com.toufik.trxgeneratorservice.mt103trx.service.TransactionPersistenceQueue;
+import com.toufik.trxgeneratorservice.mt103trx.service.TransactionProducer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/generator")
+@CrossOrigin(origins = "*")
+@Slf4j
+public class GenerationControlController {
+
+    private final TransactionGenerationEngine generationEngine;
+    private final TransactionPersistenceQueue persistenceQueue;
+    private final TransactionProducer transactionProducer;
+
+    public GenerationControlController(TransactionGenerationEngine generationEngine,
+                                       TransactionPersistenceQueue persistenceQueue,
+                                       TransactionProducer transactionProducer) {
+        this.generationEngine = generationEngine;
+        this.persistenceQueue = persistenceQueue;
+        this.transactionProducer = transactionProducer;
+    }
+
+    @GetMapping("/stats")
+    public GenerationStats getStats() {
+        return generationEngine.getStats();
+    }
+
+    @GetMapping("/persistence")
+    public PersistenceStats getPersistenceStats() {
+        return persistenceQueue.getStats();
+    }
+
+    @GetMapping("/producer")
+    public ProducerStats getProducerStats() {
+        return transactionProducer.getStats();
+    }
+
+    @PostMapping("/start")
+    public GenerationStats start() {
+        generationEngine.start();
+        return generationEngine.getStats();
+    }
+
+    @PostMapping("/stop")
+    public GenerationStats stop() {
+        generationEngine.stop();
+        return generationEngine.getStats();
+    }
+
+    @PostMapping("/pause")
+    public GenerationStats pause() {
+        generationEngine.pause();
+        return generationEngine.getStats();
+    }
+
+    @PostMapping("/resume")
+    public GenerationStats resume() {
+        generationEngine.resume();
+        return generationEngine.getStats();
+    }
+
+    @PutMapping("/settings")
+    public GenerationStats updateSettings(@RequestBody GenerationSettings settings) {
+        generationEngine.updateSettings(settings);
+        return generationEngine.getStats();
+    }
+
+    @PostMapping("/ramp")
+    public GenerationStats applyRamp(@RequestBody RampProfile profile) {
+        generationEngine.applyRamp(profile);
+        return generationEngine.getStats();
+    }
+
+    @DeleteMapping("/ramp")
+    public GenerationStats cancelRamp() {
+        generationEngine.cancelRamp();
+        return generationEngine.getStats();
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidRequest(IllegalArgumentException e) {
+        log.warn("Rejected generator control request: {}", e.getMessage());
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidState(IllegalStateException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+    }
+}
@@ -0,0 +1,19 @@
+package com.toufik.trxgeneratorservice.mt103trx.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Partial update of the load generator's shape; null fields keep their current value
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class GenerationSettings {
+    private Double targetTps;
+    private Double fraudRatio;
+    private Double invalidRatio;
+}
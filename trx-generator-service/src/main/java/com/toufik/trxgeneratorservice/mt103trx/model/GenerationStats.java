@@ -0,0 +1,28 @@
+package com.toufik.trxgeneratorservice.mt103trx.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class GenerationStats {
+    private boolean running;
+    private boolean paused;
+    private boolean rampActive;
+    private double targetTps;
+    private double achievedTps;
+    private int workerThreads;
+    private double fraudRatio;
+    private double invalidRatio;
+    private long normalCount;
+    private long fraudCount;
+    private long invalidCount;
+    private long failedCount;
+    private long backpressureCount;
+    private double elapsedSeconds;
+    private long seed;
+}
@@ -0,0 +1,23 @@
+package com.toufik.trxgeneratorservice.mt103trx.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PersistenceStats {
+    private int queueDepth;
+    private int queueCapacity;
+    private long enqueuedCount;
+    private long writtenCount;
+    private long failedCount;
+    private long droppedCount;
+    private long flushCount;
+    private double lastFlushMillis;
+    private double averageFlushMillis;
+    private double maxFlushMillis;
+}
@@ -0,0 +1,23 @@
+package com.toufik.trxgeneratorservice.mt103trx.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProducerStats {
+    private int inFlight;
+    private int maxInFlight;
+    private boolean saturated;
+    private long sentCount;
+    private long ackedCount;
+    private long failedCount;
+    private long rejectedCount;
+    private long retryCount;
+    private double averageAckMillis;
+    private double maxAckMillis;
+}
@@ -0,0 +1,29 @@
+package com.toufik.trxgeneratorservice.mt103trx.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sequence of load stages applied one after another to the target TPS.
+ * A linear stage ramps from the previous stage's rate to its own target over its duration;
+ * otherwise the target is applied immediately and held for the duration.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RampProfile {
+    private List<Stage> stages = new ArrayList<>();
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Stage {
+        private double targetTps;
+        private long durationSeconds;
+        private boolean linear;
+    }
+}
@@ -0,0 +1,10 @@
+package com.toufik.trxgeneratorservice.mt103trx.model;
+
+/**
+ * Kinds of transactions the generator can emit
+ */
+public enum TransactionType {
+    NORMAL,
+    FRAUD,
+    INVALID
+}
@@ -1,14 +0,0 @@
-package com.toufik.trxgeneratorservice.mt103trx.model;
-
-
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-import lombok.Data;
-import lombok.NoArgsConstructor;
-
-@Data
-@NoArgsConstructor
-@JsonIgnoreProperties(ignoreUnknown = true)
-public class TransactionWithMT103Event {
-    private Transaction transaction;
-    private String mt103Content;
-}
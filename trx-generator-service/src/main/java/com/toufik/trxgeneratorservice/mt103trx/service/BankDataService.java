@@ -1,64 +1,50 @@
 package com.toufik.trxgeneratorservice.mt103trx.service;
 
 import com.toufik.trxgeneratorservice.mt103trx.model.BankInfo;
+import com.toufik.trxgeneratorservice.mt103trx.util.BankCsv;
+import com.toufik.trxgeneratorservice.mt103trx.util.BankDirectory;
+import com.toufik.trxgeneratorservice.mt103trx.util.BankRegistry;
+import com.toufik.trxgeneratorservice.mt103trx.util.RandomStreams;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 
-import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 
 @Service
 @Slf4j
 public class BankDataService {
 
-    private final List<BankInfo> banks = new ArrayList<>();
-    private final Random random = new Random();
+    @Value("${generator.banks.directory:}")
+    private String directoryFile;
+
+    @Value("${generator.banks.source:}")
+    private String sourceCsv;
+
+    private List<BankInfo> banks = new ArrayList<>();
+    private BankDirectory directory;
+    private volatile BankRegistry registry = new BankRegistry(List.of());
 
     @PostConstruct
+    public void loadBanks() {
+        if (directoryFile == null || directoryFile.isBlank()) {
+            loadBanksFromCsv();
+        } else {
+            loadBankDirectory(Path.of(directoryFile));
+        }
+    }
+
     public void loadBanksFromCsv() {
-        try {
-            ClassPathResource resource = new ClassPathResource("banks.csv");
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream()))) {
-                String line;
-                boolean isHeader = true;
-
-                while ((line = reader.readLine()) != null) {
-                    if (isHeader) {
-                        isHeader = false;
-                        continue;
-                    }
-
-                    String[] fields = line.split(",");
-                    if (fields.length >= 6) { // Updated to require at least 6 fields (added country name)
-                        String ibanPrefix = fields.length > 6 ? fields[6].trim() : "";
-                        String ibanLengthStr = fields.length > 7 ? fields[7].trim() : "";
-
-                        Integer ibanLength = null;
-                        if (!ibanLengthStr.isEmpty()) {
-                            try {
-                                ibanLength = Integer.parseInt(ibanLengthStr);
-                            } catch (NumberFormatException e) {
-                                log.warn("Invalid IBAN length for {}: {}", fields[0], ibanLengthStr);
-                            }
-                        }
-
-                        BankInfo bank = new BankInfo(
-                                fields[0].trim(), // swiftCode
-                                fields[1].trim(), // countryCode
-                                fields[2].trim(), // countryName (new field)
-                                fields[3].trim(), // bankName
-                                fields[4].trim(), // routingNumber
-                                fields[5].trim(), // currencyCode
-                                ibanPrefix.isEmpty() ? fields[1].trim() : ibanPrefix, // use CSV prefix or country code
-                                ibanLength // use CSV length or null
-                        );
-                        banks.add(bank);
-                    }
-                }
-            }
+        try (Reader reader = new InputStreamReader(new ClassPathResource("banks.csv").getInputStream())) {
+            banks.addAll(BankCsv.read(reader));
+            registry = new BankRegistry(banks);
             log.info("Loaded {} banks", banks.size());
         } catch (Exception e) {
             log.error("Error loading banks: {}", e.getMessage());
@@ -66,16 +52,78 @@ public class BankDataService {
         }
     }
 
+    /**
+     * Maps the binary BIC directory, converting the source CSV first when the file is missing or older than it.
+     */
+    public void loadBankDirectory(Path file) {
+        try {
+            Path source = sourceCsv == null || sourceCsv.isBlank() ? null : Path.of(sourceCsv);
+            if (Files.notExists(file) || (source != null
+                    && Files.getLastModifiedTime(source).compareTo(Files.getLastModifiedTime(file)) > 0)) {
+                convertToDirectory(source, file);
+            }
+            directory = BankDirectory.open(file);
+            banks = directory.asList();
+            registry = new BankRegistry(List.of());
+            log.info("Mapped {} banks from {}", directory.size(), file);
+        } catch (Exception e) {
+            log.error("Error loading bank directory {}: {}", file, e.getMessage());
+            throw new RuntimeException("Failed to load bank directory", e);
+        }
+    }
+
+    private void convertToDirectory(Path source, Path file) throws IOException {
+        List<BankInfo> parsed;
+        try (Reader reader = source != null
+                ? Files.newBufferedReader(source)
+                : new InputStreamReader(new ClassPathResource("banks.csv").getInputStream())) {
+            parsed = BankCsv.read(reader);
+        }
+        if (file.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+        }
+        int written = BankDirectory.write(parsed, file);
+        log.info("Converted {} banks from {} into {}", written, source != null ? source : "banks.csv", file);
+    }
+
     public BankInfo getRandomBank() {
-        return banks.get(random.nextInt(banks.size()));
+        return banks.get(RandomStreams.current().nextInt(banks.size()));
+    }
+
+    public List<BankInfo> getBanks() {
+        return Collections.unmodifiableList(banks);
+    }
+
+    public BankInfo findBySwift(String swiftCode) {
+        if (directory != null) {
+            return directory.findBySwift(swiftCode);
+        }
+        BankRegistry.Entry entry = registry.findBySwift(swiftCode);
+        return entry != null ? entry.bank() : null;
+    }
+
+    /**
+     * Precomputed registry entry for {@code bank}: region flags and IBAN arithmetic.
+     */
+    public BankRegistry.Entry entryFor(BankInfo bank) {
+        return registry.entryFor(bank);
     }
 
     public String generateIBAN(BankInfo bank, String accountNumber) {
+        BankRegistry.Entry entry = registry.entryFor(bank);
         // Check if country uses IBAN based on CSV data
-        if (bank.getIbanLength() == null || bank.getIbanLength() == 0) {
+        if (!entry.usesIban()) {
             return "This country does not use IBAN";
         }
 
+        String iban = entry.generateIBAN(accountNumber);
+        return iban != null ? iban : generateIBANFromStrings(bank, accountNumber);
+    }
+
+    /**
+     * Reference implementation; only used for IBAN prefixes the precomputed registry entry cannot handle.
+     */
+    String generateIBANFromStrings(BankInfo bank, String accountNumber) {
         String countryCode = bank.getIbanPrefix();
         String bankCode = bank.getRoutingNumber().replaceAll("[^0-9]", "");
         if (bankCode.length() > 8) bankCode = bankCode.substring(0, 8);
@@ -1,22 +1,29 @@
 package com.toufik.trxgeneratorservice.mt103trx.service;
 
+import com.toufik.trxcommon.model.Transaction;
 import com.toufik.trxgeneratorservice.mt103trx.model.BankInfo;
-import com.toufik.trxgeneratorservice.mt103trx.model.Transaction;
+import com.toufik.trxgeneratorservice.mt103trx.util.BankRegistry;
+import com.toufik.trxgeneratorservice.mt103trx.util.RandomStreams;
+import com.toufik.trxgeneratorservice.mt103trx.util.TimeOrderedIdGenerator;
+import com.toufik.trxgeneratorservice.mt103trx.util.TransactionIdGenerator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.Random;
-import java.util.UUID;
+import java.util.random.RandomGenerator;
 
 @Slf4j
 public abstract class BaseTransactionFactory {
 
+    private static final TransactionIdGenerator DEFAULT_ID_GENERATOR = new TimeOrderedIdGenerator(0);
+
     @Autowired
     protected BankDataService bankDataService;
 
-    protected final Random random = new Random();
+    @Autowired
+    protected TransactionIdGenerator transactionIdGenerator = DEFAULT_ID_GENERATOR;
+
     protected final String[] transactionStatuses = {"PENDING", "PROCESSING"};
 
     /**
@@ -31,26 +38,23 @@ public abstract class BaseTransactionFactory {
         String fromIBAN = generateIBANForBank(fromBank, fromAccount);
         String toIBAN = generateIBANForBank(toBank, toAccount);
 
-        Transaction transaction = new Transaction(
-                UUID.randomUUID().toString(),
-                fromAccount,
-                toAccount,
-                generateRandomAmount(),
-                determineCurrency(fromBank, toBank),
-                fromBank.getSwiftCode(),
-                toBank.getSwiftCode(),
-                fromBank.getBankName(),
-                toBank.getBankName(),
-                LocalDateTime.now(),
-                transactionStatuses[random.nextInt(transactionStatuses.length)]
-        );
-
-        transaction.setFromIBAN(fromIBAN);
-        transaction.setToIBAN(toIBAN);
-        transaction.setFromCountryCode(fromBank.getCountryCode());
-        transaction.setToCountryCode(toBank.getCountryCode());
-
-        return transaction;
+        return Transaction.builder()
+                .transactionId(transactionIdGenerator.nextId())
+                .fromAccount(fromAccount)
+                .toAccount(toAccount)
+                .amount(generateRandomAmount())
+                .currency(determineCurrency(fromBank, toBank))
+                .fromBankSwift(fromBank.getSwiftCode())
+                .toBankSwift(toBank.getSwiftCode())
+                .fromBankName(fromBank.getBankName())
+                .toBankName(toBank.getBankName())
+                .timestamp(LocalDateTime.now())
+                .status(transactionStatuses[random().nextInt(transactionStatuses.length)])
+                .fromIBAN(fromIBAN)
+                .toIBAN(toIBAN)
+                .fromCountryCode(fromBank.getCountryCode())
+                .toCountryCode(toBank.getCountryCode())
+                .build();
     }
 
     protected BankInfo getDistinctToBank(BankInfo fromBank) {
@@ -83,23 +87,18 @@ public abstract class BaseTransactionFactory {
     }
 
     protected String determineCurrency(BankInfo fromBank, BankInfo toBank) {
-        if (isEuropeanBank(fromBank) && isEuropeanBank(toBank)) {
+        BankRegistry.Entry from = bankDataService.entryFor(fromBank);
+        BankRegistry.Entry to = bankDataService.entryFor(toBank);
+        if (from.isEuropean() && to.isEuropean()) {
             return "EUR";
-        } else if (isUSBank(fromBank) || isUSBank(toBank)) {
+        } else if (from.isUS() || to.isUS()) {
             return "USD";
         }
         return fromBank.getCurrencyCode();
     }
 
-    protected boolean isEuropeanBank(BankInfo bank) {
-        return bank.getCountryCode().matches("DE|FR|IT|ES|NL|BE|AT|PT|IE|FI|LU");
-    }
-
-    protected boolean isUSBank(BankInfo bank) {
-        return "US".equals(bank.getCountryCode());
-    }
-
     protected String generateAccountNumber() {
+        RandomGenerator random = random();
         StringBuilder accountNumber = new StringBuilder();
         int length = random.nextDouble() < 0.7 ? 12 : 10;
 
@@ -110,6 +109,13 @@ public abstract class BaseTransactionFactory {
         return accountNumber.toString();
     }
 
+    /**
+     * Random stream of the calling thread, see {@link RandomStreams}
+     */
+    protected RandomGenerator random() {
+        return RandomStreams.current();
+    }
+
     /**
      * Abstract method to be implemented by subclasses for different amount generation strategies
      */
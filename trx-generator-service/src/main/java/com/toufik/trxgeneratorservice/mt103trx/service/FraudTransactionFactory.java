@@ -1,7 +1,7 @@
 package com.toufik.trxgeneratorservice.mt103trx.service;
 
+import com.toufik.trxcommon.model.Transaction;
 import com.toufik.trxgeneratorservice.mt103trx.model.BankInfo;
-import com.toufik.trxgeneratorservice.mt103trx.model.Transaction;
 import com.toufik.trxgeneratorservice.mt103trx.util.AmountGenerator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -9,7 +9,6 @@ import org.springframework.stereotype.Component;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.Random;
 
 @Component
 @Slf4j
@@ -18,80 +17,83 @@ public class FraudTransactionFactory extends BaseTransactionFactory {
     private static final String[] HIGH_RISK_COUNTRIES = {
             "AF", "IR", "KP", "MM", "SY", "YE"};
 
-    private final Random random = new Random();
-
     public Transaction createFraudTransaction() {
-        Transaction transaction = createBaseTransaction();
-        applyRandomFraudPattern(transaction);
-        return transaction;
+        return applyRandomFraudPattern(createBaseTransaction());
     }
 
-    private void applyRandomFraudPattern(Transaction transaction) {
-        int pattern = random.nextInt(4);
-        switch (pattern) {
+    private Transaction applyRandomFraudPattern(Transaction transaction) {
+        int pattern = random().nextInt(4);
+        return switch (pattern) {
             case 0 -> {
-                applyHighAmountPattern(transaction);
+                Transaction fraud = applyHighAmountPattern(transaction);
                 log.info("Applied fraud pattern: High Amount");
+                yield fraud;
             }
             case 1 -> {
-                applyOffHoursPattern(transaction);
+                Transaction fraud = applyOffHoursPattern(transaction);
                 log.info("Applied fraud pattern: Off Hours");
+                yield fraud;
             }
             case 2 -> {
-                applySuspiciousRemittancePattern(transaction);
+                Transaction fraud = applySuspiciousRemittancePattern(transaction);
                 log.info("Applied fraud pattern: Suspicious Remittance");
+                yield fraud;
             }
-            case 3 -> {
-                applyCrossBorderHighRiskPattern(transaction);
+            default -> {
+                Transaction fraud = applyCrossBorderHighRiskPattern(transaction);
                 log.info("Applied fraud pattern: Cross-Border High Risk");
+                yield fraud;
             }
-        }
+        };
     }
-    private void applyHighAmountPattern(Transaction transaction) {
+    private Transaction applyHighAmountPattern(Transaction transaction) {
         BankInfo fromBank = bankDataService.getRandomBank();
         BankInfo toBank = getDistinctToBank(fromBank);
 
-        updateTransactionBanks(transaction, fromBank, toBank);
+        Transaction.TransactionBuilder builder = withBanks(transaction, fromBank, toBank);
 
         BigDecimal amount = AmountGenerator.generateHigh();
-        transaction.setAmount(amount);
         log.info("Applied HIGH_AMOUNT pattern with amount: {}", amount);
+        return builder.amount(amount).build();
     }
 
-    private void applyOffHoursPattern(Transaction transaction) {
+    private Transaction applyOffHoursPattern(Transaction transaction) {
         BankInfo fromBank = bankDataService.getRandomBank();
         BankInfo toBank = getDistinctToBank(fromBank);
 
-        updateTransactionBanks(transaction, fromBank, toBank);
+        Transaction.TransactionBuilder builder = withBanks(transaction, fromBank, toBank);
 
         LocalDateTime now = LocalDateTime.now();
         LocalTime offHoursTime = generateOffHoursTime();
         LocalDateTime offHoursDateTime = now.with(offHoursTime);
 
-        transaction.setTimestamp(offHoursDateTime);
-        transaction.setAmount(AmountGenerator.generateMedium());
         log.debug("Applied OFF_HOURS pattern at: {}", offHoursDateTime);
+        return builder.timestamp(offHoursDateTime)
+                .amount(AmountGenerator.generateMedium())
+                .build();
     }
 
-    private void applySuspiciousRemittancePattern(Transaction transaction) {
+    private Transaction applySuspiciousRemittancePattern(Transaction transaction) {
         // Use BankDataService to get banks from CSV
         BankInfo fromBank = bankDataService.getRandomBank();
         BankInfo toBank = getDistinctToBank(fromBank);
 
-        updateTransactionBanks(transaction, fromBank, toBank);
+        Transaction.TransactionBuilder builder = withBanks(transaction, fromBank, toBank);
 
-        transaction.setAmount(AmountGenerator.generatePatternAmounts(random));
         log.info("Applied SUSPICIOUS_REMITTANCE pattern");
+        return builder.amount(AmountGenerator.generatePatternAmounts(random())).build();
     }
 
-    private void applyCrossBorderHighRiskPattern(Transaction transaction) {
-        String riskCountry = HIGH_RISK_COUNTRIES[random.nextInt(HIGH_RISK_COUNTRIES.length)];
-        transaction.setToCountryCode(riskCountry);
+    private Transaction applyCrossBorderHighRiskPattern(Transaction transaction) {
+        String riskCountry = HIGH_RISK_COUNTRIES[random().nextInt(HIGH_RISK_COUNTRIES.length)];
 
-        BigDecimal amount = random.nextBoolean() ?
+        BigDecimal amount = random().nextBoolean() ?
                 AmountGenerator.generateMedium() : AmountGenerator.generateHigh();
-        transaction.setAmount(amount);
         log.info("Applied CROSS_BORDER_HIGH_RISK pattern to country: {} with amount: {}", riskCountry, amount);
+        return transaction.toBuilder()
+                .toCountryCode(riskCountry)
+                .amount(amount)
+                .build();
     }
 
     @Override
@@ -100,34 +102,35 @@ public class FraudTransactionFactory extends BaseTransactionFactory {
     }
 
     private LocalTime generateOffHoursTime() {
-        int hour = random.nextBoolean() ?
-                random.nextInt(5) + 23 :
-                random.nextInt(6);
+        int hour = random().nextBoolean() ?
+                random().nextInt(5) + 23 :
+                random().nextInt(6);
 
         if (hour >= 24) hour -= 24;
 
-        int minute = random.nextInt(60);
-        int second = random.nextInt(60);
+        int minute = random().nextInt(60);
+        int second = random().nextInt(60);
 
         return LocalTime.of(hour, minute, second);
     }
 
-    private void updateTransactionBanks(Transaction transaction, BankInfo fromBank, BankInfo toBank) {
+    private Transaction.TransactionBuilder withBanks(Transaction transaction, BankInfo fromBank, BankInfo toBank) {
         String fromAccount = generateAccountNumber();
         String toAccount = generateAccountNumber();
         String fromIBAN = generateIBANForBank(fromBank, fromAccount);
         String toIBAN = generateIBANForBank(toBank, toAccount);
 
-        transaction.setFromAccount(fromAccount);
-        transaction.setToAccount(toAccount);
-        transaction.setFromBankSwift(fromBank.getSwiftCode());
-        transaction.setToBankSwift(toBank.getSwiftCode());
-        transaction.setFromBankName(fromBank.getBankName());
-        transaction.setToBankName(toBank.getBankName());
-        transaction.setFromIBAN(fromIBAN);
-        transaction.setToIBAN(toIBAN);
-        transaction.setFromCountryCode(fromBank.getCountryCode());
-        transaction.setToCountryCode(toBank.getCountryCode());
-        transaction.setCurrency(determineCurrency(fromBank, toBank));
+        return transaction.toBuilder()
+                .fromAccount(fromAccount)
+                .toAccount(toAccount)
+                .fromBankSwift(fromBank.getSwiftCode())
+                .toBankSwift(toBank.getSwiftCode())
+                .fromBankName(fromBank.getBankName())
+                .toBankName(toBank.getBankName())
+                .fromIBAN(fromIBAN)
+                .toIBAN(toIBAN)
+                .fromCountryCode(fromBank.getCountryCode())
+                .toCountryCode(toBank.getCountryCode())
+                .currency(determineCurrency(fromBank, toBank));
     }
 }
\ No newline at end of file
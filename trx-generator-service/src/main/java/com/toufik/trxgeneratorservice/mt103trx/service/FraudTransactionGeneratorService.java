@@ -1,12 +1,16 @@
 package com.toufik.trxgeneratorservice.mt103trx.service;
 
-import com.toufik.trxgeneratorservice.mt103trx.model.Transaction;
-import com.toufik.trxgeneratorservice.mt103trx.model.TransactionWithMT103Event;
+import com.toufik.trxcommon.model.Transaction;
+import com.toufik.trxcommon.model.TransactionWithMT103Event;
+import com.toufik.trxgeneratorservice.mt103trx.entity.TransactionEntity;
+import com.toufik.trxgeneratorservice.mt103trx.model.TransactionType;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
 @Slf4j
 public class FraudTransactionGeneratorService {
@@ -19,46 +23,43 @@ public class FraudTransactionGeneratorService {
 
     private final TransactionSaveService transactionSaveService; // Added
 
-    public FraudTransactionGeneratorService(FraudTransactionFactory fraudTransactionFactory, TransactionProducer transactionProducer, FraudMT103MessageFormatter fraudMT103MessageFormatter, TransactionSaveService transactionSaveService) {
+    private final TransactionGenerationEngine generationEngine;
+
+    public FraudTransactionGeneratorService(FraudTransactionFactory fraudTransactionFactory, TransactionProducer transactionProducer, FraudMT103MessageFormatter fraudMT103MessageFormatter, TransactionSaveService transactionSaveService, TransactionGenerationEngine generationEngine) {
         this.fraudTransactionFactory = fraudTransactionFactory;
         this.transactionProducer = transactionProducer;
         this.fraudMT103MessageFormatter = fraudMT103MessageFormatter;
         this.transactionSaveService = transactionSaveService;
+        this.generationEngine = generationEngine;
+        generationEngine.register(TransactionType.FRAUD, this::emitFraudTransaction);
     }
 
     @Scheduled(fixedRate = 30000)
     public void generateAndSendFraudTransaction() {
-        try {
-            TransactionWithMT103Event fraudTransactionEvent = generateFraudTransactionWithMT103();
-
-            // Save to MongoDB with fraud pattern
-            transactionSaveService.saveFraudTransaction(
-                    fraudTransactionEvent.getTransaction(),
-                    fraudTransactionEvent.getMt103Content(),
-                    "RANDOM_PATTERN" // You can determine the actual pattern from FraudTransactionFactory
-            );
+        generationEngine.tick(TransactionType.FRAUD);
+    }
 
-            logFraudTransactionDetails(fraudTransactionEvent.getTransaction());
-            transactionProducer.sendTransaction(fraudTransactionEvent);
+    private CompletableFuture<Void> emitFraudTransaction() {
+        TransactionWithMT103Event fraudTransactionEvent = generateFraudTransactionWithMT103();
+        TransactionEntity entity = transactionSaveService.toFraudEntity(
+                fraudTransactionEvent.getTransaction(),
+                fraudTransactionEvent.getMt103Content(),
+                "RANDOM_PATTERN" // You can determine the actual pattern from FraudTransactionFactory
+        );
 
-        } catch (Exception e) {
-            log.error("Error generating fraud transaction: {}", e.getMessage(), e);
-        }
+        // Saved to MongoDB with its fraud pattern once Kafka has acknowledged it
+        return transactionSaveService.saveWhenSent(entity, transactionProducer.sendTransaction(fraudTransactionEvent))
+                .thenRun(() -> logFraudTransactionDetails(fraudTransactionEvent.getTransaction()));
     }
 
     private TransactionWithMT103Event generateFraudTransactionWithMT103() {
         Transaction fraudTransaction = fraudTransactionFactory.createFraudTransaction();
         String mt103Content = fraudMT103MessageFormatter.formatToMT103(fraudTransaction);
-        TransactionWithMT103Event event = new TransactionWithMT103Event();
-        event.setTransaction(fraudTransaction);
-        event.setMt103Content(mt103Content);
-        return event;
+        return TransactionWithMT103Event.of(fraudTransaction, mt103Content);
     }
 
     private void logFraudTransactionDetails(Transaction transaction) {
-        log.info("======================= FRAUD TRANSACTION =============================");
-        log.info("Transaction ID: {}", transaction.getTransactionId());
-        log.info("Amount: {} {}", transaction.getAmount(), transaction.getCurrency());
-        log.info("===================================================================");
+        log.debug("Generated FRAUD transaction: {} | Amount: {} {}",
+                transaction.getTransactionId(), transaction.getAmount(), transaction.getCurrency());
     }
 }
\ No newline at end of file
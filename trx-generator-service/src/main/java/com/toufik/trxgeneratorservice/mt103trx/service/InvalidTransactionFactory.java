@@ -1,14 +1,13 @@
 package com.toufik.trxgeneratorservice.mt103trx.service;
 
+import com.toufik.trxcommon.model.Transaction;
+import com.toufik.trxcommon.model.TransactionWithMT103Event;
 import com.toufik.trxgeneratorservice.mt103trx.model.InvalidScenario;
-import com.toufik.trxgeneratorservice.mt103trx.model.Transaction;
-import com.toufik.trxgeneratorservice.mt103trx.model.TransactionWithMT103Event;
+import com.toufik.trxgeneratorservice.mt103trx.util.RandomStreams;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.util.Random;
-
 /**
  * Factory for creating invalid transactions with corrupted MT103 messages
  */
@@ -19,7 +18,6 @@ public class InvalidTransactionFactory {
 
     private final TransactionGeneratorService transactionGenerator;
     private final MT103MessageCorruptor mt103MessageCorruptor;
-    private final Random random = new Random();
 
     private final InvalidScenario[] invalidScenarios = InvalidScenario.values();
 
@@ -28,9 +26,7 @@ public class InvalidTransactionFactory {
         Transaction transaction = transactionGenerator.createBaseTransaction();
         InvalidScenario scenario = selectRandomScenario();
         String invalidMT103Content = mt103MessageCorruptor.generateInvalidMT103(transaction, scenario);
-        TransactionWithMT103Event result = new TransactionWithMT103Event();
-        result.setTransaction(transaction);
-        result.setMt103Content(invalidMT103Content);
+        TransactionWithMT103Event result = TransactionWithMT103Event.of(transaction, invalidMT103Content);
         log.warn("Created invalid transaction with scenario: {} for transaction: {}",
                 scenario, transaction.getTransactionId());
 
@@ -38,6 +34,6 @@ public class InvalidTransactionFactory {
     }
 
     private InvalidScenario selectRandomScenario() {
-        return invalidScenarios[random.nextInt(invalidScenarios.length)];
+        return invalidScenarios[RandomStreams.current().nextInt(invalidScenarios.length)];
     }
 }
\ No newline at end of file
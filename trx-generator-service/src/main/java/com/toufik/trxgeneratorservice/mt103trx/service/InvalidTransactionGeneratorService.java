@@ -1,12 +1,16 @@
 package com.toufik.trxgeneratorservice.mt103trx.service;
 
-import com.toufik.trxgeneratorservice.mt103trx.model.TransactionWithMT103Event;
+import com.toufik.trxcommon.model.TransactionWithMT103Event;
+import com.toufik.trxgeneratorservice.mt103trx.entity.TransactionEntity;
+import com.toufik.trxgeneratorservice.mt103trx.model.TransactionType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
 @Slf4j
 public class InvalidTransactionGeneratorService {
@@ -14,37 +18,37 @@ public class InvalidTransactionGeneratorService {
     private final InvalidTransactionFactory invalidTransactionFactory;
     private final TransactionProducer transactionProducer;
     private final TransactionSaveService transactionSaveService; // Added
+    private final TransactionGenerationEngine generationEngine;
 
     @Autowired
-    public InvalidTransactionGeneratorService(InvalidTransactionFactory invalidTransactionFactory, TransactionProducer transactionProducer, TransactionSaveService transactionSaveService) {
+    public InvalidTransactionGeneratorService(InvalidTransactionFactory invalidTransactionFactory, TransactionProducer transactionProducer, TransactionSaveService transactionSaveService, TransactionGenerationEngine generationEngine) {
         this.invalidTransactionFactory = invalidTransactionFactory;
         this.transactionProducer = transactionProducer;
         this.transactionSaveService = transactionSaveService;
+        this.generationEngine = generationEngine;
+        generationEngine.register(TransactionType.INVALID, this::emitInvalidTransaction);
     }
 
     @Scheduled(fixedRate = 10000)
     public void generateAndSendInvalidTransaction() {
-        try {
-            TransactionWithMT103Event invalidTransactionEvent = invalidTransactionFactory.createInvalidTransaction();
-
-            transactionSaveService.saveInvalidTransaction(
-                    invalidTransactionEvent.getTransaction(),
-                    invalidTransactionEvent.getMt103Content(),
-                    "CORRUPTED_MT103"
-            );
-
-            logInvalidTransactionDetails(invalidTransactionEvent);
-            transactionProducer.sendTransaction(invalidTransactionEvent);
-
-            log.info("Successfully sent invalid transaction: {}",
-                    invalidTransactionEvent.getTransaction().getTransactionId());
+        generationEngine.tick(TransactionType.INVALID);
+    }
 
-        } catch (Exception e) {
-            log.error("Error generating invalid transaction: {}", e.getMessage(), e);
-        }
+    private CompletableFuture<Void> emitInvalidTransaction() {
+        TransactionWithMT103Event invalidTransactionEvent = invalidTransactionFactory.createInvalidTransaction();
+        TransactionEntity entity = transactionSaveService.toInvalidEntity(
+                invalidTransactionEvent.getTransaction(),
+                invalidTransactionEvent.getMt103Content(),
+                "CORRUPTED_MT103"
+        );
+
+        logInvalidTransactionDetails(invalidTransactionEvent);
+        return transactionSaveService.saveWhenSent(entity, transactionProducer.sendTransaction(invalidTransactionEvent))
+                .thenRun(() -> log.debug("Successfully sent invalid transaction: {}",
+                        invalidTransactionEvent.getTransaction().getTransactionId()));
     }
 
     private void logInvalidTransactionDetails(TransactionWithMT103Event invalidTransactionEvent) {
-        log.warn("Generated INVALID transaction: {}", invalidTransactionEvent.getTransaction().getTransactionId());
+        log.debug("Generated INVALID transaction: {}", invalidTransactionEvent.getTransaction().getTransactionId());
     }
 }
\ No newline at end of file
@@ -0,0 +1,125 @@
+package com.toufik.trxgeneratorservice.mt103trx.service;
+
+import com.toufik.trxcommon.model.Transaction;
+import com.toufik.trxgeneratorservice.mt103trx.model.BankInfo;
+import com.toufik.trxgeneratorservice.mt103trx.util.MT103Slot;
+import com.toufik.trxgeneratorservice.mt103trx.util.MT103Writer;
+import com.toufik.trxgeneratorservice.mt103trx.util.RandomStreams;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+import static com.toufik.trxgeneratorservice.mt103trx.util.MT103Writer.bytes;
+
+/**
+ * Allocation-light variant of {@link MT103MessageFormatter}. Messages are rendered into a reusable
+ * per-thread {@link MT103Writer}, and LT addresses, BIC bytes and intermediary banks are precomputed
+ * for every bank in the directory. Output is identical to the default formatter.
+ */
+@Slf4j
+public class MT103BufferFormatter extends MT103MessageFormatter {
+
+    private static final byte[] FIELD_56A = bytes(":56A:");
+    private static final int MAX_PRECOMPUTED_BICS = 50_000;
+
+    private final ThreadLocal<MT103Writer> writers = ThreadLocal.withInitial(() -> new MT103Writer(1024));
+    private final Map<String, BicEntry> bicEntries;
+
+    public MT103BufferFormatter(BankDataService bankDataService) {
+        this.bicEntries = precomputeBicEntries(bankDataService);
+    }
+
+    /**
+     * Writes the message into {@code target} without building a String and returns the number of bytes written.
+     * Characters outside ISO-8859-1 are written as '?'.
+     */
+    public int formatInto(Transaction transaction, ByteBuffer target) {
+        return formatInto(transaction, target, RandomStreams.current());
+    }
+
+    int formatInto(Transaction transaction, ByteBuffer target, RandomGenerator random) {
+        MT103Writer out = writer();
+        render(out, transaction, random);
+        return out.writeTo(target);
+    }
+
+    @Override
+    protected MT103Writer writer() {
+        return writers.get().reset();
+    }
+
+    @Override
+    protected Map<String, MT103Slot> slotOverrides() {
+        return bicSlots(bicEntries);
+    }
+
+    private static Map<String, BicEntry> precomputeBicEntries(BankDataService bankDataService) {
+        var latin1 = StandardCharsets.ISO_8859_1.newEncoder();
+        Map<String, BicEntry> entries = new HashMap<>();
+        for (BankInfo bank : bankDataService.getBanks()) {
+            if (entries.size() >= MAX_PRECOMPUTED_BICS) {
+                break;
+            }
+            String bic = bank.getSwiftCode();
+            if (bic != null && latin1.canEncode(bic) && latin1.canEncode(formatLTAddress(bic))) {
+                entries.computeIfAbsent(bic, BicEntry::of);
+            }
+        }
+        log.info("Precomputed LT addresses for {} BICs", entries.size());
+        return entries;
+    }
+
+    /**
+     * BICs outside the precomputed set (including the tail of very large directories) go through the String path,
+     * so they render exactly like the default formatter.
+     */
+    private static Map<String, MT103Slot> bicSlots(Map<String, BicEntry> entries) {
+        return Map.of(
+                "senderLT", (out, t, r) -> writeLTAddress(out, entries.get(t.getFromBankSwift()), t.getFromBankSwift()),
+                "receiverLT", (out, t, r) -> writeLTAddress(out, entries.get(t.getToBankSwift()), t.getToBankSwift()),
+                "fromSwift", (out, t, r) -> writeBic(out, entries.get(t.getFromBankSwift()), t.getFromBankSwift()),
+                "toSwift", (out, t, r) -> writeBic(out, entries.get(t.getToBankSwift()), t.getToBankSwift()),
+                "intermediary", (out, t, r) -> {
+                    if (needsIntermediaryBank(t)) {
+                        BicEntry entry = entries.get(t.getToBankSwift());
+                        out.write(FIELD_56A);
+                        if (entry != null) {
+                            out.write(entry.intermediary);
+                        } else {
+                            out.write(intermediaryBankSwift(t.getToBankSwift()));
+                        }
+                        out.write('\n');
+                    }
+                });
+    }
+
+    private static void writeLTAddress(MT103Writer out, BicEntry entry, String bic) {
+        if (entry != null) {
+            out.write(entry.ltAddress);
+        } else {
+            out.write(formatLTAddress(bic));
+        }
+    }
+
+    private static void writeBic(MT103Writer out, BicEntry entry, String bic) {
+        if (entry != null) {
+            out.write(entry.bic);
+        } else {
+            out.write(bic);
+        }
+    }
+
+    private record BicEntry(byte[] ltAddress, byte[] bic, byte[] intermediary) {
+
+        static BicEntry of(String bic) {
+            return new BicEntry(
+                    bytes(formatLTAddress(bic)),
+                    bytes(bic),
+                    bytes(intermediaryBankSwift(bic)));
+        }
+    }
+}
@@ -1,26 +1,73 @@
 package com.toufik.trxgeneratorservice.mt103trx.service;
 
+import com.toufik.trxcommon.model.Transaction;
 import com.toufik.trxgeneratorservice.mt103trx.model.InvalidScenario;
-import com.toufik.trxgeneratorservice.mt103trx.model.Transaction;
-import com.toufik.trxgeneratorservice.mt103trx.service.MT103MessageFormatter;
-import lombok.RequiredArgsConstructor;
+import com.toufik.trxgeneratorservice.mt103trx.util.MT103Slot;
+import com.toufik.trxgeneratorservice.mt103trx.util.MT103Template;
+import com.toufik.trxgeneratorservice.mt103trx.util.MT103Writer;
+import com.toufik.trxgeneratorservice.mt103trx.util.RandomStreams;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
-import java.time.format.DateTimeFormatter;
-import java.util.Random;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+import static com.toufik.trxgeneratorservice.mt103trx.util.MT103Writer.bytes;
 
 
 @Component
 @Slf4j
 public class MT103MessageCorruptor {
 
+    /**
+     * Reduced message used by the field-level scenarios: headers, :20:, :23B:, :32A:, both parties and a fixed trailer.
+     */
+    private static final String PARTIAL_LAYOUT =
+            "${block1}${block2}${block3}\n{4:\n${field20}${field23B}${field32A}" +
+            ":50K:/${fromAccount}\n${fromBankName}\n:59:/${toAccount}\n${toBankName}\n}${trailer}";
+
+    /**
+     * Same message with corrupted separators in block 4 and missing colons on the party fields.
+     */
+    private static final String CORRUPTED_STRUCTURE_LAYOUT =
+            "${block1}${block2}${block3}\n{4:\n${corruptedFields}" +
+            "50K:/${fromAccount}\n${fromBankName}\n:59/${toAccount}\n${toBankName}\n}${trailer}";
+
+    private static final String[] INVALID_DATES = {
+            "20241301", // Invalid month
+            "20240230", // Invalid day
+            "240101",   // Wrong year format
+            "2024-01-01", // Wrong format with dashes
+            "INVALID",  // Non-numeric
+            "999999",   // Wrong length
+            "",         // Empty
+            "20241401"  // Invalid month
+    };
+
+    private static final String[] INVALID_AMOUNTS = {
+            "",
+            "INVALID",
+            "123.45.67",
+            "12345.123",
+            "-1000,00",
+            "0",
+            "999999999999999.99",
+            "12,34.56",
+            "ABC123"
+    };
+
+    private static final byte[] FIXED_TRAILER = bytes("\n{5:{MAC:12345678}{CHK:123456789ABC}}");
+    private static final byte[] NEWLINE = bytes("\n");
+
     private final MT103MessageFormatter mt103MessageFormatter;
-    private final Random random = new Random();
+    private final Map<InvalidScenario, MT103Template> templates = new EnumMap<>(InvalidScenario.class);
 
     public MT103MessageCorruptor(@Qualifier("MT103MessageFormatter") MT103MessageFormatter mt103MessageFormatter) {
         this.mt103MessageFormatter = mt103MessageFormatter;
+        compileTemplates();
     }
 
 
@@ -28,57 +75,97 @@ public class MT103MessageCorruptor {
         log.debug("Generating invalid MT103 for scenario: {}", scenario);
 
         return switch (scenario) {
-            case MISSING_MANDATORY_FIELDS -> generateMT103WithMissingMandatoryFields(transaction);
             case INVALID_BIC_FORMAT -> generateMT103WithInvalidBIC(transaction);
-            case INVALID_DATE_FORMAT -> generateMT103WithInvalidDate(transaction);
-            case INVALID_AMOUNT_FORMAT -> generateMT103WithInvalidAmount(transaction);
-            case MISSING_HEADER_BLOCKS -> generateMT103WithMissingHeaders(transaction);
-            case INVALID_FIELD_STRUCTURE -> generateMT103WithInvalidFieldStructure(transaction);
             case TRUNCATED_MESSAGES -> generateTruncatedMT103(transaction);
             case INVALID_CHARACTERS -> generateMT103WithInvalidCharacters(transaction);
+            default -> render(templates.get(scenario), transaction);
         };
     }
 
-    private String generateMT103WithMissingMandatoryFields(Transaction transaction) {
-        StringBuilder mt103 = new StringBuilder();
-        String transactionRef = transaction.getTransactionId().substring(0, Math.min(16, transaction.getTransactionId().length()));
-
-        mt103.append("{1:F01").append(formatLTAddress(transaction.getFromBankSwift())).append("}");
-        mt103.append("{2:I103").append(formatLTAddress(transaction.getToBankSwift())).append("N}");
-        mt103.append("{3:{108:").append(transactionRef).append("}}");
-
-        mt103.append("\n{4:\n");
-
-        if (random.nextBoolean()) {
-            // Skip :20: field
-        } else {
-            mt103.append(":20:").append(transactionRef).append("\n");
-        }
+    private String render(MT103Template template, Transaction transaction) {
+        MT103Writer out = new MT103Writer();
+        template.render(out, transaction, RandomStreams.current());
+        return out.toString();
+    }
 
-        if (random.nextBoolean()) {
-            // Skip :23B: field
-        } else {
-            mt103.append(":23B:CRED\n");
-        }
+    private void compileTemplates() {
+        Map<String, MT103Slot> missingFields = partialSlots();
+        missingFields.put("field20", randomlySkipped(missingFields.get("field20")));
+        missingFields.put("field23B", randomlySkipped(missingFields.get("field23B")));
+        missingFields.put("field32A", randomlySkipped(missingFields.get("field32A")));
+        templates.put(InvalidScenario.MISSING_MANDATORY_FIELDS, MT103Template.compile(PARTIAL_LAYOUT, missingFields));
+
+        Map<String, MT103Slot> invalidDate = partialSlots();
+        invalidDate.put("field32A", (out, t, r) -> out.write(":32A:")
+                .write(INVALID_DATES[r.nextInt(INVALID_DATES.length)])
+                .write(t.getCurrency()).writeAmount(t.getAmount()).write(NEWLINE));
+        templates.put(InvalidScenario.INVALID_DATE_FORMAT, MT103Template.compile(PARTIAL_LAYOUT, invalidDate));
+
+        Map<String, MT103Slot> invalidAmount = partialSlots();
+        invalidAmount.put("field32A", (out, t, r) -> out.write(":32A:").writeValueDate(t.getTimestamp())
+                .write(t.getCurrency())
+                .write(INVALID_AMOUNTS[r.nextInt(INVALID_AMOUNTS.length)]).write(NEWLINE));
+        templates.put(InvalidScenario.INVALID_AMOUNT_FORMAT, MT103Template.compile(PARTIAL_LAYOUT, invalidAmount));
+
+        // Randomly skip header blocks, no trailer
+        Map<String, MT103Slot> missingHeaders = partialSlots();
+        missingHeaders.put("block1", randomlySkipped(missingHeaders.get("block1")));
+        missingHeaders.put("block2", randomlySkipped(missingHeaders.get("block2")));
+        missingHeaders.put("block3", randomlySkipped(missingHeaders.get("block3")));
+        missingHeaders.put("trailer", (out, t, r) -> { });
+        templates.put(InvalidScenario.MISSING_HEADER_BLOCKS, MT103Template.compile(PARTIAL_LAYOUT, missingHeaders));
+
+        Map<String, MT103Slot> corruptedStructure = partialSlots();
+        corruptedStructure.put("corruptedFields", corruptedFields());
+        templates.put(InvalidScenario.INVALID_FIELD_STRUCTURE,
+                MT103Template.compile(CORRUPTED_STRUCTURE_LAYOUT, corruptedStructure));
+    }
 
-        if (random.nextBoolean()) {
-            // Skip :32A: field
-        } else {
-            String valueDate = transaction.getTimestamp().format(DateTimeFormatter.ofPattern("yyMMdd"));
-            mt103.append(":32A:").append(valueDate).append(transaction.getCurrency())
-                    .append(transaction.getAmount().toString().replace(".", ",")).append("\n");
-        }
+    private static Map<String, MT103Slot> partialSlots() {
+        Map<String, MT103Slot> slots = new HashMap<>();
+        slots.put("block1", (out, t, r) -> out.write("{1:F01").write(formatLTAddress(t.getFromBankSwift())).write('}'));
+        slots.put("block2", (out, t, r) -> out.write("{2:I103").write(formatLTAddress(t.getToBankSwift())).write("N}"));
+        slots.put("block3", (out, t, r) -> out.write("{3:{108:").writeTruncated(t.getTransactionId(), 16).write("}}"));
+        slots.put("field20", (out, t, r) -> out.write(":20:").writeTruncated(t.getTransactionId(), 16).write(NEWLINE));
+        slots.put("field23B", (out, t, r) -> out.write(":23B:CRED\n"));
+        slots.put("field32A", (out, t, r) -> out.write(":32A:").writeValueDate(t.getTimestamp())
+                .write(t.getCurrency()).writeAmount(t.getAmount()).write(NEWLINE));
+        slots.put("fromAccount", (out, t, r) -> out.write(t.getFromAccount()));
+        slots.put("fromBankName", (out, t, r) -> out.write(t.getFromBankName()));
+        slots.put("toAccount", (out, t, r) -> out.write(t.getToAccount()));
+        slots.put("toBankName", (out, t, r) -> out.write(t.getToBankName()));
+        slots.put("trailer", (out, t, r) -> out.write(FIXED_TRAILER));
+        return slots;
+    }
 
-        // Add some other fields
-        mt103.append(":50K:/").append(transaction.getFromAccount()).append("\n");
-        mt103.append(transaction.getFromBankName()).append("\n");
-        mt103.append(":59:/").append(transaction.getToAccount()).append("\n");
-        mt103.append(transaction.getToBankName()).append("\n");
+    private static MT103Slot randomlySkipped(MT103Slot slot) {
+        return (out, t, r) -> {
+            if (!r.nextBoolean()) {
+                slot.write(out, t, r);
+            }
+        };
+    }
 
-        mt103.append("}");
-        mt103.append("\n{5:{MAC:12345678}{CHK:123456789ABC}}");
+    /**
+     * Three picks among corrupted separators for :20:, :23B: and :32A:.
+     */
+    private static MT103Slot corruptedFields() {
+        MT103Slot[] variants = {
+                (out, t, r) -> out.write("20;").writeTruncated(t.getTransactionId(), 16).write(NEWLINE), // Wrong separator
+                (out, t, r) -> out.write("::20:").writeTruncated(t.getTransactionId(), 16).write(NEWLINE), // Double colon
+                (out, t, r) -> out.write(":20").writeTruncated(t.getTransactionId(), 16).write(NEWLINE), // Missing colon
+                (out, t, r) -> out.write(":20::").writeTruncated(t.getTransactionId(), 16).write(NEWLINE), // Extra colon
+                (out, t, r) -> out.write("20:").writeTruncated(t.getTransactionId(), 16).write(NEWLINE), // Missing first colon
+                (out, t, r) -> out.write(":23B;CRED\n"), // Wrong separator
+                (out, t, r) -> out.write(":32A=").writeValueDate(t.getTimestamp()) // Wrong separator
+                        .write(t.getCurrency()).writeAmount(t.getAmount()).write(NEWLINE)
+        };
 
-        return mt103.toString();
+        return (out, t, r) -> {
+            for (int i = 0; i < 3; i++) {
+                variants[r.nextInt(variants.length)].write(out, t, r);
+            }
+        };
     }
 
     private String generateMT103WithInvalidBIC(Transaction transaction) {
@@ -92,188 +179,21 @@ public class MT103MessageCorruptor {
                 "BANK US33"
         };
 
+        RandomGenerator random = RandomStreams.current();
         String invalidFromBIC = invalidBICs[random.nextInt(invalidBICs.length)];
         String invalidToBIC = invalidBICs[random.nextInt(invalidBICs.length)];
-        Transaction invalidTransaction = new Transaction(
-                transaction.getTransactionId(),
-                transaction.getFromAccount(),
-                transaction.getToAccount(),
-                transaction.getAmount(),
-                transaction.getCurrency(),
-                invalidFromBIC,
-                invalidToBIC,
-                transaction.getFromBankName(),
-                transaction.getToBankName(),
-                transaction.getTimestamp(),
-                transaction.getStatus()
-        );
+        Transaction invalidTransaction = transaction.toBuilder()
+                .fromBankSwift(invalidFromBIC)
+                .toBankSwift(invalidToBIC)
+                .fromIBAN(null)
+                .toIBAN(null)
+                .fromCountryCode(extractCountryCode(invalidFromBIC))
+                .toCountryCode(extractCountryCode(invalidToBIC))
+                .build();
 
         return mt103MessageFormatter.formatToMT103(invalidTransaction);
     }
 
-    private String generateMT103WithInvalidDate(Transaction transaction) {
-        StringBuilder mt103 = new StringBuilder();
-        String transactionRef = transaction.getTransactionId().substring(0, Math.min(16, transaction.getTransactionId().length()));
-
-        // Normal header
-        mt103.append("{1:F01").append(formatLTAddress(transaction.getFromBankSwift())).append("}");
-        mt103.append("{2:I103").append(formatLTAddress(transaction.getToBankSwift())).append("N}");
-        mt103.append("{3:{108:").append(transactionRef).append("}}");
-
-        mt103.append("\n{4:\n");
-        mt103.append(":20:").append(transactionRef).append("\n");
-        mt103.append(":23B:CRED\n");
-
-        // Generate invalid date formats
-        String[] invalidDates = {
-                "20241301", // Invalid month
-                "20240230", // Invalid day
-                "240101",   // Wrong year format
-                "2024-01-01", // Wrong format with dashes
-                "INVALID",  // Non-numeric
-                "999999",   // Wrong length
-                "",         // Empty
-                "20241401"  // Invalid month
-        };
-
-        String invalidDate = invalidDates[random.nextInt(invalidDates.length)];
-        mt103.append(":32A:").append(invalidDate).append(transaction.getCurrency())
-                .append(transaction.getAmount().toString().replace(".", ",")).append("\n");
-
-        // Add remaining fields
-        mt103.append(":50K:/").append(transaction.getFromAccount()).append("\n");
-        mt103.append(transaction.getFromBankName()).append("\n");
-        mt103.append(":59:/").append(transaction.getToAccount()).append("\n");
-        mt103.append(transaction.getToBankName()).append("\n");
-
-        mt103.append("}");
-        mt103.append("\n{5:{MAC:12345678}{CHK:123456789ABC}}");
-
-        return mt103.toString();
-    }
-
-    private String generateMT103WithInvalidAmount(Transaction transaction) {
-        StringBuilder mt103 = new StringBuilder();
-        String transactionRef = transaction.getTransactionId().substring(0, Math.min(16, transaction.getTransactionId().length()));
-
-        // Normal header
-        mt103.append("{1:F01").append(formatLTAddress(transaction.getFromBankSwift())).append("}");
-        mt103.append("{2:I103").append(formatLTAddress(transaction.getToBankSwift())).append("N}");
-        mt103.append("{3:{108:").append(transactionRef).append("}}");
-
-        mt103.append("\n{4:\n");
-        mt103.append(":20:").append(transactionRef).append("\n");
-        mt103.append(":23B:CRED\n");
-
-        String valueDate = transaction.getTimestamp().format(DateTimeFormatter.ofPattern("yyMMdd"));
-
-        String[] invalidAmounts = {
-                "",
-                "INVALID",
-                "123.45.67",
-                "12345.123",
-                "-1000,00",
-                "0",
-                "999999999999999.99",
-                "12,34.56",
-                "ABC123"
-        };
-
-        String invalidAmount = invalidAmounts[random.nextInt(invalidAmounts.length)];
-        mt103.append(":32A:").append(valueDate).append(transaction.getCurrency()).append(invalidAmount).append("\n");
-
-        mt103.append(":50K:/").append(transaction.getFromAccount()).append("\n");
-        mt103.append(transaction.getFromBankName()).append("\n");
-        mt103.append(":59:/").append(transaction.getToAccount()).append("\n");
-        mt103.append(transaction.getToBankName()).append("\n");
-
-        mt103.append("}");
-        mt103.append("\n{5:{MAC:12345678}{CHK:123456789ABC}}");
-
-        return mt103.toString();
-    }
-
-    private String generateMT103WithMissingHeaders(Transaction transaction) {
-        StringBuilder mt103 = new StringBuilder();
-        String transactionRef = transaction.getTransactionId().substring(0, Math.min(16, transaction.getTransactionId().length()));
-
-        // Randomly skip header blocks
-        if (random.nextBoolean()) {
-            // Skip Block 1
-        } else {
-            mt103.append("{1:F01").append(formatLTAddress(transaction.getFromBankSwift())).append("}");
-        }
-
-        if (random.nextBoolean()) {
-            // Skip Block 2
-        } else {
-            mt103.append("{2:I103").append(formatLTAddress(transaction.getToBankSwift())).append("N}");
-        }
-
-        if (random.nextBoolean()) {
-            // Skip Block 3
-        } else {
-            mt103.append("{3:{108:").append(transactionRef).append("}}");
-        }
-
-        // Always include Block 4
-        mt103.append("\n{4:\n");
-        mt103.append(":20:").append(transactionRef).append("\n");
-        mt103.append(":23B:CRED\n");
-
-        String valueDate = transaction.getTimestamp().format(DateTimeFormatter.ofPattern("yyMMdd"));
-        mt103.append(":32A:").append(valueDate).append(transaction.getCurrency())
-                .append(transaction.getAmount().toString().replace(".", ",")).append("\n");
-
-        mt103.append(":50K:/").append(transaction.getFromAccount()).append("\n");
-        mt103.append(transaction.getFromBankName()).append("\n");
-        mt103.append(":59:/").append(transaction.getToAccount()).append("\n");
-        mt103.append(transaction.getToBankName()).append("\n");
-
-        mt103.append("}");
-
-        return mt103.toString();
-    }
-
-    private String generateMT103WithInvalidFieldStructure(Transaction transaction) {
-        StringBuilder mt103 = new StringBuilder();
-        String transactionRef = transaction.getTransactionId().substring(0, Math.min(16, transaction.getTransactionId().length()));
-
-        // Normal header
-        mt103.append("{1:F01").append(formatLTAddress(transaction.getFromBankSwift())).append("}");
-        mt103.append("{2:I103").append(formatLTAddress(transaction.getToBankSwift())).append("N}");
-        mt103.append("{3:{108:").append(transactionRef).append("}}");
-
-        mt103.append("\n{4:\n");
-
-        // Corrupt field separators and structure
-        String[] corruptedFields = {
-                "20;" + transactionRef + "\n", // Wrong separator
-                "::20:" + transactionRef + "\n", // Double colon
-                ":20" + transactionRef + "\n", // Missing colon
-                ":20::" + transactionRef + "\n", // Extra colon
-                "20:" + transactionRef + "\n", // Missing first colon
-                ":23B;CRED\n", // Wrong separator
-                ":32A=" + transaction.getTimestamp().format(DateTimeFormatter.ofPattern("yyMMdd")) +
-                        transaction.getCurrency() + transaction.getAmount().toString().replace(".", ",") + "\n" // Wrong separator
-        };
-
-        // Add some corrupted fields
-        for (int i = 0; i < 3; i++) {
-            mt103.append(corruptedFields[random.nextInt(corruptedFields.length)]);
-        }
-
-        mt103.append("50K:/").append(transaction.getFromAccount()).append("\n"); // Missing colon
-        mt103.append(transaction.getFromBankName()).append("\n");
-        mt103.append(":59/").append(transaction.getToAccount()).append("\n"); // Missing colon
-        mt103.append(transaction.getToBankName()).append("\n");
-
-        mt103.append("}");
-        mt103.append("\n{5:{MAC:12345678}{CHK:123456789ABC}}");
-
-        return mt103.toString();
-    }
-
     private String generateTruncatedMT103(Transaction transaction) {
         // Generate normal MT103 first
         String normalMT103 = mt103MessageFormatter.formatToMT103(transaction);
@@ -286,7 +206,7 @@ public class MT103MessageCorruptor {
                 normalMT103.length() - 50      // Near end
         };
 
-        int truncateAt = truncationPoints[random.nextInt(truncationPoints.length)];
+        int truncateAt = truncationPoints[RandomStreams.current().nextInt(truncationPoints.length)];
         truncateAt = Math.max(10, Math.min(truncateAt, normalMT103.length() - 1));
 
         return normalMT103.substring(0, truncateAt);
@@ -298,6 +218,7 @@ public class MT103MessageCorruptor {
         // Add invalid control characters
         char[] invalidChars = {'\0', '\u0001', '\u0002', '\u0007', '\u0008', '\u000B', '\u000C', '\u000E', '\u000F'};
 
+        RandomGenerator random = RandomStreams.current();
         StringBuilder corruptedMT103 = new StringBuilder();
         for (int i = 0; i < normalMT103.length(); i++) {
             corruptedMT103.append(normalMT103.charAt(i));
@@ -311,18 +232,17 @@ public class MT103MessageCorruptor {
         return corruptedMT103.toString();
     }
 
-    private String formatLTAddress(String bic) {
+    private static String extractCountryCode(String swiftCode) {
+        if (swiftCode != null && swiftCode.length() >= 6) {
+            return swiftCode.substring(4, 6);
+        }
+        return null;
+    }
+
+    private static String formatLTAddress(String bic) {
         if (bic == null || bic.isEmpty()) {
             return "UNKNOWNXXX0";
         }
-
-        String normalizedBIC = bic.trim().toUpperCase();
-
-        return switch (normalizedBIC.length()) {
-            case 8 -> normalizedBIC + "XXX0";
-            case 11 -> normalizedBIC + "0";
-            case 12 -> normalizedBIC;
-            default -> normalizedBIC + "0";
-        };
+        return MT103MessageFormatter.formatLTAddress(bic);
     }
-}
\ No newline at end of file
+}
@@ -1,137 +1,130 @@
 package com.toufik.trxgeneratorservice.mt103trx.service;
 
-import com.toufik.trxgeneratorservice.mt103trx.model.Transaction;
-import org.springframework.stereotype.Service;
+import com.toufik.trxcommon.model.Transaction;
+import com.toufik.trxgeneratorservice.mt103trx.util.MT103Slot;
+import com.toufik.trxgeneratorservice.mt103trx.util.MT103Template;
+import com.toufik.trxgeneratorservice.mt103trx.util.MT103Writer;
+import com.toufik.trxgeneratorservice.mt103trx.util.RandomStreams;
 
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.random.RandomGenerator;
 
 import static com.toufik.trxgeneratorservice.mt103trx.util.MT103Constants.*;
-
-@Service("MT103MessageFormatter")
+import static com.toufik.trxgeneratorservice.mt103trx.util.MT103Writer.bytes;
+
+/**
+ * MT103 formatter rendering the compiled {@link com.toufik.trxgeneratorservice.mt103trx.util.MT103Constants#MT103_LAYOUT}.
+ * Subclasses replace individual slots, such as the :70: remittance text, instead of copying the layout.
+ * Registered as the "MT103MessageFormatter" bean by
+ * {@link com.toufik.trxgeneratorservice.mt103trx.config.MT103FormatterConfig}.
+ */
 public class MT103MessageFormatter {
 
+    private static final String NO_IBAN = "This country does not use IBAN";
+    private static final String DEFAULT_INTERMEDIARY = "DEUTDEFFXXX";
 
-    public String formatToMT103(Transaction transaction) {
-        var mt103 = new StringBuilder();
-        var transactionRef = truncateToLength(transaction.getTransactionId(), 16);
-
-        appendHeader(mt103, transaction);
-        appendMessageText(mt103, transaction, transactionRef);
-        appendTrailer(mt103);
-
-        return mt103.toString();
-    }
-
-    private void appendHeader(StringBuilder mt103, Transaction transaction) {
-        var senderLTAddress = formatLTAddress(transaction.getFromBankSwift());
-        var receiverLTAddress = formatLTAddress(transaction.getToBankSwift());
-        var transactionRef = truncateToLength(transaction.getTransactionId(), 16);
-
-        mt103.append("{1:F01").append(senderLTAddress).append("}");
-        mt103.append("{2:I103").append(receiverLTAddress).append("N}");
-        mt103.append("{3:{108:").append(transactionRef).append("}}");
-    }
-
-    private void appendMessageText(StringBuilder mt103, Transaction transaction, String transactionRef) {
-        mt103.append("\n{4:\n");
-
-        appendMandatoryFields(mt103, transaction, transactionRef);
-        appendAccountingFields(mt103, transaction);
-        appendPartyFields(mt103, transaction);
-        appendOptionalFields(mt103, transaction);
-
-        mt103.append("}");
-    }
-
-    private void appendMandatoryFields(StringBuilder mt103, Transaction transaction, String transactionRef) {
-        var valueDate = transaction.getTimestamp().format(DATE_FORMATTER);
-        var formattedAmount = formatAmount(transaction.getAmount().toString());
-
-        mt103.append(":20:").append(transactionRef).append("\n")
-                .append(":23B:CRED\n")
-                .append(":32A:").append(valueDate)
-                .append(transaction.getCurrency())
-                .append(formattedAmount).append("\n");
-    }
-
-    private void appendAccountingFields(StringBuilder mt103, Transaction transaction) {
-        var formattedAmount = formatAmount(transaction.getAmount().toString());
-        var chargeBearer = transaction.isCrossBorder() ? "SHA" : "OUR";
-
-        mt103.append(":33B:").append(transaction.getCurrency())
-                .append(formattedAmount).append("\n")
-                .append(":71A:").append(chargeBearer).append("\n");
-    }
-
-    private void appendPartyFields(StringBuilder mt103, Transaction transaction) {
-        appendOrderingCustomer(mt103, transaction);
-        appendOrderingInstitution(mt103, transaction);
-        appendSenderCorrespondent(mt103, transaction);
-        appendIntermediaryBank(mt103, transaction);
-        appendAccountWithInstitution(mt103, transaction);
-        appendBeneficiaryCustomer(mt103, transaction);
-    }
+    private static final byte[] HEX = bytes(HEX_CHARS);
+    private static final byte[][] ADDRESS_LINES = new byte[ADDRESS_TEMPLATES.length][];
+    private static final Map<String, byte[]> CITY_COUNTRIES = new HashMap<>();
+    private static final byte[] UNKNOWN_CITY_COUNTRY = bytes("Unknown City, Unknown Country");
+    private static final byte[] UNKNOWN_FINANCIAL_DISTRICT = bytes("Financial District, Unknown Country");
 
-    private void appendOrderingCustomer(StringBuilder mt103, Transaction transaction) {
-        mt103.append(":50K:");
+    private static final byte[] SHA = bytes("SHA");
+    private static final byte[] OUR = bytes("OUR");
+    private static final byte[] FIELD_56A = bytes(":56A:");
+    private static final byte[] REMITTANCE_PREFIX = bytes("Payment for services - TXN ID: ");
+    private static final byte[] CROSS_BORDER_SUFFIX = bytes(" - Cross-border transfer");
 
-        if (hasValidIBAN(transaction.getFromIBAN())) {
-            mt103.append("/").append(transaction.getFromIBAN()).append("\n");
-        } else {
-            mt103.append("/").append(transaction.getFromAccount()).append("\n");
+    static {
+        for (int i = 0; i < ADDRESS_TEMPLATES.length; i++) {
+            ADDRESS_LINES[i] = bytes(ADDRESS_TEMPLATES[i]);
         }
-
-        mt103.append(transaction.getFromBankName()).append("\n")
-                .append(generateAddressLine()).append("\n")
-                .append(generateCityCountry(transaction.getFromCountryCode())).append("\n");
-    }
-
-    private void appendOrderingInstitution(StringBuilder mt103, Transaction transaction) {
-        mt103.append(":52A:").append(transaction.getFromBankSwift()).append("\n");
+        ADDITIONAL_COUNTRIES.forEach((code, name) -> CITY_COUNTRIES.put(code, bytes("Financial District, " + name)));
+        COUNTRY_CITIES.forEach((code, city) -> CITY_COUNTRIES.put(code, bytes(city)));
     }
 
-    private void appendSenderCorrespondent(StringBuilder mt103, Transaction transaction) {
-        mt103.append(":53B:/").append(transaction.getFromBankSwift()).append("\n");
-    }
+    private volatile MT103Template template;
 
-    private void appendIntermediaryBank(StringBuilder mt103, Transaction transaction) {
-        if (needsIntermediaryBank(transaction)) {
-            var intermediaryBIC = getIntermediaryBankSwift(transaction);
-            mt103.append(":56A:").append(intermediaryBIC).append("\n");
-        }
+    public String formatToMT103(Transaction transaction) {
+        return formatToMT103(transaction, RandomStreams.current());
     }
 
-    private void appendAccountWithInstitution(StringBuilder mt103, Transaction transaction) {
-        mt103.append(":57A:").append(transaction.getToBankSwift()).append("\n");
+    /**
+     * Formats with an explicit random source for the address lines and trailer, so two formatters
+     * fed the same seed produce the same message.
+     */
+    public String formatToMT103(Transaction transaction, RandomGenerator random) {
+        MT103Writer out = writer();
+        render(out, transaction, random);
+        return out.toString();
     }
 
-    private void appendBeneficiaryCustomer(StringBuilder mt103, Transaction transaction) {
-        mt103.append(":59:");
-
-        if (hasValidIBAN(transaction.getToIBAN())) {
-            mt103.append("/").append(transaction.getToIBAN()).append("\n");
-        } else {
-            mt103.append("/").append(transaction.getToAccount()).append("\n");
-        }
-
-        mt103.append(transaction.getToBankName()).append("\n")
-                .append(generateAddressLine()).append("\n")
-                .append(generateCityCountry(transaction.getToCountryCode())).append("\n");
+    /**
+     * Writer for a single message. The default allocates one per call.
+     */
+    protected MT103Writer writer() {
+        return new MT103Writer();
     }
 
-    private void appendOptionalFields(StringBuilder mt103, Transaction transaction) {
-        var remittanceInfo = buildRemittanceInfo(transaction);
-
-        mt103.append(":70:").append(remittanceInfo).append("\n")
-                .append(":72:/INS/").append(transaction.getFromBankSwift()).append("\n");
+    protected void render(MT103Writer out, Transaction transaction, RandomGenerator random) {
+        template().render(out, transaction, random);
     }
 
-    private void appendTrailer(StringBuilder mt103) {
-        mt103.append("\n{5:{MAC:").append(generateMAC())
-                .append("}{CHK:").append(generateChecksum()).append("}}");
+    /**
+     * Slot providers replacing the defaults of the same name, e.g. "remittance" for field :70:.
+     */
+    protected Map<String, MT103Slot> slotOverrides() {
+        return Map.of();
     }
 
-    private String formatLTAddress(String bic) {
+    /**
+     * Compiled on first use so subclasses can build their overrides from constructor state.
+     * Concurrent first calls may each compile; the results are identical.
+     */
+    private MT103Template template() {
+        MT103Template compiled = template;
+        if (compiled == null) {
+            Map<String, MT103Slot> slots = defaultSlots();
+            slots.putAll(slotOverrides());
+            compiled = MT103Template.compile(MT103_LAYOUT, slots);
+            template = compiled;
+        }
+        return compiled;
+    }
+
+    private static Map<String, MT103Slot> defaultSlots() {
+        Map<String, MT103Slot> slots = new HashMap<>();
+        slots.put("senderLT", (out, t, r) -> out.write(formatLTAddress(t.getFromBankSwift())));
+        slots.put("receiverLT", (out, t, r) -> out.write(formatLTAddress(t.getToBankSwift())));
+        slots.put("reference", (out, t, r) -> out.writeTruncated(t.getTransactionId(), 16));
+        slots.put("valueDate", (out, t, r) -> out.writeValueDate(t.getTimestamp()));
+        slots.put("currency", (out, t, r) -> out.write(t.getCurrency()));
+        slots.put("amount", (out, t, r) -> out.writeAmount(t.getAmount()));
+        slots.put("chargeBearer", (out, t, r) -> out.write(t.isCrossBorder() ? SHA : OUR));
+        slots.put("orderingAccount", (out, t, r) ->
+                out.write(hasValidIBAN(t.getFromIBAN()) ? t.getFromIBAN() : t.getFromAccount()));
+        slots.put("beneficiaryAccount", (out, t, r) ->
+                out.write(hasValidIBAN(t.getToIBAN()) ? t.getToIBAN() : t.getToAccount()));
+        slots.put("fromBankName", (out, t, r) -> out.write(t.getFromBankName()));
+        slots.put("toBankName", (out, t, r) -> out.write(t.getToBankName()));
+        slots.put("address", (out, t, r) -> out.write(ADDRESS_LINES[r.nextInt(ADDRESS_LINES.length)]));
+        slots.put("fromCityCountry", (out, t, r) -> out.write(cityCountry(t.getFromCountryCode())));
+        slots.put("toCityCountry", (out, t, r) -> out.write(cityCountry(t.getToCountryCode())));
+        slots.put("fromSwift", (out, t, r) -> out.write(t.getFromBankSwift()));
+        slots.put("toSwift", (out, t, r) -> out.write(t.getToBankSwift()));
+        slots.put("intermediary", (out, t, r) -> {
+            if (needsIntermediaryBank(t)) {
+                out.write(FIELD_56A).write(intermediaryBankSwift(t.getToBankSwift())).write('\n');
+            }
+        });
+        slots.put("remittance", MT103MessageFormatter::writeRemittanceInfo);
+        slots.put("mac", (out, t, r) -> writeHex(out, 8, r));
+        slots.put("checksum", (out, t, r) -> writeHex(out, 12, r));
+        return slots;
+    }
+
+    static String formatLTAddress(String bic) {
         var normalizedBIC = bic.trim().toUpperCase();
 
         return switch (normalizedBIC.length()) {
@@ -142,89 +135,42 @@ public class MT103MessageFormatter {
         };
     }
 
-    private String formatAmount(String amount) {
-        return amount.replace(".", ",");
-    }
-
-    private String truncateToLength(String input, int maxLength) {
-        if (input == null) return "";
-        return input.length() > maxLength ? input.substring(0, maxLength) : input;
+    /**
+     * True when the country codes of the two BICs differ, or either BIC is too short to carry one.
+     */
+    static boolean needsIntermediaryBank(Transaction transaction) {
+        return !transaction.getFromBankSwift().regionMatches(4, transaction.getToBankSwift(), 4, 2);
     }
 
-    private boolean needsIntermediaryBank(Transaction transaction) {
-        try {
-            var fromCountry = extractCountryCode(transaction.getFromBankSwift());
-            var toCountry = extractCountryCode(transaction.getToBankSwift());
-            return !fromCountry.equals(toCountry);
-        } catch (StringIndexOutOfBoundsException e) {
-            return true;
+    static String intermediaryBankSwift(String toSwift) {
+        if (toSwift.length() < 6) {
+            return DEFAULT_INTERMEDIARY;
         }
+        return INTERMEDIARY_BANKS.getOrDefault(toSwift.substring(4, 6), DEFAULT_INTERMEDIARY);
     }
 
-    private String extractCountryCode(String swiftCode) {
-        return swiftCode.substring(4, 6);
-    }
-
-    private String getIntermediaryBankSwift(Transaction transaction) {
-        try {
-            var toCountry = extractCountryCode(transaction.getToBankSwift());
-            return INTERMEDIARY_BANKS.getOrDefault(toCountry, "DEUTDEFFXXX");
-        } catch (StringIndexOutOfBoundsException e) {
-            return "DEUTDEFFXXX";
+    static void writeHex(MT103Writer out, int length, RandomGenerator random) {
+        for (int i = 0; i < length; i++) {
+            out.write(HEX[random.nextInt(HEX.length)]);
         }
     }
 
-    private String buildRemittanceInfo(Transaction transaction) {
-        var shortTransactionId = truncateToLength(transaction.getTransactionId(), 8);
-        var remittance = new StringBuilder()
-                .append("Payment for services - TXN ID: ").append(shortTransactionId);
+    private static void writeRemittanceInfo(MT103Writer out, Transaction transaction, RandomGenerator random) {
+        out.write(REMITTANCE_PREFIX).writeTruncated(transaction.getTransactionId(), 8);
 
         if (transaction.isCrossBorder()) {
-            remittance.append(" - Cross-border transfer");
+            out.write(CROSS_BORDER_SUFFIX);
         }
-
-        return remittance.toString();
-    }
-
-    private boolean hasValidIBAN(String iban) {
-        return iban != null && !iban.isEmpty() && !iban.equals("This country does not use IBAN");
     }
 
-    private String generateAddressLine() {
-        return ADDRESS_TEMPLATES[ThreadLocalRandom.current().nextInt(ADDRESS_TEMPLATES.length)];
+    private static boolean hasValidIBAN(String iban) {
+        return iban != null && !iban.isEmpty() && !iban.equals(NO_IBAN);
     }
 
-    private String generateCityCountry(String countryCode) {
+    private static byte[] cityCountry(String countryCode) {
         if (countryCode == null) {
-            return "Unknown City, Unknown Country";
+            return UNKNOWN_CITY_COUNTRY;
         }
-
-        return COUNTRY_CITIES.getOrDefault(
-                countryCode,
-                "Financial District, " + getCountryName(countryCode)
-        );
-    }
-
-    private String getCountryName(String countryCode) {
-        return ADDITIONAL_COUNTRIES.getOrDefault(countryCode, "Unknown Country");
-    }
-
-    private String generateMAC() {
-        return generateHexString(8);
-    }
-
-    private String generateChecksum() {
-        return generateHexString(12);
-    }
-
-    private String generateHexString(int length) {
-        var result = new StringBuilder();
-        var random = ThreadLocalRandom.current();
-
-        for (int i = 0; i < length; i++) {
-            result.append(HEX_CHARS.charAt(random.nextInt(HEX_CHARS.length())));
-        }
-
-        return result.toString();
+        return CITY_COUNTRIES.getOrDefault(countryCode, UNKNOWN_FINANCIAL_DISTRICT);
     }
-}
\ No newline at end of file
+}
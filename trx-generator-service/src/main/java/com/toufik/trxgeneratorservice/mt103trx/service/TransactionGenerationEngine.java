@@ -0,0 +1,420 @@
+package com.toufik.trxgeneratorservice.mt103trx.service;
+
+import com.toufik.trxgeneratorservice.mt103trx.config.LoadGeneratorConfig;
+import com.toufik.trxgeneratorservice.mt103trx.model.GenerationSettings;
+import com.toufik.trxgeneratorservice.mt103trx.model.GenerationStats;
+import com.toufik.trxgeneratorservice.mt103trx.model.RampProfile;
+import com.toufik.trxgeneratorservice.mt103trx.model.TransactionType;
+import com.toufik.trxgeneratorservice.mt103trx.util.RandomStreams;
+import com.toufik.trxgeneratorservice.mt103trx.util.TokenBucketRateLimiter;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Single entry point for transaction generation.
+ * In scheduled mode the fixed-rate ticks of the generator services emit one transaction each.
+ * In load mode a pool of workers shares a token bucket paced at the target TPS and picks
+ * NORMAL/FRAUD/INVALID according to the configured mix; scheduled ticks are then ignored.
+ * Rate, mix and ramp profile can be changed while the workers run.
+ * While the Kafka producer reports saturation, workers hold off before taking the next permit and
+ * scheduled ticks are skipped, so generation slows down instead of blocking inside a send.
+ * A transaction counts as emitted once the future returned by its emitter completes, i.e. once Kafka has
+ * acknowledged it; an emitter that throws or whose future fails counts as a failure.
+ */
+@Service
+@Slf4j
+public class TransactionGenerationEngine {
+
+    private static final long RAMP_TICK_MILLIS = 250;
+    private static final long BACKPRESSURE_PAUSE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final LoadGeneratorConfig config;
+    private final TransactionProducer producer;
+    private final Map<TransactionType, Supplier<? extends CompletableFuture<?>>> emitters = new EnumMap<>(TransactionType.class);
+    private final Map<TransactionType, LongAdder> emittedCounts = new EnumMap<>(TransactionType.class);
+    private final LongAdder failedCount = new LongAdder();
+    private final LongAdder backpressureCount = new LongAdder();
+    private final TokenBucketRateLimiter rateLimiter;
+    private final Object pauseLock = new Object();
+
+    private volatile Mix mix;
+    private volatile boolean running;
+    private volatile boolean paused;
+    private ExecutorService workers;
+    private ScheduledExecutorService rampScheduler;
+    private ScheduledFuture<?> rampTask;
+    private int rampGeneration;
+    private long startedAtNanos;
+    private long emittedAtStart;
+    private long lastReportNanos;
+    private long lastReportCount;
+
+    public TransactionGenerationEngine(LoadGeneratorConfig config, TransactionProducer producer) {
+        this.config = config;
+        this.producer = producer;
+        this.rateLimiter = new TokenBucketRateLimiter(config.getTargetTps());
+        this.mix = new Mix(config.getFraudRatio(), config.getInvalidRatio());
+        for (TransactionType type : TransactionType.values()) {
+            emittedCounts.put(type, new LongAdder());
+        }
+    }
+
+    /**
+     * Registers the unit of work for a transaction type. Called once per type while the context starts.
+     */
+    public void register(TransactionType type, Supplier<? extends CompletableFuture<?>> emitter) {
+        emitters.put(type, emitter);
+    }
+
+    /**
+     * Scheduled-mode tick: emits one transaction unless load mode is driving generation
+     * or the producer is saturated.
+     */
+    public void tick(TransactionType type) {
+        if (running) {
+            return;
+        }
+        if (producer.isSaturated()) {
+            backpressureCount.increment();
+            log.debug("Skipped {} tick, Kafka producer saturated", type);
+            return;
+        }
+        emit(type);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startIfEnabled() {
+        if (config.isEnabled()) {
+            start();
+        }
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        Mix current = mix;
+        validateMix(current.fraudRatio(), current.invalidRatio());
+        int threads = Math.max(1, config.getWorkerThreads());
+
+        emittedAtStart = totalEmitted();
+        startedAtNanos = System.nanoTime();
+        lastReportNanos = startedAtNanos;
+        lastReportCount = emittedAtStart;
+        paused = false;
+        running = true;
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "load-generator-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < threads; i++) {
+            int workerIndex = i;
+            workers.submit(() -> runWorker(workerIndex));
+        }
+
+        log.info("Load generation started: target {} TPS, {} workers, fraud ratio {}, invalid ratio {}, seed {}",
+                rateLimiter.getRate(), threads, current.fraudRatio(), current.invalidRatio(), RandomStreams.seed());
+    }
+
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        cancelRamp();
+        running = false;
+        wakePausedWorkers();
+        workers.shutdownNow();
+        try {
+            if (!workers.awaitTermination(5, TimeUnit.SECONDS)) {
+                log.warn("Load generator workers did not stop within 5 seconds");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Load generation stopped: {}", getStats());
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        stop();
+        if (rampScheduler != null) {
+            rampScheduler.shutdownNow();
+        }
+    }
+
+    public synchronized void pause() {
+        if (!running) {
+            throw new IllegalStateException("Load generation is not running");
+        }
+        paused = true;
+        log.info("Load generation paused");
+    }
+
+    public synchronized void resume() {
+        if (!running) {
+            throw new IllegalStateException("Load generation is not running");
+        }
+        paused = false;
+        wakePausedWorkers();
+        log.info("Load generation resumed at {} TPS", rateLimiter.getRate());
+    }
+
+    /**
+     * Applies new rate and mix values to the running workers. Setting a target TPS cancels an active ramp.
+     */
+    public synchronized void updateSettings(GenerationSettings settings) {
+        Mix current = mix;
+        double fraudRatio = settings.getFraudRatio() != null ? settings.getFraudRatio() : current.fraudRatio();
+        double invalidRatio = settings.getInvalidRatio() != null ? settings.getInvalidRatio() : current.invalidRatio();
+        validateMix(fraudRatio, invalidRatio);
+
+        if (settings.getTargetTps() != null) {
+            rateLimiter.setRate(settings.getTargetTps());
+            cancelRamp();
+        }
+        mix = new Mix(fraudRatio, invalidRatio);
+
+        log.info("Load generation settings updated: target {} TPS, fraud ratio {}, invalid ratio {}",
+                rateLimiter.getRate(), fraudRatio, invalidRatio);
+    }
+
+    /**
+     * Replaces any active ramp with the given profile. The ramp only reshapes the target TPS;
+     * it does not start or resume the workers.
+     */
+    public synchronized void applyRamp(RampProfile profile) {
+        List<RampProfile.Stage> stages = profile.getStages();
+        if (stages == null || stages.isEmpty()) {
+            throw new IllegalArgumentException("Ramp profile must contain at least one stage");
+        }
+        for (RampProfile.Stage stage : stages) {
+            if (stage.getTargetTps() <= 0 || stage.getDurationSeconds() <= 0) {
+                throw new IllegalArgumentException("Ramp stages need a positive target TPS and duration");
+            }
+        }
+
+        cancelRamp();
+        if (rampScheduler == null) {
+            rampScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "load-generator-ramp");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        int generation = rampGeneration;
+        double initialTps = rateLimiter.getRate();
+        long rampStartNanos = System.nanoTime();
+        List<RampProfile.Stage> plan = List.copyOf(stages);
+        rampTask = rampScheduler.scheduleAtFixedRate(
+                () -> advanceRamp(plan, initialTps, rampStartNanos, generation),
+                0, RAMP_TICK_MILLIS, TimeUnit.MILLISECONDS);
+
+        log.info("Load ramp applied with {} stages starting from {} TPS", plan.size(), initialTps);
+    }
+
+    public synchronized void cancelRamp() {
+        rampGeneration++;
+        if (rampTask != null) {
+            rampTask.cancel(false);
+            rampTask = null;
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public GenerationStats getStats() {
+        Mix current = mix;
+        double elapsedSeconds = running ? (System.nanoTime() - startedAtNanos) / 1e9 : 0;
+        long emittedSinceStart = totalEmitted() - emittedAtStart;
+        ScheduledFuture<?> ramp = rampTask;
+
+        return GenerationStats.builder()
+                .running(running)
+                .paused(paused)
+                .rampActive(ramp != null && !ramp.isDone())
+                .targetTps(rateLimiter.getRate())
+                .achievedTps(elapsedSeconds > 0 ? emittedSinceStart / elapsedSeconds : 0)
+                .workerThreads(config.getWorkerThreads())
+                .fraudRatio(current.fraudRatio())
+                .invalidRatio(current.invalidRatio())
+                .normalCount(emittedCounts.get(TransactionType.NORMAL).sum())
+                .fraudCount(emittedCounts.get(TransactionType.FRAUD).sum())
+                .invalidCount(emittedCounts.get(TransactionType.INVALID).sum())
+                .failedCount(failedCount.sum())
+                .backpressureCount(backpressureCount.sum())
+                .elapsedSeconds(elapsedSeconds)
+                .seed(RandomStreams.seed())
+                .build();
+    }
+
+    @Scheduled(fixedRate = 10000)
+    public void reportThroughput() {
+        if (!running) {
+            return;
+        }
+        long now = System.nanoTime();
+        long total = totalEmitted();
+        double windowSeconds = (now - lastReportNanos) / 1e9;
+        double windowTps = windowSeconds > 0 ? (total - lastReportCount) / windowSeconds : 0;
+        lastReportNanos = now;
+        lastReportCount = total;
+
+        GenerationStats stats = getStats();
+        log.info("Load generation: {} TPS over last {}s, {} TPS overall, target {} TPS{}",
+                String.format("%.1f", windowTps), String.format("%.0f", windowSeconds),
+                String.format("%.1f", stats.getAchievedTps()), stats.getTargetTps(),
+                stats.isPaused() ? " (paused)" : "");
+    }
+
+    private void runWorker(int workerIndex) {
+        RandomStreams.bindWorker(workerIndex);
+        while (running && !Thread.currentThread().isInterrupted()) {
+            if (paused) {
+                awaitResume();
+                continue;
+            }
+            if (producer.isSaturated()) {
+                awaitProducer();
+                continue;
+            }
+            rateLimiter.acquire();
+            if (!running || paused) {
+                continue;
+            }
+            emit(selectType());
+        }
+    }
+
+    private void awaitResume() {
+        synchronized (pauseLock) {
+            while (paused && running) {
+                try {
+                    pauseLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Backs off until the producer drains below its saturation threshold. Permits are not taken meanwhile,
+     * so the token bucket only allows its usual short burst once sending resumes.
+     */
+    private void awaitProducer() {
+        backpressureCount.increment();
+        while (running && !paused && producer.isSaturated() && !Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(BACKPRESSURE_PAUSE_NANOS);
+        }
+    }
+
+    private void wakePausedWorkers() {
+        synchronized (pauseLock) {
+            pauseLock.notifyAll();
+        }
+    }
+
+    private synchronized void advanceRamp(List<RampProfile.Stage> stages, double initialTps,
+                                          long rampStartNanos, int generation) {
+        if (generation != rampGeneration) {
+            return; // superseded by a newer ramp or a manual rate change
+        }
+        double elapsedSeconds = (System.nanoTime() - rampStartNanos) / 1e9;
+        double previousTps = initialTps;
+
+        for (RampProfile.Stage stage : stages) {
+            if (elapsedSeconds < stage.getDurationSeconds()) {
+                double tps = stage.isLinear()
+                        ? previousTps + (stage.getTargetTps() - previousTps) * (elapsedSeconds / stage.getDurationSeconds())
+                        : stage.getTargetTps();
+                rateLimiter.setRate(Math.max(tps, 1e-3));
+                return;
+            }
+            elapsedSeconds -= stage.getDurationSeconds();
+            previousTps = stage.getTargetTps();
+        }
+
+        rateLimiter.setRate(previousTps);
+        log.info("Load ramp completed at {} TPS", previousTps);
+        cancelRamp();
+    }
+
+    private TransactionType selectType() {
+        Mix current = mix;
+        double roll = RandomStreams.current().nextDouble();
+        if (roll < current.fraudRatio()) {
+            return TransactionType.FRAUD;
+        }
+        if (roll < current.fraudRatio() + current.invalidRatio()) {
+            return TransactionType.INVALID;
+        }
+        return TransactionType.NORMAL;
+    }
+
+    private void emit(TransactionType type) {
+        Supplier<? extends CompletableFuture<?>> emitter = emitters.get(type);
+        if (emitter == null) {
+            log.warn("No emitter registered for transaction type {}", type);
+            return;
+        }
+        CompletableFuture<?> sent;
+        try {
+            sent = emitter.get();
+        } catch (RuntimeException e) {
+            failedCount.increment();
+            log.error("Error emitting {} transaction: {}", type, e.getMessage(), e);
+            return;
+        }
+        // Send failures are logged by the producer
+        sent.whenComplete((result, error) -> {
+            if (error == null) {
+                emittedCounts.get(type).increment();
+            } else {
+                failedCount.increment();
+            }
+        });
+    }
+
+    private long totalEmitted() {
+        long total = 0;
+        for (LongAdder count : emittedCounts.values()) {
+            total += count.sum();
+        }
+        return total;
+    }
+
+    private static void validateMix(double fraudRatio, double invalidRatio) {
+        if (fraudRatio < 0 || invalidRatio < 0 || fraudRatio + invalidRatio > 1) {
+            throw new IllegalArgumentException(
+                    "Fraud and invalid ratios must be non-negative and sum to at most 1");
+        }
+    }
+
+    private record Mix(double fraudRatio, double invalidRatio) {
+    }
+}
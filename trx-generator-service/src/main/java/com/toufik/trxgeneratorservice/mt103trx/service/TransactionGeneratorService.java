@@ -1,7 +1,9 @@
 package com.toufik.trxgeneratorservice.mt103trx.service;
 
-import com.toufik.trxgeneratorservice.mt103trx.model.Transaction;
-import com.toufik.trxgeneratorservice.mt103trx.model.TransactionWithMT103Event;
+import com.toufik.trxcommon.model.Transaction;
+import com.toufik.trxcommon.model.TransactionWithMT103Event;
+import com.toufik.trxgeneratorservice.mt103trx.entity.TransactionEntity;
+import com.toufik.trxgeneratorservice.mt103trx.model.TransactionType;
 import com.toufik.trxgeneratorservice.mt103trx.util.AmountGenerator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -9,6 +11,7 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @Slf4j
@@ -17,45 +20,41 @@ public class TransactionGeneratorService extends BaseTransactionFactory {
     private final TransactionProducer transactionProducer;
     private final MT103MessageFormatter mt103MessageFormatter;
     private final TransactionSaveService transactionSaveService;
+    private final TransactionGenerationEngine generationEngine;
 
     public TransactionGeneratorService(TransactionProducer transactionProducer,
                                        @Qualifier("MT103MessageFormatter") MT103MessageFormatter mt103MessageFormatter,
-                                       TransactionSaveService transactionSaveService) {
+                                       TransactionSaveService transactionSaveService,
+                                       TransactionGenerationEngine generationEngine) {
         this.transactionProducer = transactionProducer;
         this.mt103MessageFormatter = mt103MessageFormatter;
         this.transactionSaveService = transactionSaveService;
+        this.generationEngine = generationEngine;
+        generationEngine.register(TransactionType.NORMAL, this::emitTransaction);
     }
 
     @Scheduled(fixedRate = 5000)
     public void generateAndSendTransaction() {
-        try {
-            TransactionWithMT103Event transactionWithMT103Event = generateRandomTransactionWithMT103();
-
-            // Save the complete transaction to MongoDB
-            transactionSaveService.saveTransaction(
-                    transactionWithMT103Event.getTransaction(),
-                    transactionWithMT103Event.getMt103Content()
-            );
+        generationEngine.tick(TransactionType.NORMAL);
+    }
 
-            // Send to Kafka
-            transactionProducer.sendTransaction(transactionWithMT103Event);
+    private CompletableFuture<Void> emitTransaction() {
+        TransactionWithMT103Event transactionWithMT103Event = generateRandomTransactionWithMT103();
+        TransactionEntity entity = transactionSaveService.toEntity(
+                transactionWithMT103Event.getTransaction(),
+                transactionWithMT103Event.getMt103Content()
+        );
 
-            // Log transaction details
-            logValidTransactionDetails(transactionWithMT103Event);
-        } catch (Exception e) {
-            log.error("Error generating transaction: {}", e.getMessage(), e);
-        }
+        // Send to Kafka, then save the complete transaction to MongoDB once it is acknowledged
+        return transactionSaveService.saveWhenSent(entity, transactionProducer.sendTransaction(transactionWithMT103Event))
+                .thenRun(() -> logValidTransactionDetails(transactionWithMT103Event));
     }
 
     private TransactionWithMT103Event generateRandomTransactionWithMT103() {
         Transaction transaction = createBaseTransaction();
         String mt103Content = mt103MessageFormatter.formatToMT103(transaction);
 
-        TransactionWithMT103Event result = new TransactionWithMT103Event();
-        result.setTransaction(transaction);
-        result.setMt103Content(mt103Content);
-
-        return result;
+        return TransactionWithMT103Event.of(transaction, mt103Content);
     }
 
     @Override
@@ -65,7 +64,7 @@ public class TransactionGeneratorService extends BaseTransactionFactory {
 
     private void logValidTransactionDetails(TransactionWithMT103Event transactionEvent) {
         Transaction transaction = transactionEvent.getTransaction();
-        log.info("Generated NORMAL transaction: {} | Amount: {} {} | From: {} -> To: {}",
+        log.debug("Generated NORMAL transaction: {} | Amount: {} {} | From: {} -> To: {}",
                 transaction.getTransactionId(),
                 transaction.getAmount(),
                 transaction.getCurrency(),
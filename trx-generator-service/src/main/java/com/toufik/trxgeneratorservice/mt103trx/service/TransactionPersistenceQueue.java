@@ -0,0 +1,216 @@
+package com.toufik.trxgeneratorservice.mt103trx.service;
+
+import com.toufik.trxgeneratorservice.mt103trx.config.PersistenceConfig;
+import com.toufik.trxgeneratorservice.mt103trx.entity.TransactionEntity;
+import com.toufik.trxgeneratorservice.mt103trx.model.PersistenceStats;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind stage for generated transactions. Entities are buffered in a bounded queue and a single
+ * writer thread stores them with unordered bulk inserts, flushing when a batch is full or the flush interval
+ * has passed. When Mongo falls behind and the queue fills up, {@link #enqueue} blocks the generating thread
+ * (up to the configured timeout), which throttles generation to what Mongo can absorb.
+ * <p>
+ * A slot can also be taken ahead of time with {@link #reserve} and filled later with {@link #enqueueReserved},
+ * which never blocks, so an entity can be queued from a Kafka send callback while the waiting still happens on
+ * the generating thread.
+ */
+@Service
+@Slf4j
+public class TransactionPersistenceQueue {
+
+    private final MongoTemplate mongoTemplate;
+    private final PersistenceConfig config;
+    private final BlockingQueue<TransactionEntity> queue = new LinkedBlockingQueue<>();
+    private final Semaphore slots;
+    private final int capacity;
+
+    private final LongAdder enqueuedCount = new LongAdder();
+    private final LongAdder writtenCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder flushCount = new LongAdder();
+    private final LongAdder totalFlushNanos = new LongAdder();
+    private final AtomicLong lastFlushNanos = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public TransactionPersistenceQueue(MongoTemplate mongoTemplate, PersistenceConfig config) {
+        this.mongoTemplate = mongoTemplate;
+        this.config = config;
+        this.capacity = Math.max(1, config.getQueueCapacity());
+        this.slots = new Semaphore(capacity);
+    }
+
+    @PostConstruct
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::runWriter, "transaction-persistence");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Flushes what is still queued and stops the writer.
+     */
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        writer.interrupt();
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushRemaining();
+        log.info("Transaction persistence stopped: {}", getStats());
+    }
+
+    /**
+     * Queues an entity for the next bulk insert, waiting while the queue is full.
+     * Returns false if the entity was dropped because the queue stayed full for the whole timeout.
+     */
+    public boolean enqueue(TransactionEntity entity) {
+        if (!reserve(entity.getTransactionId())) {
+            return false;
+        }
+        enqueueReserved(entity);
+        return true;
+    }
+
+    /**
+     * Takes a slot for one entity, waiting while the queue is full. Returns false, and counts the transaction as
+     * dropped, if no slot frees up within the timeout.
+     */
+    public boolean reserve(String transactionId) {
+        try {
+            if (slots.tryAcquire(config.getEnqueueTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        droppedCount.increment();
+        log.warn("Persistence queue full ({} entries), dropped transaction {}", capacity, transactionId);
+        return false;
+    }
+
+    /**
+     * Queues an entity into a slot taken with {@link #reserve}.
+     */
+    public void enqueueReserved(TransactionEntity entity) {
+        queue.add(entity);
+        enqueuedCount.increment();
+    }
+
+    /**
+     * Gives back a slot taken with {@link #reserve} whose entity will not be stored.
+     */
+    public void cancelReservation() {
+        slots.release();
+    }
+
+    public PersistenceStats getStats() {
+        long flushes = flushCount.sum();
+        return PersistenceStats.builder()
+                .queueDepth(queue.size())
+                .queueCapacity(capacity)
+                .enqueuedCount(enqueuedCount.sum())
+                .writtenCount(writtenCount.sum())
+                .failedCount(failedCount.sum())
+                .droppedCount(droppedCount.sum())
+                .flushCount(flushes)
+                .lastFlushMillis(lastFlushNanos.get() / 1e6)
+                .averageFlushMillis(flushes > 0 ? totalFlushNanos.sum() / 1e6 / flushes : 0)
+                .maxFlushMillis(maxFlushNanos.get() / 1e6)
+                .build();
+    }
+
+    private void runWriter() {
+        int batchSize = Math.max(1, config.getBatchSize());
+        List<TransactionEntity> batch = new ArrayList<>(batchSize);
+
+        while (running) {
+            try {
+                TransactionEntity first = queue.poll(config.getFlushIntervalMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getFlushIntervalMillis());
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    TransactionEntity next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                if (!running) {
+                    break;
+                }
+            }
+            flush(batch);
+        }
+        flush(batch);
+    }
+
+    private synchronized void flushRemaining() {
+        List<TransactionEntity> batch = new ArrayList<>(Math.max(1, config.getBatchSize()));
+        while (queue.drainTo(batch, Math.max(1, config.getBatchSize())) > 0) {
+            flush(batch);
+        }
+    }
+
+    private void flush(List<TransactionEntity> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        slots.release(batch.size());
+        long start = System.nanoTime();
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TransactionEntity.class)
+                    .insert(batch)
+                    .execute();
+            writtenCount.add(batch.size());
+            log.debug("Stored {} transactions", batch.size());
+        } catch (RuntimeException e) {
+            failedCount.add(batch.size());
+            log.error("Error storing batch of {} transactions: {}", batch.size(), e.getMessage(), e);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            flushCount.increment();
+            totalFlushNanos.add(elapsed);
+            lastFlushNanos.set(elapsed);
+            maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+            batch.clear();
+        }
+    }
+}
@@ -1,37 +1,155 @@
 package com.toufik.trxgeneratorservice.mt103trx.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import com.toufik.trxgeneratorservice.mt103trx.model.TransactionWithMT103Event;
+import com.toufik.trxcommon.model.TransactionWithMT103Event;
+import com.toufik.trxgeneratorservice.mt103trx.config.KafkaProducerConfig;
+import com.toufik.trxgeneratorservice.mt103trx.model.ProducerStats;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
-import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Asynchronous Kafka sender for generated transactions. At most {@code max-in-flight} sends may be
+ * unacknowledged at once; each send holds a permit until its future completes. Callers get the send future back,
+ * and acks, failures and rejected sends are counted instead of being dropped silently.
+ * <p>
+ * When the in-flight count reaches {@code saturation-ratio} of the cap the producer reports itself saturated, so
+ * the generation engine can back off before a send has to wait for a permit (or for {@code buffer.memory}).
+ */
 @Service
 @Slf4j
 public class TransactionProducer {
 
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private static final String RETRY_METRIC = "record-retry-total";
+    private static final String PRODUCER_METRICS_GROUP = "producer-metrics";
 
-    public TransactionProducer(KafkaTemplate<String, Object> kafkaTemplate) {
+    private final KafkaTemplate<String, TransactionWithMT103Event> kafkaTemplate;
+    private final KafkaProducerConfig config;
+    private final Semaphore permits;
+    private final int maxInFlight;
+    private final int saturationThreshold;
+
+    private final LongAdder sentCount = new LongAdder();
+    private final LongAdder ackedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder totalAckNanos = new LongAdder();
+    private final AtomicLong maxAckNanos = new AtomicLong();
+
+    public TransactionProducer(KafkaTemplate<String, TransactionWithMT103Event> kafkaTemplate, KafkaProducerConfig config) {
         this.kafkaTemplate = kafkaTemplate;
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
-        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        this.config = config;
+        this.maxInFlight = Math.max(1, config.getMaxInFlight());
+        this.saturationThreshold = Math.max(1, (int) (maxInFlight * config.getSaturationRatio()));
+        this.permits = new Semaphore(maxInFlight);
     }
 
-    public void sendTransaction(TransactionWithMT103Event transactionWithMT103Event) {
+    /**
+     * Sends the event keyed by transaction ID. Waits up to {@code send-timeout-millis} for an in-flight permit;
+     * if none frees up the send is rejected and the returned future fails with {@link IllegalStateException}.
+     */
+    public CompletableFuture<SendResult<String, TransactionWithMT103Event>> sendTransaction(TransactionWithMT103Event transactionWithMT103Event) {
         if (transactionWithMT103Event == null) {
             log.error("Received null TransactionWithMT103Event");
-            return;
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Transaction event must not be null"));
+        }
+        String transactionId = transactionWithMT103Event.getTransaction().getTransactionId();
+
+        if (!acquirePermit()) {
+            rejectedCount.increment();
+            log.warn("Kafka producer saturated ({} sends in flight), rejected transaction {}", inFlight(), transactionId);
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("Kafka producer saturated, rejected transaction " + transactionId));
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<SendResult<String, TransactionWithMT103Event>> future;
+        try {
+            future = kafkaTemplate.send(config.getTopic(), transactionId, transactionWithMT103Event);
+        } catch (RuntimeException e) {
+            permits.release();
+            failedCount.increment();
+            log.error("Error sending transaction {} to Kafka: {}", transactionId, e.getMessage(), e);
+            return CompletableFuture.failedFuture(e);
         }
-        kafkaTemplate.send(
-                "transaction_generator", transactionWithMT103Event.getTransaction().getTransactionId(), transactionWithMT103Event);
-        log.info("Sent transaction with MT103 info to Kafka: {}", transactionWithMT103Event);
+        sentCount.increment();
+
+        return future.whenComplete((result, error) -> {
+            permits.release();
+            long elapsed = System.nanoTime() - start;
+            if (error != null) {
+                failedCount.increment();
+                log.error("Kafka send failed for transaction {}: {}", transactionId, error.getMessage());
+            } else {
+                ackedCount.increment();
+                totalAckNanos.add(elapsed);
+                maxAckNanos.accumulateAndGet(elapsed, Math::max);
+                log.debug("Sent transaction {} to Kafka", transactionId);
+            }
+        });
+    }
+
+    /**
+     * True while the number of unacknowledged sends is at or above the saturation threshold.
+     */
+    public boolean isSaturated() {
+        return inFlight() >= saturationThreshold;
+    }
 
+    public ProducerStats getStats() {
+        long acked = ackedCount.sum();
+        return ProducerStats.builder()
+                .inFlight(inFlight())
+                .maxInFlight(maxInFlight)
+                .saturated(isSaturated())
+                .sentCount(sentCount.sum())
+                .ackedCount(acked)
+                .failedCount(failedCount.sum())
+                .rejectedCount(rejectedCount.sum())
+                .retryCount(retryCount())
+                .averageAckMillis(acked > 0 ? totalAckNanos.sum() / 1e6 / acked : 0)
+                .maxAckMillis(maxAckNanos.get() / 1e6)
+                .build();
+    }
+
+    private boolean acquirePermit() {
+        try {
+            return permits.tryAcquire(config.getSendTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private int inFlight() {
+        return maxInFlight - permits.availablePermits();
+    }
+
+    /**
+     * Retries happen inside the Kafka client, so they are read from its producer metrics.
+     */
+    private long retryCount() {
+        Map<MetricName, ? extends Metric> metrics = kafkaTemplate.metrics();
+        if (metrics == null) {
+            return 0;
+        }
+        long retries = 0;
+        for (Map.Entry<MetricName, ? extends Metric> metric : metrics.entrySet()) {
+            MetricName name = metric.getKey();
+            if (RETRY_METRIC.equals(name.name()) && PRODUCER_METRICS_GROUP.equals(name.group())
+                    && metric.getValue().metricValue() instanceof Number value) {
+                retries += value.longValue();
+            }
+        }
+        return retries;
     }
-}
\ No newline at end of file
+}
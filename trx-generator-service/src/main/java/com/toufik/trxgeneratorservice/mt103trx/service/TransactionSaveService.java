@@ -1,78 +1,82 @@
 package com.toufik.trxgeneratorservice.mt103trx.service;
 
+import com.toufik.trxcommon.model.Transaction;
 import com.toufik.trxgeneratorservice.mt103trx.entity.TransactionEntity;
-import com.toufik.trxgeneratorservice.mt103trx.model.Transaction;
-import com.toufik.trxgeneratorservice.mt103trx.repository.TransactionRepository;
+import com.toufik.trxgeneratorservice.mt103trx.util.TransactionMapper;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @Slf4j
 public class TransactionSaveService {
 
-    private final TransactionRepository transactionRepository;
-    private final ModelMapper modelMapper;
+    private final TransactionPersistenceQueue persistenceQueue;
 
-    public TransactionSaveService(TransactionRepository transactionRepository) {
-        this.transactionRepository = transactionRepository;
-        this.modelMapper = new ModelMapper();
+    public TransactionSaveService(TransactionPersistenceQueue persistenceQueue) {
+        this.persistenceQueue = persistenceQueue;
     }
 
-    public void saveTransaction(Transaction transaction, String mt103Content) {
-        try {
-            TransactionEntity entity = modelMapper.map(transaction, TransactionEntity.class);
-
-            entity.setMt103Content(mt103Content);
-            entity.setCreatedAt(LocalDateTime.now());
-            entity.setUpdatedAt(LocalDateTime.now());
-            entity.setIsProcessed(false);
-            entity.setTransactionType("NORMAL");
-            entity.setRiskScore(0.1);
-
-            TransactionEntity saved = transactionRepository.save(entity);
-            log.info("Saved NORMAL transaction: {}", saved.getTransactionId());
-        } catch (Exception e) {
-            log.error("Error saving transaction: {}", e.getMessage(), e);
+    /**
+     * Stores the entity once its Kafka send has been acknowledged, so MongoDB only holds transactions that were
+     * published. The persistence slot is reserved here, on the generating thread, so a full queue still slows
+     * generation down; the send callback only fills the slot. A rejected or failed send gives the slot back and
+     * the returned future fails with the send error.
+     */
+    public <T> CompletableFuture<T> saveWhenSent(TransactionEntity entity, CompletableFuture<T> sent) {
+        if (sent.isCompletedExceptionally()) {
+            return sent;
         }
+        boolean reserved = persistenceQueue.reserve(entity.getTransactionId());
+        return sent.whenComplete((result, error) -> {
+            if (!reserved) {
+                return;
+            }
+            if (error != null) {
+                persistenceQueue.cancelReservation();
+                return;
+            }
+            persistenceQueue.enqueueReserved(entity);
+            log.debug("Queued {} transaction: {}", entity.getTransactionType(), entity.getTransactionId());
+        });
     }
 
-    public void saveFraudTransaction(Transaction transaction, String mt103Content, String fraudPattern) {
-        try {
-            TransactionEntity entity = modelMapper.map(transaction, TransactionEntity.class);
-            entity.setMt103Content(mt103Content);
-            entity.setCreatedAt(LocalDateTime.now());
-            entity.setUpdatedAt(LocalDateTime.now());
-            entity.setIsProcessed(false);
-            entity.setTransactionType("FRAUD");
-            entity.setFraudPattern(fraudPattern);
-            entity.setRiskScore(0.8);
+    public TransactionEntity toEntity(Transaction transaction, String mt103Content) {
+        TransactionEntity entity = TransactionMapper.toEntity(transaction);
 
-            TransactionEntity saved = transactionRepository.save(entity);
-            log.info("Saved FRAUD transaction: {} with pattern: {}", saved.getTransactionId(), fraudPattern);
-        } catch (Exception e) {
-            log.error("Error saving fraud transaction: {}", e.getMessage(), e);
-        }
+        entity.setMt103Content(mt103Content);
+        entity.setCreatedAt(LocalDateTime.now());
+        entity.setUpdatedAt(LocalDateTime.now());
+        entity.setIsProcessed(false);
+        entity.setTransactionType("NORMAL");
+        entity.setRiskScore(0.1);
+        return entity;
     }
 
-    public void saveInvalidTransaction(Transaction transaction, String mt103Content, String invalidReason) {
-        try {
-            TransactionEntity entity = modelMapper.map(transaction, TransactionEntity.class);
+    public TransactionEntity toFraudEntity(Transaction transaction, String mt103Content, String fraudPattern) {
+        TransactionEntity entity = TransactionMapper.toEntity(transaction);
+        entity.setMt103Content(mt103Content);
+        entity.setCreatedAt(LocalDateTime.now());
+        entity.setUpdatedAt(LocalDateTime.now());
+        entity.setIsProcessed(false);
+        entity.setTransactionType("FRAUD");
+        entity.setFraudPattern(fraudPattern);
+        entity.setRiskScore(0.8);
+        return entity;
+    }
 
-            entity.setMt103Content(mt103Content);
-            entity.setCreatedAt(LocalDateTime.now());
-            entity.setUpdatedAt(LocalDateTime.now());
-            entity.setIsProcessed(false);
-            entity.setTransactionType("INVALID");
-            entity.setInvalidReason(invalidReason);
-            entity.setRiskScore(0.0);
+    public TransactionEntity toInvalidEntity(Transaction transaction, String mt103Content, String invalidReason) {
+        TransactionEntity entity = TransactionMapper.toEntity(transaction);
 
-            TransactionEntity saved = transactionRepository.save(entity);
-            log.info("Saved INVALID transaction: {} with reason: {}", saved.getTransactionId(), invalidReason);
-        } catch (Exception e) {
-            log.error("Error saving invalid transaction: {}", e.getMessage(), e);
-        }
+        entity.setMt103Content(mt103Content);
+        entity.setCreatedAt(LocalDateTime.now());
+        entity.setUpdatedAt(LocalDateTime.now());
+        entity.setIsProcessed(false);
+        entity.setTransactionType("INVALID");
+        entity.setInvalidReason(invalidReason);
+        entity.setRiskScore(0.0);
+        return entity;
     }
 }
\ No newline at end of file
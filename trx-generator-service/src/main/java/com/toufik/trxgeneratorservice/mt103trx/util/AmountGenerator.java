@@ -2,7 +2,7 @@ package com.toufik.trxgeneratorservice.mt103trx.util;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 public class AmountGenerator {
 
@@ -15,11 +15,11 @@ public class AmountGenerator {
     }
 
     private static BigDecimal randomBetween(int min, int max) {
-        double value = min + Math.random() * (max - min);
+        double value = min + RandomStreams.current().nextDouble() * (max - min);
         return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
     }
 
-    public static BigDecimal generatePatternAmounts(Random random) {
+    public static BigDecimal generatePatternAmounts(RandomGenerator random) {
         int[] amounts = {999, 9999, 99999, 999999};
         int selectedAmount = amounts[random.nextInt(amounts.length)];
         return new BigDecimal(selectedAmount);
@@ -0,0 +1,62 @@
+package com.toufik.trxgeneratorservice.mt103trx.util;
+
+import com.toufik.trxgeneratorservice.mt103trx.model.BankInfo;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parser for the bank CSV shipped with the service and for full BIC directory exports in the same layout.
+ */
+@Slf4j
+public final class BankCsv {
+
+    private BankCsv() {
+    }
+
+    public static List<BankInfo> read(Reader source) throws IOException {
+        List<BankInfo> banks = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(source)) {
+            String line;
+            boolean isHeader = true;
+
+            while ((line = reader.readLine()) != null) {
+                if (isHeader) {
+                    isHeader = false;
+                    continue;
+                }
+
+                String[] fields = line.split(",");
+                if (fields.length >= 6) { // Updated to require at least 6 fields (added country name)
+                    String ibanPrefix = fields.length > 6 ? fields[6].trim() : "";
+                    String ibanLengthStr = fields.length > 7 ? fields[7].trim() : "";
+
+                    Integer ibanLength = null;
+                    if (!ibanLengthStr.isEmpty()) {
+                        try {
+                            ibanLength = Integer.parseInt(ibanLengthStr);
+                        } catch (NumberFormatException e) {
+                            log.warn("Invalid IBAN length for {}: {}", fields[0], ibanLengthStr);
+                        }
+                    }
+
+                    banks.add(new BankInfo(
+                            fields[0].trim(), // swiftCode
+                            fields[1].trim(), // countryCode
+                            fields[2].trim(), // countryName (new field)
+                            fields[3].trim(), // bankName
+                            fields[4].trim(), // routingNumber
+                            fields[5].trim(), // currencyCode
+                            ibanPrefix.isEmpty() ? fields[1].trim() : ibanPrefix, // use CSV prefix or country code
+                            ibanLength // use CSV length or null
+                    ));
+                }
+            }
+        }
+        return banks;
+    }
+}
@@ -0,0 +1,318 @@
+package com.toufik.trxgeneratorservice.mt103trx.util;
+
+import com.toufik.trxgeneratorservice.mt103trx.model.BankInfo;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Read-only bank directory backed by a memory-mapped binary file, for BIC directories too large to keep as
+ * heap objects. Only the interned country/currency code table lives on the heap; records are fixed-width,
+ * sorted by BIC for binary search, and {@link BankInfo} instances are materialized on access.
+ *
+ * <pre>
+ * header   magic:int version:short count:int codeCount:int codesOffset:int recordsOffset:int textOffset:int
+ * codes    codeCount x (length:short utf8)       country codes, country names, currencies, IBAN prefixes
+ * records  count x RECORD_SIZE                    bic[11] (ASCII, zero-padded), country:short, countryName:short,
+ *                                                 currency:short, ibanPrefix:short, ibanLength:byte,
+ *                                                 bankName:int, routingNumber:int
+ * text     (length:short utf8)*                   bank names and routing numbers, deduplicated
+ * </pre>
+ * Code indexes and text offsets are -1 for null values; an IBAN length of 0 means none.
+ */
+@Slf4j
+public final class BankDirectory {
+
+    static final int MAGIC = 0x42494344; // "BICD"
+    static final short VERSION = 1;
+
+    private static final int HEADER_SIZE = 4 + 2 + 4 * 5;
+    private static final int BIC_LENGTH = 11;
+    private static final int RECORD_SIZE = BIC_LENGTH + 2 * 4 + 1 + 4 * 2;
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final String[] codes;
+    private final int recordsOffset;
+    private final int textOffset;
+
+    private BankDirectory(ByteBuffer buffer) {
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a bank directory file");
+        }
+        if (buffer.getShort(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported bank directory version: " + buffer.getShort(4));
+        }
+        this.buffer = buffer;
+        this.count = buffer.getInt(6);
+        this.codes = readCodes(buffer, buffer.getInt(10), buffer.getInt(14));
+        this.recordsOffset = buffer.getInt(18);
+        this.textOffset = buffer.getInt(22);
+    }
+
+    public static BankDirectory open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new BankDirectory(mapped);
+        }
+    }
+
+    /**
+     * Converts {@code banks} into the binary format. The first entry wins for duplicate BICs; BICs that are not
+     * ASCII or longer than 11 characters are skipped. The file is written next to {@code target} and moved into place.
+     */
+    public static int write(Collection<BankInfo> banks, Path target) throws IOException {
+        Map<String, BankInfo> byBic = new LinkedHashMap<>();
+        int skipped = 0;
+        for (BankInfo bank : banks) {
+            if (encodeBic(bank.getSwiftCode()) == null) {
+                skipped++;
+            } else {
+                byBic.putIfAbsent(bank.getSwiftCode(), bank);
+            }
+        }
+        if (skipped > 0) {
+            log.warn("Skipped {} banks with invalid BICs", skipped);
+        }
+
+        List<BankInfo> sorted = new ArrayList<>(byBic.values());
+        sorted.sort(Comparator.comparing(BankInfo::getSwiftCode));
+
+        Map<String, Integer> codeIndex = new LinkedHashMap<>();
+        StringTable text = new StringTable();
+        ByteBuffer records = ByteBuffer.allocate(sorted.size() * RECORD_SIZE);
+        for (BankInfo bank : sorted) {
+            records.put(encodeBic(bank.getSwiftCode()));
+            records.putShort(code(codeIndex, bank.getCountryCode()));
+            records.putShort(code(codeIndex, bank.getCountryName()));
+            records.putShort(code(codeIndex, bank.getCurrencyCode()));
+            records.putShort(code(codeIndex, bank.getIbanPrefix()));
+            records.put((byte) (bank.getIbanLength() == null ? 0 : bank.getIbanLength()));
+            records.putInt(text.offset(bank.getBankName()));
+            records.putInt(text.offset(bank.getRoutingNumber()));
+        }
+
+        StringTable codes = new StringTable();
+        codeIndex.keySet().forEach(codes::offset);
+
+        int codesOffset = HEADER_SIZE;
+        int recordsOffset = codesOffset + codes.size();
+        int textOffset = recordsOffset + records.capacity();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                .putInt(MAGIC)
+                .putShort(VERSION)
+                .putInt(sorted.size())
+                .putInt(codeIndex.size())
+                .putInt(codesOffset)
+                .putInt(recordsOffset)
+                .putInt(textOffset)
+                .flip();
+
+        Path temp = Files.createTempFile(target.toAbsolutePath().getParent(), target.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (ByteBuffer part : new ByteBuffer[]{header, codes.toBuffer(), records.flip(), text.toBuffer()}) {
+                while (part.hasRemaining()) {
+                    channel.write(part);
+                }
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return sorted.size();
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public BankInfo get(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + count);
+        }
+        int record = recordsOffset + index * RECORD_SIZE;
+        int ibanLength = buffer.get(record + 19);
+        return new BankInfo(
+                readBic(record),
+                code(buffer.getShort(record + 11)),
+                code(buffer.getShort(record + 13)),
+                text(buffer.getInt(record + 20)),
+                text(buffer.getInt(record + 24)),
+                code(buffer.getShort(record + 15)),
+                code(buffer.getShort(record + 17)),
+                ibanLength == 0 ? null : ibanLength);
+    }
+
+    public BankInfo findBySwift(String swiftCode) {
+        int index = indexOf(swiftCode);
+        return index < 0 ? null : get(index);
+    }
+
+    public int indexOf(String swiftCode) {
+        byte[] key = encodeBic(swiftCode);
+        if (key == null) {
+            return -1;
+        }
+        long keyPrefix = ByteBuffer.wrap(key).getLong();
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareBic(recordsOffset + mid * RECORD_SIZE, key, keyPrefix);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * List view over the mapped records; elements are materialized on each {@code get}.
+     */
+    public List<BankInfo> asList() {
+        return new BankList();
+    }
+
+    /**
+     * Big-endian unsigned comparison of the first 8 bytes is the same as comparing them lexicographically.
+     */
+    private int compareBic(int record, byte[] key, long keyPrefix) {
+        int cmp = Long.compareUnsigned(buffer.getLong(record), keyPrefix);
+        for (int i = 8; cmp == 0 && i < BIC_LENGTH; i++) {
+            cmp = Byte.compareUnsigned(buffer.get(record + i), key[i]);
+        }
+        return cmp;
+    }
+
+    private String readBic(int record) {
+        int length = 0;
+        while (length < BIC_LENGTH && buffer.get(record + length) != 0) {
+            length++;
+        }
+        byte[] bic = new byte[length];
+        buffer.get(record, bic);
+        return new String(bic, StandardCharsets.US_ASCII);
+    }
+
+    private String code(short index) {
+        return index < 0 ? null : codes[index];
+    }
+
+    private String text(int offset) {
+        return offset < 0 ? null : readString(buffer, textOffset + offset);
+    }
+
+    private static String[] readCodes(ByteBuffer buffer, int codeCount, int offset) {
+        String[] codes = new String[codeCount];
+        for (int i = 0; i < codeCount; i++) {
+            codes[i] = readString(buffer, offset).intern();
+            offset += 2 + Short.toUnsignedInt(buffer.getShort(offset));
+        }
+        return codes;
+    }
+
+    private static String readString(ByteBuffer buffer, int offset) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort(offset))];
+        buffer.get(offset + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] encodeBic(String swiftCode) {
+        if (swiftCode == null || swiftCode.isEmpty() || swiftCode.length() > BIC_LENGTH) {
+            return null;
+        }
+        byte[] bic = new byte[BIC_LENGTH];
+        for (int i = 0; i < swiftCode.length(); i++) {
+            char c = swiftCode.charAt(i);
+            if (c == 0 || c > 0x7F) {
+                return null;
+            }
+            bic[i] = (byte) c;
+        }
+        return bic;
+    }
+
+    private static short code(Map<String, Integer> codeIndex, String value) {
+        if (value == null) {
+            return -1;
+        }
+        int index = codeIndex.computeIfAbsent(value, v -> codeIndex.size());
+        if (index > Short.MAX_VALUE) {
+            throw new IllegalStateException("Too many distinct country/currency codes");
+        }
+        return (short) index;
+    }
+
+    private final class BankList extends AbstractList<BankInfo> implements RandomAccess {
+
+        @Override
+        public BankInfo get(int index) {
+            return BankDirectory.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
+    }
+
+    /**
+     * Deduplicated, length-prefixed UTF-8 strings addressed by byte offset.
+     */
+    private static final class StringTable {
+
+        private final Map<String, Integer> offsets = new HashMap<>();
+        private final List<byte[]> entries = new ArrayList<>();
+        private int size;
+
+        int offset(String value) {
+            if (value == null) {
+                return -1;
+            }
+            Integer existing = offsets.get(value);
+            if (existing != null) {
+                return existing;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > 0xFFFF) {
+                throw new IllegalArgumentException("String too long for bank directory: " + bytes.length + " bytes");
+            }
+            int offset = size;
+            offsets.put(value, offset);
+            entries.add(bytes);
+            size += 2 + bytes.length;
+            return offset;
+        }
+
+        int size() {
+            return size;
+        }
+
+        ByteBuffer toBuffer() {
+            ByteBuffer buffer = ByteBuffer.allocate(size);
+            for (byte[] entry : entries) {
+                buffer.putShort((short) entry.length).put(entry);
+            }
+            return buffer.flip();
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.toufik.trxgeneratorservice.mt103trx.util;
+
+import com.toufik.trxgeneratorservice.mt103trx.model.BankInfo;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bank index built once from the CSV. Banks are indexed by BIC, and each entry carries
+ * everything IBAN generation needs precomputed: the normalized bank code, the mod-97 remainder of the fixed
+ * prefix and suffix, and a character template, so generating an IBAN only does arithmetic on the account part.
+ */
+public final class BankRegistry {
+
+    public static final Set<String> EUROPEAN_COUNTRIES =
+            Set.of("DE", "FR", "IT", "ES", "NL", "BE", "AT", "PT", "IE", "FI", "LU");
+
+    static final int MAX_COMPUTED_ENTRIES = 10_000;
+
+    private final List<BankInfo> banks;
+    private final Map<String, Entry> bySwift;
+    private final Map<String, Entry> computed;
+
+    public BankRegistry(List<BankInfo> banks) {
+        this(banks, MAX_COMPUTED_ENTRIES);
+    }
+
+    BankRegistry(List<BankInfo> banks, int maxComputedEntries) {
+        this.banks = List.copyOf(banks);
+        Map<String, Entry> index = new HashMap<>(banks.size() * 2);
+        for (BankInfo bank : this.banks) {
+            index.putIfAbsent(bank.getSwiftCode(), Entry.of(bank));
+        }
+        this.bySwift = Map.copyOf(index);
+        this.computed = Collections.synchronizedMap(new LruCache(maxComputedEntries));
+    }
+
+    public List<BankInfo> banks() {
+        return banks;
+    }
+
+    public int size() {
+        return banks.size();
+    }
+
+    public Entry findBySwift(String swiftCode) {
+        return swiftCode == null ? null : bySwift.get(swiftCode);
+    }
+
+    /**
+     * Precomputed entry for {@code bank}. Banks outside the eager index (memory-mapped directories, ad-hoc banks)
+     * get their entry computed on first use and cached, evicting the least recently used BIC once
+     * {@link #MAX_COMPUTED_ENTRIES} are cached.
+     */
+    public Entry entryFor(BankInfo bank) {
+        String swiftCode = bank.getSwiftCode();
+        Entry entry = findBySwift(swiftCode);
+        if (entry == null && swiftCode != null) {
+            entry = computed.get(swiftCode);
+        }
+        if (entry != null && entry.bank().equals(bank)) {
+            return entry;
+        }
+
+        entry = Entry.of(bank);
+        if (swiftCode != null) {
+            computed.put(swiftCode, entry);
+        }
+        return entry;
+    }
+
+    public static boolean isEuropean(String countryCode) {
+        return countryCode != null && EUROPEAN_COUNTRIES.contains(countryCode);
+    }
+
+    private static final class LruCache extends LinkedHashMap<String, Entry> {
+
+        private final int maxEntries;
+
+        LruCache(int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxEntries;
+        }
+    }
+
+    public static final class Entry {
+
+        private final BankInfo bank;
+        private final boolean european;
+        private final boolean us;
+        private final boolean usesIban;
+
+        private final String bankCode;
+        private final int accountDigits;
+        private final long accountModulus;
+        private final int prefixRemainder;
+        private final int accountShift;
+        private final int suffixRemainder;
+        private final int suffixShift;
+        private final char[] ibanTemplate;
+        private final int checkDigitsOffset;
+        private final boolean arithmetic;
+
+        private Entry(BankInfo bank) {
+            this.bank = bank;
+            this.european = BankRegistry.isEuropean(bank.getCountryCode());
+            this.us = "US".equals(bank.getCountryCode());
+            this.usesIban = bank.getIbanLength() != null && bank.getIbanLength() != 0;
+
+            if (!usesIban) {
+                this.bankCode = null;
+                this.accountDigits = 0;
+                this.accountModulus = 0;
+                this.prefixRemainder = 0;
+                this.accountShift = 0;
+                this.suffixRemainder = 0;
+                this.suffixShift = 0;
+                this.ibanTemplate = null;
+                this.checkDigitsOffset = 0;
+                this.arithmetic = false;
+                return;
+            }
+
+            String countryCode = bank.getIbanPrefix();
+            String code = normalizeBankCode(bank.getRoutingNumber());
+            int needed = bank.getIbanLength() - 4 - code.length(); // 4 = country(2) + check(2)
+            this.bankCode = code;
+            this.accountDigits = needed <= 0 ? 10 : needed; // fallback
+            this.accountModulus = (long) Math.pow(10, accountDigits);
+
+            // IBAN check input is bankCode + account + countryCode + "00"
+            String suffix = countryCode + "00";
+            this.prefixRemainder = mod97(0, code);
+            this.accountShift = pow10Mod97(accountDigits);
+            this.suffixRemainder = mod97(0, suffix);
+            this.suffixShift = pow10Mod97(expandedLength(suffix));
+
+            this.checkDigitsOffset = countryCode.length();
+            this.ibanTemplate = (countryCode + "00" + code + "0".repeat(accountDigits)).toCharArray();
+            this.arithmetic = isAlphanumeric(countryCode);
+        }
+
+        public static Entry of(BankInfo bank) {
+            return new Entry(bank);
+        }
+
+        public BankInfo bank() {
+            return bank;
+        }
+
+        public boolean isEuropean() {
+            return european;
+        }
+
+        public boolean isUS() {
+            return us;
+        }
+
+        public boolean usesIban() {
+            return usesIban;
+        }
+
+        public String bankCode() {
+            return bankCode;
+        }
+
+        public int accountDigits() {
+            return accountDigits;
+        }
+
+        /**
+         * IBAN for an account, or null when the inputs fall outside what the arithmetic path reproduces
+         * exactly (non-alphanumeric IBAN prefix, negative account hash); callers then use the String path.
+         */
+        public String generateIBAN(String accountNumber) {
+            if (!arithmetic) {
+                return null;
+            }
+            long account = Math.abs(accountNumber.hashCode()) % accountModulus;
+            if (account < 0) {
+                return null;
+            }
+
+            int remainder = (int) ((prefixRemainder * (long) accountShift + account % 97) % 97);
+            remainder = (remainder * suffixShift + suffixRemainder) % 97;
+            int checkDigits = 98 - remainder;
+
+            char[] iban = ibanTemplate.clone();
+            iban[checkDigitsOffset] = (char) ('0' + checkDigits / 10);
+            iban[checkDigitsOffset + 1] = (char) ('0' + checkDigits % 10);
+            for (int i = iban.length - 1; account > 0; i--) {
+                iban[i] = (char) ('0' + account % 10);
+                account /= 10;
+            }
+            return new String(iban);
+        }
+
+        private static String normalizeBankCode(String routingNumber) {
+            StringBuilder digits = new StringBuilder(8);
+            for (int i = 0; i < routingNumber.length() && digits.length() < 8; i++) {
+                char c = routingNumber.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    digits.append(c);
+                }
+            }
+            return digits.toString();
+        }
+
+        /**
+         * Continues a mod-97 over the IBAN numeric expansion of {@code input}, letters counting as two digits.
+         */
+        private static int mod97(int remainder, String input) {
+            for (int i = 0; i < input.length(); i++) {
+                char c = input.charAt(i);
+                if (Character.isLetter(c)) {
+                    int value = c - 'A' + 10;
+                    remainder = (remainder * 100 + value) % 97;
+                } else {
+                    remainder = (remainder * 10 + Character.getNumericValue(c)) % 97;
+                }
+            }
+            return remainder;
+        }
+
+        private static int expandedLength(String input) {
+            int length = 0;
+            for (int i = 0; i < input.length(); i++) {
+                length += Character.isLetter(input.charAt(i)) ? 2 : 1;
+            }
+            return length;
+        }
+
+        private static int pow10Mod97(int exponent) {
+            int result = 1;
+            for (int i = 0; i < exponent; i++) {
+                result = result * 10 % 97;
+            }
+            return result;
+        }
+
+        /**
+         * Upper-case ASCII letters and digits expand to exactly two resp. one non-negative digit.
+         */
+        private static boolean isAlphanumeric(String input) {
+            for (int i = 0; i < input.length(); i++) {
+                char c = input.charAt(i);
+                if (!(c >= 'A' && c <= 'Z') && !(c >= '0' && c <= '9')) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -9,6 +9,28 @@ public final class MT103Constants {
     public static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyMMdd");
     public static final String HEX_CHARS = "ABCDEF0123456789";
 
+    /**
+     * Complete MT103 layout; {@code ${name}} placeholders are bound to slot providers by {@link MT103Template}.
+     */
+    public static final String MT103_LAYOUT =
+            "{1:F01${senderLT}}{2:I103${receiverLT}N}{3:{108:${reference}}}" +
+            "\n{4:\n" +
+            ":20:${reference}\n" +
+            ":23B:CRED\n" +
+            ":32A:${valueDate}${currency}${amount}\n" +
+            ":33B:${currency}${amount}\n" +
+            ":71A:${chargeBearer}\n" +
+            ":50K:/${orderingAccount}\n${fromBankName}\n${address}\n${fromCityCountry}\n" +
+            ":52A:${fromSwift}\n" +
+            ":53B:/${fromSwift}\n" +
+            "${intermediary}" +
+            ":57A:${toSwift}\n" +
+            ":59:/${beneficiaryAccount}\n${toBankName}\n${address}\n${toCityCountry}\n" +
+            ":70:${remittance}\n" +
+            ":72:/INS/${fromSwift}\n" +
+            "}" +
+            "\n{5:{MAC:${mac}}{CHK:${checksum}}}";
+
     public static final String[] ADDRESS_TEMPLATES = {
             "123 Main Street", "456 Business Ave", "789 Commercial Blvd",
             "321 Financial District", "654 Banking Center", "987 Trade Plaza"
@@ -0,0 +1,14 @@
+package com.toufik.trxgeneratorservice.mt103trx.util;
+
+import com.toufik.trxcommon.model.Transaction;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Writes the variable part of an {@link MT103Template} for one transaction.
+ */
+@FunctionalInterface
+public interface MT103Slot {
+
+    void write(MT103Writer out, Transaction transaction, RandomGenerator random);
+}
@@ -0,0 +1,63 @@
+package com.toufik.trxgeneratorservice.mt103trx.util;
+
+import com.toufik.trxcommon.model.Transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * MT103 layout compiled once into literal byte segments and slots. Placeholders are written as
+ * {@code ${name}} and bound to the slot providers passed to {@link #compile}; rendering is a single
+ * pass over the segments with no parsing or string concatenation.
+ */
+public final class MT103Template {
+
+    private final MT103Slot[] segments;
+
+    private MT103Template(MT103Slot[] segments) {
+        this.segments = segments;
+    }
+
+    public static MT103Template compile(String layout, Map<String, MT103Slot> slots) {
+        List<MT103Slot> segments = new ArrayList<>();
+        int index = 0;
+
+        while (index < layout.length()) {
+            int start = layout.indexOf("${", index);
+            if (start < 0) {
+                segments.add(literal(layout.substring(index)));
+                break;
+            }
+            if (start > index) {
+                segments.add(literal(layout.substring(index, start)));
+            }
+
+            int end = layout.indexOf('}', start);
+            if (end < 0) {
+                throw new IllegalArgumentException("Unterminated slot at index " + start);
+            }
+            String name = layout.substring(start + 2, end);
+            MT103Slot slot = slots.get(name);
+            if (slot == null) {
+                throw new IllegalArgumentException("No provider for slot: " + name);
+            }
+            segments.add(slot);
+            index = end + 1;
+        }
+
+        return new MT103Template(segments.toArray(MT103Slot[]::new));
+    }
+
+    public void render(MT103Writer out, Transaction transaction, RandomGenerator random) {
+        for (MT103Slot segment : segments) {
+            segment.write(out, transaction, random);
+        }
+    }
+
+    private static MT103Slot literal(String text) {
+        byte[] bytes = MT103Writer.bytes(text);
+        return (out, transaction, random) -> out.write(bytes);
+    }
+}
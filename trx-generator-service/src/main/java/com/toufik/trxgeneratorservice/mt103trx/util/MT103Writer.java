@@ -0,0 +1,207 @@
+package com.toufik.trxgeneratorservice.mt103trx.util;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Growable byte sink used by {@link MT103Template}. Characters are stored one byte each (ISO-8859-1, which
+ * covers the SWIFT character set); anything wider is remembered on the side so {@link #toString()} stays exact.
+ */
+public final class MT103Writer {
+
+    private static final byte[] NULL = bytes("null");
+    private static final int AMOUNT_PLAIN_MIN_EXPONENT = -6;
+
+    private byte[] bytes;
+    private int position;
+
+    private int[] widePositions;
+    private char[] wideChars;
+    private int wideCount;
+
+    public MT103Writer() {
+        this(512);
+    }
+
+    public MT103Writer(int initialCapacity) {
+        this.bytes = new byte[initialCapacity];
+    }
+
+    public static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    public MT103Writer reset() {
+        position = 0;
+        wideCount = 0;
+        return this;
+    }
+
+    public int length() {
+        return position;
+    }
+
+    public MT103Writer write(byte value) {
+        ensureCapacity(1);
+        bytes[position++] = value;
+        return this;
+    }
+
+    public MT103Writer write(char value) {
+        if (value > 0xFF) {
+            recordWide(value);
+            return write((byte) '?');
+        }
+        return write((byte) value);
+    }
+
+    public MT103Writer write(byte[] value) {
+        ensureCapacity(value.length);
+        System.arraycopy(value, 0, bytes, position, value.length);
+        position += value.length;
+        return this;
+    }
+
+    /**
+     * Appends like {@link StringBuilder#append(String)}, including "null" for null values.
+     */
+    public MT103Writer write(String value) {
+        if (value == null) {
+            return write(NULL);
+        }
+        return write(value, value.length());
+    }
+
+    /**
+     * Appends at most {@code maxLength} leading characters; null values write nothing.
+     */
+    public MT103Writer writeTruncated(String value, int maxLength) {
+        return value == null ? this : write(value, Math.min(value.length(), maxLength));
+    }
+
+    public MT103Writer writeTwoDigits(int value) {
+        ensureCapacity(2);
+        bytes[position++] = (byte) ('0' + value / 10);
+        bytes[position++] = (byte) ('0' + value % 10);
+        return this;
+    }
+
+    /**
+     * Writes {@code value} zero-padded to exactly {@code digits} digits.
+     */
+    public MT103Writer writeDigits(long value, int digits) {
+        ensureCapacity(digits);
+        for (int i = position + digits - 1; i >= position; i--) {
+            bytes[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position += digits;
+        return this;
+    }
+
+    /**
+     * Same output as {@link MT103Constants#DATE_FORMATTER}, which prints the two low digits of the year-of-era.
+     */
+    public MT103Writer writeValueDate(LocalDateTime timestamp) {
+        int year = timestamp.getYear();
+        int yearOfEra = year >= 1 ? year : 1 - year;
+        return writeTwoDigits(yearOfEra % 100)
+                .writeTwoDigits(timestamp.getMonthValue())
+                .writeTwoDigits(timestamp.getDayOfMonth());
+    }
+
+    /**
+     * Writes {@code amount.toString()} with ',' as decimal separator. Values that toString() would print in
+     * scientific notation, or whose unscaled value does not fit in a long, go through the String path.
+     */
+    public MT103Writer writeAmount(BigDecimal amount) {
+        int scale = amount.scale();
+        int precision = amount.precision();
+        if (scale < 0 || precision > 18 || precision - 1 - scale < AMOUNT_PLAIN_MIN_EXPONENT) {
+            return write(amount.toString().replace('.', ','));
+        }
+
+        long unscaled = amount.unscaledValue().longValue();
+        if (unscaled < 0) {
+            write((byte) '-');
+            unscaled = -unscaled;
+        }
+        if (scale == 0) {
+            return writeDigits(unscaled, precision);
+        }
+
+        int integerDigits = precision - scale;
+        if (integerDigits <= 0) {
+            return write((byte) '0').write((byte) ',').writeDigits(unscaled, scale);
+        }
+        long divisor = pow10(scale);
+        return writeDigits(unscaled / divisor, integerDigits)
+                .write((byte) ',')
+                .writeDigits(unscaled % divisor, scale);
+    }
+
+    /**
+     * Copies the written bytes into {@code target}. Characters outside ISO-8859-1 appear as '?'.
+     */
+    public int writeTo(ByteBuffer target) {
+        target.put(bytes, 0, position);
+        return position;
+    }
+
+    @Override
+    public String toString() {
+        if (wideCount == 0) {
+            return new String(bytes, 0, position, StandardCharsets.ISO_8859_1);
+        }
+        char[] chars = new char[position];
+        for (int i = 0; i < position; i++) {
+            chars[i] = (char) (bytes[i] & 0xFF);
+        }
+        for (int i = 0; i < wideCount; i++) {
+            chars[widePositions[i]] = wideChars[i];
+        }
+        return new String(chars);
+    }
+
+    private MT103Writer write(String value, int length) {
+        ensureCapacity(length);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c > 0xFF) {
+                recordWide(c);
+                c = '?';
+            }
+            bytes[position++] = (byte) c;
+        }
+        return this;
+    }
+
+    private void recordWide(char value) {
+        if (widePositions == null) {
+            widePositions = new int[8];
+            wideChars = new char[8];
+        } else if (wideCount == widePositions.length) {
+            widePositions = Arrays.copyOf(widePositions, wideCount * 2);
+            wideChars = Arrays.copyOf(wideChars, wideCount * 2);
+        }
+        widePositions[wideCount] = position;
+        wideChars[wideCount++] = value;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (position + extra > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, position + extra));
+        }
+    }
+
+    private static long pow10(int exponent) {
+        long result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= 10;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,86 @@
+package com.toufik.trxgeneratorservice.mt103trx.util;
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Per-thread random streams derived from one master seed, used instead of shared {@code java.util.Random}
+ * instances and {@code Math.random()} so generation threads never contend on a common seed.
+ * <p>
+ * Load-generator workers call {@link #bindWorker(int)} on start: worker {@code n} always gets the {@code n}-th
+ * stream split from the master seed, so a run with the same seed and worker count draws the same numbers on
+ * every worker. Other threads (scheduled ticks, HTTP requests) get their own stream on first use.
+ */
+public final class RandomStreams {
+
+    private static final long UNBOUND_SALT = 0x9E3779B97F4A7C15L;
+
+    private static final ThreadLocal<Stream> STREAMS = ThreadLocal.withInitial(Stream::new);
+
+    private static volatile long seed = new SplittableRandom().nextLong();
+    private static volatile int generation;
+    private static SplittableRandom unboundSource = new SplittableRandom(seed ^ UNBOUND_SALT);
+
+    private RandomStreams() {
+    }
+
+    /**
+     * The calling thread's stream. Must not be shared with other threads.
+     */
+    public static RandomGenerator current() {
+        Stream stream = STREAMS.get();
+        if (stream.generation != generation) {
+            stream.random = nextUnbound();
+            stream.generation = generation;
+        }
+        return stream.random;
+    }
+
+    /**
+     * Replaces the master seed. Streams handed out before are discarded on their next use.
+     */
+    public static synchronized void reseed(long masterSeed) {
+        seed = masterSeed;
+        unboundSource = new SplittableRandom(masterSeed ^ UNBOUND_SALT);
+        generation++;
+    }
+
+    public static long seed() {
+        return seed;
+    }
+
+    /**
+     * Binds the calling thread to the deterministic stream of worker {@code index} for the current seed.
+     */
+    public static void bindWorker(int index) {
+        if (index < 0) {
+            throw new IllegalArgumentException("Worker index must not be negative: " + index);
+        }
+        int currentGeneration;
+        long currentSeed;
+        synchronized (RandomStreams.class) {
+            currentGeneration = generation;
+            currentSeed = seed;
+        }
+
+        SplittableRandom root = new SplittableRandom(currentSeed);
+        SplittableRandom worker = root.split();
+        for (int i = 0; i < index; i++) {
+            worker = root.split();
+        }
+
+        Stream stream = STREAMS.get();
+        stream.random = worker;
+        stream.generation = currentGeneration;
+    }
+
+    private static synchronized SplittableRandom nextUnbound() {
+        return unboundSource.split();
+    }
+
+    private static final class Stream {
+
+        private SplittableRandom random;
+        private int generation = -1;
+    }
+}
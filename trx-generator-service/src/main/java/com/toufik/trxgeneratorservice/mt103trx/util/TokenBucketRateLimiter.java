@@ -0,0 +1,62 @@
+package com.toufik.trxgeneratorservice.mt103trx.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Lock-free token bucket shared by all load generator workers.
+ * Each acquire reserves the next free slot on a virtual timeline and parks until it is due,
+ * so workers never queue on a monitor. Idle time accumulates up to a short burst window,
+ * which lets late-waking threads catch up at high rates without overshooting the target.
+ */
+public class TokenBucketRateLimiter {
+
+    private static final long BURST_WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final AtomicLong nextFreeSlot = new AtomicLong(System.nanoTime());
+    private volatile long intervalNanos;
+    private volatile long maxBurstNanos;
+    private volatile double permitsPerSecond;
+
+    public TokenBucketRateLimiter(double permitsPerSecond) {
+        setRate(permitsPerSecond);
+    }
+
+    public void setRate(double permitsPerSecond) {
+        if (permitsPerSecond <= 0 || Double.isNaN(permitsPerSecond)) {
+            throw new IllegalArgumentException("Rate must be positive: " + permitsPerSecond);
+        }
+        long interval = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.intervalNanos = interval;
+        this.maxBurstNanos = Math.max(interval, BURST_WINDOW_NANOS);
+        this.permitsPerSecond = permitsPerSecond;
+    }
+
+    public double getRate() {
+        return permitsPerSecond;
+    }
+
+    /**
+     * Blocks until a permit is available. Returns early if the calling thread is interrupted.
+     */
+    public void acquire() {
+        long now = System.nanoTime();
+        long interval = intervalNanos;
+        long slot;
+
+        while (true) {
+            long next = nextFreeSlot.get();
+            slot = Math.max(next, now - maxBurstNanos);
+            if (nextFreeSlot.compareAndSet(next, slot + interval)) {
+                break;
+            }
+        }
+
+        long waitNanos = slot - now;
+        while (waitNanos > 0 && !Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(waitNanos);
+            waitNanos = slot - System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.toufik.trxgeneratorservice.mt103trx.util;
+
+/**
+ * Source of transaction IDs. Implementations must be thread-safe.
+ */
+@FunctionalInterface
+public interface TransactionIdGenerator {
+
+    String nextId();
+}
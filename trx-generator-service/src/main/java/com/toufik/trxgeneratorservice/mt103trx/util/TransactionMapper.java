@@ -0,0 +1,36 @@
+package com.toufik.trxgeneratorservice.mt103trx.util;
+
+import com.toufik.trxcommon.model.Transaction;
+import com.toufik.trxgeneratorservice.mt103trx.entity.TransactionEntity;
+
+/**
+ * Copies the shared transaction fields into a new entity. The transaction ID doubles as the document ID,
+ * as it did with ModelMapper. Persistence-only fields (type, risk score, MT103 content, audit timestamps)
+ * are left for the caller.
+ */
+public final class TransactionMapper {
+
+    private TransactionMapper() {
+    }
+
+    public static TransactionEntity toEntity(Transaction transaction) {
+        TransactionEntity entity = new TransactionEntity();
+        entity.setId(transaction.getTransactionId());
+        entity.setTransactionId(transaction.getTransactionId());
+        entity.setFromAccount(transaction.getFromAccount());
+        entity.setToAccount(transaction.getToAccount());
+        entity.setAmount(transaction.getAmount());
+        entity.setCurrency(transaction.getCurrency());
+        entity.setFromBankSwift(transaction.getFromBankSwift());
+        entity.setToBankSwift(transaction.getToBankSwift());
+        entity.setFromBankName(transaction.getFromBankName());
+        entity.setToBankName(transaction.getToBankName());
+        entity.setTimestamp(transaction.getTimestamp());
+        entity.setStatus(transaction.getStatus());
+        entity.setFromIBAN(transaction.getFromIBAN());
+        entity.setToIBAN(transaction.getToIBAN());
+        entity.setFromCountryCode(transaction.getFromCountryCode());
+        entity.setToCountryCode(transaction.getToCountryCode());
+        return entity;
+    }
+}
@@ -0,0 +1,14 @@
+package com.toufik.trxgeneratorservice.mt103trx.util;
+
+import java.util.UUID;
+
+/**
+ * Random UUIDs, as generated before time-ordered IDs were introduced.
+ */
+public final class UuidTransactionIdGenerator implements TransactionIdGenerator {
+
+    @Override
+    public String nextId() {
+        return UUID.randomUUID().toString();
+    }
+}
@@ -0,0 +1,158 @@
+package com.toufik.trxgeneratorservice.mt103trx.controller;
+
+import com.toufik.trxgeneratorservice.mt103trx.model.GenerationSettings;
+import com.toufik.trxgeneratorservice.mt103trx.model.GenerationStats;
+import com.toufik.trxgeneratorservice.mt103trx.model.PersistenceStats;
+import com.toufik.trxgeneratorservice.mt103trx.model.ProducerStats;
+import com.toufik.trxgeneratorservice.mt103trx.model.RampProfile;
+import com.toufik.trxgeneratorservice.mt103trx.service.TransactionGenerationEngine;
+import com.toufik.trxgeneratorservice.mt103trx.service.TransactionPersistenceQueue;
+import com.toufik.trxgeneratorservice.mt103trx.service.TransactionProducer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(GenerationControlController.class)
+class GenerationControlControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private TransactionGenerationEngine generationEngine;
+
+    @MockitoBean
+    private TransactionPersistenceQueue persistenceQueue;
+
+    @MockitoBean
+    private TransactionProducer transactionProducer;
+
+    @BeforeEach
+    void setUp() {
+        GenerationStats stats = GenerationStats.builder()
+                .running(true)
+                .targetTps(500)
+                .achievedTps(498.5)
+                .fraudRatio(0.1)
+                .invalidRatio(0.3)
+                .build();
+        when(generationEngine.getStats()).thenReturn(stats);
+    }
+
+    @Test
+    void getStats_ShouldReturnTargetAndAchievedTps() throws Exception {
+        mockMvc.perform(get("/api/generator/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.running").value(true))
+                .andExpect(jsonPath("$.targetTps").value(500.0))
+                .andExpect(jsonPath("$.achievedTps").value(498.5));
+    }
+
+    @Test
+    void getPersistenceStats_ShouldReturnQueueDepthAndFlushLatency() throws Exception {
+        when(persistenceQueue.getStats()).thenReturn(PersistenceStats.builder()
+                .queueDepth(120)
+                .queueCapacity(10000)
+                .writtenCount(5000)
+                .averageFlushMillis(4.5)
+                .build());
+
+        mockMvc.perform(get("/api/generator/persistence"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.queueDepth").value(120))
+                .andExpect(jsonPath("$.writtenCount").value(5000))
+                .andExpect(jsonPath("$.averageFlushMillis").value(4.5));
+    }
+
+    @Test
+    void getProducerStats_ShouldReturnInFlightAndAckCounts() throws Exception {
+        when(transactionProducer.getStats()).thenReturn(ProducerStats.builder()
+                .inFlight(4200)
+                .maxInFlight(5000)
+                .saturated(true)
+                .ackedCount(98000)
+                .failedCount(3)
+                .build());
+
+        mockMvc.perform(get("/api/generator/producer"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inFlight").value(4200))
+                .andExpect(jsonPath("$.saturated").value(true))
+                .andExpect(jsonPath("$.ackedCount").value(98000))
+                .andExpect(jsonPath("$.failedCount").value(3));
+    }
+
+    @Test
+    void startPauseResumeStop_ShouldDelegateToEngine() throws Exception {
+        mockMvc.perform(post("/api/generator/start")).andExpect(status().isOk());
+        mockMvc.perform(post("/api/generator/pause")).andExpect(status().isOk());
+        mockMvc.perform(post("/api/generator/resume")).andExpect(status().isOk());
+        mockMvc.perform(post("/api/generator/stop")).andExpect(status().isOk());
+
+        verify(generationEngine).start();
+        verify(generationEngine).pause();
+        verify(generationEngine).resume();
+        verify(generationEngine).stop();
+    }
+
+    @Test
+    void updateSettings_ShouldPassPartialSettings() throws Exception {
+        mockMvc.perform(put("/api/generator/settings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"targetTps\": 2500, \"fraudRatio\": 0.05}"))
+                .andExpect(status().isOk());
+
+        ArgumentCaptor<GenerationSettings> captor = ArgumentCaptor.forClass(GenerationSettings.class);
+        verify(generationEngine).updateSettings(captor.capture());
+        assertEquals(2500.0, captor.getValue().getTargetTps());
+        assertEquals(0.05, captor.getValue().getFraudRatio());
+        assertNull(captor.getValue().getInvalidRatio());
+    }
+
+    @Test
+    void applyRamp_ShouldPassStages() throws Exception {
+        mockMvc.perform(post("/api/generator/ramp")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"stages\": [" +
+                                "{\"targetTps\": 1000, \"durationSeconds\": 60, \"linear\": true}," +
+                                "{\"targetTps\": 5000, \"durationSeconds\": 120}]}"))
+                .andExpect(status().isOk());
+
+        ArgumentCaptor<RampProfile> captor = ArgumentCaptor.forClass(RampProfile.class);
+        verify(generationEngine).applyRamp(captor.capture());
+        assertEquals(2, captor.getValue().getStages().size());
+        assertTrue(captor.getValue().getStages().get(0).isLinear());
+        assertEquals(5000.0, captor.getValue().getStages().get(1).getTargetTps());
+    }
+
+    @Test
+    void updateSettings_WithInvalidMix_ShouldReturnBadRequest() throws Exception {
+        doThrow(new IllegalArgumentException("Fraud and invalid ratios must be non-negative and sum to at most 1"))
+                .when(generationEngine).updateSettings(any());
+
+        mockMvc.perform(put("/api/generator/settings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"fraudRatio\": 0.8, \"invalidRatio\": 0.8}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+    }
+
+    @Test
+    void pause_WhenNotRunning_ShouldReturnConflict() throws Exception {
+        doThrow(new IllegalStateException("Load generation is not running")).when(generationEngine).pause();
+
+        mockMvc.perform(post("/api/generator/pause"))
+                .andExpect(status().isConflict());
+    }
+}
@@ -4,12 +4,18 @@ import com.toufik.trxgeneratorservice.mt103trx.model.BankInfo;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -68,4 +74,63 @@ class BankDataServiceTest {
 
         assertEquals("This country does not use IBAN", iban);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGenerateIBAN_MatchesStringAlgorithmForAllBanks() {
+        BankDataService loaded = new BankDataService();
+        loaded.loadBanksFromCsv();
+        Random random = new Random(42);
+
+        for (BankInfo bank : loaded.getBanks()) {
+            if (bank.getIbanLength() == null || bank.getIbanLength() == 0) {
+                continue;
+            }
+            for (int i = 0; i < 200; i++) {
+                String accountNumber = Long.toString(random.nextLong(1_000_000_000L, 1_000_000_000_000L));
+                assertEquals(loaded.generateIBANFromStrings(bank, accountNumber),
+                        loaded.generateIBAN(bank, accountNumber), "Mismatch for " + bank.getSwiftCode());
+            }
+        }
+    }
+
+    @Test
+    void testGenerateIBAN_HashOverflowFallsBackToStringAlgorithm() {
+        BankInfo bank = new BankInfo("DEUTDEFF", "DE", "Germany", "Deutsche Bank", "12345678", "EUR", "DE", 22);
+        String accountNumber = "polygenelubricants"; // hashCode() == Integer.MIN_VALUE
+
+        assertEquals(bankDataService.generateIBANFromStrings(bank, accountNumber),
+                bankDataService.generateIBAN(bank, accountNumber));
+    }
+
+    @Test
+    void testFindBySwift_ReturnsLoadedBank() {
+        BankDataService loaded = new BankDataService();
+        loaded.loadBanksFromCsv();
+
+        assertEquals("DE", loaded.findBySwift("DEUTDEFF").getCountryCode());
+        assertNull(loaded.findBySwift("NOPEXX00"));
+        assertNull(loaded.findBySwift(null));
+    }
+
+    @Test
+    void testLoadBankDirectory_ConvertsCsvOnceAndMapsIt(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("directory/banks.bin");
+        BankDataService csv = new BankDataService();
+        csv.loadBanksFromCsv();
+
+        BankDataService mapped = new BankDataService();
+        mapped.loadBankDirectory(file);
+        FileTime converted = Files.getLastModifiedTime(file);
+        new BankDataService().loadBankDirectory(file);
+
+        assertEquals(converted, Files.getLastModifiedTime(file));
+        assertEquals(csv.findBySwift("DEUTDEFF"), mapped.findBySwift("DEUTDEFF"));
+        assertNull(mapped.findBySwift("NOPEXX00"));
+        assertEquals(csv.getBanks().stream().map(BankInfo::getSwiftCode).distinct().count(), mapped.getBanks().size());
+
+        BankInfo bank = mapped.findBySwift("BNPAFRPP");
+        assertEquals(csv.generateIBAN(bank, "1234567890"), mapped.generateIBAN(bank, "1234567890"));
+        assertNotNull(mapped.getRandomBank());
+    }
+}
+
@@ -1,7 +1,9 @@
 package com.toufik.trxgeneratorservice.mt103trx.service;
 
+import com.toufik.trxcommon.model.Transaction;
 import com.toufik.trxgeneratorservice.mt103trx.model.BankInfo;
-import com.toufik.trxgeneratorservice.mt103trx.model.Transaction;
+import com.toufik.trxgeneratorservice.mt103trx.util.BankRegistry;
+import com.toufik.trxgeneratorservice.mt103trx.util.RandomStreams;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -9,8 +11,11 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,6 +30,7 @@ class BaseTransactionFactoryTest {
     void setUp() {
         factory = new TestableBaseTransactionFactory();
         factory.bankDataService = bankDataService;
+        lenient().when(bankDataService.entryFor(any())).thenAnswer(invocation -> BankRegistry.Entry.of(invocation.getArgument(0)));
     }
 
     @Test
@@ -66,6 +72,8 @@ class BaseTransactionFactoryTest {
         String currency = factory.determineCurrency(fromBank, toBank);
 
         assertEquals("EUR", currency);
+        verify(bankDataService).entryFor(fromBank);
+        verify(bankDataService).entryFor(toBank);
     }
 
     @Test
@@ -77,6 +85,26 @@ class BaseTransactionFactoryTest {
         assertTrue(accountNumber.matches("\\d+"));
     }
 
+    @Test
+    void testCreateBaseTransaction_ReproducibleForSeededWorker() {
+        BankInfo fromBank = new BankInfo("DEUTDEFF", "DE", "Germany", "Deutsche Bank", "12345678", "EUR", "DE", 22);
+        when(bankDataService.getRandomBank()).thenReturn(fromBank);
+
+        assertEquals(generateForWorker(42, 0), generateForWorker(42, 0));
+        assertNotEquals(generateForWorker(42, 0), generateForWorker(42, 1));
+    }
+
+    private List<String> generateForWorker(long seed, int worker) {
+        RandomStreams.reseed(seed);
+        RandomStreams.bindWorker(worker);
+        List<String> generated = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Transaction transaction = factory.createBaseTransaction();
+            generated.add(transaction.getFromAccount() + "/" + transaction.getToAccount() + "/" + transaction.getStatus());
+        }
+        return generated;
+    }
+
     // Helper class to test abstract BaseTransactionFactory
     private static class TestableBaseTransactionFactory extends BaseTransactionFactory {
         @Override
@@ -1,6 +1,6 @@
 package com.toufik.trxgeneratorservice.mt103trx.service;
 
-import com.toufik.trxgeneratorservice.mt103trx.model.Transaction;
+import com.toufik.trxcommon.model.Transaction;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -9,6 +9,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.SplittableRandom;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -22,23 +24,23 @@ class FraudMT103MessageFormatterTest {
 
     @BeforeEach
     void setUp() {
-        testTransaction = new Transaction(
-                "12345678901234567890",
-                "1234567890",
-                "0987654321",
-                new BigDecimal("20000.00"),
-                "USD",
-                "DEUTDEFF",
-                "CHASUS33",
-                "Deutsche Bank",
-                "JPMorgan Chase",
-                LocalDateTime.of(2024, 1, 15, 3, 30), // Off-hours time
-                "PENDING"
-        );
-        testTransaction.setFromCountryCode("DE");
-        testTransaction.setToCountryCode("US");
-        testTransaction.setFromIBAN("DE89370400440532013000");
-        testTransaction.setToIBAN("This country does not use IBAN");
+        testTransaction = Transaction.builder()
+                .transactionId("12345678901234567890")
+                .fromAccount("1234567890")
+                .toAccount("0987654321")
+                .amount(new BigDecimal("20000.00"))
+                .currency("USD")
+                .fromBankSwift("DEUTDEFF")
+                .toBankSwift("CHASUS33")
+                .fromBankName("Deutsche Bank")
+                .toBankName("JPMorgan Chase")
+                .timestamp(LocalDateTime.of(2024, 1, 15, 3, 30)) // Off-hours time
+                .status("PENDING")
+                .fromCountryCode("DE")
+                .toCountryCode("US")
+                .fromIBAN("DE89370400440532013000")
+                .toIBAN("This country does not use IBAN")
+                .build();
     }
 
     @Test
@@ -55,7 +57,7 @@ class FraudMT103MessageFormatterTest {
 
     @Test
     void testFormatToMT103_HighAmountTransaction() {
-        testTransaction.setAmount(new BigDecimal("25000.00"));
+        testTransaction = testTransaction.withAmount(new BigDecimal("25000.00"));
 
         String mt103 = formatter.formatToMT103(testTransaction);
 
@@ -64,7 +66,7 @@ class FraudMT103MessageFormatterTest {
 
     @Test
     void testFormatToMT103_RoundAmountTransaction() {
-        testTransaction.setAmount(new BigDecimal("5000.00"));
+        testTransaction = testTransaction.withAmount(new BigDecimal("5000.00"));
 
         String mt103 = formatter.formatToMT103(testTransaction);
 
@@ -78,4 +80,18 @@ class FraudMT103MessageFormatterTest {
         // Cross-border should have SHA charge bearer
         assertTrue(mt103.contains(":71A:SHA"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFormatToMT103_MatchesStringBuilderFormatter() {
+        LegacyMT103MessageFormatter legacyFormatter = new LegacyMT103MessageFormatter(LegacyMT103MessageFormatter::fraudRemittance);
+        Random picker = new Random(11);
+
+        for (int i = 0; i < 2_000; i++) {
+            Transaction transaction = MT103TestTransactions.random(picker);
+            long seed = picker.nextLong();
+
+            assertEquals(legacyFormatter.formatToMT103(transaction, new SplittableRandom(seed)),
+                    formatter.formatToMT103(transaction, new SplittableRandom(seed)));
+        }
+    }
+}
@@ -1,7 +1,8 @@
 package com.toufik.trxgeneratorservice.mt103trx.service;
 
+import com.toufik.trxcommon.model.Transaction;
 import com.toufik.trxgeneratorservice.mt103trx.model.BankInfo;
-import com.toufik.trxgeneratorservice.mt103trx.model.Transaction;
+import com.toufik.trxgeneratorservice.mt103trx.util.BankRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -29,6 +30,7 @@ class FraudTransactionFactoryTest {
         BankInfo mockBank = new BankInfo("DEUTDEFF", "DE", "Germany", "Deutsche Bank", "12345678", "EUR", "DE", 22);
         when(bankDataService.getRandomBank()).thenReturn(mockBank);
         when(bankDataService.generateIBAN(any(), any())).thenReturn("DE89370400440532013000");
+        lenient().when(bankDataService.entryFor(any())).thenAnswer(invocation -> BankRegistry.Entry.of(invocation.getArgument(0)));
     }
 
     @Test
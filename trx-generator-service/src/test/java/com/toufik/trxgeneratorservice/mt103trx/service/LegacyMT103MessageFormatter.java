@@ -0,0 +1,269 @@
+package com.toufik.trxgeneratorservice.mt103trx.service;
+
+import com.toufik.trxcommon.model.Transaction;
+
+import java.math.BigDecimal;
+import java.util.function.Function;
+import java.util.random.RandomGenerator;
+
+import static com.toufik.trxgeneratorservice.mt103trx.util.MT103Constants.*;
+
+/**
+ * The StringBuilder chain the template formatters replaced, kept as the reference for differential
+ * tests and as the benchmark baseline. {@code remittance} supplies the :70: text.
+ */
+class LegacyMT103MessageFormatter {
+
+    private final Function<Transaction, String> remittance;
+
+    LegacyMT103MessageFormatter() {
+        this.remittance = this::buildRemittanceInfo;
+    }
+
+    LegacyMT103MessageFormatter(Function<Transaction, String> remittance) {
+        this.remittance = remittance;
+    }
+
+    String formatToMT103(Transaction transaction, RandomGenerator random) {
+        var mt103 = new StringBuilder();
+        var transactionRef = truncateToLength(transaction.getTransactionId(), 16);
+
+        appendHeader(mt103, transaction);
+        appendMessageText(mt103, transaction, transactionRef, random);
+        appendTrailer(mt103, random);
+
+        return mt103.toString();
+    }
+
+    private void appendHeader(StringBuilder mt103, Transaction transaction) {
+        var senderLTAddress = formatLTAddress(transaction.getFromBankSwift());
+        var receiverLTAddress = formatLTAddress(transaction.getToBankSwift());
+        var transactionRef = truncateToLength(transaction.getTransactionId(), 16);
+
+        mt103.append("{1:F01").append(senderLTAddress).append("}");
+        mt103.append("{2:I103").append(receiverLTAddress).append("N}");
+        mt103.append("{3:{108:").append(transactionRef).append("}}");
+    }
+
+    private void appendMessageText(StringBuilder mt103, Transaction transaction, String transactionRef,
+                                   RandomGenerator random) {
+        mt103.append("\n{4:\n");
+
+        appendMandatoryFields(mt103, transaction, transactionRef);
+        appendAccountingFields(mt103, transaction);
+        appendPartyFields(mt103, transaction, random);
+        appendOptionalFields(mt103, transaction);
+
+        mt103.append("}");
+    }
+
+    private void appendMandatoryFields(StringBuilder mt103, Transaction transaction, String transactionRef) {
+        var valueDate = transaction.getTimestamp().format(DATE_FORMATTER);
+        var formattedAmount = formatAmount(transaction.getAmount().toString());
+
+        mt103.append(":20:").append(transactionRef).append("\n")
+                .append(":23B:CRED\n")
+                .append(":32A:").append(valueDate)
+                .append(transaction.getCurrency())
+                .append(formattedAmount).append("\n");
+    }
+
+    private void appendAccountingFields(StringBuilder mt103, Transaction transaction) {
+        var formattedAmount = formatAmount(transaction.getAmount().toString());
+        var chargeBearer = transaction.isCrossBorder() ? "SHA" : "OUR";
+
+        mt103.append(":33B:").append(transaction.getCurrency())
+                .append(formattedAmount).append("\n")
+                .append(":71A:").append(chargeBearer).append("\n");
+    }
+
+    private void appendPartyFields(StringBuilder mt103, Transaction transaction, RandomGenerator random) {
+        appendOrderingCustomer(mt103, transaction, random);
+        appendOrderingInstitution(mt103, transaction);
+        appendSenderCorrespondent(mt103, transaction);
+        appendIntermediaryBank(mt103, transaction);
+        appendAccountWithInstitution(mt103, transaction);
+        appendBeneficiaryCustomer(mt103, transaction, random);
+    }
+
+    private void appendOrderingCustomer(StringBuilder mt103, Transaction transaction, RandomGenerator random) {
+        mt103.append(":50K:");
+
+        if (hasValidIBAN(transaction.getFromIBAN())) {
+            mt103.append("/").append(transaction.getFromIBAN()).append("\n");
+        } else {
+            mt103.append("/").append(transaction.getFromAccount()).append("\n");
+        }
+
+        mt103.append(transaction.getFromBankName()).append("\n")
+                .append(generateAddressLine(random)).append("\n")
+                .append(generateCityCountry(transaction.getFromCountryCode())).append("\n");
+    }
+
+    private void appendOrderingInstitution(StringBuilder mt103, Transaction transaction) {
+        mt103.append(":52A:").append(transaction.getFromBankSwift()).append("\n");
+    }
+
+    private void appendSenderCorrespondent(StringBuilder mt103, Transaction transaction) {
+        mt103.append(":53B:/").append(transaction.getFromBankSwift()).append("\n");
+    }
+
+    private void appendIntermediaryBank(StringBuilder mt103, Transaction transaction) {
+        if (needsIntermediaryBank(transaction)) {
+            var intermediaryBIC = getIntermediaryBankSwift(transaction);
+            mt103.append(":56A:").append(intermediaryBIC).append("\n");
+        }
+    }
+
+    private void appendAccountWithInstitution(StringBuilder mt103, Transaction transaction) {
+        mt103.append(":57A:").append(transaction.getToBankSwift()).append("\n");
+    }
+
+    private void appendBeneficiaryCustomer(StringBuilder mt103, Transaction transaction, RandomGenerator random) {
+        mt103.append(":59:");
+
+        if (hasValidIBAN(transaction.getToIBAN())) {
+            mt103.append("/").append(transaction.getToIBAN()).append("\n");
+        } else {
+            mt103.append("/").append(transaction.getToAccount()).append("\n");
+        }
+
+        mt103.append(transaction.getToBankName()).append("\n")
+                .append(generateAddressLine(random)).append("\n")
+                .append(generateCityCountry(transaction.getToCountryCode())).append("\n");
+    }
+
+    private void appendOptionalFields(StringBuilder mt103, Transaction transaction) {
+        var remittanceInfo = remittance.apply(transaction);
+
+        mt103.append(":70:").append(remittanceInfo).append("\n")
+                .append(":72:/INS/").append(transaction.getFromBankSwift()).append("\n");
+    }
+
+    private void appendTrailer(StringBuilder mt103, RandomGenerator random) {
+        mt103.append("\n{5:{MAC:").append(generateMAC(random))
+                .append("}{CHK:").append(generateChecksum(random)).append("}}");
+    }
+
+    private String formatLTAddress(String bic) {
+        var normalizedBIC = bic.trim().toUpperCase();
+
+        return switch (normalizedBIC.length()) {
+            case 8 -> normalizedBIC + "XXX0";
+            case 11 -> normalizedBIC + "0";
+            case 12 -> normalizedBIC;
+            default -> normalizedBIC + "0";
+        };
+    }
+
+    private String formatAmount(String amount) {
+        return amount.replace(".", ",");
+    }
+
+    private String truncateToLength(String input, int maxLength) {
+        if (input == null) return "";
+        return input.length() > maxLength ? input.substring(0, maxLength) : input;
+    }
+
+    private boolean needsIntermediaryBank(Transaction transaction) {
+        try {
+            var fromCountry = extractCountryCode(transaction.getFromBankSwift());
+            var toCountry = extractCountryCode(transaction.getToBankSwift());
+            return !fromCountry.equals(toCountry);
+        } catch (StringIndexOutOfBoundsException e) {
+            return true;
+        }
+    }
+
+    private String extractCountryCode(String swiftCode) {
+        return swiftCode.substring(4, 6);
+    }
+
+    private String getIntermediaryBankSwift(Transaction transaction) {
+        try {
+            var toCountry = extractCountryCode(transaction.getToBankSwift());
+            return INTERMEDIARY_BANKS.getOrDefault(toCountry, "DEUTDEFFXXX");
+        } catch (StringIndexOutOfBoundsException e) {
+            return "DEUTDEFFXXX";
+        }
+    }
+
+    private String buildRemittanceInfo(Transaction transaction) {
+        var shortTransactionId = truncateToLength(transaction.getTransactionId(), 8);
+        var remittance = new StringBuilder()
+                .append("Payment for services - TXN ID: ").append(shortTransactionId);
+
+        if (transaction.isCrossBorder()) {
+            remittance.append(" - Cross-border transfer");
+        }
+
+        return remittance.toString();
+    }
+
+    private boolean hasValidIBAN(String iban) {
+        return iban != null && !iban.isEmpty() && !iban.equals("This country does not use IBAN");
+    }
+
+    private String generateAddressLine(RandomGenerator random) {
+        return ADDRESS_TEMPLATES[random.nextInt(ADDRESS_TEMPLATES.length)];
+    }
+
+    private String generateCityCountry(String countryCode) {
+        if (countryCode == null) {
+            return "Unknown City, Unknown Country";
+        }
+
+        return COUNTRY_CITIES.getOrDefault(
+                countryCode,
+                "Financial District, " + getCountryName(countryCode)
+        );
+    }
+
+    private String getCountryName(String countryCode) {
+        return ADDITIONAL_COUNTRIES.getOrDefault(countryCode, "Unknown Country");
+    }
+
+    private String generateMAC(RandomGenerator random) {
+        return generateHexString(8, random);
+    }
+
+    private String generateChecksum(RandomGenerator random) {
+        return generateHexString(12, random);
+    }
+
+    private String generateHexString(int length, RandomGenerator random) {
+        var result = new StringBuilder();
+
+        for (int i = 0; i < length; i++) {
+            result.append(HEX_CHARS.charAt(random.nextInt(HEX_CHARS.length())));
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * :70: text of the former FraudMT103MessageFormatter.
+     */
+    static String fraudRemittance(Transaction transaction) {
+        var shortTransactionId = transaction.getTransactionId() == null ? ""
+                : transaction.getTransactionId().substring(0, Math.min(8, transaction.getTransactionId().length()));
+        var amount = transaction.getAmount();
+        var amountValue = amount.doubleValue();
+        var hour = transaction.getTimestamp().getHour();
+
+        if (amount.compareTo(BigDecimal.valueOf(15000)) >= 0) {
+            return "Large value transfer - Ref: " + shortTransactionId;
+        } else if (amountValue % 1000 == 0 || amountValue % 5000 == 0 || amountValue % 2000 == 0) {
+            return "Business payment - Invoice: " + shortTransactionId;
+        } else if (hour >= 2 && hour <= 5) {
+            return "Urgent payment required - Ref: " + shortTransactionId;
+        } else if (amount.compareTo(BigDecimal.valueOf(9999)) >= 0 && amount.compareTo(BigDecimal.valueOf(10000)) < 0) {
+            return "Trade settlement - Contract: " + shortTransactionId;
+        } else if (amount.compareTo(BigDecimal.valueOf(1000)) < 0) {
+            return "Service payment - Multiple invoices";
+        } else if (transaction.isCrossBorder()) {
+            return "International trade payment - Ref: " + shortTransactionId;
+        }
+        return "Commercial payment - TXN: " + shortTransactionId;
+    }
+}
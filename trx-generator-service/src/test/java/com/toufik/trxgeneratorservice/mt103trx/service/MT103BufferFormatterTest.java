@@ -0,0 +1,102 @@
+package com.toufik.trxgeneratorservice.mt103trx.service;
+
+import com.toufik.trxcommon.model.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MT103BufferFormatterTest {
+
+    @Mock
+    private BankDataService bankDataService;
+
+    private LegacyMT103MessageFormatter legacyFormatter;
+    private MT103BufferFormatter bufferFormatter;
+
+    @BeforeEach
+    void setUp() {
+        when(bankDataService.getBanks()).thenReturn(MT103TestTransactions.BANKS);
+        legacyFormatter = new LegacyMT103MessageFormatter();
+        bufferFormatter = new MT103BufferFormatter(bankDataService);
+    }
+
+    @Test
+    void testFormatToMT103_ByteIdenticalAcrossBanksAndAmounts() {
+        Random picker = new Random(42);
+
+        for (int i = 0; i < 5_000; i++) {
+            Transaction transaction = MT103TestTransactions.random(picker);
+            long seed = picker.nextLong();
+
+            String expected = legacyFormatter.formatToMT103(transaction, new SplittableRandom(seed));
+            String actual = bufferFormatter.formatToMT103(transaction, new SplittableRandom(seed));
+
+            assertEquals(expected, actual, "Mismatch for " + transaction);
+        }
+    }
+
+    @Test
+    void testFormatInto_WritesSameBytesAsString() {
+        Random picker = new Random(7);
+        ByteBuffer target = ByteBuffer.allocate(4096);
+
+        for (int i = 0; i < 500; i++) {
+            Transaction transaction = MT103TestTransactions.random(picker);
+            long seed = picker.nextLong();
+
+            byte[] expected = legacyFormatter.formatToMT103(transaction, new SplittableRandom(seed))
+                    .getBytes(StandardCharsets.ISO_8859_1);
+            target.clear();
+            int written = bufferFormatter.formatInto(transaction, target, new SplittableRandom(seed));
+
+            assertEquals(expected.length, written);
+            assertArrayEquals(expected, Arrays.copyOf(target.array(), written));
+        }
+    }
+
+    @Test
+    void testFormatToMT103_NullFieldsMatchLegacyFormatter() {
+        Transaction transaction = MT103TestTransactions.of(null, null, null, new BigDecimal("10.00"), null,
+                "DEUTDEFF", "BNPAFRPP", null, null, LocalDateTime.of(1999, 12, 31, 23, 59), null)
+                .withFromCountryCode(null)
+                .withToCountryCode("ZZ");
+
+        assertEquals(legacyFormatter.formatToMT103(transaction, new SplittableRandom(1)),
+                bufferFormatter.formatToMT103(transaction, new SplittableRandom(1)));
+    }
+
+    @Test
+    void testFormatToMT103_NonLatinCharactersMatchLegacyFormatter() {
+        Transaction transaction = MT103TestTransactions.of("TXN-1", "1234567890", "0987654321", new BigDecimal("10.00"),
+                "EUR", "DEUTDEFF", "BNPAFRPP", "Банк", "BNP Paribas", LocalDateTime.now(), "PENDING");
+
+        String formatted = bufferFormatter.formatToMT103(transaction, new SplittableRandom(3));
+
+        assertEquals(legacyFormatter.formatToMT103(transaction, new SplittableRandom(3)), formatted);
+        assertTrue(formatted.contains("\nБанк\n"));
+    }
+
+    @Test
+    void testFormatToMT103_MissingSwiftFailsLikeLegacyFormatter() {
+        Transaction transaction = MT103TestTransactions.of("TXN-1", "1234567890", "0987654321", new BigDecimal("10.00"),
+                "EUR", null, "BNPAFRPP", "Deutsche Bank", "BNP Paribas", LocalDateTime.now(), "PENDING");
+
+        assertThrows(NullPointerException.class,
+                () -> legacyFormatter.formatToMT103(transaction, new SplittableRandom(1)));
+        assertThrows(NullPointerException.class, () -> bufferFormatter.formatToMT103(transaction));
+    }
+}
@@ -0,0 +1,57 @@
+package com.toufik.trxgeneratorservice.mt103trx.service;
+
+import com.toufik.trxcommon.json.TransactionJson;
+import com.toufik.trxgeneratorservice.mt103trx.model.InvalidScenario;
+import com.toufik.trxgeneratorservice.mt103trx.util.RandomStreams;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Writes valid and corrupted MT103 messages, one JSON object per line, for the validation service's
+ * differential tests. Run with
+ * {@code mvn test -pl trx-generator-service -am -Dtest=MT103CorpusExportTest -Dsurefire.failIfNoSpecifiedTests=false
+ * -Dmt103.corpus=$PWD/trx-validation-service/src/test/resources/mt103-corpus.jsonl}.
+ */
+@EnabledIfSystemProperty(named = "mt103.corpus", matches = ".+")
+class MT103CorpusExportTest {
+
+    private static final int MESSAGES_PER_SCENARIO = 25;
+    private static final int VALID_MESSAGES = 50;
+
+    @Test
+    void exportCorpus() throws Exception {
+        RandomStreams.reseed(103);
+        Random picker = new Random(103);
+        MT103MessageFormatter formatter = new MT103MessageFormatter();
+        MT103MessageCorruptor corruptor = new MT103MessageCorruptor(formatter);
+
+        try (BufferedWriter out = Files.newBufferedWriter(Path.of(System.getProperty("mt103.corpus")),
+                StandardCharsets.UTF_8)) {
+            for (int i = 0; i < VALID_MESSAGES; i++) {
+                write(out, "VALID", formatter.formatToMT103(MT103TestTransactions.random(picker)));
+            }
+            for (InvalidScenario scenario : InvalidScenario.values()) {
+                for (int i = 0; i < MESSAGES_PER_SCENARIO; i++) {
+                    write(out, scenario.name(),
+                            corruptor.generateInvalidMT103(MT103TestTransactions.random(picker), scenario));
+                }
+            }
+        }
+    }
+
+    private static void write(BufferedWriter out, String scenario, String content) throws Exception {
+        Map<String, String> entry = new LinkedHashMap<>();
+        entry.put("scenario", scenario);
+        entry.put("content", content);
+        out.write(TransactionJson.objectMapper().writeValueAsString(entry));
+        out.newLine();
+    }
+}
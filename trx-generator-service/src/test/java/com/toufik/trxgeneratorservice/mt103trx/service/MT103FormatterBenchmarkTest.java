@@ -0,0 +1,90 @@
+package com.toufik.trxgeneratorservice.mt103trx.service;
+
+import com.toufik.trxcommon.model.Transaction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.function.BiFunction;
+import java.util.random.RandomGenerator;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Per-message cost of the StringBuilder chain against the compiled template formatters.
+ * Run with {@code mvn test -Dtest=MT103FormatterBenchmarkTest -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class MT103FormatterBenchmarkTest {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 5;
+    private static final int MESSAGES_PER_ROUND = 200_000;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    void compareFormatters() {
+        BankDataService bankDataService = mock(BankDataService.class);
+        when(bankDataService.getBanks()).thenReturn(MT103TestTransactions.BANKS);
+
+        Random picker = new Random(1);
+        Transaction[] transactions = new Transaction[1024];
+        for (int i = 0; i < transactions.length; i++) {
+            transactions[i] = MT103TestTransactions.random(picker);
+        }
+
+        LegacyMT103MessageFormatter legacy = new LegacyMT103MessageFormatter();
+        MT103MessageFormatter template = new MT103MessageFormatter();
+        MT103BufferFormatter buffer = new MT103BufferFormatter(bankDataService);
+
+        Result legacyResult = measure("StringBuilder chain", transactions, legacy::formatToMT103);
+        Result templateResult = measure("Compiled template", transactions, template::formatToMT103);
+        Result bufferResult = measure("Template + thread-local buffer", transactions, buffer::formatToMT103);
+
+        assertTrue(templateResult.nanosPerMessage < legacyResult.nanosPerMessage);
+        assertTrue(bufferResult.bytesPerMessage < legacyResult.bytesPerMessage);
+    }
+
+    private Result measure(String name, Transaction[] transactions,
+                           BiFunction<Transaction, RandomGenerator, String> formatter) {
+        RandomGenerator random = new SplittableRandom(7);
+        long sink = 0;
+
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            sink += run(transactions, formatter, random);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            sink += run(transactions, formatter, random);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        long messages = (long) MEASURED_ROUNDS * MESSAGES_PER_ROUND;
+        Result result = new Result(elapsed / (double) messages, allocated / (double) messages);
+        System.out.printf("%-32s %8.1f ns/msg %8.1f B/msg (checksum %d)%n",
+                name, result.nanosPerMessage, result.bytesPerMessage, sink);
+        return result;
+    }
+
+    private static long run(Transaction[] transactions, BiFunction<Transaction, RandomGenerator, String> formatter,
+                            RandomGenerator random) {
+        long length = 0;
+        for (int i = 0; i < MESSAGES_PER_ROUND; i++) {
+            length += formatter.apply(transactions[i & (transactions.length - 1)], random).length();
+        }
+        return length;
+    }
+
+    private record Result(double nanosPerMessage, double bytesPerMessage) {
+    }
+}
@@ -0,0 +1,93 @@
+package com.toufik.trxgeneratorservice.mt103trx.service;
+
+import com.toufik.trxcommon.model.Transaction;
+import com.toufik.trxgeneratorservice.mt103trx.model.InvalidScenario;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MT103MessageCorruptorTest {
+
+    private MT103MessageCorruptor corruptor;
+    private Transaction transaction;
+
+    @BeforeEach
+    void setUp() {
+        corruptor = new MT103MessageCorruptor(new MT103MessageFormatter());
+        transaction = MT103TestTransactions.of(
+                "12345678901234567890",
+                "1234567890",
+                "0987654321",
+                new BigDecimal("1500.75"),
+                "EUR",
+                "DEUTDEFF",
+                "BNPAFRPP",
+                "Deutsche Bank",
+                "BNP Paribas",
+                LocalDateTime.of(2024, 1, 15, 14, 30),
+                "PENDING"
+        );
+    }
+
+    @Test
+    void testInvalidDate_KeepsHeadersAndFixedTrailer() {
+        String mt103 = corruptor.generateInvalidMT103(transaction, InvalidScenario.INVALID_DATE_FORMAT);
+
+        assertTrue(mt103.startsWith("{1:F01DEUTDEFFXXX0}{2:I103BNPAFRPPXXX0N}{3:{108:1234567890123456}}\n{4:\n"));
+        assertTrue(mt103.contains(":20:1234567890123456\n:23B:CRED\n:32A:"));
+        assertFalse(mt103.contains(":32A:240115"));
+        assertTrue(mt103.endsWith(":59:/0987654321\nBNP Paribas\n}\n{5:{MAC:12345678}{CHK:123456789ABC}}"));
+    }
+
+    @Test
+    void testInvalidAmount_KeepsValidDate() {
+        String mt103 = corruptor.generateInvalidMT103(transaction, InvalidScenario.INVALID_AMOUNT_FORMAT);
+
+        assertTrue(mt103.contains(":32A:240115EUR"));
+        assertFalse(mt103.contains("1500,75"));
+    }
+
+    @Test
+    void testMissingMandatoryFields_DropsSomeFieldsOverManyRuns() {
+        boolean sawMissing20 = false;
+        boolean sawPresent20 = false;
+
+        for (int i = 0; i < 50; i++) {
+            String mt103 = corruptor.generateInvalidMT103(transaction, InvalidScenario.MISSING_MANDATORY_FIELDS);
+            boolean has20 = mt103.contains(":20:");
+            sawMissing20 |= !has20;
+            sawPresent20 |= has20;
+            assertTrue(mt103.contains(":50K:/1234567890\nDeutsche Bank\n"));
+        }
+
+        assertTrue(sawMissing20 && sawPresent20);
+    }
+
+    @Test
+    void testMissingHeaderBlocks_HasNoTrailer() {
+        String mt103 = corruptor.generateInvalidMT103(transaction, InvalidScenario.MISSING_HEADER_BLOCKS);
+
+        assertTrue(mt103.endsWith("BNP Paribas\n}"));
+        assertFalse(mt103.contains("{5:"));
+    }
+
+    @Test
+    void testInvalidFieldStructure_CorruptsPartyFieldColons() {
+        String mt103 = corruptor.generateInvalidMT103(transaction, InvalidScenario.INVALID_FIELD_STRUCTURE);
+
+        assertTrue(mt103.contains("\n50K:/1234567890\n"));
+        assertTrue(mt103.contains("\n:59/0987654321\n"));
+    }
+
+    @Test
+    void testTruncatedMessage_IsPrefixOfFullMessage() {
+        String mt103 = corruptor.generateInvalidMT103(transaction, InvalidScenario.TRUNCATED_MESSAGES);
+
+        assertTrue(mt103.startsWith("{1:F01DEUTDEFFXXX0}"));
+        assertFalse(mt103.endsWith("}}"));
+    }
+}
@@ -1,6 +1,6 @@
 package com.toufik.trxgeneratorservice.mt103trx.service;
 
-import com.toufik.trxgeneratorservice.mt103trx.model.Transaction;
+import com.toufik.trxcommon.model.Transaction;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -9,6 +9,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.SplittableRandom;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -22,23 +24,23 @@ class MT103MessageFormatterTest {
 
     @BeforeEach
     void setUp() {
-        testTransaction = new Transaction(
-                "12345678901234567890",
-                "1234567890",
-                "0987654321",
-                new BigDecimal("1500.75"),
-                "EUR",
-                "DEUTDEFF",
-                "BNPAFRPP",
-                "Deutsche Bank",
-                "BNP Paribas",
-                LocalDateTime.of(2024, 1, 15, 14, 30),
-                "PENDING"
-        );
-        testTransaction.setFromCountryCode("DE");
-        testTransaction.setToCountryCode("FR");
-        testTransaction.setFromIBAN("DE89370400440532013000");
-        testTransaction.setToIBAN("FR1420041010050500013M02606");
+        testTransaction = Transaction.builder()
+                .transactionId("12345678901234567890")
+                .fromAccount("1234567890")
+                .toAccount("0987654321")
+                .amount(new BigDecimal("1500.75"))
+                .currency("EUR")
+                .fromBankSwift("DEUTDEFF")
+                .toBankSwift("BNPAFRPP")
+                .fromBankName("Deutsche Bank")
+                .toBankName("BNP Paribas")
+                .timestamp(LocalDateTime.of(2024, 1, 15, 14, 30))
+                .status("PENDING")
+                .fromCountryCode("DE")
+                .toCountryCode("FR")
+                .fromIBAN("DE89370400440532013000")
+                .toIBAN("FR1420041010050500013M02606")
+                .build();
     }
 
     @Test
@@ -80,4 +82,18 @@ class MT103MessageFormatterTest {
         assertTrue(mt103.contains("DE89370400440532013000"));
         assertTrue(mt103.contains("FR1420041010050500013M02606"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFormatToMT103_MatchesStringBuilderFormatter() {
+        LegacyMT103MessageFormatter legacyFormatter = new LegacyMT103MessageFormatter();
+        Random picker = new Random(11);
+
+        for (int i = 0; i < 2_000; i++) {
+            Transaction transaction = MT103TestTransactions.random(picker);
+            long seed = picker.nextLong();
+
+            assertEquals(legacyFormatter.formatToMT103(transaction, new SplittableRandom(seed)),
+                    formatter.formatToMT103(transaction, new SplittableRandom(seed)));
+        }
+    }
+}
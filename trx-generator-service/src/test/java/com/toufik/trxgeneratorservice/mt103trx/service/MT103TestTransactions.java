@@ -0,0 +1,98 @@
+package com.toufik.trxgeneratorservice.mt103trx.service;
+
+import com.toufik.trxcommon.model.Transaction;
+import com.toufik.trxgeneratorservice.mt103trx.model.BankInfo;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Varied transactions for the formatter differential tests and benchmark: directory and unknown BICs,
+ * every LT address length, IBAN/no-IBAN accounts and amounts covering plain and scientific toString() forms.
+ */
+final class MT103TestTransactions {
+
+    static final List<BankInfo> BANKS = List.of(
+            new BankInfo("DEUTDEFF", "DE", "Germany", "Deutsche Bank", "37040044", "EUR", "DE", 22),
+            new BankInfo("CHASUS33XXX", "US", "United States", "JPMorgan Chase", "021000021", "USD", "US", null),
+            new BankInfo("RZBAATWW1234", "AT", "Austria", "Raiffeisen", "31000", "EUR", "AT", 20)
+    );
+
+    private static final String[] BICS = {
+            "DEUTDEFF", "BNPAFRPP", "CHASUS33XXX", "BARCGB22XXX", "BOTKJPJTXXX", "ITAUBRSPXXX",
+            "SWEDSESSXXX", "RZBAATWW1234", "ABCDNG2L", " deutdeff ", "INVALID", "", "BANK US33XXX"
+    };
+
+    private static final BigDecimal[] AMOUNTS = {
+            new BigDecimal("1500.75"), new BigDecimal("0.00"), new BigDecimal("0.05"), new BigDecimal("999"),
+            new BigDecimal("15000"), new BigDecimal("9999.99"), new BigDecimal("-250.10"), new BigDecimal("5000.00"),
+            new BigDecimal("0.000001"), new BigDecimal("0.0000001"), new BigDecimal("1E+3"),
+            new BigDecimal("123456789012345678901234.5"), BigDecimal.valueOf(5_000_000.5)
+    };
+
+    private MT103TestTransactions() {
+    }
+
+    static Transaction random(Random picker) {
+        String fromSwift = BICS[picker.nextInt(BICS.length)];
+        String toSwift = BICS[picker.nextInt(BICS.length)];
+        String transactionId = switch (picker.nextInt(3)) {
+            case 0 -> "TXN" + picker.nextInt(1000);
+            case 1 -> "12345678901234567890";
+            default -> new UUID(picker.nextLong(), picker.nextLong()).toString();
+        };
+
+        Transaction transaction = of(
+                transactionId,
+                String.valueOf(1_000_000_000L + picker.nextInt(1_000_000)),
+                String.valueOf(1_000_000_000L + picker.nextInt(1_000_000)),
+                AMOUNTS[picker.nextInt(AMOUNTS.length)],
+                picker.nextBoolean() ? "EUR" : "USD",
+                fromSwift,
+                toSwift,
+                "Bank " + fromSwift.trim(),
+                "Bank " + toSwift.trim(),
+                LocalDateTime.of(2000 + picker.nextInt(30), 1 + picker.nextInt(12), 1 + picker.nextInt(28),
+                        picker.nextInt(24), picker.nextInt(60)),
+                "PENDING"
+        );
+        return transaction.toBuilder()
+                .fromIBAN(switch (picker.nextInt(3)) {
+                    case 0 -> "DE89370400440532013000";
+                    case 1 -> "This country does not use IBAN";
+                    default -> null;
+                })
+                .toIBAN(picker.nextBoolean() ? "FR1420041010050500013M02606" : "")
+                .build();
+    }
+
+    /**
+     * A transaction without IBANs and with the country codes taken from the BICs.
+     */
+    static Transaction of(String transactionId, String fromAccount, String toAccount, BigDecimal amount,
+                          String currency, String fromBankSwift, String toBankSwift, String fromBankName,
+                          String toBankName, LocalDateTime timestamp, String status) {
+        return Transaction.builder()
+                .transactionId(transactionId)
+                .fromAccount(fromAccount)
+                .toAccount(toAccount)
+                .amount(amount)
+                .currency(currency)
+                .fromBankSwift(fromBankSwift)
+                .toBankSwift(toBankSwift)
+                .fromBankName(fromBankName)
+                .toBankName(toBankName)
+                .timestamp(timestamp)
+                .status(status)
+                .fromCountryCode(countryCode(fromBankSwift))
+                .toCountryCode(countryCode(toBankSwift))
+                .build();
+    }
+
+    private static String countryCode(String swiftCode) {
+        return swiftCode != null && swiftCode.length() >= 6 ? swiftCode.substring(4, 6) : null;
+    }
+}
@@ -0,0 +1,159 @@
+package com.toufik.trxgeneratorservice.mt103trx.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.toufik.trxcommon.kafka.ProducerProfile;
+import com.toufik.trxcommon.model.Transaction;
+import com.toufik.trxcommon.model.TransactionWithMT103Event;
+import com.toufik.trxgeneratorservice.mt103trx.util.TokenBucketRateLimiter;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bytes on the wire and send-to-ack latency of each producer profile against an embedded broker, with the
+ * former hard-coded settings (16 KB batches, 1 ms linger, no compression) as baseline. Records are sent open-loop
+ * at a fixed rate so latency reflects batching rather than queueing behind an unbounded burst.
+ * Run with {@code mvn test -Dtest=ProducerProfileBenchmarkTest -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ProducerProfileBenchmarkTest {
+
+    private static final int MESSAGES = 20_000;
+    private static final int WARMUP_MESSAGES = 2_000;
+    private static final double SEND_RATE = 5_000;
+
+    @Test
+    void compareProfiles() throws Exception {
+        Map<String, Map<String, Object>> profiles = new LinkedHashMap<>();
+        profiles.put("baseline", Map.of(
+                ProducerConfig.BATCH_SIZE_CONFIG, 16_384,
+                ProducerConfig.LINGER_MS_CONFIG, 1,
+                ProducerConfig.COMPRESSION_TYPE_CONFIG, "none",
+                ProducerConfig.ACKS_CONFIG, "all"));
+        for (ProducerProfile profile : ProducerProfile.values()) {
+            profiles.put(profile.name().toLowerCase(), profile.producerProperties());
+        }
+
+        TransactionWithMT103Event[] events = events();
+        String[] topics = profiles.keySet().toArray(String[]::new);
+        EmbeddedKafkaKraftBroker broker = new EmbeddedKafkaKraftBroker(1, 1, topics);
+        broker.afterPropertiesSet();
+        try {
+            // Untimed pass over every profile so broker and JIT warm-up do not land on whichever runs first
+            for (Map.Entry<String, Map<String, Object>> profile : profiles.entrySet()) {
+                measure(broker.getBrokersAsString(), profile.getKey(), profile.getValue(), events, false);
+            }
+            Map<String, Result> results = new LinkedHashMap<>();
+            for (Map.Entry<String, Map<String, Object>> profile : profiles.entrySet()) {
+                results.put(profile.getKey(), measure(broker.getBrokersAsString(), profile.getKey(), profile.getValue(), events, true));
+            }
+            assertTrue(results.get("throughput").bytesPerRecord() < results.get("baseline").bytesPerRecord());
+            assertTrue(results.get("balanced").bytesPerRecord() < results.get("baseline").bytesPerRecord());
+        } finally {
+            broker.destroy();
+        }
+    }
+
+    private Result measure(String bootstrapServers, String topic, Map<String, Object> profile,
+                           TransactionWithMT103Event[] events, boolean report) throws Exception {
+        Map<String, Object> props = new HashMap<>(profile);
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        JsonSerializer<TransactionWithMT103Event> valueSerializer = new JsonSerializer<>(objectMapper());
+        valueSerializer.setAddTypeInfo(false);
+
+        try (KafkaProducer<String, TransactionWithMT103Event> producer =
+                     new KafkaProducer<>(props, new StringSerializer(), valueSerializer)) {
+            send(producer, topic, events, WARMUP_MESSAGES, new long[WARMUP_MESSAGES]);
+            double bytesBefore = metric(producer, "outgoing-byte-total");
+
+            long[] latencies = new long[MESSAGES];
+            send(producer, topic, events, MESSAGES, latencies);
+            double bytes = metric(producer, "outgoing-byte-total") - bytesBefore;
+
+            Arrays.sort(latencies);
+            Result result = new Result(bytes / MESSAGES,
+                    latencies[MESSAGES / 2] / 1e6,
+                    latencies[(int) (MESSAGES * 0.99)] / 1e6,
+                    metric(producer, "compression-rate-avg"));
+            if (report) {
+                System.out.printf("%-10s %8.1f B/record on the wire  compression %.2f  p50 %6.2f ms  p99 %6.2f ms%n",
+                        topic, result.bytesPerRecord(), result.compressionRate(), result.p50Millis(), result.p99Millis());
+            }
+            return result;
+        }
+    }
+
+    private static void send(KafkaProducer<String, TransactionWithMT103Event> producer, String topic,
+                             TransactionWithMT103Event[] events, int count, long[] latencies) throws InterruptedException {
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(SEND_RATE);
+        CountDownLatch acked = new CountDownLatch(count);
+        AtomicInteger failed = new AtomicInteger();
+        for (int i = 0; i < count; i++) {
+            rateLimiter.acquire();
+            int index = i;
+            TransactionWithMT103Event event = events[i % events.length];
+            long start = System.nanoTime();
+            producer.send(new ProducerRecord<>(topic, event.getTransaction().getTransactionId(), event),
+                    (metadata, error) -> {
+                        latencies[index] = System.nanoTime() - start;
+                        if (error != null) {
+                            failed.incrementAndGet();
+                        }
+                        acked.countDown();
+                    });
+        }
+        assertTrue(acked.await(60, TimeUnit.SECONDS));
+        assertEquals(0, failed.get());
+    }
+
+    private static double metric(KafkaProducer<?, ?> producer, String name) {
+        for (Map.Entry<MetricName, ? extends Metric> metric : producer.metrics().entrySet()) {
+            if (name.equals(metric.getKey().name()) && "producer-metrics".equals(metric.getKey().group())) {
+                return ((Number) metric.getValue().metricValue()).doubleValue();
+            }
+        }
+        throw new IllegalStateException("Producer metric not found: " + name);
+    }
+
+    private static TransactionWithMT103Event[] events() {
+        MT103MessageFormatter formatter = new MT103MessageFormatter();
+        Random picker = new Random(1);
+        TransactionWithMT103Event[] events = new TransactionWithMT103Event[1024];
+        for (int i = 0; i < events.length; i++) {
+            Transaction transaction = MT103TestTransactions.random(picker);
+            events[i] = TransactionWithMT103Event.of(transaction, formatter.formatToMT103(transaction));
+        }
+        return events;
+    }
+
+    private static ObjectMapper objectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return objectMapper;
+    }
+
+    private record Result(double bytesPerRecord, double p50Millis, double p99Millis, double compressionRate) {
+    }
+}
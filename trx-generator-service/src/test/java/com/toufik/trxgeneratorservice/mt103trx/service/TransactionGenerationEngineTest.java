@@ -0,0 +1,243 @@
+package com.toufik.trxgeneratorservice.mt103trx.service;
+
+import com.toufik.trxgeneratorservice.mt103trx.config.LoadGeneratorConfig;
+import com.toufik.trxgeneratorservice.mt103trx.model.GenerationSettings;
+import com.toufik.trxgeneratorservice.mt103trx.model.GenerationStats;
+import com.toufik.trxgeneratorservice.mt103trx.model.RampProfile;
+import com.toufik.trxgeneratorservice.mt103trx.model.TransactionType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TransactionGenerationEngineTest {
+
+    private LoadGeneratorConfig config;
+    private TransactionProducer producer;
+    private TransactionGenerationEngine engine;
+
+    private final AtomicInteger normalCount = new AtomicInteger();
+    private final AtomicInteger fraudCount = new AtomicInteger();
+    private final AtomicInteger invalidCount = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        config = new LoadGeneratorConfig();
+        config.setTargetTps(2000);
+        config.setWorkerThreads(4);
+        config.setFraudRatio(0.2);
+        config.setInvalidRatio(0.3);
+        producer = mock(TransactionProducer.class);
+
+        engine = new TransactionGenerationEngine(config, producer);
+        engine.register(TransactionType.NORMAL, counting(normalCount));
+        engine.register(TransactionType.FRAUD, counting(fraudCount));
+        engine.register(TransactionType.INVALID, counting(invalidCount));
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.shutdown();
+    }
+
+    @Test
+    void testTick_EmitsOneTransactionInScheduledMode() {
+        engine.tick(TransactionType.NORMAL);
+        engine.tick(TransactionType.FRAUD);
+
+        assertEquals(1, normalCount.get());
+        assertEquals(1, fraudCount.get());
+        assertEquals(0, invalidCount.get());
+        assertFalse(engine.isRunning());
+    }
+
+    @Test
+    void testTick_IgnoredWhileLoadModeRuns() {
+        config.setTargetTps(1);
+        engine.start();
+        int before = normalCount.get() + fraudCount.get() + invalidCount.get();
+
+        engine.tick(TransactionType.INVALID);
+        engine.tick(TransactionType.INVALID);
+
+        assertTrue(invalidCount.get() <= before + 1);
+    }
+
+    @Test
+    void testStart_PacesToTargetAndRespectsMix() throws InterruptedException {
+        engine.start();
+        Thread.sleep(1000);
+        engine.stop();
+
+        int total = normalCount.get() + fraudCount.get() + invalidCount.get();
+        assertTrue(total > 1000 && total < 3000, "Unexpected emitted count: " + total);
+        assertEquals(0.2, fraudCount.get() / (double) total, 0.05);
+        assertEquals(0.3, invalidCount.get() / (double) total, 0.05);
+    }
+
+    @Test
+    void testGetStats_ReportsTargetAndAchievedTps() throws InterruptedException {
+        engine.start();
+        Thread.sleep(500);
+
+        GenerationStats stats = engine.getStats();
+
+        assertTrue(stats.isRunning());
+        assertEquals(2000, stats.getTargetTps());
+        assertTrue(stats.getAchievedTps() > 0);
+        assertEquals(normalCount.get(), stats.getNormalCount(), 50);
+    }
+
+    @Test
+    void testStart_RejectsInvalidMix() {
+        config.setFraudRatio(0.7);
+        config.setInvalidRatio(0.5);
+        engine = new TransactionGenerationEngine(config, producer);
+
+        assertThrows(IllegalArgumentException.class, () -> engine.start());
+        assertFalse(engine.isRunning());
+    }
+
+    @Test
+    void testEmit_CountsFailuresWithoutStoppingWorkers() {
+        engine.register(TransactionType.NORMAL, () -> {
+            throw new RuntimeException("Test exception");
+        });
+
+        assertDoesNotThrow(() -> engine.tick(TransactionType.NORMAL));
+        assertEquals(1, engine.getStats().getFailedCount());
+    }
+
+    @Test
+    void testEmit_CountsOnlyAcknowledgedSends() {
+        CompletableFuture<Void> ack = new CompletableFuture<>();
+        engine.register(TransactionType.NORMAL, () -> ack);
+        engine.register(TransactionType.FRAUD,
+                () -> CompletableFuture.failedFuture(new IllegalStateException("Kafka producer saturated")));
+
+        engine.tick(TransactionType.NORMAL);
+        engine.tick(TransactionType.FRAUD);
+        assertEquals(0, engine.getStats().getNormalCount());
+        assertEquals(0, engine.getStats().getFraudCount());
+        assertEquals(1, engine.getStats().getFailedCount());
+
+        ack.complete(null);
+        assertEquals(1, engine.getStats().getNormalCount());
+    }
+
+    @Test
+    void testPauseAndResume_StopsAndRestartsEmission() throws InterruptedException {
+        engine.start();
+        Thread.sleep(200);
+        engine.pause();
+        Thread.sleep(100);
+
+        int pausedTotal = totalEmitted();
+        Thread.sleep(300);
+        assertEquals(pausedTotal, totalEmitted());
+        assertTrue(engine.getStats().isPaused());
+
+        engine.resume();
+        Thread.sleep(300);
+        assertTrue(totalEmitted() > pausedTotal);
+        assertFalse(engine.getStats().isPaused());
+    }
+
+    @Test
+    void testTick_SkippedWhileProducerSaturated() {
+        when(producer.isSaturated()).thenReturn(true);
+
+        engine.tick(TransactionType.NORMAL);
+
+        assertEquals(0, normalCount.get());
+        assertEquals(1, engine.getStats().getBackpressureCount());
+    }
+
+    @Test
+    void testStart_BacksOffWhileProducerSaturated() throws InterruptedException {
+        AtomicBoolean saturated = new AtomicBoolean();
+        when(producer.isSaturated()).thenAnswer(invocation -> saturated.get());
+        engine.start();
+        Thread.sleep(200);
+
+        saturated.set(true);
+        Thread.sleep(100);
+        int saturatedTotal = totalEmitted();
+        Thread.sleep(300);
+        assertEquals(saturatedTotal, totalEmitted());
+        assertTrue(engine.getStats().getBackpressureCount() > 0);
+
+        saturated.set(false);
+        Thread.sleep(300);
+        assertTrue(totalEmitted() > saturatedTotal);
+    }
+
+    @Test
+    void testPause_WhenNotRunning_Throws() {
+        assertThrows(IllegalStateException.class, () -> engine.pause());
+    }
+
+    @Test
+    void testUpdateSettings_AppliesLiveAndKeepsUnsetValues() {
+        engine.start();
+
+        engine.updateSettings(GenerationSettings.builder().targetTps(750.0).fraudRatio(0.5).build());
+
+        GenerationStats stats = engine.getStats();
+        assertEquals(750, stats.getTargetTps());
+        assertEquals(0.5, stats.getFraudRatio());
+        assertEquals(0.3, stats.getInvalidRatio());
+        assertTrue(stats.isRunning());
+    }
+
+    @Test
+    void testUpdateSettings_RejectsInvalidMix() {
+        assertThrows(IllegalArgumentException.class,
+                () -> engine.updateSettings(GenerationSettings.builder().invalidRatio(0.9).build()));
+        assertEquals(0.3, engine.getStats().getInvalidRatio());
+    }
+
+    @Test
+    void testApplyRamp_StepsThroughStagesAndHoldsFinalRate() throws InterruptedException {
+        engine.applyRamp(new RampProfile(List.of(
+                new RampProfile.Stage(300, 1, false),
+                new RampProfile.Stage(600, 1, true))));
+
+        Thread.sleep(300);
+        assertEquals(300, engine.getStats().getTargetTps());
+        assertTrue(engine.getStats().isRampActive());
+
+        Thread.sleep(2200);
+        assertEquals(600, engine.getStats().getTargetTps());
+        assertFalse(engine.getStats().isRampActive());
+    }
+
+    @Test
+    void testUpdateSettings_TargetTpsCancelsRamp() {
+        engine.applyRamp(new RampProfile(List.of(new RampProfile.Stage(300, 60, true))));
+
+        engine.updateSettings(GenerationSettings.builder().targetTps(42.0).build());
+
+        assertFalse(engine.getStats().isRampActive());
+        assertEquals(42, engine.getStats().getTargetTps());
+    }
+
+    private static Supplier<CompletableFuture<Void>> counting(AtomicInteger count) {
+        return () -> {
+            count.incrementAndGet();
+            return CompletableFuture.completedFuture(null);
+        };
+    }
+
+    private int totalEmitted() {
+        return normalCount.get() + fraudCount.get() + invalidCount.get();
+    }
+}
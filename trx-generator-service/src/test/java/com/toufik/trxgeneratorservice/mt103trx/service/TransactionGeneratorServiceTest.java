@@ -1,16 +1,20 @@
 package com.toufik.trxgeneratorservice.mt103trx.service;
 
+import com.toufik.trxcommon.model.Transaction;
+import com.toufik.trxcommon.model.TransactionWithMT103Event;
+import com.toufik.trxgeneratorservice.mt103trx.config.LoadGeneratorConfig;
+import com.toufik.trxgeneratorservice.mt103trx.entity.TransactionEntity;
 import com.toufik.trxgeneratorservice.mt103trx.model.BankInfo;
-import com.toufik.trxgeneratorservice.mt103trx.model.Transaction;
-import com.toufik.trxgeneratorservice.mt103trx.model.TransactionWithMT103Event;
+import com.toufik.trxgeneratorservice.mt103trx.util.BankRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.test.util.ReflectionTestUtils;
 
-
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -31,15 +35,18 @@ class TransactionGeneratorServiceTest {
     @Mock
     private BankDataService bankDataService;
 
+    private TransactionGenerationEngine generationEngine;
     private TransactionGeneratorService service;
 
     @BeforeEach
     void setUp() {
         // Create service instance manually to control dependency injection
+        generationEngine = new TransactionGenerationEngine(new LoadGeneratorConfig(), transactionProducer);
         service = new TransactionGeneratorService(
                 transactionProducer,
                 mt103MessageFormatter,
-                transactionSaveService
+                transactionSaveService,
+                generationEngine
         );
 
         // Inject the BankDataService mock into the base class
@@ -49,7 +56,12 @@ class TransactionGeneratorServiceTest {
         BankInfo mockBank = new BankInfo("DEUTDEFF", "DE", "Germany", "Deutsche Bank", "12345678", "EUR", "DE", 22);
         when(bankDataService.getRandomBank()).thenReturn(mockBank);
         when(bankDataService.generateIBAN(any(), any())).thenReturn("DE89370400440532013000");
+        lenient().when(bankDataService.entryFor(any())).thenAnswer(invocation -> BankRegistry.Entry.of(invocation.getArgument(0)));
         when(mt103MessageFormatter.formatToMT103(any())).thenReturn("Mock MT103 Content");
+        lenient().when(transactionSaveService.toEntity(any(), any())).thenReturn(new TransactionEntity());
+        lenient().when(transactionSaveService.saveWhenSent(any(), any()))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+        lenient().when(transactionProducer.sendTransaction(any())).thenReturn(CompletableFuture.completedFuture(null));
     }
 
     @Test
@@ -58,23 +70,28 @@ class TransactionGeneratorServiceTest {
         service.generateAndSendTransaction();
 
         // Then
-        verify(transactionSaveService).saveTransaction(any(Transaction.class), anyString());
+        verify(transactionSaveService).toEntity(any(Transaction.class), anyString());
         verify(transactionProducer).sendTransaction(any(TransactionWithMT103Event.class));
+        verify(transactionSaveService).saveWhenSent(any(TransactionEntity.class), any());
         verify(mt103MessageFormatter).formatToMT103(any(Transaction.class));
         verify(bankDataService, atLeastOnce()).getRandomBank();
+        assertEquals(1, generationEngine.getStats().getNormalCount());
+        assertEquals(0, generationEngine.getStats().getFailedCount());
     }
 
     @Test
     void testGenerateAndSendTransaction_HandlesException() {
         // Given
-        doThrow(new RuntimeException("Test exception")).when(transactionSaveService).saveTransaction(any(), any());
+        when(transactionSaveService.toEntity(any(), any())).thenThrow(new RuntimeException("Test exception"));
 
-        // When & Then - Should not throw exception, just log error
+        // When & Then - Should not throw exception, the engine counts the failure
         assertDoesNotThrow(() -> service.generateAndSendTransaction());
 
-        // Verify that the producer is not called when save fails
-        verify(transactionSaveService).saveTransaction(any(), any());
-        // Note: The producer might still be called depending on the order of operations in your actual code
+        // Verify that the producer is not called when the entity cannot be built
+        verify(transactionSaveService).toEntity(any(), any());
+        verify(transactionProducer, never()).sendTransaction(any());
+        assertEquals(0, generationEngine.getStats().getNormalCount());
+        assertEquals(1, generationEngine.getStats().getFailedCount());
     }
 
     @Test
@@ -85,8 +102,9 @@ class TransactionGeneratorServiceTest {
         // Then
         verify(bankDataService, atLeastOnce()).getRandomBank();
         verify(mt103MessageFormatter).formatToMT103(any(Transaction.class));
-        verify(transactionSaveService).saveTransaction(any(Transaction.class), anyString());
+        verify(transactionSaveService).toEntity(any(Transaction.class), anyString());
         verify(transactionProducer).sendTransaction(any(TransactionWithMT103Event.class));
+        verify(transactionSaveService).saveWhenSent(any(TransactionEntity.class), any());
     }
 
     @Test
@@ -97,9 +115,40 @@ class TransactionGeneratorServiceTest {
         // When & Then
         assertDoesNotThrow(() -> service.generateAndSendTransaction());
 
-        // Verify services were still called
-        verify(transactionSaveService).saveTransaction(any(), any());
+        // Verify the transaction was never handed to the persistence queue
         verify(transactionProducer).sendTransaction(any());
+        verify(transactionSaveService, never()).saveWhenSent(any(), any());
+        assertEquals(0, generationEngine.getStats().getNormalCount());
+        assertEquals(1, generationEngine.getStats().getFailedCount());
+    }
+
+    @Test
+    void testGenerateAndSendTransaction_RejectedSendCountsAsFailure() {
+        // Given
+        when(transactionProducer.sendTransaction(any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Kafka producer saturated")));
+
+        // When
+        service.generateAndSendTransaction();
+
+        // Then
+        assertEquals(0, generationEngine.getStats().getNormalCount());
+        assertEquals(1, generationEngine.getStats().getFailedCount());
+    }
+
+    @Test
+    void testGenerateAndSendTransaction_CountedOnceAcknowledged() {
+        // Given
+        CompletableFuture<SendResult<String, TransactionWithMT103Event>> ack = new CompletableFuture<>();
+        when(transactionProducer.sendTransaction(any())).thenReturn(ack);
+
+        // When
+        service.generateAndSendTransaction();
+        assertEquals(0, generationEngine.getStats().getNormalCount());
+        ack.complete(null);
+
+        // Then
+        assertEquals(1, generationEngine.getStats().getNormalCount());
     }
 
     @Test
@@ -112,5 +161,6 @@ class TransactionGeneratorServiceTest {
 
         // Verify formatter was called
         verify(mt103MessageFormatter).formatToMT103(any());
+        assertEquals(1, generationEngine.getStats().getFailedCount());
     }
 }
\ No newline at end of file
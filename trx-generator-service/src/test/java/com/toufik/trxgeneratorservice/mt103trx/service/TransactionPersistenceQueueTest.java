@@ -0,0 +1,162 @@
+package com.toufik.trxgeneratorservice.mt103trx.service;
+
+import com.toufik.trxgeneratorservice.mt103trx.config.PersistenceConfig;
+import com.toufik.trxgeneratorservice.mt103trx.entity.TransactionEntity;
+import com.toufik.trxgeneratorservice.mt103trx.model.PersistenceStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TransactionPersistenceQueueTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+    private PersistenceConfig config;
+    private TransactionPersistenceQueue persistenceQueue;
+
+    @BeforeEach
+    void setUp() {
+        config = new PersistenceConfig();
+        config.setQueueCapacity(100);
+        config.setBatchSize(10);
+        config.setFlushIntervalMillis(50);
+        config.setEnqueueTimeoutMillis(100);
+
+        when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), eq(TransactionEntity.class)))
+                .thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenAnswer(invocation -> {
+            batchSizes.add(invocation.<List<?>>getArgument(0).size());
+            return bulkOperations;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (persistenceQueue != null) {
+            persistenceQueue.shutdown();
+        }
+    }
+
+    @Test
+    void testEnqueue_FlushesFullBatchesAndRemainderAfterInterval() {
+        persistenceQueue = new TransactionPersistenceQueue(mongoTemplate, config);
+        for (int i = 0; i < 25; i++) {
+            assertTrue(persistenceQueue.enqueue(entity(i)));
+        }
+        persistenceQueue.start();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> persistenceQueue.getStats().getWrittenCount() == 25);
+
+        assertEquals(List.of(10, 10, 5), batchSizes);
+        PersistenceStats stats = persistenceQueue.getStats();
+        assertEquals(0, stats.getQueueDepth());
+        assertEquals(25, stats.getEnqueuedCount());
+        assertEquals(3, stats.getFlushCount());
+    }
+
+    @Test
+    void testEnqueue_BlocksWhileQueueIsFullAndDropsAfterTimeout() {
+        config.setQueueCapacity(2);
+        persistenceQueue = new TransactionPersistenceQueue(mongoTemplate, config);
+
+        assertTrue(persistenceQueue.enqueue(entity(1)));
+        assertTrue(persistenceQueue.enqueue(entity(2)));
+        long start = System.nanoTime();
+        assertFalse(persistenceQueue.enqueue(entity(3)));
+
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(90));
+        assertEquals(1, persistenceQueue.getStats().getDroppedCount());
+        assertEquals(2, persistenceQueue.getStats().getQueueDepth());
+    }
+
+    @Test
+    void testEnqueue_SlowMongoAppliesBackpressure() throws Exception {
+        config.setQueueCapacity(5);
+        config.setBatchSize(5);
+        config.setEnqueueTimeoutMillis(5_000);
+        CountDownLatch release = new CountDownLatch(1);
+        when(bulkOperations.execute()).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        });
+        persistenceQueue = new TransactionPersistenceQueue(mongoTemplate, config);
+        persistenceQueue.start();
+
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < 20; i++) {
+                persistenceQueue.enqueue(entity(i));
+            }
+        });
+        producer.start();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> persistenceQueue.getStats().getQueueDepth() == 5);
+        assertTrue(producer.isAlive(), "Producer must wait while Mongo is behind");
+
+        release.countDown();
+        producer.join(5_000);
+        await().atMost(Duration.ofSeconds(5)).until(() -> persistenceQueue.getStats().getWrittenCount() == 20);
+        assertEquals(0, persistenceQueue.getStats().getDroppedCount());
+    }
+
+    @Test
+    void testFlush_FailedBatchIsCountedAndWriterContinues() {
+        when(bulkOperations.execute())
+                .thenThrow(new RuntimeException("Mongo down"))
+                .thenReturn(null);
+        persistenceQueue = new TransactionPersistenceQueue(mongoTemplate, config);
+        persistenceQueue.start();
+
+        persistenceQueue.enqueue(entity(1));
+        await().atMost(Duration.ofSeconds(5)).until(() -> persistenceQueue.getStats().getFailedCount() == 1);
+        persistenceQueue.enqueue(entity(2));
+        await().atMost(Duration.ofSeconds(5)).until(() -> persistenceQueue.getStats().getWrittenCount() == 1);
+    }
+
+    @Test
+    void testShutdown_FlushesQueuedEntities() {
+        persistenceQueue = new TransactionPersistenceQueue(mongoTemplate, config);
+        persistenceQueue.start();
+        config.setFlushIntervalMillis(10_000);
+        for (int i = 0; i < 3; i++) {
+            persistenceQueue.enqueue(entity(i));
+        }
+
+        persistenceQueue.shutdown();
+
+        assertEquals(3, persistenceQueue.getStats().getWrittenCount());
+        assertEquals(0, persistenceQueue.getStats().getQueueDepth());
+    }
+
+    private static TransactionEntity entity(int index) {
+        TransactionEntity entity = new TransactionEntity();
+        entity.setTransactionId("TXN-" + index);
+        return entity;
+    }
+}
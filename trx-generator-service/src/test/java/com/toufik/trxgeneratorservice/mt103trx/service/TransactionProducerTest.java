@@ -1,35 +1,53 @@
 package com.toufik.trxgeneratorservice.mt103trx.service;
 
-import com.toufik.trxgeneratorservice.mt103trx.model.Transaction;
-import com.toufik.trxgeneratorservice.mt103trx.model.TransactionWithMT103Event;
+import com.toufik.trxcommon.model.Transaction;
+import com.toufik.trxcommon.model.TransactionWithMT103Event;
+import com.toufik.trxgeneratorservice.mt103trx.config.KafkaProducerConfig;
+import com.toufik.trxgeneratorservice.mt103trx.model.ProducerStats;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
 class TransactionProducerTest {
 
     @Mock
-    private KafkaTemplate<String, Object> kafkaTemplate;
+    private KafkaTemplate<String, TransactionWithMT103Event> kafkaTemplate;
 
-    @InjectMocks
+    private KafkaProducerConfig config;
     private TransactionProducer producer;
+    private CompletableFuture<SendResult<String, TransactionWithMT103Event>> pendingSend;
 
     private TransactionWithMT103Event testEvent;
 
     @BeforeEach
     void setUp() {
-        Transaction transaction = new Transaction(
+        config = new KafkaProducerConfig();
+        config.setMaxInFlight(10);
+        config.setSaturationRatio(0.5);
+        config.setSendTimeoutMillis(10);
+        producer = new TransactionProducer(kafkaTemplate, config);
+
+        pendingSend = new CompletableFuture<>();
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(pendingSend);
+
+        Transaction transaction = MT103TestTransactions.of(
                 "test-transaction-id",
                 "1234567890",
                 "0987654321",
@@ -43,9 +61,7 @@ class TransactionProducerTest {
                 "PENDING"
         );
 
-        testEvent = new TransactionWithMT103Event();
-        testEvent.setTransaction(transaction);
-        testEvent.setMt103Content("Mock MT103 Content");
+        testEvent = TransactionWithMT103Event.of(transaction, "Mock MT103 Content");
     }
 
     @Test
@@ -57,9 +73,10 @@ class TransactionProducerTest {
 
     @Test
     void testSendTransaction_WithNullEvent() {
-        producer.sendTransaction(null);
+        CompletableFuture<SendResult<String, TransactionWithMT103Event>> result = producer.sendTransaction(null);
 
         verify(kafkaTemplate, never()).send(anyString(), anyString(), any());
+        assertTrue(result.isCompletedExceptionally());
     }
 
     @Test
@@ -75,4 +92,67 @@ class TransactionProducerTest {
 
         verify(kafkaTemplate).send(eq("transaction_generator"), anyString(), any());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSendTransaction_CountsAckAndReleasesPermit() {
+        CompletableFuture<SendResult<String, TransactionWithMT103Event>> result = producer.sendTransaction(testEvent);
+        assertEquals(1, producer.getStats().getInFlight());
+        assertFalse(result.isDone());
+
+        pendingSend.complete(null);
+
+        ProducerStats stats = producer.getStats();
+        assertTrue(result.isDone());
+        assertEquals(0, stats.getInFlight());
+        assertEquals(1, stats.getSentCount());
+        assertEquals(1, stats.getAckedCount());
+        assertEquals(0, stats.getFailedCount());
+    }
+
+    @Test
+    void testSendTransaction_CountsFailedSendAndCompletesExceptionally() {
+        CompletableFuture<SendResult<String, TransactionWithMT103Event>> result = producer.sendTransaction(testEvent);
+
+        pendingSend.completeExceptionally(new RuntimeException("Broker unavailable"));
+
+        assertThrows(ExecutionException.class, result::get);
+        assertEquals(1, producer.getStats().getFailedCount());
+        assertEquals(0, producer.getStats().getInFlight());
+    }
+
+    @Test
+    void testSendTransaction_TemplateThrows_ReleasesPermit() {
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenThrow(new RuntimeException("Serialization failed"));
+
+        CompletableFuture<SendResult<String, TransactionWithMT103Event>> result = producer.sendTransaction(testEvent);
+
+        assertTrue(result.isCompletedExceptionally());
+        assertEquals(1, producer.getStats().getFailedCount());
+        assertEquals(0, producer.getStats().getInFlight());
+    }
+
+    @Test
+    void testSendTransaction_ReportsSaturationAndRejectsBeyondCap() {
+        for (int i = 0; i < 4; i++) {
+            producer.sendTransaction(testEvent);
+        }
+        assertFalse(producer.isSaturated());
+
+        for (int i = 0; i < 6; i++) {
+            producer.sendTransaction(testEvent);
+        }
+        assertTrue(producer.isSaturated());
+
+        CompletableFuture<SendResult<String, TransactionWithMT103Event>> rejected = producer.sendTransaction(testEvent);
+
+        ExecutionException e = assertThrows(ExecutionException.class, rejected::get);
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        assertEquals(1, producer.getStats().getRejectedCount());
+        assertEquals(10, producer.getStats().getInFlight());
+        verify(kafkaTemplate, times(10)).send(anyString(), anyString(), any());
+
+        pendingSend.complete(null);
+        assertFalse(producer.isSaturated());
+        assertEquals(10, producer.getStats().getAckedCount());
+    }
+}
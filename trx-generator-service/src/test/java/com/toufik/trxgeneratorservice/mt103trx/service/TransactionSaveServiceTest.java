@@ -0,0 +1,90 @@
+package com.toufik.trxgeneratorservice.mt103trx.service;
+
+import com.toufik.trxgeneratorservice.mt103trx.entity.TransactionEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionSaveServiceTest {
+
+    @Mock
+    private TransactionPersistenceQueue persistenceQueue;
+
+    private TransactionSaveService saveService;
+    private TransactionEntity entity;
+
+    @BeforeEach
+    void setUp() {
+        saveService = new TransactionSaveService(persistenceQueue);
+        entity = new TransactionEntity();
+        entity.setTransactionId("TXN-1");
+    }
+
+    @Test
+    void testSaveWhenSent_QueuesEntityOnceAcknowledged() {
+        when(persistenceQueue.reserve("TXN-1")).thenReturn(true);
+        CompletableFuture<String> sent = new CompletableFuture<>();
+
+        CompletableFuture<String> saved = saveService.saveWhenSent(entity, sent);
+        verify(persistenceQueue, never()).enqueueReserved(any());
+
+        sent.complete("ack");
+        assertEquals("ack", saved.join());
+        verify(persistenceQueue).enqueueReserved(entity);
+    }
+
+    @Test
+    void testSaveWhenSent_FailedSendReleasesSlot() {
+        when(persistenceQueue.reserve("TXN-1")).thenReturn(true);
+        CompletableFuture<String> sent = new CompletableFuture<>();
+
+        CompletableFuture<String> saved = saveService.saveWhenSent(entity, sent);
+        sent.completeExceptionally(new RuntimeException("Broker unavailable"));
+
+        assertTrue(saved.isCompletedExceptionally());
+        verify(persistenceQueue).cancelReservation();
+        verify(persistenceQueue, never()).enqueueReserved(any());
+    }
+
+    @Test
+    void testSaveWhenSent_RejectedSendIsNotStored() {
+        CompletableFuture<String> rejected =
+                CompletableFuture.failedFuture(new IllegalStateException("Kafka producer saturated"));
+
+        CompletableFuture<String> saved = saveService.saveWhenSent(entity, rejected);
+
+        assertTrue(saved.isCompletedExceptionally());
+        verifyNoInteractions(persistenceQueue);
+    }
+
+    @Test
+    void testSaveWhenSent_FullQueueDoesNotFailSend() {
+        when(persistenceQueue.reserve("TXN-1")).thenReturn(false);
+
+        CompletableFuture<String> saved = saveService.saveWhenSent(entity, CompletableFuture.completedFuture("ack"));
+
+        assertEquals("ack", saved.join());
+        verify(persistenceQueue, never()).enqueueReserved(any());
+    }
+
+    @Test
+    void testToFraudEntity_SetsTypeAndPattern() {
+        TransactionEntity fraud = saveService.toFraudEntity(
+                MT103TestTransactions.random(new Random(1)), "MT103", "RANDOM_PATTERN");
+
+        assertEquals("FRAUD", fraud.getTransactionType());
+        assertEquals("RANDOM_PATTERN", fraud.getFraudPattern());
+        assertEquals("MT103", fraud.getMt103Content());
+        assertFalse(fraud.getIsProcessed());
+    }
+}
@@ -0,0 +1,141 @@
+package com.toufik.trxgeneratorservice.mt103trx.util;
+
+import com.toufik.trxgeneratorservice.mt103trx.model.BankInfo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BankDirectoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testWriteAndOpen_RoundTripsAllFields() throws IOException {
+        BankInfo deutsche = new BankInfo("DEUTDEFF", "DE", "Germany", "Deutsche Bank", "50070010", "EUR", "DE", 22);
+        BankInfo chase = new BankInfo("CHASUS33XXX", "US", "United States", "JPMorgan Chase", "021000021", "USD", "US", null);
+        BankInfo sparse = new BankInfo("SPARXXYY", "XX", null, "Sparkasse Zürich", null, "XXX", null, null);
+        Path file = tempDir.resolve("banks.bin");
+
+        assertEquals(3, BankDirectory.write(List.of(deutsche, chase, sparse), file));
+        BankDirectory directory = BankDirectory.open(file);
+
+        assertEquals(3, directory.size());
+        assertEquals(deutsche, directory.findBySwift("DEUTDEFF"));
+        assertEquals(chase, directory.findBySwift("CHASUS33XXX"));
+        assertEquals(sparse, directory.findBySwift("SPARXXYY"));
+        assertEquals(List.of(chase, deutsche, sparse), directory.asList());
+    }
+
+    @Test
+    void testFindBySwift_UnknownOrInvalidBics() throws IOException {
+        Path file = tempDir.resolve("banks.bin");
+        BankDirectory.write(List.of(
+                new BankInfo("DEUTDEFF", "DE", "Germany", "Deutsche Bank", "50070010", "EUR", "DE", 22),
+                new BankInfo("DEUTDEFF500", "DE", "Germany", "Deutsche Bank Filiale", "50070010", "EUR", "DE", 22)), file);
+        BankDirectory directory = BankDirectory.open(file);
+
+        assertNull(directory.findBySwift("DEUTDEF"));
+        assertNull(directory.findBySwift("DEUTDEFF5"));
+        assertNull(directory.findBySwift("DEUTDEFF500X"));
+        assertNull(directory.findBySwift(null));
+        assertNull(directory.findBySwift(""));
+        assertEquals("Deutsche Bank Filiale", directory.findBySwift("DEUTDEFF500").getBankName());
+    }
+
+    @Test
+    void testWrite_FirstDuplicateWinsAndInvalidBicsSkipped() throws IOException {
+        Path file = tempDir.resolve("banks.bin");
+        int written = BankDirectory.write(List.of(
+                new BankInfo("BNPAFRPP", "FR", "France", "BNP Paribas", "30004", "EUR", "FR", 27),
+                new BankInfo("BNPAFRPP", "FR", "France", "Duplicate", "30004", "EUR", "FR", 27),
+                new BankInfo("TOOLONGBIC12", "FR", "France", "Too long", "1", "EUR", "FR", 27),
+                new BankInfo(null, "FR", "France", "No BIC", "1", "EUR", "FR", 27)), file);
+
+        BankDirectory directory = BankDirectory.open(file);
+
+        assertEquals(1, written);
+        assertEquals(1, directory.size());
+        assertEquals("BNP Paribas", directory.get(0).getBankName());
+    }
+
+    @Test
+    void testOpen_RejectsOtherFiles() throws IOException {
+        Path file = Files.write(tempDir.resolve("banks.csv"), "SWIFT/BIC Code,Country Code\n".getBytes());
+
+        assertThrows(IllegalArgumentException.class, () -> BankDirectory.open(file));
+    }
+
+    @Test
+    void testCodes_AreInterned() throws IOException {
+        Path file = tempDir.resolve("banks.bin");
+        BankDirectory.write(List.of(
+                new BankInfo("AAAADEFF", "DE", "Germany", "A", "1", "EUR", "DE", 22),
+                new BankInfo("BBBBDEFF", "DE", "Germany", "B", "2", "EUR", "DE", 22)), file);
+        BankDirectory directory = BankDirectory.open(file);
+
+        assertSame(directory.get(0).getCountryCode(), directory.get(1).getCountryCode());
+        assertSame(directory.get(0).getCurrencyCode(), directory.get(1).getCurrencyCode());
+    }
+
+    /**
+     * Open time, lookup cost and retained heap for a synthetic full-size directory.
+     * Run with {@code mvn test -Dtest=BankDirectoryTest -Dbenchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkLargeDirectory() throws IOException {
+        int size = 500_000;
+        String[] countries = {"DE", "FR", "IT", "ES", "NL", "US", "GB", "CH", "JP", "CN"};
+        Random random = new Random(1);
+        List<BankInfo> banks = new ArrayList<>(size);
+        List<String> bics = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String country = countries[i % countries.length];
+            String bic = String.format("B%06d%sXX", i, country);
+            bics.add(bic);
+            banks.add(new BankInfo(bic, country, "Country " + country, "Bank " + i,
+                    Long.toString(random.nextLong(100_000_000L)), "EUR", country, 22));
+        }
+        Path file = tempDir.resolve("large.bin");
+        long writeStart = System.nanoTime();
+        BankDirectory.write(banks, file);
+        long writeNanos = System.nanoTime() - writeStart;
+        banks = null;
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+        long openStart = System.nanoTime();
+        BankDirectory directory = BankDirectory.open(file);
+        long openNanos = System.nanoTime() - openStart;
+        System.gc();
+        long retained = Math.max(0, runtime.totalMemory() - runtime.freeMemory() - heapBefore);
+
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        long lookupStart = System.nanoTime();
+        int hits = 0;
+        for (int i = 0; i < 1_000_000; i++) {
+            hits += directory.indexOf(bics.get(random.nextInt(size))) >= 0 ? 1 : 0;
+        }
+        long lookupNanos = System.nanoTime() - lookupStart;
+        long allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocatedBefore;
+
+        System.out.printf("%d banks, %d KiB file: write %d ms, open %.2f ms, retained heap ~%d KiB, "
+                        + "indexOf %.1f ns %.1f B/lookup%n",
+                size, Files.size(file) / 1024, writeNanos / 1_000_000, openNanos / 1e6, retained / 1024,
+                lookupNanos / 1e6, allocated / 1e6);
+        assertEquals(1_000_000, hits);
+    }
+}
@@ -0,0 +1,72 @@
+package com.toufik.trxgeneratorservice.mt103trx.util;
+
+import com.toufik.trxgeneratorservice.mt103trx.model.BankInfo;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BankRegistryTest {
+
+    private static final BankInfo DEUTSCHE =
+            new BankInfo("DEUTDEFF", "DE", "Germany", "Deutsche Bank", "50070010", "EUR", "DE", 22);
+    private static final BankInfo BNP =
+            new BankInfo("BNPAFRPP", "FR", "France", "BNP Paribas", "30004000", "EUR", "FR", 27);
+    private static final BankInfo CHASE =
+            new BankInfo("CHASUS33", "US", "United States", "JPMorgan Chase", "021000021", "USD", "US", null);
+
+    @Test
+    void testEntryFor_IndexedBankUsesEagerEntry() {
+        BankRegistry registry = new BankRegistry(List.of(DEUTSCHE));
+
+        assertSame(registry.findBySwift("DEUTDEFF"), registry.entryFor(DEUTSCHE));
+    }
+
+    @Test
+    void testEntryFor_EvictsLeastRecentlyUsedComputedEntry() {
+        BankRegistry registry = new BankRegistry(List.of(), 2);
+
+        BankRegistry.Entry deutsche = registry.entryFor(DEUTSCHE);
+        BankRegistry.Entry bnp = registry.entryFor(BNP);
+        assertSame(deutsche, registry.entryFor(DEUTSCHE));
+
+        BankRegistry.Entry chase = registry.entryFor(CHASE);
+
+        assertSame(deutsche, registry.entryFor(DEUTSCHE));
+        assertSame(chase, registry.entryFor(CHASE));
+        assertNotSame(bnp, registry.entryFor(BNP));
+    }
+
+    @Test
+    void testEntryFor_KeepsCachingPastCapacity() {
+        BankRegistry registry = new BankRegistry(List.of(), 2);
+        registry.entryFor(DEUTSCHE);
+        registry.entryFor(BNP);
+        registry.entryFor(CHASE);
+
+        BankInfo other = new BankInfo("COBADEFF", "DE", "Germany", "Commerzbank", "50040000", "EUR", "DE", 22);
+        BankRegistry.Entry entry = registry.entryFor(other);
+
+        assertSame(entry, registry.entryFor(other));
+    }
+
+    @Test
+    void testEntryFor_ChangedBankIsRecomputed() {
+        BankRegistry registry = new BankRegistry(List.of());
+        BankRegistry.Entry entry = registry.entryFor(DEUTSCHE);
+
+        BankInfo moved = new BankInfo("DEUTDEFF", "DE", "Germany", "Deutsche Bank", "10070000", "EUR", "DE", 22);
+
+        assertNotSame(entry, registry.entryFor(moved));
+        assertEquals(moved, registry.entryFor(moved).bank());
+    }
+
+    @Test
+    void testEntry_RegionFlags() {
+        assertTrue(BankRegistry.Entry.of(DEUTSCHE).isEuropean());
+        assertFalse(BankRegistry.Entry.of(DEUTSCHE).isUS());
+        assertTrue(BankRegistry.Entry.of(CHASE).isUS());
+        assertFalse(BankRegistry.Entry.of(CHASE).isEuropean());
+    }
+}
@@ -0,0 +1,44 @@
+package com.toufik.trxgeneratorservice.mt103trx.util;
+
+import com.toufik.trxcommon.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MT103TemplateTest {
+
+    @Test
+    void testRender_WritesLiteralsAndSlotsInOrder() {
+        MT103Template template = MT103Template.compile("{1:F01${id}}:32A:${amount}\n${id}", Map.of(
+                "id", (out, t, r) -> out.write(t.getTransactionId()),
+                "amount", (out, t, r) -> out.writeAmount(t.getAmount())));
+        Transaction transaction = Transaction.builder()
+                .transactionId("TXN1")
+                .amount(new BigDecimal("-0.05"))
+                .build();
+
+        MT103Writer out = new MT103Writer(4);
+        template.render(out, transaction, new SplittableRandom(1));
+
+        assertEquals("{1:F01TXN1}:32A:-0,05\nTXN1", out.toString());
+    }
+
+    @Test
+    void testCompile_RejectsUnknownSlot() {
+        assertThrows(IllegalArgumentException.class, () -> MT103Template.compile(":20:${missing}", Map.of()));
+    }
+
+    @Test
+    void testCompile_RejectsUnterminatedSlot() {
+        assertThrows(IllegalArgumentException.class, () -> MT103Template.compile(":20:${reference", Map.of()));
+    }
+
+    @Test
+    void testCompile_StandardLayoutFailsWithoutProviders() {
+        assertThrows(IllegalArgumentException.class, () -> MT103Template.compile(MT103Constants.MT103_LAYOUT, Map.of()));
+    }
+}
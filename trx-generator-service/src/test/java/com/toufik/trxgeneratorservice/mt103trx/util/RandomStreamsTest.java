@@ -0,0 +1,65 @@
+package com.toufik.trxgeneratorservice.mt103trx.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.random.RandomGenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RandomStreamsTest {
+
+    @Test
+    void testBindWorker_SameSeedAndIndexGiveSameStream() throws Exception {
+        RandomStreams.reseed(42);
+        long[] first = CompletableFuture.supplyAsync(() -> draw(3)).get();
+        long[] again = CompletableFuture.supplyAsync(() -> draw(3)).get();
+
+        RandomStreams.reseed(42);
+        long[] afterReseed = draw(3);
+
+        assertArrayEquals(first, again);
+        assertArrayEquals(first, afterReseed);
+    }
+
+    @Test
+    void testBindWorker_WorkersAndSeedsGetDistinctStreams() {
+        RandomStreams.reseed(42);
+        long[] worker0 = draw(0);
+        long[] worker1 = draw(1);
+        RandomStreams.reseed(43);
+        long[] otherSeed = draw(0);
+
+        assertFalse(Arrays.equals(worker0, worker1));
+        assertFalse(Arrays.equals(worker0, otherSeed));
+    }
+
+    @Test
+    void testCurrent_StablePerThreadUntilReseed() throws Exception {
+        RandomStreams.reseed(7);
+        RandomGenerator mine = RandomStreams.current();
+        RandomGenerator other = CompletableFuture.supplyAsync(RandomStreams::current).get();
+
+        assertSame(mine, RandomStreams.current());
+        assertNotSame(mine, other);
+
+        RandomStreams.reseed(8);
+        assertNotSame(mine, RandomStreams.current());
+        assertEquals(8, RandomStreams.seed());
+    }
+
+    @Test
+    void testBindWorker_RejectsNegativeIndex() {
+        assertThrows(IllegalArgumentException.class, () -> RandomStreams.bindWorker(-1));
+    }
+
+    private static long[] draw(int worker) {
+        RandomStreams.bindWorker(worker);
+        long[] values = new long[8];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = RandomStreams.current().nextLong();
+        }
+        return values;
+    }
+}
@@ -0,0 +1,160 @@
+package com.toufik.trxgeneratorservice.mt103trx.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedIdGeneratorTest {
+
+    @Test
+    void testNextId_SixteenCrockfordCharacters() {
+        String id = new TimeOrderedIdGenerator(7).nextId();
+
+        assertEquals(TimeOrderedIdGenerator.ID_LENGTH, id.length());
+        assertTrue(id.matches("[0-9A-HJKMNP-TV-Z]{16}"), id);
+    }
+
+    @Test
+    void testNextId_UniqueAndOrderedAcrossThreads() throws Exception {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(1);
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        int threads = 8;
+        int perThread = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    String previous = "";
+                    boolean ordered = true;
+                    for (int i = 0; i < perThread; i++) {
+                        String id = generator.nextId();
+                        ordered &= id.compareTo(previous) > 0;
+                        ids.add(id);
+                        previous = id;
+                    }
+                    return ordered;
+                }));
+            }
+            start.countDown();
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get(30, TimeUnit.SECONDS), "IDs of one thread must increase");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(threads * perThread, ids.size());
+    }
+
+    @Test
+    void testNextId_OrderedByMillisecondAcrossThreads() throws Exception {
+        AtomicLong clock = new AtomicLong(1_700_000_000_000L);
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(3, clock::get);
+
+        String first = generator.nextId();
+        clock.incrementAndGet();
+        Thread other = new Thread(generator::nextId);
+        other.start();
+        other.join();
+        String second = generator.nextId();
+
+        assertTrue(second.compareTo(first) > 0);
+        assertNotEquals(first.substring(0, 10), second.substring(0, 10), "New millisecond must renew the lease");
+    }
+
+    @Test
+    void testNextId_ClockGoingBackwardsStaysMonotonic() {
+        AtomicLong clock = new AtomicLong(1_700_000_000_000L);
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(0, clock::get);
+        Set<String> ids = new HashSet<>();
+        String previous = "";
+
+        for (int i = 0; i < 10_000; i++) {
+            if (i % 100 == 0) {
+                clock.addAndGet(i % 200 == 0 ? 5 : -10);
+            }
+            String id = generator.nextId();
+            assertTrue(id.compareTo(previous) > 0);
+            ids.add(id);
+            previous = id;
+        }
+        assertEquals(10_000, ids.size());
+    }
+
+    @Test
+    void testNextId_NodeIdSeparatesGenerators() {
+        AtomicLong clock = new AtomicLong(1_700_000_000_000L);
+        String a = new TimeOrderedIdGenerator(1, clock::get).nextId();
+        String b = new TimeOrderedIdGenerator(2, clock::get).nextId();
+
+        assertEquals(a.substring(0, 10), b.substring(0, 10));
+        assertNotEquals(a, b);
+    }
+
+    @Test
+    void testConstructor_RejectsOutOfRangeNodeId() {
+        assertThrows(IllegalArgumentException.class, () -> new TimeOrderedIdGenerator(-1));
+        assertThrows(IllegalArgumentException.class, () -> new TimeOrderedIdGenerator(TimeOrderedIdGenerator.MAX_NODE_ID + 1));
+    }
+
+    /**
+     * Run with {@code mvn test -Dtest=TimeOrderedIdGeneratorTest -Dbenchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkAgainstRandomUuid() throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors();
+        double uuid = throughput(new UuidTransactionIdGenerator(), threads);
+        double timeOrdered = throughput(new TimeOrderedIdGenerator(0), threads);
+
+        System.out.printf("%d threads: UUID.randomUUID %.1f M ids/s, time-ordered %.1f M ids/s%n",
+                threads, uuid, timeOrdered);
+        assertTrue(timeOrdered > uuid);
+    }
+
+    private static double throughput(TransactionIdGenerator generator, int threads) throws Exception {
+        int perThread = 2_000_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int round = 0; round < 2; round++) { // first round warms up
+                long start = System.nanoTime();
+                List<Future<Integer>> results = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    results.add(executor.submit(() -> {
+                        int sink = 0;
+                        for (int i = 0; i < perThread; i++) {
+                            sink += generator.nextId().length();
+                        }
+                        return sink;
+                    }));
+                }
+                for (Future<Integer> result : results) {
+                    result.get();
+                }
+                if (round == 1) {
+                    return (double) threads * perThread / ((System.nanoTime() - start) / 1e3);
+                }
+            }
+            throw new IllegalStateException();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
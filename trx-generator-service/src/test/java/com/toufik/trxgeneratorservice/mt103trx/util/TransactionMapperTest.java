@@ -0,0 +1,112 @@
+package com.toufik.trxgeneratorservice.mt103trx.util;
+
+import com.toufik.trxcommon.model.Transaction;
+import com.toufik.trxgeneratorservice.mt103trx.entity.TransactionEntity;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.modelmapper.ModelMapper;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionMapperTest {
+
+    @Test
+    void testToEntity_CopiesEveryTransactionField() throws Exception {
+        Transaction transaction = populated();
+
+        TransactionEntity entity = TransactionMapper.toEntity(transaction);
+
+        for (Field field : Transaction.class.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            Field target = TransactionEntity.class.getDeclaredField(field.getName());
+            field.setAccessible(true);
+            target.setAccessible(true);
+            assertNotNull(field.get(transaction), field.getName());
+            assertEquals(field.get(transaction), target.get(entity), field.getName());
+        }
+    }
+
+    @Test
+    void testToEntity_MatchesModelMapper() throws Exception {
+        Transaction transaction = populated();
+
+        assertEquals(new ModelMapper().map(transaction, TransactionEntity.class), TransactionMapper.toEntity(transaction));
+    }
+
+    @Test
+    void testToEntity_NullFieldsStayNull() {
+        Transaction transaction = Transaction.builder().build();
+
+        assertEquals(new ModelMapper().map(transaction, TransactionEntity.class), TransactionMapper.toEntity(transaction));
+    }
+
+    /**
+     * Run with {@code mvn test -Dtest=TransactionMapperTest -Dbenchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkAgainstModelMapper() throws Exception {
+        Transaction transaction = populated();
+        ModelMapper modelMapper = new ModelMapper();
+
+        double[] reflective = measure(t -> modelMapper.map(t, TransactionEntity.class), transaction);
+        double[] handWritten = measure(TransactionMapper::toEntity, transaction);
+
+        System.out.printf("ModelMapper    %8.1f ns/op %8.1f B/op%n", reflective[0], reflective[1]);
+        System.out.printf("Hand-written   %8.1f ns/op %8.1f B/op%n", handWritten[0], handWritten[1]);
+        assertTrue(handWritten[0] < reflective[0]);
+    }
+
+    private static double[] measure(Function<Transaction, TransactionEntity> mapper, Transaction transaction) {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        int iterations = 500_000;
+        long sink = 0;
+        for (int i = 0; i < iterations; i++) {
+            sink += mapper.apply(transaction).hashCode();
+        }
+
+        long allocatedBefore = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += mapper.apply(transaction).getTransactionId().length();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocatedBefore;
+        assertNotEquals(0, sink);
+        return new double[]{elapsed / (double) iterations, allocated / (double) iterations};
+    }
+
+    /**
+     * Every field set to a distinct value, so a missed or swapped field fails the comparison.
+     */
+    private static Transaction populated() throws IllegalAccessException {
+        Transaction transaction = Transaction.builder().build();
+        int counter = 0;
+        for (Field field : Transaction.class.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            field.setAccessible(true);
+            counter++;
+            if (field.getType() == String.class) {
+                field.set(transaction, field.getName() + "-" + counter);
+            } else if (field.getType() == BigDecimal.class) {
+                field.set(transaction, new BigDecimal("1234.5" + counter));
+            } else if (field.getType() == LocalDateTime.class) {
+                field.set(transaction, LocalDateTime.of(2024, 1, 15, 10, counter));
+            } else {
+                fail("Unhandled field type " + field.getType() + " for " + field.getName());
+            }
+        }
+        return transaction;
+    }
+}
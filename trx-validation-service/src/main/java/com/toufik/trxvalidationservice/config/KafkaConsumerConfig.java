@@ -1,85 +1,171 @@
 package com.toufik.trxvalidationservice.config;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import com.toufik.trxvalidationservice.model.TransactionWithMT103Event;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
 import org.springframework.kafka.listener.ContainerProperties;
-import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
+@Slf4j
 @Configuration
 @EnableKafka
 public class KafkaConsumerConfig {
 
+    public static final String INPUT_TOPIC = "transaction_generator";
+    public static final String DEAD_LETTER_TOPIC = INPUT_TOPIC + "-dlt";
+
+    private static final int PARTITION_LOOKUP_TIMEOUT_MILLIS = 5_000;
+
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
     @Value("${spring.kafka.consumer.group-id}")
     private String groupId;
 
-    @Bean
-    public ObjectMapper kafkaObjectMapper() {
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
-        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-        return objectMapper;
-    }
+    @Autowired
+    private ListenerConfig listenerConfig;
 
+    @Autowired
+    private RetryConfig retryConfig;
+
+    private int concurrency;
+
+    /**
+     * Values stay raw bytes: the listener validates mt103Content in place and forwards valid records unchanged,
+     * binding the full event only to persist it.
+     */
     @Bean
-    public ConsumerFactory<String, TransactionWithMT103Event> consumerFactory() {
+    public ConsumerFactory<String, byte[]> consumerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
-        configProps.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class.getName());
-
-        // Remove all JsonDeserializer property configurations to avoid conflict
-        // Create deserializers programmatically instead
-        JsonDeserializer<TransactionWithMT103Event> jsonDeserializer =
-                new JsonDeserializer<>(TransactionWithMT103Event.class, kafkaObjectMapper());
-        jsonDeserializer.setUseTypeHeaders(false);
-        jsonDeserializer.addTrustedPackages("*");
-
-        ErrorHandlingDeserializer<TransactionWithMT103Event> errorHandlingDeserializer =
-                new ErrorHandlingDeserializer<>(jsonDeserializer);
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, listenerConfig.getMaxPollRecords());
+        configProps.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, listenerConfig.getFetchMinBytes());
+        configProps.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, listenerConfig.getFetchMaxWaitMillis());
+        configProps.put(ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG, listenerConfig.getMaxPartitionFetchBytes());
 
         return new DefaultKafkaConsumerFactory<>(
                 configProps,
                 new StringDeserializer(),
-                errorHandlingDeserializer
+                new ByteArrayDeserializer()
         );
     }
 
+    /**
+     * One record per listener call; the listener acknowledges each record once it has been handled.
+     */
     @Bean
     @Primary
-    public ConcurrentKafkaListenerContainerFactory<String, TransactionWithMT103Event> kafkaListenerContainerFactory() {
-        ConcurrentKafkaListenerContainerFactory<String, TransactionWithMT103Event> factory =
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> kafkaListenerContainerFactory() {
+        return containerFactory(false);
+    }
+
+    /**
+     * Each poll is handed to the listener as one list, and its offsets are committed once the whole batch has
+     * been forwarded and stored.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> batchKafkaListenerContainerFactory() {
+        return containerFactory(true);
+    }
+
+    /**
+     * One record per call and a single thread per retry topic: records wait on a retry topic in the order they
+     * fall due, so the consumer sleeps until the first one is due.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> retryKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, byte[]> factory = containerFactory(false);
+        factory.setConcurrency(1);
+        return factory;
+    }
+
+    /**
+     * Retry and dead-letter topics of {@code TransactionRetryService}, created at startup when missing.
+     */
+    @Bean
+    public KafkaAdmin.NewTopics retryTopics() {
+        List<NewTopic> topics = new ArrayList<>();
+        for (int stage = 0; stage < retryConfig.retryTopicCount(); stage++) {
+            topics.add(TopicBuilder.name(retryTopic(stage)).partitions(retryConfig.getPartitions()).build());
+        }
+        topics.add(TopicBuilder.name(DEAD_LETTER_TOPIC).partitions(retryConfig.getPartitions()).build());
+        return new KafkaAdmin.NewTopics(topics.toArray(NewTopic[]::new));
+    }
+
+    public static String retryTopic(int stage) {
+        return INPUT_TOPIC + "-retry-" + stage;
+    }
+
+    private ConcurrentKafkaListenerContainerFactory<String, byte[]> containerFactory(boolean batchListener) {
+        ConcurrentKafkaListenerContainerFactory<String, byte[]> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
+        factory.setBatchListener(batchListener);
 
-        // Configure container properties
+        // Offsets are committed by the listener through Acknowledgment
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
-        factory.setConcurrency(1); // Start with single thread, can be increased based on load
+        factory.setConcurrency(concurrency());
 
-        // Error handling
-        factory.setCommonErrorHandler(new org.springframework.kafka.listener.DefaultErrorHandler());
+        // Failed records are handed to the retry topics by the listeners; this only redelivers in place when
+        // that hand-over fails too
+        factory.setCommonErrorHandler(new DefaultErrorHandler());
 
         return factory;
     }
-}
\ No newline at end of file
+
+    /**
+     * Consumers beyond the partition count would sit idle, so by default there is one per partition.
+     */
+    private int concurrency() {
+        if (concurrency == 0) {
+            concurrency = listenerConfig.getConcurrency() > 0 ? listenerConfig.getConcurrency() : partitionCount();
+        }
+        return concurrency;
+    }
+
+    private int partitionCount() {
+        Map<String, Object> adminProps = Map.of(
+                AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+                AdminClientConfig.REQUEST_TIMEOUT_MS_CONFIG, PARTITION_LOOKUP_TIMEOUT_MILLIS,
+                AdminClientConfig.DEFAULT_API_TIMEOUT_MS_CONFIG, PARTITION_LOOKUP_TIMEOUT_MILLIS);
+        try (AdminClient admin = AdminClient.create(adminProps)) {
+            int partitions = admin.describeTopics(List.of(INPUT_TOPIC)).allTopicNames()
+                    .get(PARTITION_LOOKUP_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)
+                    .get(INPUT_TOPIC).partitions().size();
+            log.info("Topic {} has {} partitions, using {} listener threads", INPUT_TOPIC, partitions, partitions);
+            return partitions;
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            log.warn("Could not read the partition count of {}, using a single listener thread: {}",
+                    INPUT_TOPIC, e.getMessage());
+            return 1;
+        }
+    }
+}
@@ -1,8 +1,8 @@
 package com.toufik.trxvalidationservice.config;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.toufik.trxvalidationservice.model.TransactionWithMT103Event;
+import com.toufik.trxcommon.kafka.ProducerProfile;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -10,7 +10,6 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
-import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -21,26 +20,26 @@ public class KafkaProducerConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${validation.producer.profile:balanced}")
+    private String profile;
+
+    /**
+     * Valid records are forwarded with their original value bytes and headers, in whatever format they arrived.
+     */
     @Bean
-    public ProducerFactory<String, TransactionWithMT103Event> producerFactory(ObjectMapper kafkaObjectMapper) {
+    public ProducerFactory<String, byte[]> producerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-
-        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
         configProps.put(ProducerConfig.RETRIES_CONFIG, 3);
-        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
-
-        JsonSerializer<TransactionWithMT103Event> valueSerializer = new JsonSerializer<>(kafkaObjectMapper);
-        valueSerializer.setAddTypeInfo(false);
+        configProps.putAll(ProducerProfile.fromName(profile).producerProperties());
 
-        return new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(), valueSerializer);
+        return new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(), new ByteArraySerializer());
     }
 
     @Bean
-    public KafkaTemplate<String, TransactionWithMT103Event> kafkaTemplate(
-            ProducerFactory<String, TransactionWithMT103Event> producerFactory) {
+    public KafkaTemplate<String, byte[]> kafkaTemplate(ProducerFactory<String, byte[]> producerFactory) {
         return new KafkaTemplate<>(producerFactory);
     }
 }
\ No newline at end of file
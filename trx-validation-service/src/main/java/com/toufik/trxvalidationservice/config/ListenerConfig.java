@@ -0,0 +1,38 @@
+package com.toufik.trxvalidationservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "validation.consumer")
+@Data
+public class ListenerConfig {
+
+    /**
+     * {@code batch} hands each poll to the listener as one list; {@code record} delivers records one at a time;
+     * {@code parallel} processes the records of a poll concurrently, in order per key.
+     */
+    private Mode mode = Mode.BATCH;
+
+    /**
+     * Listener threads; 0 or less uses the partition count of the input topic.
+     */
+    private int concurrency = 0;
+
+    /**
+     * Worker threads of the {@code parallel} mode; 0 or less uses the number of available processors.
+     */
+    private int parallelism = 0;
+
+    private int maxPollRecords = 500;
+    private int fetchMinBytes = 1;
+    private int fetchMaxWaitMillis = 500;
+    private int maxPartitionFetchBytes = 1_048_576;
+
+    public enum Mode {
+        RECORD,
+        BATCH,
+        PARALLEL
+    }
+}
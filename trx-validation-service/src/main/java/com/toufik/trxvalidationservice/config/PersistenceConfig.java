@@ -0,0 +1,18 @@
+package com.toufik.trxvalidationservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "validation.persistence")
+@Data
+public class PersistenceConfig {
+    private int queueCapacity = 10_000;
+    private int batchSize = 500;
+    private long flushIntervalMillis = 50;
+    private long enqueueTimeoutMillis = 5_000;
+    private int maxAttempts = 5;
+    private long initialBackoffMillis = 100;
+    private long maxBackoffMillis = 5_000;
+}
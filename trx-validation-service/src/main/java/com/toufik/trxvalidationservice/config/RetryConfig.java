@@ -0,0 +1,46 @@
+package com.toufik.trxvalidationservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "validation.retry")
+@Data
+public class RetryConfig {
+
+    /**
+     * Attempts a record gets before it is dead-lettered, including the first delivery, as {@code alert.retry.attempts}
+     * in the alert service: the first one on the input topic, then one on each retry topic.
+     */
+    private int attempts = 4;
+
+    private long initialDelayMillis = 1_000;
+    private double multiplier = 2.0;
+    private long maxDelayMillis = 30_000;
+
+    /**
+     * Partitions of the retry and dead-letter topics when they are created.
+     */
+    private int partitions = 1;
+
+    /**
+     * Records re-injected by one dead-letter replay when the request does not say.
+     */
+    private int replayMaxRecords = 10_000;
+
+    /**
+     * Retry topics between the input and the dead-letter topic, one per attempt after the first.
+     */
+    public int retryTopicCount() {
+        return Math.max(0, attempts - 1);
+    }
+
+    /**
+     * How long a record waits on retry topic {@code stage}, counted from zero.
+     */
+    public long delayMillis(int stage) {
+        double delay = initialDelayMillis * Math.pow(multiplier, stage);
+        return (long) Math.min(delay, maxDelayMillis);
+    }
+}
@@ -0,0 +1,24 @@
+package com.toufik.trxvalidationservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "validation.rules")
+@Data
+public class ValidationRulesConfig {
+
+    /**
+     * Periodically reorders the rules so those that reject the most messages per nanosecond spent run first.
+     * The reported reason stays that of the first failing rule in canonical order.
+     */
+    private boolean adaptive = false;
+
+    private long reorderIntervalMillis = 10_000;
+
+    /**
+     * Evaluations the chain needs since startup before its first reorder.
+     */
+    private long minEvaluations = 10_000;
+}
@@ -1,12 +1,20 @@
 package com.toufik.trxvalidationservice.controller;
 
-import com.toufik.trxvalidationservice.model.Transaction;
+import com.toufik.trxcommon.kafka.DeadLetterReplayer;
+import com.toufik.trxvalidationservice.entity.TransactionEntity;
+import com.toufik.trxvalidationservice.model.PersistenceStats;
+import com.toufik.trxvalidationservice.model.ValidationRuleStats;
 import com.toufik.trxvalidationservice.repository.TransactionRepository;
+import com.toufik.trxvalidationservice.service.TransactionPersistenceQueue;
+import com.toufik.trxvalidationservice.service.TransactionRetryService;
+import com.toufik.trxvalidationservice.service.ValidationRuleChain;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -19,10 +27,19 @@ public class TransactionValidationController {
     @Autowired
     private TransactionRepository transactionRepository;
 
+    @Autowired
+    private TransactionPersistenceQueue persistenceQueue;
+
+    @Autowired
+    private ValidationRuleChain ruleChain;
+
+    @Autowired
+    private TransactionRetryService retryService;
+
     @GetMapping("/all")
-    public ResponseEntity<List<Transaction>> getAllTransactions() {
+    public ResponseEntity<List<TransactionEntity>> getAllTransactions() {
         try {
-            List<Transaction> transactions = transactionRepository.findAll();
+            List<TransactionEntity> transactions = transactionRepository.findAll();
             log.info("Retrieved {} total transactions", transactions.size());
             return ResponseEntity.ok(transactions);
         } catch (Exception e) {
@@ -32,9 +49,9 @@ public class TransactionValidationController {
     }
 
     @GetMapping("/valid")
-    public ResponseEntity<List<Transaction>> getValidTransactions() {
+    public ResponseEntity<List<TransactionEntity>> getValidTransactions() {
         try {
-            List<Transaction> validTransactions = transactionRepository.findByIsValid(true);
+            List<TransactionEntity> validTransactions = transactionRepository.findByIsValid(true);
             log.info("Retrieved {} valid transactions", validTransactions.size());
             return ResponseEntity.ok(validTransactions);
         } catch (Exception e) {
@@ -44,9 +61,9 @@ public class TransactionValidationController {
     }
 
     @GetMapping("/invalid")
-    public ResponseEntity<List<Transaction>> getInvalidTransactions() {
+    public ResponseEntity<List<TransactionEntity>> getInvalidTransactions() {
         try {
-            List<Transaction> invalidTransactions = transactionRepository.findByIsValid(false);
+            List<TransactionEntity> invalidTransactions = transactionRepository.findByIsValid(false);
             log.info("Retrieved {} invalid transactions", invalidTransactions.size());
             return ResponseEntity.ok(invalidTransactions);
         } catch (Exception e) {
@@ -54,4 +71,30 @@ public class TransactionValidationController {
             return ResponseEntity.internalServerError().build();
         }
     }
-}
\ No newline at end of file
+
+    @GetMapping("/persistence")
+    public PersistenceStats getPersistenceStats() {
+        return persistenceQueue.getStats();
+    }
+
+    @GetMapping("/rules")
+    public List<ValidationRuleStats> getRuleStats() {
+        return ruleChain.getStats();
+    }
+
+    /**
+     * Re-injects dead-lettered records into the input topic; {@code maxRecords} of 0 uses the configured limit.
+     */
+    @PostMapping("/dlt/replay")
+    public ResponseEntity<DeadLetterReplayer.Result> replayDeadLetters(
+            @RequestParam(defaultValue = "0") int maxRecords) {
+        try {
+            DeadLetterReplayer.Result result = retryService.replayDeadLetters(maxRecords);
+            log.info("Replayed {} records of {}", result.getReplayed(), result.getDeadLetterTopic());
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            log.error("Error replaying dead-lettered transactions: {}", e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+}
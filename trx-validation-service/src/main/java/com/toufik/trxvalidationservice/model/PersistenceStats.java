@@ -0,0 +1,24 @@
+package com.toufik.trxvalidationservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PersistenceStats {
+    private int queueDepth;
+    private int queueCapacity;
+    private long enqueuedCount;
+    private long writtenCount;
+    private long retryCount;
+    private long failedCount;
+    private long rejectedCount;
+    private long flushCount;
+    private double lastFlushMillis;
+    private double averageFlushMillis;
+    private double maxFlushMillis;
+}
@@ -0,0 +1,21 @@
+package com.toufik.trxvalidationservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ValidationRuleStats {
+    private String ruleName;
+    private int position;
+    private int canonicalPosition;
+    private long evaluationCount;
+    private long failureCount;
+    private double failureRate;
+    private double averageNanos;
+    private double totalMillis;
+}
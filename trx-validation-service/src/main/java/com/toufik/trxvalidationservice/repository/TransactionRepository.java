@@ -1,12 +1,12 @@
 package com.toufik.trxvalidationservice.repository;
 
-import com.toufik.trxvalidationservice.model.Transaction;
+import com.toufik.trxvalidationservice.entity.TransactionEntity;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
-public interface TransactionRepository extends MongoRepository<Transaction, String> {
-    List<Transaction> findByIsValid(boolean isValid);
+public interface TransactionRepository extends MongoRepository<TransactionEntity, String> {
+    List<TransactionEntity> findByIsValid(boolean isValid);
 }
\ No newline at end of file
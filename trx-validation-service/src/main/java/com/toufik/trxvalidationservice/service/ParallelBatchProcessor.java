@@ -0,0 +1,133 @@
+package com.toufik.trxvalidationservice.service;
+
+import com.toufik.trxvalidationservice.config.ListenerConfig;
+import jakarta.annotation.PreDestroy;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Processes the records of a poll concurrently on a fork-join pool instead of one after another on the listener
+ * thread, so throughput is no longer bounded by the partition count.
+ * <p>
+ * Records sharing a key form a chain: each one is validated only after the forward of the previous one has been
+ * acknowledged. Records with different keys, or without a key, run independently. A record that fails is handed to
+ * the retry topics and its chain moves on; only when that hand-over fails too does the chain stop. Once the batch
+ * settles, each partition is committed up to its first incomplete record and rewound to it, so that record and
+ * everything after it are redelivered. Records after a gap that did complete are therefore processed again
+ * (at-least-once). A record counts as complete only once its result is stored, or it was handed over.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "validation.consumer.mode", havingValue = "parallel")
+public class ParallelBatchProcessor {
+
+    private final TransactionRetryService retryService;
+    private final ForkJoinPool pool;
+
+    public ParallelBatchProcessor(TransactionRetryService retryService, ListenerConfig config) {
+        this.retryService = retryService;
+        int parallelism = config.getParallelism() > 0
+                ? config.getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(parallelism, ParallelBatchProcessor::newWorker, null, true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+        try {
+            pool.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Processes the batch and returns how far each of its partitions can be committed. A record is complete once
+     * its forward is acknowledged and its result stored, or once it has been handed to the retry topics.
+     */
+    public Progress process(List<ConsumerRecord<String, byte[]>> records) {
+        boolean[] completed = new boolean[records.size()];
+
+        List<CompletableFuture<Void>> chains = new ArrayList<>();
+        for (List<Integer> indexes : groupByKey(records).values()) {
+            CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+            for (int index : indexes) {
+                chain = chain
+                        .thenComposeAsync(previous -> retryService.forwardOrRetryAsync(records.get(index), pool), pool)
+                        .thenRun(() -> completed[index] = true);
+            }
+            chains.add(chain);
+        }
+
+        try {
+            CompletableFuture.allOf(chains.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            log.error("Error processing batch of {} transactions: {}", records.size(), e.getCause().getMessage());
+        }
+
+        return Progress.of(records, completed);
+    }
+
+    /**
+     * Batch indexes grouped by record key, in offset order within each group. Keyless records get a group each.
+     */
+    private static Map<Object, List<Integer>> groupByKey(List<ConsumerRecord<String, byte[]>> records) {
+        Map<Object, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < records.size(); i++) {
+            Object key = records.get(i).key() != null ? records.get(i).key() : new Object();
+            groups.computeIfAbsent(key, k -> new ArrayList<>(1)).add(i);
+        }
+        return groups;
+    }
+
+    private static ForkJoinWorkerThread newWorker(ForkJoinPool pool) {
+        ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        worker.setName("transaction-validation-" + worker.getPoolIndex());
+        return worker;
+    }
+
+    /**
+     * Offsets to commit for each partition of a batch, and the offset to resume from for partitions that have an
+     * incomplete record.
+     */
+    @Value
+    public static class Progress {
+        Map<TopicPartition, OffsetAndMetadata> commitOffsets;
+        Map<TopicPartition, Long> retryOffsets;
+
+        static Progress of(List<ConsumerRecord<String, byte[]>> records, boolean[] completed) {
+            Map<TopicPartition, OffsetAndMetadata> commitOffsets = new HashMap<>();
+            Map<TopicPartition, Long> retryOffsets = new HashMap<>();
+            for (int i = 0; i < records.size(); i++) {
+                ConsumerRecord<String, byte[]> record = records.get(i);
+                TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                if (retryOffsets.containsKey(partition)) {
+                    continue;
+                }
+                if (completed[i]) {
+                    commitOffsets.put(partition, new OffsetAndMetadata(record.offset() + 1));
+                } else {
+                    retryOffsets.put(partition, record.offset());
+                }
+            }
+            return new Progress(commitOffsets, retryOffsets);
+        }
+    }
+}
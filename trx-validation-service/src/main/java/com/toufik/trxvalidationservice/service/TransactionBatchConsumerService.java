@@ -0,0 +1,63 @@
+package com.toufik.trxvalidationservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Batch listener, the default ({@code validation.consumer.mode=batch}). Each poll is validated, forwarded and
+ * stored as a whole, and its offsets are committed once at the end. Records whose forward or store failed are
+ * processed again one by one, and those that still fail are handed to the retry topics, so one failing record does
+ * not hold up its partition. Records that were forwarded and stored are not processed again.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "validation.consumer.mode", havingValue = "batch", matchIfMissing = true)
+public class TransactionBatchConsumerService {
+
+    @Autowired
+    private TransactionFilterService filterService;
+
+    @Autowired
+    private TransactionRetryService retryService;
+
+    @KafkaListener(topics = "transaction_generator",
+            groupId = "transaction-validator-group",
+            containerFactory = "batchKafkaListenerContainerFactory",
+            properties = {"auto.offset.reset=earliest"})
+    public void consume(List<ConsumerRecord<String, byte[]>> records, Acknowledgment acknowledgment) {
+        if (records.isEmpty()) {
+            return;
+        }
+        ConsumerRecord<String, byte[]> first = records.get(0);
+        ConsumerRecord<String, byte[]> last = records.get(records.size() - 1);
+
+        try {
+            log.debug("Consumed {} transactions from topic: {}, first partition: {}, offset: {}, last partition: {}, offset: {}",
+                    records.size(), first.topic(), first.partition(), first.offset(), last.partition(), last.offset());
+
+            processBatch(records);
+            acknowledgment.acknowledge();
+
+        } catch (Exception e) {
+            log.error("Error consuming batch of {} transactions: {}", records.size(), e.getMessage());
+            throw new RuntimeException("Failed to process batch of " + records.size() + " transactions", e);
+        }
+    }
+
+    private void processBatch(List<ConsumerRecord<String, byte[]>> records) {
+        List<ConsumerRecord<String, byte[]>> failed = filterService.processBatch(records);
+        if (!failed.isEmpty()) {
+            log.warn("{} of {} transactions failed, processing them record by record", failed.size(), records.size());
+            for (ConsumerRecord<String, byte[]> record : failed) {
+                retryService.forwardOrRetry(record);
+            }
+        }
+    }
+}
@@ -1,36 +1,38 @@
 package com.toufik.trxvalidationservice.service;
 
-import com.toufik.trxvalidationservice.model.TransactionWithMT103Event;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Service;
 
+/**
+ * Record-at-a-time listener, used with {@code validation.consumer.mode=record}. A record that fails is handed to
+ * the retry topics and acknowledged, so the records behind it are not held up.
+ */
 @Slf4j
 @Service
+@ConditionalOnProperty(name = "validation.consumer.mode", havingValue = "record")
 public class TransactionConsumerService {
 
     @Autowired
-    private TransactionFilterService filterService;
+    private TransactionRetryService retryService;
 
     @KafkaListener(topics = "transaction_generator",
             groupId = "transaction-validator-group",
             properties = {"auto.offset.reset=earliest"})
-    public void consume(@Payload TransactionWithMT103Event event,
-                        @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
-                        @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
-                        @Header(KafkaHeaders.OFFSET) long offset) {
+    public void consume(ConsumerRecord<String, byte[]> record, Acknowledgment acknowledgment) {
 
-        String transactionId = event.getTransaction().getTransactionId();
+        String transactionId = record.key();
 
         try {
             log.info("Consumed transaction: {} from topic: {}, partition: {}, offset: {}",
-                    transactionId, topic, partition, offset);
+                    transactionId, record.topic(), record.partition(), record.offset());
 
-            filterService.process(event);
+            retryService.forwardOrRetry(record);
+            acknowledgment.acknowledge();
 
             log.info("Transaction {} processed successfully", transactionId);
 
@@ -39,4 +41,4 @@ public class TransactionConsumerService {
             throw new RuntimeException("Failed to process transaction: " + transactionId, e);
         }
     }
-}
\ No newline at end of file
+}
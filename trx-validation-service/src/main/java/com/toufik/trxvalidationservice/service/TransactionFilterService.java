@@ -1,262 +1,172 @@
 package com.toufik.trxvalidationservice.service;
 
-import com.toufik.trxvalidationservice.model.Transaction;
-import com.toufik.trxvalidationservice.model.TransactionWithMT103Event;
-import com.toufik.trxvalidationservice.repository.TransactionRepository;
+import com.toufik.trxcommon.kafka.MT103ContentLocator;
+import com.toufik.trxcommon.kafka.TransactionEventDeserializer;
+import com.toufik.trxcommon.model.MT103FieldIndex;
+import com.toufik.trxcommon.model.TransactionWithMT103Event;
+import com.toufik.trxvalidationservice.entity.TransactionEntity;
+import com.toufik.trxvalidationservice.util.MT103Validator;
+import com.toufik.trxvalidationservice.util.TransactionMapper;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.errors.SerializationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.regex.Pattern;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Slf4j
 @Service
 public class TransactionFilterService {
 
-    private static final Pattern BIC_PATTERN = Pattern.compile("^[A-Z]{4}[A-Z]{2}[A-Z0-9]{2}([A-Z0-9]{3})?$");
-    private static final Pattern DATE_PATTERN = Pattern.compile("^\\d{6}$");
-    private static final Pattern AMOUNT_PATTERN = Pattern.compile("^\\d+([,.]\\d{1,2})?$");
-
     @Autowired
     private TransactionProducerService producerService;
 
     @Autowired
-    private TransactionRepository transactionRepository;
-
-    public void process(TransactionWithMT103Event event) {
-        String transactionId = event.getTransaction().getTransactionId();
+    private TransactionPersistenceQueue persistenceQueue;
 
-        try {
-            String validationResult = validateMT103(event.getMt103Content());
-
-            if (validationResult == null) {
-                producerService.sendTransactionAlert(event);
-                log.info("Valid transaction forwarded: {}", transactionId);
+    @Autowired
+    private ValidationRuleChain ruleChain;
+
+    @Value("${validation.persistence.enabled:true}")
+    private boolean persistenceEnabled;
+
+    private final TransactionEventDeserializer deserializer = new TransactionEventDeserializer();
+
+    /**
+     * Validates a poll batch and forwards its valid records in one send while their results are written behind.
+     * Returns once every forward has been acknowledged or failed and every result stored or failed, with the
+     * records of which either failed, in batch order, for the caller to hand over one by one; the other records
+     * are done. Records that cannot be read are neither forwarded nor stored, and are returned as failed too.
+     */
+    public List<ConsumerRecord<String, byte[]>> processBatch(List<ConsumerRecord<String, byte[]>> records) {
+        List<ConsumerRecord<String, byte[]>> valid = new ArrayList<>(records.size());
+        List<ConsumerRecord<String, byte[]>> storing = new ArrayList<>(persistenceEnabled ? records.size() : 0);
+        List<TransactionEntity> entities = new ArrayList<>(persistenceEnabled ? records.size() : 0);
+        Set<ConsumerRecord<String, byte[]>> failed = Collections.newSetFromMap(new IdentityHashMap<>());
+        LocalDateTime processedAt = LocalDateTime.now();
+
+        for (ConsumerRecord<String, byte[]> record : records) {
+            try {
+                String validationResult = validate(record);
+
+                // Built before the record is picked for forwarding, so a record that cannot be stored is not sent
+                if (persistenceEnabled) {
+                    entities.add(toEntity(record, validationResult, processedAt));
+                    storing.add(record);
+                }
 
-                // Save valid transaction
-                saveTransaction(event.getTransaction(), true, "Valid");
-            } else {
-                log.warn("Transaction filtered: {} - Reason: {}", transactionId, validationResult);
+                if (validationResult == null) {
+                    valid.add(record);
+                } else {
+                    log.warn("Transaction filtered: {} - Reason: {}", record.key(), validationResult);
+                }
 
-                // Save invalid transaction
-                saveTransaction(event.getTransaction(), false, validationResult);
+            } catch (Exception e) {
+                log.error("Cannot read transaction {} at offset {}: {}", record.key(), record.offset(), e.getMessage());
+                failed.add(record);
             }
-
-        } catch (Exception e) {
-            log.error("Error processing transaction {}: {}", transactionId, e.getMessage());
         }
-    }
 
-    private void saveTransaction(Transaction originalTransaction, boolean isValid, String validationReason) {
-        try {
-            Transaction transactionToSave = Transaction.builder()
-                    .transactionId(originalTransaction.getTransactionId())
-                    .fromAccount(originalTransaction.getFromAccount())
-                    .toAccount(originalTransaction.getToAccount())
-                    .amount(originalTransaction.getAmount())
-                    .currency(originalTransaction.getCurrency())
-                    .fromBankSwift(originalTransaction.getFromBankSwift())
-                    .toBankSwift(originalTransaction.getToBankSwift())
-                    .fromBankName(originalTransaction.getFromBankName())
-                    .toBankName(originalTransaction.getToBankName())
-                    .timestamp(originalTransaction.getTimestamp())
-                    .status(originalTransaction.getStatus())
-                    .fromIBAN(originalTransaction.getFromIBAN())
-                    .toIBAN(originalTransaction.getToIBAN())
-                    .fromCountryCode(originalTransaction.getFromCountryCode())
-                    .toCountryCode(originalTransaction.getToCountryCode())
-                    .isValid(isValid)
-                    .validationReason(validationReason)
-                    .processedAt(LocalDateTime.now())
-                    .build();
+        List<CompletableFuture<Void>> stored = entities.isEmpty() ? List.of() : persistenceQueue.enqueueEach(entities);
+        List<CompletableFuture<SendResult<String, byte[]>>> sent = producerService.sendTransactionAlerts(valid);
 
-            transactionRepository.save(transactionToSave);
-            log.info("Transaction {} saved to database", transactionToSave.getTransactionId());
-        } catch (Exception e) {
-            log.error("Error saving transaction {}: {}", originalTransaction.getTransactionId(), e.getMessage());
+        collectFailed(valid, sent, "forward", failed);
+        collectFailed(storing, stored, "store", failed);
+        if (failed.isEmpty()) {
+            log.info("Processed batch of {} transactions, {} forwarded", records.size(), valid.size());
+            return List.of();
         }
+        log.warn("Processed batch of {} transactions, {} of them failed", records.size(), failed.size());
+        return records.stream().filter(failed::contains).toList();
     }
 
-    private String validateMT103(String content) {
-        if (content == null || content.isBlank()) {
-            return "Content is null or blank";
-        }
-
-        // Remove all whitespace and newlines for structure validation
-        String cleanContent = content.replaceAll("\\s", "");
-
-        // 1. Check basic structure blocks
-        if (!cleanContent.startsWith("{1:") || !cleanContent.contains("{2:") ||
-                !cleanContent.contains("{3:") || !cleanContent.contains("{4:") ||
-                !cleanContent.contains("{5:") || !cleanContent.endsWith("}")) {
-            return "Missing required MT103 structure blocks";
-        }
-
-        // 2. Validate header block 1 format
-        if (!cleanContent.matches(".*\\{1:F01[A-Z]{11}\\d\\}.*")) {
-            return "Invalid header block 1 format";
-        }
-
-        // 3. Validate header block 2 format
-        if (!cleanContent.matches(".*\\{2:I103[A-Z]{11}\\d[A-Z]\\}.*")) {
-            return "Invalid header block 2 format";
-        }
+    /**
+     * Validates one record and forwards it when valid, while its result is written behind. The returned future
+     * completes once the forward has been acknowledged and the result stored, and fails if either fails.
+     * For a record that cannot be read or has no key it fails with a {@link SerializationException}, without a
+     * forward.
+     */
+    public CompletableFuture<Void> validateAndForward(ConsumerRecord<String, byte[]> record) {
+        String transactionId = record.key();
+        String validationResult;
+        TransactionEntity entity = null;
 
-        // 4. Check mandatory fields in block 4
-        String[] mandatoryFields = {":20:", ":23B:", ":32A:"};
-        for (String field : mandatoryFields) {
-            if (!content.contains(field)) {
-                return "Missing mandatory field: " + field;
+        try {
+            validationResult = validate(record);
+            if (persistenceEnabled) {
+                entity = toEntity(record, validationResult, LocalDateTime.now());
             }
+        } catch (Exception e) {
+            log.error("Cannot read transaction {} at offset {}: {}", transactionId, record.offset(), e.getMessage());
+            return CompletableFuture.failedFuture(unreadable(record, e));
         }
+        CompletableFuture<Void> stored = entity == null
+                ? CompletableFuture.completedFuture(null)
+                : persistenceQueue.enqueue(entity);
 
-        // 5. Validate block 5 trailer format
-        if (!cleanContent.matches(".*\\{5:\\{MAC:[A-F0-9]+\\}\\{CHK:[A-F0-9]+\\}\\}$")) {
-            return "Invalid trailer block 5 format";
+        if (validationResult != null) {
+            log.warn("Transaction filtered: {} - Reason: {}", transactionId, validationResult);
+            return stored;
         }
 
-        // 6. Check field structure integrity
-        String structureCheck = checkFieldStructure(content);
-        if (structureCheck != null) return structureCheck;
-
-        // 7. Validate BIC codes
-        String bicCheck = validateBICCodes(content);
-        if (bicCheck != null) return bicCheck;
-
-        // 8. Validate date format in :32A:
-        String dateCheck = validateDateFormat(content);
-        if (dateCheck != null) return dateCheck;
-
-        // 9. Validate amount format in :32A:
-        String amountCheck = validateAmountFormat(content);
-        if (amountCheck != null) return amountCheck;
-
-        return null;
-    }
-
-    private String checkFieldStructure(String content) {
-        if (content.contains("::")) {
-            return "Invalid field structure: double colons found";
-        }
-
-        String[] lines = content.split("\\n");
-        for (String line : lines) {
-            line = line.trim();
-            if (line.matches("^:[0-9]{2}[A-Z]?;.*")) {
-                return "Invalid field structure: semicolon instead of colon";
-            }
+        try {
+            return producerService.sendTransactionAlert(record).thenCombine(stored, (sent, nothing) -> null);
+        } catch (IllegalArgumentException e) {
+            log.error("Cannot forward transaction {} at offset {}: {}", transactionId, record.offset(), e.getMessage());
+            return CompletableFuture.failedFuture(unreadable(record, e));
         }
-        return null;
     }
 
-    private String validateBICCodes(String content) {
-        String[] bicFields = {":52A:", ":57A:"};
-
-        for (String field : bicFields) {
-            int index = content.indexOf(field);
-            if (index != -1) {
-                try {
-                    String fieldContent = content.substring(index + field.length());
-                    int nextFieldIndex = fieldContent.indexOf("\n:");
-                    if (nextFieldIndex > 0) {
-                        fieldContent = fieldContent.substring(0, nextFieldIndex);
-                    }
-
-                    String[] lines = fieldContent.trim().split("\\n");
-                    String potentialBIC = lines[0].trim();
-
-                    if (potentialBIC.length() >= 8) {
-                        String bicValidation = validateSingleBIC(potentialBIC);
-                        if (bicValidation != null) {
-                            return "Invalid BIC in field " + field + ": " + bicValidation;
-                        }
-                    }
-                } catch (Exception e) {
-                    return "Error parsing BIC in field " + field;
-                }
-            }
-        }
-        return null;
+    /**
+     * Validates the record and, when it is valid, adds the {@link MT103FieldIndex} header the alert service reads
+     * fields from. A record that already carries one keeps it: its headers turn read-only once it was forwarded.
+     */
+    private String validate(ConsumerRecord<String, byte[]> record) {
+        CharSequence content = MT103ContentLocator.locate(record.headers(), record.value());
+        String validationResult = ruleChain.validate(content);
+        if (validationResult == null && record.headers().lastHeader(MT103FieldIndex.HEADER) == null) {
+            record.headers().add(MT103FieldIndex.HEADER, MT103Validator.fieldIndex(content).encode());
+        }
+        return validationResult;
     }
 
-    private String validateSingleBIC(String bic) {
-        if (bic.length() < 8 || bic.length() > 11) {
-            return "BIC length invalid: " + bic;
-        }
-        if (!BIC_PATTERN.matcher(bic).matches()) {
-            return "BIC format invalid: " + bic;
-        }
-        return null;
+    private TransactionEntity toEntity(ConsumerRecord<String, byte[]> record, String validationResult,
+                                       LocalDateTime processedAt) {
+        TransactionWithMT103Event event = deserializer.deserialize(record.topic(), record.headers(), record.value());
+        return TransactionMapper.toEntity(event.getTransaction(), validationResult == null,
+                validationResult == null ? "Valid" : validationResult, processedAt);
     }
 
-    private String validateDateFormat(String content) {
-        int index = content.indexOf(":32A:");
-        if (index == -1) {
-            return null;
-        }
-
-        try {
-            String fieldContent = content.substring(index + 5).trim();
-            int nextFieldIndex = fieldContent.indexOf("\n:");
-            if (nextFieldIndex > 0) {
-                fieldContent = fieldContent.substring(0, nextFieldIndex);
-            }
-
-            if (fieldContent.length() < 6) {
-                return "Date field too short in :32A:";
-            }
-
-            String dateStr = fieldContent.substring(0, 6);
-            if (!DATE_PATTERN.matcher(dateStr).matches()) {
-                return "Invalid date format in :32A:";
-            }
-
-            int month = Integer.parseInt(dateStr.substring(2, 4));
-            int day = Integer.parseInt(dateStr.substring(4, 6));
-
-            if (month < 1 || month > 12 || day < 1 || day > 31) {
-                return "Invalid date values in :32A:";
-            }
-
-        } catch (Exception e) {
-            return "Error parsing date in :32A:";
-        }
-
-        return null;
+    private static SerializationException unreadable(ConsumerRecord<String, byte[]> record, Exception cause) {
+        return cause instanceof SerializationException serialization
+                ? serialization
+                : new SerializationException("Cannot read transaction " + record.key() + " at offset "
+                        + record.offset() + ": " + cause.getMessage(), cause);
     }
 
-    private String validateAmountFormat(String content) {
-        int index = content.indexOf(":32A:");
-        if (index == -1) {
-            return null;
-        }
-
-        try {
-            String fieldContent = content.substring(index + 5).trim();
-            int nextFieldIndex = fieldContent.indexOf("\n:");
-            if (nextFieldIndex > 0) {
-                fieldContent = fieldContent.substring(0, nextFieldIndex);
-            }
-
-            if (fieldContent.length() <= 9) {
-                return "Amount field too short in :32A:";
-            }
-
-            String amountPart = fieldContent.substring(9).trim();
-            if (amountPart.isEmpty()) {
-                return "Empty amount in :32A:";
-            }
-
-            String cleanAmount = amountPart.replaceAll("[^0-9,.-]", "");
-            if (!AMOUNT_PATTERN.matcher(cleanAmount).matches()) {
-                return "Invalid amount format: " + amountPart;
+    /**
+     * Waits for the future of each record and adds the records whose future failed to {@code failed}.
+     */
+    private static void collectFailed(List<ConsumerRecord<String, byte[]>> records,
+                                      List<? extends CompletableFuture<?>> futures, String step,
+                                      Set<ConsumerRecord<String, byte[]>> failed) {
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).join();
+            } catch (CompletionException e) {
+                log.error("Failed to {} transaction {}: {}", step, records.get(i).key(), e.getCause().getMessage());
+                failed.add(records.get(i));
             }
-
-        } catch (Exception e) {
-            return "Error parsing amount in :32A:";
         }
-
-        return null;
     }
-}
\ No newline at end of file
+}
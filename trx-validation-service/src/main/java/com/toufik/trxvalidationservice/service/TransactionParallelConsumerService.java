@@ -0,0 +1,49 @@
+package com.toufik.trxvalidationservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Batch listener for {@code validation.consumer.mode=parallel}. Offsets are committed here rather than through
+ * the container, up to the first incomplete record of each partition, and partitions with an incomplete record
+ * are rewound so it is polled again.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "validation.consumer.mode", havingValue = "parallel")
+public class TransactionParallelConsumerService {
+
+    @Autowired
+    private ParallelBatchProcessor batchProcessor;
+
+    @KafkaListener(topics = "transaction_generator",
+            groupId = "transaction-validator-group",
+            containerFactory = "batchKafkaListenerContainerFactory",
+            properties = {"auto.offset.reset=earliest"})
+    public void consume(List<ConsumerRecord<String, byte[]>> records, Consumer<?, ?> consumer) {
+        if (records.isEmpty()) {
+            return;
+        }
+
+        ParallelBatchProcessor.Progress progress = batchProcessor.process(records);
+
+        if (!progress.getCommitOffsets().isEmpty()) {
+            consumer.commitSync(progress.getCommitOffsets());
+        }
+        progress.getRetryOffsets().forEach(consumer::seek);
+
+        if (progress.getRetryOffsets().isEmpty()) {
+            log.info("Processed batch of {} transactions", records.size());
+        } else {
+            log.warn("Processed batch of {} transactions, redelivering from {}", records.size(),
+                    progress.getRetryOffsets());
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package com.toufik.trxvalidationservice.service;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.toufik.trxvalidationservice.config.PersistenceConfig;
+import com.toufik.trxvalidationservice.entity.TransactionEntity;
+import com.toufik.trxvalidationservice.model.PersistenceStats;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind stage for validation results. Listener threads queue entities and get a future per call. A single
+ * writer thread stores them with unordered bulk inserts, flushing when a batch is full or the flush interval has
+ * passed. Listeners wait on the future before committing offsets, so no record is acknowledged before its result
+ * is durable.
+ * <p>
+ * Failed inserts are retried with exponential backoff. Entities are keyed by transaction id, or get an id on
+ * enqueue when they have none, so a document stored by an earlier attempt, or for an earlier delivery of the same
+ * record, fails the insert with a duplicate key and counts as written. When the queue stays full for the
+ * enqueue timeout, or a write still fails after the last attempt, the future fails and the listener leaves the
+ * record uncommitted.
+ */
+@Service
+@Slf4j
+public class TransactionPersistenceQueue {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final PersistenceConfig config;
+    private final BlockingQueue<PendingWrite> queue;
+
+    private final LongAdder enqueuedCount = new LongAdder();
+    private final LongAdder writtenCount = new LongAdder();
+    private final LongAdder retryCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder flushCount = new LongAdder();
+    private final LongAdder totalFlushNanos = new LongAdder();
+    private final AtomicLong lastFlushNanos = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public TransactionPersistenceQueue(MongoTemplate mongoTemplate, PersistenceConfig config) {
+        this.mongoTemplate = mongoTemplate;
+        this.config = config;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, config.getQueueCapacity()));
+    }
+
+    @PostConstruct
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::runWriter, "validation-persistence");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Flushes what is still queued, with a single attempt per batch, and stops the writer.
+     */
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        writer.interrupt();
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushRemaining();
+        log.info("Validation persistence stopped: {}", getStats());
+    }
+
+    /**
+     * Queues an entity for the next bulk insert, waiting while the queue is full. The future completes once the
+     * entity is stored.
+     */
+    public CompletableFuture<Void> enqueue(TransactionEntity entity) {
+        return enqueueAll(List.of(entity));
+    }
+
+    /**
+     * Queues entities for the next bulk inserts. The future completes once all of them are stored, and fails if
+     * any could not be stored. If the queue stays full, the rest of the list is rejected and the future fails
+     * right away.
+     */
+    public CompletableFuture<Void> enqueueAll(List<TransactionEntity> entities) {
+        List<CompletableFuture<Void>> futures = enqueueEach(entities);
+        if (!futures.isEmpty() && futures.get(futures.size() - 1).isCompletedExceptionally()) {
+            return futures.get(futures.size() - 1);
+        }
+        return futures.size() == 1
+                ? futures.get(0)
+                : CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * As {@link #enqueueAll(List)}, with one future per entity in the order of {@code entities}, so the caller can
+     * tell which of them are stored. Entities rejected because the queue stayed full get a failed future.
+     */
+    public List<CompletableFuture<Void>> enqueueEach(List<TransactionEntity> entities) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>(entities.size());
+        for (int i = 0; i < entities.size(); i++) {
+            PendingWrite write = new PendingWrite(entities.get(i));
+            if (!offer(write)) {
+                int rejected = entities.size() - i;
+                rejectedCount.add(rejected);
+                log.warn("Persistence queue full ({} entries), rejected {} of {} transactions",
+                        queue.size(), rejected, entities.size());
+                CompletableFuture<Void> failed = CompletableFuture.failedFuture(new IllegalStateException(
+                        "Persistence queue full, rejected transaction " + write.entity.getTransactionId()));
+                while (futures.size() < entities.size()) {
+                    futures.add(failed);
+                }
+                break;
+            }
+            futures.add(write.stored);
+        }
+        return futures;
+    }
+
+    public PersistenceStats getStats() {
+        long flushes = flushCount.sum();
+        return PersistenceStats.builder()
+                .queueDepth(queue.size())
+                .queueCapacity(queue.size() + queue.remainingCapacity())
+                .enqueuedCount(enqueuedCount.sum())
+                .writtenCount(writtenCount.sum())
+                .retryCount(retryCount.sum())
+                .failedCount(failedCount.sum())
+                .rejectedCount(rejectedCount.sum())
+                .flushCount(flushes)
+                .lastFlushMillis(lastFlushNanos.get() / 1e6)
+                .averageFlushMillis(flushes > 0 ? totalFlushNanos.sum() / 1e6 / flushes : 0)
+                .maxFlushMillis(maxFlushNanos.get() / 1e6)
+                .build();
+    }
+
+    private boolean offer(PendingWrite write) {
+        if (write.entity.getId() == null) {
+            write.entity.setId(new ObjectId().toHexString());
+        }
+        try {
+            if (queue.offer(write, config.getEnqueueTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                enqueuedCount.increment();
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    private void runWriter() {
+        int batchSize = Math.max(1, config.getBatchSize());
+        List<PendingWrite> batch = new ArrayList<>(batchSize);
+
+        while (running) {
+            try {
+                PendingWrite first = queue.poll(config.getFlushIntervalMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getFlushIntervalMillis());
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingWrite next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                if (!running) {
+                    break;
+                }
+            }
+            flush(batch);
+        }
+        flush(batch);
+    }
+
+    private synchronized void flushRemaining() {
+        List<PendingWrite> batch = new ArrayList<>(Math.max(1, config.getBatchSize()));
+        while (queue.drainTo(batch, Math.max(1, config.getBatchSize())) > 0) {
+            flush(batch);
+        }
+    }
+
+    private void flush(List<PendingWrite> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        // Counted up front, like the written count, so stats are current when a listener's future completes
+        flushCount.increment();
+        long start = System.nanoTime();
+        List<PendingWrite> remaining = batch;
+        long backoffMillis = config.getInitialBackoffMillis();
+        try {
+            for (int attempt = 1; ; attempt++) {
+                RuntimeException failure = null;
+                List<PendingWrite> unstored;
+                try {
+                    unstored = insert(remaining);
+                } catch (RuntimeException e) {
+                    unstored = remaining;
+                    failure = e;
+                }
+                complete(remaining, unstored);
+                remaining = unstored;
+                if (remaining.isEmpty()) {
+                    log.debug("Stored {} validation results", batch.size());
+                    return;
+                }
+
+                int maxAttempts = running ? Math.max(1, config.getMaxAttempts()) : 1;
+                if (attempt >= maxAttempts || !backOff(backoffMillis)) {
+                    fail(remaining, failure);
+                    return;
+                }
+                retryCount.add(remaining.size());
+                log.warn("Retrying {} validation results after attempt {} failed: {}", remaining.size(), attempt,
+                        failure != null ? failure.getMessage() : "bulk write errors");
+                backoffMillis = Math.min(backoffMillis * 2, config.getMaxBackoffMillis());
+            }
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            totalFlushNanos.add(elapsed);
+            lastFlushNanos.set(elapsed);
+            maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Inserts the writes and returns those that were not stored. Duplicate keys mean an earlier attempt already
+     * stored the document.
+     */
+    private List<PendingWrite> insert(List<PendingWrite> writes) {
+        List<TransactionEntity> entities = new ArrayList<>(writes.size());
+        for (PendingWrite write : writes) {
+            entities.add(write.entity);
+        }
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TransactionEntity.class)
+                    .insert(entities)
+                    .execute();
+            return List.of();
+        } catch (BulkOperationException e) {
+            Set<Integer> failedIndexes = new HashSet<>();
+            for (BulkWriteError error : e.getErrors()) {
+                if (error.getCode() != DUPLICATE_KEY) {
+                    failedIndexes.add(error.getIndex());
+                }
+            }
+            List<PendingWrite> unstored = new ArrayList<>(failedIndexes.size());
+            for (int index : failedIndexes) {
+                unstored.add(writes.get(index));
+            }
+            return unstored;
+        }
+    }
+
+    private void complete(List<PendingWrite> attempted, List<PendingWrite> unstored) {
+        if (unstored.size() == attempted.size()) {
+            return;
+        }
+        writtenCount.add(attempted.size() - unstored.size());
+        Set<PendingWrite> failed = new HashSet<>(unstored);
+        for (PendingWrite write : attempted) {
+            if (!failed.contains(write)) {
+                write.stored.complete(null);
+            }
+        }
+    }
+
+    private void fail(List<PendingWrite> writes, RuntimeException failure) {
+        failedCount.add(writes.size());
+        log.error("Error storing {} validation results: {}", writes.size(),
+                failure != null ? failure.getMessage() : "bulk write errors", failure);
+        IllegalStateException error = new IllegalStateException(
+                "Could not store " + writes.size() + " validation results", failure);
+        for (PendingWrite write : writes) {
+            write.stored.completeExceptionally(error);
+        }
+    }
+
+    /**
+     * Returns false if the writer was interrupted by shutdown while waiting.
+     */
+    private boolean backOff(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            return false;
+        }
+    }
+
+    private static final class PendingWrite {
+        private final TransactionEntity entity;
+        private final CompletableFuture<Void> stored = new CompletableFuture<>();
+
+        private PendingWrite(TransactionEntity entity) {
+            this.entity = entity;
+        }
+    }
+}
@@ -1,12 +1,15 @@
 package com.toufik.trxvalidationservice.service;
 
-import com.toufik.trxvalidationservice.model.TransactionWithMT103Event;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 @Slf4j
@@ -16,15 +19,21 @@ public class TransactionProducerService {
     private static final String TOPIC = "transaction_alert";
 
     @Autowired
-    private KafkaTemplate<String, TransactionWithMT103Event> kafkaTemplate;
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
 
-    public void sendTransactionAlert(TransactionWithMT103Event event) {
-        String transactionId = event.getTransaction().getTransactionId();
+    /**
+     * Forwards a validated record to the alert topic with its key, value bytes and headers unchanged.
+     * The returned future completes when the broker acknowledges the record.
+     *
+     * @throws IllegalArgumentException if the record has no value or no key
+     */
+    public CompletableFuture<SendResult<String, byte[]>> sendTransactionAlert(ConsumerRecord<String, byte[]> record) {
+        String transactionId = record.key();
+        validateRecord(record);
 
         try {
-            validateEvent(event);
-            CompletableFuture<SendResult<String, TransactionWithMT103Event>> future =
-                    kafkaTemplate.send(TOPIC, transactionId, event);
+            CompletableFuture<SendResult<String, byte[]>> future = kafkaTemplate.send(
+                    new ProducerRecord<>(TOPIC, null, transactionId, record.value(), record.headers()));
             future.whenComplete((result, ex) -> {
                 if (ex == null) {
                     log.info("Transaction {} sent successfully to topic: {}",
@@ -34,21 +43,53 @@ public class TransactionProducerService {
                             transactionId, ex.getMessage());
                 }
             });
+            return future;
         } catch (Exception e) {
             log.error("Exception sending transaction {}: {}", transactionId, e.getMessage());
             throw new RuntimeException("Kafka send failure for transaction: " + transactionId, e);
         }
     }
 
-    private void validateEvent(TransactionWithMT103Event event) {
+    /**
+     * Forwards a batch of validated records and flushes them. Returns one future per record, in the order of
+     * {@code records}, that completes when the broker acknowledges the record, so the caller can tell which
+     * records are done. Records without a value or key are not sent; their future fails with an
+     * {@link IllegalArgumentException}.
+     */
+    public List<CompletableFuture<SendResult<String, byte[]>>> sendTransactionAlerts(
+            List<ConsumerRecord<String, byte[]>> records) {
+        List<CompletableFuture<SendResult<String, byte[]>>> futures = new ArrayList<>(records.size());
+        boolean sent = false;
+        for (ConsumerRecord<String, byte[]> record : records) {
+            try {
+                validateRecord(record);
+            } catch (IllegalArgumentException e) {
+                futures.add(CompletableFuture.failedFuture(e));
+                continue;
+            }
+            try {
+                futures.add(kafkaTemplate.send(
+                        new ProducerRecord<>(TOPIC, null, record.key(), record.value(), record.headers())));
+                sent = true;
+            } catch (RuntimeException e) {
+                log.error("Exception sending transaction {}: {}", record.key(), e.getMessage());
+                futures.add(CompletableFuture.failedFuture(e));
+            }
+        }
+        if (sent) {
+            kafkaTemplate.flush();
+        }
+        return futures;
+    }
+
+    private void validateRecord(ConsumerRecord<String, byte[]> record) {
 
-        if (event.getTransaction() == null) {
+        if (record.value() == null) {
             throw new IllegalArgumentException("Transaction cannot be null");
         }
 
-        if (event.getTransaction().getTransactionId() == null ||
-                event.getTransaction().getTransactionId().trim().isEmpty()) {
+        if (record.key() == null || record.key().trim().isEmpty()) {
             throw new IllegalArgumentException("Transaction ID cannot be null or empty");
         }
     }
-}
\ No newline at end of file
+}
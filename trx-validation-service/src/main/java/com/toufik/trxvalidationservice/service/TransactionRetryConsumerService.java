@@ -0,0 +1,77 @@
+package com.toufik.trxvalidationservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.listener.AcknowledgingMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Listens on the retry topics of {@link TransactionRetryService}, in every consumer mode, with one container per
+ * topic so a long delay on a later attempt never holds back records due sooner on an earlier one. A record that
+ * is not due yet is nacked with the remaining delay: records wait on a retry topic in the order they fall due, so
+ * nothing behind it is due earlier.
+ */
+@Slf4j
+@Service
+public class TransactionRetryConsumerService implements AcknowledgingMessageListener<String, byte[]>, SmartLifecycle {
+
+    private final TransactionRetryService retryService;
+    private final ConcurrentKafkaListenerContainerFactory<String, byte[]> containerFactory;
+    private final List<ConcurrentMessageListenerContainer<String, byte[]>> containers = new ArrayList<>();
+
+    public TransactionRetryConsumerService(
+            TransactionRetryService retryService,
+            @Qualifier("retryKafkaListenerContainerFactory")
+            ConcurrentKafkaListenerContainerFactory<String, byte[]> containerFactory) {
+        this.retryService = retryService;
+        this.containerFactory = containerFactory;
+    }
+
+    @Override
+    public void onMessage(ConsumerRecord<String, byte[]> record, Acknowledgment acknowledgment) {
+        long wait = TransactionRetryService.dueAt(record.headers()) - System.currentTimeMillis();
+        if (wait > 0) {
+            acknowledgment.nack(Duration.ofMillis(wait));
+            return;
+        }
+
+        log.info("Retrying transaction: {} from topic: {}, partition: {}, offset: {}",
+                record.key(), record.topic(), record.partition(), record.offset());
+        retryService.forwardOrRetry(record);
+        acknowledgment.acknowledge();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!containers.isEmpty()) {
+            return;
+        }
+        for (String topic : retryService.retryTopics()) {
+            ConcurrentMessageListenerContainer<String, byte[]> container = containerFactory.createContainer(topic);
+            container.getContainerProperties().setMessageListener(this);
+            container.setBeanName("validation-" + topic);
+            container.start();
+            containers.add(container);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        containers.forEach(ConcurrentMessageListenerContainer::stop);
+        containers.clear();
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return !containers.isEmpty();
+    }
+}
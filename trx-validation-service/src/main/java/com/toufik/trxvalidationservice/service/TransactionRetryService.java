@@ -0,0 +1,212 @@
+package com.toufik.trxvalidationservice.service;
+
+import com.toufik.trxcommon.kafka.DeadLetterReplayer;
+import com.toufik.trxvalidationservice.config.KafkaConsumerConfig;
+import com.toufik.trxvalidationservice.config.RetryConfig;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Non-blocking retries. A record whose forward or result store failed is not retried in place, which would hold
+ * back everything behind it on its partition: it is published to the next retry topic
+ * ({@code transaction_generator-retry-0}, {@code -retry-1}, ...), each read after an exponentially growing delay,
+ * or to {@code transaction_generator-dlt} once the last of its {@code validation.retry.attempts} failed, the first
+ * delivery included. A record that cannot be read
+ * at all fails with a {@link SerializationException} and goes to the dead-letter topic straight away, as the alert
+ * service does with its poison records. The listener then commits past it and carries on. Only a record that cannot
+ * be published to a retry topic either is redelivered in place.
+ * <p>
+ * Spring Kafka's retry topics only support record listeners, so every consumer mode hands its failures over here
+ * instead. The attempt count, the time the record is due and where it was first consumed travel in
+ * {@code validation-retry-*} headers, which are taken off before the record is processed again and so are never
+ * forwarded to the alert topic. Retried records may be forwarded twice (at-least-once) and are no longer in order
+ * with later records of the same key.
+ */
+@Slf4j
+@Service
+public class TransactionRetryService implements MeterBinder {
+
+    static final String HEADER_PREFIX = "validation-retry-";
+    static final String ATTEMPT_HEADER = HEADER_PREFIX + "attempt";
+    static final String DUE_HEADER = HEADER_PREFIX + "due";
+    static final String ORIGIN_HEADER = HEADER_PREFIX + "origin";
+    static final String ERROR_HEADER = HEADER_PREFIX + "error";
+
+    private static final String REPLAY_GROUP_ID = "transaction-validator-dlt-replay";
+
+    private final TransactionFilterService filterService;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final RetryConfig config;
+    private final DeadLetterReplayer replayer;
+
+    private final LongAdder retriedCount = new LongAdder();
+    private final LongAdder deadLetteredCount = new LongAdder();
+
+    public TransactionRetryService(TransactionFilterService filterService, KafkaTemplate<String, byte[]> kafkaTemplate,
+                                   RetryConfig config, ConsumerFactory<String, byte[]> consumerFactory) {
+        this.filterService = filterService;
+        this.kafkaTemplate = kafkaTemplate;
+        this.config = config;
+        this.replayer = new DeadLetterReplayer(consumerFactory, kafkaTemplate, REPLAY_GROUP_ID, List.of(HEADER_PREFIX));
+    }
+
+    public List<String> retryTopics() {
+        List<String> topics = new ArrayList<>(config.retryTopicCount());
+        for (int stage = 0; stage < config.retryTopicCount(); stage++) {
+            topics.add(KafkaConsumerConfig.retryTopic(stage));
+        }
+        return topics;
+    }
+
+    /**
+     * Validates and forwards a record of the input or a retry topic, and returns once it is forwarded and its
+     * result stored, or once it has been handed over to the next retry topic or the dead-letter topic.
+     *
+     * @throws IllegalStateException if it failed and could not be handed over either
+     */
+    public void forwardOrRetry(ConsumerRecord<String, byte[]> record) {
+        Attempt attempt = Attempt.take(record);
+        try {
+            filterService.validateAndForward(record).join();
+        } catch (RuntimeException e) {
+            try {
+                retryLater(record, attempt, unwrap(e)).join();
+            } catch (CompletionException publishFailure) {
+                throw new IllegalStateException("Failed to hand transaction " + record.key() + " over for a retry",
+                        publishFailure.getCause());
+            }
+        }
+    }
+
+    /**
+     * As {@link #forwardOrRetry(ConsumerRecord)}, without waiting. A failure is handed over on {@code executor},
+     * never on the producer thread that completed the failed forward; the returned future fails only if that
+     * fails too.
+     */
+    public CompletableFuture<Void> forwardOrRetryAsync(ConsumerRecord<String, byte[]> record, Executor executor) {
+        Attempt attempt = Attempt.take(record);
+        CompletableFuture<Void> forwarded;
+        try {
+            forwarded = filterService.validateAndForward(record);
+        } catch (RuntimeException e) {
+            forwarded = CompletableFuture.failedFuture(e);
+        }
+        return forwarded.exceptionallyComposeAsync(e -> retryLater(record, attempt, unwrap(e)), executor);
+    }
+
+    /**
+     * Re-injects up to {@code maxRecords} dead-lettered records into the input topic, or
+     * {@code validation.retry.replay-max-records} when it is 0 or less.
+     */
+    public DeadLetterReplayer.Result replayDeadLetters(int maxRecords) {
+        return replayer.replay(KafkaConsumerConfig.DEAD_LETTER_TOPIC, KafkaConsumerConfig.INPUT_TOPIC,
+                maxRecords > 0 ? maxRecords : config.getReplayMaxRecords());
+    }
+
+    /**
+     * Epoch millis before which a retry topic record must not be processed again; 0 when it has no due time.
+     */
+    public static long dueAt(Headers headers) {
+        Header due = headers.lastHeader(DUE_HEADER);
+        return due == null ? 0 : Long.parseLong(text(due));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("validation.retries", retriedCount, LongAdder::sum)
+                .description("Records handed over to a retry topic")
+                .register(registry);
+        FunctionCounter.builder("validation.dead.letters", deadLetteredCount, LongAdder::sum)
+                .description("Records published to the dead-letter topic after their last attempt")
+                .register(registry);
+    }
+
+    private CompletableFuture<Void> retryLater(ConsumerRecord<String, byte[]> record, Attempt attempt,
+                                               Throwable cause) {
+        boolean unreadable = cause instanceof SerializationException;
+        boolean deadLetter = unreadable || attempt.number() >= config.retryTopicCount();
+        String topic = deadLetter
+                ? KafkaConsumerConfig.DEAD_LETTER_TOPIC
+                : KafkaConsumerConfig.retryTopic(attempt.number());
+
+        RecordHeaders headers = new RecordHeaders();
+        for (Header header : record.headers()) {
+            headers.add(header);
+        }
+        headers.add(ATTEMPT_HEADER, bytes(String.valueOf(attempt.number() + 1)));
+        if (!deadLetter) {
+            long due = System.currentTimeMillis() + config.delayMillis(attempt.number());
+            headers.add(DUE_HEADER, bytes(String.valueOf(due)));
+        }
+        headers.add(ORIGIN_HEADER, bytes(attempt.origin()));
+        headers.add(ERROR_HEADER, bytes(cause.getClass().getName() + ": " + cause.getMessage()));
+
+        if (unreadable) {
+            log.error("Transaction {} cannot be read, publishing it to {}: {}",
+                    record.key(), topic, cause.getMessage());
+        } else if (deadLetter) {
+            log.error("Transaction {} failed its last attempt, publishing it to {}: {}",
+                    record.key(), topic, cause.getMessage());
+        } else {
+            log.warn("Transaction {} failed attempt {}, retrying it through {}: {}",
+                    record.key(), attempt.number() + 1, topic, cause.getMessage());
+        }
+        return kafkaTemplate.send(new ProducerRecord<>(topic, null, record.key(), record.value(), headers))
+                .thenRun(deadLetter ? deadLetteredCount::increment : retriedCount::increment);
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(Header header) {
+        return new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Retry topics a record has already passed through, and the input record it came from.
+     */
+    private record Attempt(int number, String origin) {
+
+        /**
+         * Reads the retry headers of the record and removes them. A record from the input topic has none; its
+         * headers may already be read-only when it was forwarded before, so they are left untouched.
+         */
+        static Attempt take(ConsumerRecord<String, byte[]> record) {
+            Headers headers = record.headers();
+            Header attempt = headers.lastHeader(ATTEMPT_HEADER);
+            if (attempt == null) {
+                return new Attempt(0, record.topic() + "-" + record.partition() + "@" + record.offset());
+            }
+            Header origin = headers.lastHeader(ORIGIN_HEADER);
+            Attempt taken = new Attempt(Integer.parseInt(text(attempt)), origin == null ? "" : text(origin));
+            for (String key : List.of(ATTEMPT_HEADER, DUE_HEADER, ORIGIN_HEADER, ERROR_HEADER)) {
+                headers.remove(key);
+            }
+            return taken;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.toufik.trxvalidationservice.service;
+
+import com.toufik.trxvalidationservice.config.ValidationRulesConfig;
+import com.toufik.trxvalidationservice.model.ValidationRuleStats;
+import com.toufik.trxvalidationservice.util.MT103Rule;
+import com.toufik.trxvalidationservice.util.MT103Tokenizer;
+import com.toufik.trxvalidationservice.util.MT103ValidationRule;
+import com.toufik.trxvalidationservice.util.MT103Validator;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs the MT103 rules as a chain that stops at the first failure, recording for each rule how often it ran, how
+ * often it failed and the time it took. The built-in rules come first in canonical order, followed by any
+ * {@link MT103ValidationRule} beans in their {@code @Order}.
+ * <p>
+ * In adaptive mode the chain is reordered periodically by the time each rule spends per message it rejects, so
+ * cheap rules that often fail run first and rules that never fail run last, cheapest first. The reported reason
+ * does not depend on the order: once a rule fails, the rules that precede it canonically but have not run yet are
+ * evaluated, and the reason of the first failing one in canonical order is returned.
+ * <p>
+ * Statistics are published to Micrometer as {@code validation.rule} timers, {@code validation.rule.failures}
+ * counters and {@code validation.rule.position} gauges, tagged with the rule name.
+ */
+@Slf4j
+@Service
+public class ValidationRuleChain implements MeterBinder {
+
+    private final ValidationRulesConfig config;
+    private final RuleEntry[] canonical;
+    private final LongAdder validationCount = new LongAdder();
+    private final LongAdder reorderCount = new LongAdder();
+
+    private volatile Ordering ordering;
+    private ScheduledExecutorService reorderScheduler;
+
+    @Autowired
+    public ValidationRuleChain(ValidationRulesConfig config, ObjectProvider<MT103ValidationRule> customRules) {
+        this(config, withCustomRules(customRules.orderedStream().toList()));
+    }
+
+    /**
+     * A chain of {@code rules}, given in canonical order.
+     */
+    public ValidationRuleChain(ValidationRulesConfig config, List<MT103ValidationRule> rules) {
+        this.config = config;
+        this.canonical = new RuleEntry[rules.size()];
+        for (int i = 0; i < canonical.length; i++) {
+            canonical[i] = new RuleEntry(rules.get(i), i);
+        }
+        this.ordering = new Ordering(canonical.clone());
+    }
+
+    @PostConstruct
+    public synchronized void start() {
+        if (!config.isAdaptive() || reorderScheduler != null) {
+            return;
+        }
+        reorderScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "validation-rule-reorder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reorderScheduler.scheduleWithFixedDelay(this::reorder,
+                config.getReorderIntervalMillis(), config.getReorderIntervalMillis(), TimeUnit.MILLISECONDS);
+        log.info("Adaptive rule ordering every {} ms", config.getReorderIntervalMillis());
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (reorderScheduler != null) {
+            reorderScheduler.shutdownNow();
+            reorderScheduler = null;
+        }
+    }
+
+    /**
+     * Returns the reason {@code content} is rejected, or null when it passes every rule.
+     */
+    public String validate(CharSequence content) {
+        if (content == null || MT103Validator.isBlank(content)) {
+            return MT103Validator.BLANK_CONTENT;
+        }
+        validationCount.increment();
+
+        MT103Tokenizer tokens = MT103Validator.tokenize(content);
+        Ordering current = ordering;
+        RuleEntry[] rules = current.rules;
+        for (int i = 0; i < rules.length; i++) {
+            String reason = rules[i].evaluate(content, tokens);
+            if (reason != null) {
+                return firstCanonicalFailure(content, tokens, current, i, reason);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Orders the rules by nanoseconds spent per rejected message; rules that never failed follow by average cost.
+     * Ties keep the canonical order. Does nothing until the chain has seen the configured number of messages.
+     */
+    public synchronized void reorder() {
+        if (validationCount.sum() < config.getMinEvaluations()) {
+            return;
+        }
+        // Scores are taken once so the comparator sees consistent values while listeners keep counting
+        RuleScore[] scores = new RuleScore[canonical.length];
+        for (int i = 0; i < canonical.length; i++) {
+            scores[i] = new RuleScore(canonical[i], canonical[i].nanosPerFailure(), canonical[i].averageNanos());
+        }
+        Arrays.sort(scores, Comparator.comparingDouble(RuleScore::nanosPerFailure)
+                .thenComparingDouble(RuleScore::averageNanos)
+                .thenComparingInt(score -> score.entry().index));
+        RuleEntry[] reordered = Arrays.stream(scores).map(RuleScore::entry).toArray(RuleEntry[]::new);
+        if (Arrays.equals(reordered, ordering.rules)) {
+            return;
+        }
+        ordering = new Ordering(reordered);
+        reorderCount.increment();
+        log.info("Validation rules reordered: {}", Arrays.stream(reordered).map(entry -> entry.name).toList());
+    }
+
+    /**
+     * Rule names in the order they currently run.
+     */
+    public List<String> getOrder() {
+        return Arrays.stream(ordering.rules).map(entry -> entry.name).toList();
+    }
+
+    /**
+     * Statistics of each rule, in the order the rules currently run.
+     */
+    public List<ValidationRuleStats> getStats() {
+        Ordering current = ordering;
+        List<ValidationRuleStats> stats = new ArrayList<>(current.rules.length);
+        for (int i = 0; i < current.rules.length; i++) {
+            RuleEntry entry = current.rules[i];
+            long evaluations = entry.evaluations.sum();
+            long failures = entry.failures.sum();
+            stats.add(ValidationRuleStats.builder()
+                    .ruleName(entry.name)
+                    .position(i)
+                    .canonicalPosition(entry.index)
+                    .evaluationCount(evaluations)
+                    .failureCount(failures)
+                    .failureRate(evaluations > 0 ? (double) failures / evaluations : 0)
+                    .averageNanos(entry.averageNanos())
+                    .totalMillis(entry.nanos.sum() / 1e6)
+                    .build());
+        }
+        return stats;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (RuleEntry entry : canonical) {
+            FunctionTimer.builder("validation.rule", entry,
+                            e -> e.evaluations.sum(), e -> e.nanos.sum(), TimeUnit.NANOSECONDS)
+                    .tag("rule", entry.name)
+                    .description("MT103 validation rule evaluations and time spent")
+                    .register(registry);
+            FunctionCounter.builder("validation.rule.failures", entry, e -> e.failures.sum())
+                    .tag("rule", entry.name)
+                    .description("Messages rejected by the MT103 validation rule")
+                    .register(registry);
+            Gauge.builder("validation.rule.position", this, chain -> chain.ordering.positions[entry.index])
+                    .tag("rule", entry.name)
+                    .description("Current position of the MT103 validation rule in the chain")
+                    .register(registry);
+        }
+        FunctionCounter.builder("validation.rule.reorders", reorderCount, LongAdder::sum)
+                .description("Times the adaptive mode changed the rule order")
+                .register(registry);
+    }
+
+    /**
+     * The rule at {@code failedAt} rejected the message. Evaluates the rules that precede it canonically but run
+     * after it in the current order, and returns the reason of the first that fails.
+     */
+    private String firstCanonicalFailure(CharSequence content, MT103Tokenizer tokens, Ordering current,
+                                         int failedAt, String reason) {
+        for (int index = 0; index < current.rules[failedAt].index; index++) {
+            if (current.positions[index] > failedAt) {
+                String earlier = canonical[index].evaluate(content, tokens);
+                if (earlier != null) {
+                    return earlier;
+                }
+            }
+        }
+        return reason;
+    }
+
+    private static List<MT103ValidationRule> withCustomRules(List<MT103ValidationRule> customRules) {
+        List<MT103ValidationRule> rules = new ArrayList<>(MT103Rule.canonicalOrder());
+        rules.addAll(customRules);
+        return rules;
+    }
+
+    private static final class RuleEntry {
+        private final MT103ValidationRule rule;
+        private final String name;
+        private final int index;
+        private final LongAdder evaluations = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+
+        private RuleEntry(MT103ValidationRule rule, int index) {
+            this.rule = rule;
+            this.name = rule.getRuleName();
+            this.index = index;
+        }
+
+        private String evaluate(CharSequence content, MT103Tokenizer tokens) {
+            long start = System.nanoTime();
+            String reason = rule.check(content, tokens);
+            nanos.add(System.nanoTime() - start);
+            evaluations.increment();
+            if (reason != null) {
+                failures.increment();
+            }
+            return reason;
+        }
+
+        private double averageNanos() {
+            long count = evaluations.sum();
+            return count > 0 ? (double) nanos.sum() / count : 0;
+        }
+
+        private double nanosPerFailure() {
+            long count = failures.sum();
+            return count > 0 ? (double) nanos.sum() / count : Double.POSITIVE_INFINITY;
+        }
+    }
+
+    private record RuleScore(RuleEntry entry, double nanosPerFailure, double averageNanos) {
+    }
+
+    /**
+     * Rules in the order they run, and the position of each rule by canonical index.
+     */
+    private static final class Ordering {
+        private final RuleEntry[] rules;
+        private final int[] positions;
+
+        private Ordering(RuleEntry[] rules) {
+            this.rules = rules;
+            this.positions = new int[rules.length];
+            for (int i = 0; i < rules.length; i++) {
+                positions[rules[i].index] = i;
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.toufik.trxvalidationservice.util;
+
+import java.util.List;
+
+/**
+ * The built-in MT103 rules, declared in canonical order: when a message breaks several of them, the reason of the
+ * first one declared is the one reported.
+ */
+public enum MT103Rule implements MT103ValidationRule {
+
+    STRUCTURE_BLOCKS {
+        @Override
+        public String check(CharSequence content, MT103Tokenizer tokens) {
+            return tokens.hasStructureBlocks() ? null : "Missing required MT103 structure blocks";
+        }
+    },
+    HEADER_BLOCK_1 {
+        @Override
+        public String check(CharSequence content, MT103Tokenizer tokens) {
+            return tokens.hasValidBlock1() ? null : "Invalid header block 1 format";
+        }
+    },
+    HEADER_BLOCK_2 {
+        @Override
+        public String check(CharSequence content, MT103Tokenizer tokens) {
+            return tokens.hasValidBlock2() ? null : "Invalid header block 2 format";
+        }
+    },
+    FIELD_20_PRESENT {
+        @Override
+        public String check(CharSequence content, MT103Tokenizer tokens) {
+            return tokens.field20() >= 0 ? null : "Missing mandatory field: :20:";
+        }
+    },
+    FIELD_23B_PRESENT {
+        @Override
+        public String check(CharSequence content, MT103Tokenizer tokens) {
+            return tokens.field23B() >= 0 ? null : "Missing mandatory field: :23B:";
+        }
+    },
+    FIELD_32A_PRESENT {
+        @Override
+        public String check(CharSequence content, MT103Tokenizer tokens) {
+            return tokens.field32A() >= 0 ? null : "Missing mandatory field: :32A:";
+        }
+    },
+    TRAILER_BLOCK_5 {
+        @Override
+        public String check(CharSequence content, MT103Tokenizer tokens) {
+            return tokens.hasValidTrailer() ? null : "Invalid trailer block 5 format";
+        }
+    },
+    DOUBLE_COLON {
+        @Override
+        public String check(CharSequence content, MT103Tokenizer tokens) {
+            return tokens.hasDoubleColon() ? "Invalid field structure: double colons found" : null;
+        }
+    },
+    SEMICOLON_SEPARATOR {
+        @Override
+        public String check(CharSequence content, MT103Tokenizer tokens) {
+            return tokens.hasSemicolonSeparator() ? "Invalid field structure: semicolon instead of colon" : null;
+        }
+    },
+    FIELD_52A_BIC {
+        @Override
+        public String check(CharSequence content, MT103Tokenizer tokens) {
+            return MT103Validator.validateBIC(content, tokens.field52A(), ":52A:");
+        }
+    },
+    FIELD_57A_BIC {
+        @Override
+        public String check(CharSequence content, MT103Tokenizer tokens) {
+            return MT103Validator.validateBIC(content, tokens.field57A(), ":57A:");
+        }
+    },
+    FIELD_32A_VALUE {
+        @Override
+        public String check(CharSequence content, MT103Tokenizer tokens) {
+            return tokens.field32A() < 0 ? null : MT103Validator.validateField32A(content, tokens.field32A());
+        }
+    };
+
+    private static final List<MT103ValidationRule> CANONICAL = List.of(values());
+
+    /**
+     * All built-in rules in canonical order.
+     */
+    public static List<MT103ValidationRule> canonicalOrder() {
+        return CANONICAL;
+    }
+
+    @Override
+    public String getRuleName() {
+        return name();
+    }
+}
@@ -0,0 +1,384 @@
+package com.toufik.trxvalidationservice.util;
+
+import com.toufik.trxcommon.model.MT103FieldIndex;
+
+import java.util.Arrays;
+
+/**
+ * Single pass over an MT103 message that records the block and tag offsets {@link MT103Validator} checks.
+ * <p>
+ * Block checks see the message with regex whitespace ({@code [ \t\n\x0B\f\r]}) skipped, the way the validator
+ * historically compared {@code content.replaceAll("\\s", "")}; tag and line checks see the raw text. Header and
+ * trailer blocks are matched by a bounded look-ahead from the offset where their "{n:" opener was seen. Tags that
+ * open a line are recorded too, so the same pass yields the {@link MT103FieldIndex} forwarded with valid messages.
+ * <p>
+ * Instances are reusable and not thread-safe; {@link #tokenize(CharSequence)} resets all state and allocates nothing.
+ */
+public final class MT103Tokenizer {
+
+    private static final int NOT_FOUND = -1;
+
+    private boolean startsWithBlock1;
+    private int blocks;
+    private char lastClean;
+    private boolean lineTerminator;
+    private boolean block1Valid;
+    private boolean block2Valid;
+    private boolean trailerValid;
+    private int field20;
+    private int field23B;
+    private int field32A;
+    private int field52A;
+    private int field57A;
+    private boolean doubleColon;
+    private boolean semicolonSeparator;
+    private int[] fieldStarts = new int[32];
+    private int fieldCount;
+    private CharSequence content;
+
+    public MT103Tokenizer tokenize(CharSequence content) {
+        reset();
+        this.content = content;
+        int length = content.length();
+        int cleanCount = 0;
+        char clean1 = 0;
+        char clean2 = 0;
+        char previous = 0;
+        int lastBlock5 = NOT_FOUND;
+
+        boolean lineStarted = false;
+        boolean semicolonLine = false;
+        boolean pendingBreak = false;
+
+        for (int i = 0; i < length; i++) {
+            char c = content.charAt(i);
+
+            if (c == '\n') {
+                semicolonSeparator |= semicolonLine;
+                lineStarted = false;
+                semicolonLine = false;
+                pendingBreak = false;
+            } else if (c > ' ') {
+                if (!lineStarted) {
+                    lineStarted = true;
+                    semicolonLine = startsWithSemicolonTag(content, i);
+                } else if (pendingBreak || isLineTerminator(c)) {
+                    // '.' in the old line pattern never crossed a line terminator
+                    semicolonLine = false;
+                }
+            } else if (c == '\r' && semicolonLine) {
+                pendingBreak = true;
+            }
+
+            if (c == ':') {
+                if (previous == ':') {
+                    doubleColon = true;
+                }
+                recordTag(content, i);
+                if ((i == 0 || previous == '\n') && MT103FieldIndex.tagLength(content, i) > 0) {
+                    recordFieldStart(i);
+                }
+            }
+            previous = c;
+
+            if (isRegexWhitespace(c)) {
+                continue;
+            }
+            if (isLineTerminator(c)) {
+                lineTerminator = true;
+            }
+            if (c == ':' && clean2 == '{' && clean1 >= '1' && clean1 <= '5') {
+                int block = clean1 - '0';
+                blocks |= 1 << block;
+                if (cleanCount == 2 && block == 1) {
+                    startsWithBlock1 = true;
+                }
+                if (block == 1 && !block1Valid) {
+                    block1Valid = matchesHeader(content, i + 1, "F01", false);
+                } else if (block == 2 && !block2Valid) {
+                    block2Valid = matchesHeader(content, i + 1, "I103", true);
+                } else if (block == 5) {
+                    lastBlock5 = i + 1;
+                }
+            }
+            clean2 = clean1;
+            clean1 = c;
+            lastClean = c;
+            cleanCount++;
+        }
+        semicolonSeparator |= semicolonLine;
+
+        // The trailer must end the message, so only the last {5: opener can start it
+        trailerValid = lastBlock5 != NOT_FOUND && matchesTrailer(content, lastBlock5);
+        return this;
+    }
+
+    /**
+     * The message starts with {1:, contains {2: to {5: and ends with a closing brace.
+     */
+    public boolean hasStructureBlocks() {
+        return startsWithBlock1 && (blocks & 0b111100) == 0b111100 && lastClean == '}';
+    }
+
+    /**
+     * Some {1: block reads "{1:F01" followed by an 11-letter LT address, a digit and '}'.
+     */
+    public boolean hasValidBlock1() {
+        return block1Valid && !lineTerminator;
+    }
+
+    /**
+     * Some {2: block reads "{2:I103" followed by an 11-letter LT address, a digit, a priority letter and '}'.
+     */
+    public boolean hasValidBlock2() {
+        return block2Valid && !lineTerminator;
+    }
+
+    /**
+     * The message ends with "{5:{MAC:hex}{CHK:hex}}".
+     */
+    public boolean hasValidTrailer() {
+        return trailerValid && !lineTerminator;
+    }
+
+    public boolean hasDoubleColon() {
+        return doubleColon;
+    }
+
+    /**
+     * Some line, once trimmed, opens with a tag followed by ';' instead of ':'.
+     */
+    public boolean hasSemicolonSeparator() {
+        return semicolonSeparator;
+    }
+
+    /**
+     * Offset of the first ":20:" tag, or -1.
+     */
+    public int field20() {
+        return field20;
+    }
+
+    public int field23B() {
+        return field23B;
+    }
+
+    public int field32A() {
+        return field32A;
+    }
+
+    public int field52A() {
+        return field52A;
+    }
+
+    public int field57A() {
+        return field57A;
+    }
+
+    /**
+     * True if {@code content} is the message this tokenizer last tokenized.
+     */
+    public boolean hasTokenized(CharSequence content) {
+        return this.content == content;
+    }
+
+    /**
+     * Tag, offset and length of each field that opens a line of the last tokenized message.
+     */
+    public MT103FieldIndex fieldIndex() {
+        return content == null ? MT103FieldIndex.empty() : MT103FieldIndex.of(content, fieldStarts, fieldCount);
+    }
+
+    private void recordFieldStart(int index) {
+        if (fieldCount == fieldStarts.length) {
+            fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+        }
+        fieldStarts[fieldCount++] = index;
+    }
+
+    private void reset() {
+        startsWithBlock1 = false;
+        blocks = 0;
+        lastClean = 0;
+        lineTerminator = false;
+        block1Valid = false;
+        block2Valid = false;
+        trailerValid = false;
+        field20 = NOT_FOUND;
+        field23B = NOT_FOUND;
+        field32A = NOT_FOUND;
+        field52A = NOT_FOUND;
+        field57A = NOT_FOUND;
+        doubleColon = false;
+        semicolonSeparator = false;
+        fieldCount = 0;
+        content = null;
+    }
+
+    private void recordTag(CharSequence content, int index) {
+        if (index + 1 >= content.length()) {
+            return;
+        }
+        switch (content.charAt(index + 1)) {
+            case '2' -> {
+                if (field20 == NOT_FOUND && startsWith(content, ":20:", index)) {
+                    field20 = index;
+                } else if (field23B == NOT_FOUND && startsWith(content, ":23B:", index)) {
+                    field23B = index;
+                }
+            }
+            case '3' -> {
+                if (field32A == NOT_FOUND && startsWith(content, ":32A:", index)) {
+                    field32A = index;
+                }
+            }
+            case '5' -> {
+                if (field52A == NOT_FOUND && startsWith(content, ":52A:", index)) {
+                    field52A = index;
+                } else if (field57A == NOT_FOUND && startsWith(content, ":57A:", index)) {
+                    field57A = index;
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * {@code :nn;} or {@code :nnX;} at {@code index}.
+     */
+    private static boolean startsWithSemicolonTag(CharSequence content, int index) {
+        int length = content.length();
+        if (index + 3 >= length || content.charAt(index) != ':'
+                || !isDigit(content.charAt(index + 1)) || !isDigit(content.charAt(index + 2))) {
+            return false;
+        }
+        char next = content.charAt(index + 3);
+        if (next == ';') {
+            return true;
+        }
+        return isUpper(next) && index + 4 < length && content.charAt(index + 4) == ';';
+    }
+
+    /**
+     * After {n:, {@code prefix} then 11 letters, a digit, an optional letter and '}', ignoring whitespace.
+     */
+    private static boolean matchesHeader(CharSequence content, int from, String prefix, boolean priority) {
+        int i = from;
+        for (int k = 0; k < prefix.length(); k++) {
+            i = nextClean(content, i);
+            if (i < 0 || content.charAt(i) != prefix.charAt(k)) {
+                return false;
+            }
+            i++;
+        }
+        for (int k = 0; k < 11; k++) {
+            i = nextClean(content, i);
+            if (i < 0 || !isUpper(content.charAt(i))) {
+                return false;
+            }
+            i++;
+        }
+        i = nextClean(content, i);
+        if (i < 0 || !isDigit(content.charAt(i))) {
+            return false;
+        }
+        i = nextClean(content, i + 1);
+        if (priority) {
+            if (i < 0 || !isUpper(content.charAt(i))) {
+                return false;
+            }
+            i = nextClean(content, i + 1);
+        }
+        return i >= 0 && content.charAt(i) == '}';
+    }
+
+    /**
+     * After the last {5:, exactly "{MAC:hex}{CHK:hex}}" up to the end, ignoring whitespace.
+     */
+    private static boolean matchesTrailer(CharSequence content, int from) {
+        int i = expect(content, from, "{MAC:");
+        i = expectHex(content, i);
+        i = expect(content, i, "}{CHK:");
+        i = expectHex(content, i);
+        i = expect(content, i, "}}");
+        return i >= 0 && nextClean(content, i) < 0;
+    }
+
+    private static int expect(CharSequence content, int from, String expected) {
+        int i = from;
+        for (int k = 0; k < expected.length() && i >= 0; k++) {
+            i = nextClean(content, i);
+            if (i < 0 || content.charAt(i) != expected.charAt(k)) {
+                return NOT_FOUND;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * One or more upper-case hex digits; returns the offset after them.
+     */
+    private static int expectHex(CharSequence content, int from) {
+        if (from < 0) {
+            return NOT_FOUND;
+        }
+        int i = nextClean(content, from);
+        if (i < 0 || !isHex(content.charAt(i))) {
+            return NOT_FOUND;
+        }
+        int end = i + 1;
+        for (i = nextClean(content, end); i >= 0 && isHex(content.charAt(i)); i = nextClean(content, end)) {
+            end = i + 1;
+        }
+        return end;
+    }
+
+    /**
+     * Offset of the next character at or after {@code from} that is not regex whitespace, or -1.
+     */
+    private static int nextClean(CharSequence content, int from) {
+        for (int i = from; i < content.length(); i++) {
+            if (!isRegexWhitespace(content.charAt(i))) {
+                return i;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    static boolean startsWith(CharSequence content, String prefix, int index) {
+        if (index + prefix.length() > content.length()) {
+            return false;
+        }
+        for (int k = 0; k < prefix.length(); k++) {
+            if (content.charAt(index + k) != prefix.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static boolean isRegexWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * Line terminators that survive whitespace removal; any of them stops '.' in the old block patterns.
+     */
+    private static boolean isLineTerminator(char c) {
+        return c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    static boolean isUpper(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+
+    private static boolean isHex(char c) {
+        return isDigit(c) || (c >= 'A' && c <= 'F');
+    }
+}
@@ -0,0 +1,17 @@
+package com.toufik.trxvalidationservice.util;
+
+/**
+ * One structural check of an MT103 message, run on the offsets recorded by {@link MT103Tokenizer}.
+ * <p>
+ * Rules may be evaluated in any order, so a rule must not assume that another one passed: when the part it checks
+ * is missing it passes and leaves the report to the rule that checks for it.
+ */
+public interface MT103ValidationRule {
+
+    /**
+     * Returns the reason {@code content} is rejected, or null when it passes this rule.
+     */
+    String check(CharSequence content, MT103Tokenizer tokens);
+
+    String getRuleName();
+}
@@ -0,0 +1,215 @@
+package com.toufik.trxvalidationservice.util;
+
+import com.toufik.trxcommon.model.MT103FieldIndex;
+
+import static com.toufik.trxvalidationservice.util.MT103Tokenizer.isDigit;
+import static com.toufik.trxvalidationservice.util.MT103Tokenizer.isUpper;
+
+/**
+ * Structural MT103 validation on the offsets recorded by {@link MT103Tokenizer}. Field checks read the message
+ * in place between those offsets; only failure reasons that quote message content allocate. Any
+ * {@link CharSequence} is accepted, so content can be checked where it lies in a record buffer.
+ */
+public final class MT103Validator {
+
+    /**
+     * Reason reported for null or blank content, which is rejected before any rule runs.
+     */
+    public static final String BLANK_CONTENT = "Content is null or blank";
+
+    private static final ThreadLocal<MT103Tokenizer> TOKENIZERS = ThreadLocal.withInitial(MT103Tokenizer::new);
+    private static final MT103Rule[] RULES = MT103Rule.values();
+
+    private MT103Validator() {
+    }
+
+    /**
+     * Returns the reason {@code content} is rejected, or null when it is a structurally valid MT103. The
+     * {@link MT103Rule built-in rules} run in canonical order.
+     */
+    public static String validate(CharSequence content) {
+        if (content == null || isBlank(content)) {
+            return BLANK_CONTENT;
+        }
+
+        MT103Tokenizer tokens = tokenize(content);
+        for (MT103Rule rule : RULES) {
+            String reason = rule.check(content, tokens);
+            if (reason != null) {
+                return reason;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Tokenizes {@code content} with this thread's tokenizer, which stays valid until the thread's next call.
+     */
+    public static MT103Tokenizer tokenize(CharSequence content) {
+        return TOKENIZERS.get().tokenize(content);
+    }
+
+    /**
+     * The field index of {@code content}, reusing the offsets recorded when this thread last tokenized it, so a
+     * message that was just validated is not walked again.
+     */
+    public static MT103FieldIndex fieldIndex(CharSequence content) {
+        MT103Tokenizer tokens = TOKENIZERS.get();
+        if (!tokens.hasTokenized(content)) {
+            tokens.tokenize(content);
+        }
+        return tokens.fieldIndex();
+    }
+
+    /**
+     * The first line of the field, when it is at least 8 characters long, must be an 8 or 11 character BIC.
+     */
+    static String validateBIC(CharSequence content, int index, String field) {
+        if (index < 0) {
+            return null;
+        }
+
+        int start = index + field.length();
+        int nextField = indexOfNextField(content, start);
+        int end = nextField > start ? nextField : content.length();
+        int from = skipLeading(content, start, end);
+        int to = skipTrailing(content, from, end);
+
+        int lineEnd = from;
+        while (lineEnd < to && content.charAt(lineEnd) != '\n') {
+            lineEnd++;
+        }
+        lineEnd = skipTrailing(content, from, lineEnd);
+
+        int length = lineEnd - from;
+        if (length < 8) {
+            return null;
+        }
+        if (length > 11) {
+            return "Invalid BIC in field " + field + ": BIC length invalid: " + content.subSequence(from, lineEnd);
+        }
+        if (!isBIC(content, from, length)) {
+            return "Invalid BIC in field " + field + ": BIC format invalid: " + content.subSequence(from, lineEnd);
+        }
+        return null;
+    }
+
+    private static boolean isBIC(CharSequence content, int from, int length) {
+        if (length != 8 && length != 11) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = content.charAt(from + i);
+            if (!isUpper(c) && (i < 6 || !isDigit(c))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Value date (YYMMDD) followed by currency and amount; the field runs to the next tag or the end of the message.
+     */
+    static String validateField32A(CharSequence content, int index) {
+        int from = skipLeading(content, index + 5, content.length());
+        int to = skipTrailing(content, from, content.length());
+        int nextField = indexOfNextField(content, from);
+        int end = nextField > from ? nextField : to;
+
+        if (end - from < 6) {
+            return "Date field too short in :32A:";
+        }
+        for (int i = from; i < from + 6; i++) {
+            if (!isDigit(content.charAt(i))) {
+                return "Invalid date format in :32A:";
+            }
+        }
+        int month = twoDigits(content, from + 2);
+        int day = twoDigits(content, from + 4);
+        if (month < 1 || month > 12 || day < 1 || day > 31) {
+            return "Invalid date values in :32A:";
+        }
+
+        if (end - from <= 9) {
+            return "Amount field too short in :32A:";
+        }
+        int amountFrom = skipLeading(content, from + 9, end);
+        int amountTo = skipTrailing(content, amountFrom, end);
+        if (amountFrom == amountTo) {
+            return "Empty amount in :32A:";
+        }
+        if (!isAmount(content, amountFrom, amountTo)) {
+            return "Invalid amount format: " + content.subSequence(amountFrom, amountTo);
+        }
+        return null;
+    }
+
+    /**
+     * Digits with an optional ',' or '.' and one or two decimals. Characters other than digits, separators and
+     * '-' are ignored, as the amount has always been matched after stripping them.
+     */
+    private static boolean isAmount(CharSequence content, int from, int to) {
+        int integerDigits = 0;
+        int decimals = -1;
+        for (int i = from; i < to; i++) {
+            char c = content.charAt(i);
+            if (isDigit(c)) {
+                if (decimals < 0) {
+                    integerDigits++;
+                } else if (++decimals > 2) {
+                    return false;
+                }
+            } else if (c == ',' || c == '.') {
+                if (integerDigits == 0 || decimals >= 0) {
+                    return false;
+                }
+                decimals = 0;
+            } else if (c == '-') {
+                return false;
+            }
+        }
+        return integerDigits > 0 && decimals != 0;
+    }
+
+    /**
+     * Offset of the next "\n:" at or after {@code from}, or -1.
+     */
+    private static int indexOfNextField(CharSequence content, int from) {
+        for (int i = from; i < content.length() - 1; i++) {
+            if (content.charAt(i) == '\n' && content.charAt(i + 1) == ':') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public static boolean isBlank(CharSequence content) {
+        for (int i = 0; i < content.length(); i++) {
+            if (!Character.isWhitespace(content.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int twoDigits(CharSequence content, int index) {
+        return (content.charAt(index) - '0') * 10 + content.charAt(index + 1) - '0';
+    }
+
+    /**
+     * Offsets as {@link String#trim()} would leave them: characters up to U+0020 are skipped.
+     */
+    private static int skipLeading(CharSequence content, int from, int to) {
+        while (from < to && content.charAt(from) <= ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    private static int skipTrailing(CharSequence content, int from, int to) {
+        while (to > from && content.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        return to;
+    }
+}
@@ -0,0 +1,41 @@
+package com.toufik.trxvalidationservice.util;
+
+import com.toufik.trxcommon.model.Transaction;
+import com.toufik.trxvalidationservice.entity.TransactionEntity;
+
+import java.time.LocalDateTime;
+
+/**
+ * Builds the stored copy of a consumed transaction together with its validation outcome. The copy is keyed by
+ * transaction id, so storing a transaction that is processed again does not add a second document.
+ */
+public final class TransactionMapper {
+
+    private TransactionMapper() {
+    }
+
+    public static TransactionEntity toEntity(Transaction transaction, boolean isValid, String validationReason,
+                                             LocalDateTime processedAt) {
+        TransactionEntity entity = new TransactionEntity();
+        entity.setId(transaction.getTransactionId());
+        entity.setTransactionId(transaction.getTransactionId());
+        entity.setFromAccount(transaction.getFromAccount());
+        entity.setToAccount(transaction.getToAccount());
+        entity.setAmount(transaction.getAmount());
+        entity.setCurrency(transaction.getCurrency());
+        entity.setFromBankSwift(transaction.getFromBankSwift());
+        entity.setToBankSwift(transaction.getToBankSwift());
+        entity.setFromBankName(transaction.getFromBankName());
+        entity.setToBankName(transaction.getToBankName());
+        entity.setTimestamp(transaction.getTimestamp());
+        entity.setStatus(transaction.getStatus());
+        entity.setFromIBAN(transaction.getFromIBAN());
+        entity.setToIBAN(transaction.getToIBAN());
+        entity.setFromCountryCode(transaction.getFromCountryCode());
+        entity.setToCountryCode(transaction.getToCountryCode());
+        entity.setValid(isValid);
+        entity.setValidationReason(validationReason);
+        entity.setProcessedAt(processedAt);
+        return entity;
+    }
+}
@@ -0,0 +1,139 @@
+package com.toufik.trxvalidationservice.service;
+
+import com.toufik.trxvalidationservice.config.ListenerConfig;
+import com.toufik.trxvalidationservice.config.RetryConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ParallelBatchProcessorTest {
+
+    private static final TopicPartition PARTITION_0 = new TopicPartition("transaction_generator", 0);
+    private static final TopicPartition PARTITION_1 = new TopicPartition("transaction_generator", 1);
+
+    @Mock
+    private TransactionFilterService filterService;
+
+    @Mock
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    @Mock
+    private ConsumerFactory<String, byte[]> consumerFactory;
+
+    private ParallelBatchProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        ListenerConfig config = new ListenerConfig();
+        config.setParallelism(4);
+        TransactionRetryService retryService =
+                new TransactionRetryService(filterService, kafkaTemplate, new RetryConfig(), consumerFactory);
+        processor = new ParallelBatchProcessor(retryService, config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        processor.shutdown();
+    }
+
+    @Test
+    void testProcess_CommitsEveryPartitionWhenAllComplete() {
+        List<ConsumerRecord<String, byte[]>> records = List.of(
+                record(0, 10, "TXN-1"), record(0, 11, "TXN-2"), record(1, 5, "TXN-3"), record(1, 6, null));
+        when(filterService.validateAndForward(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        ParallelBatchProcessor.Progress progress = processor.process(records);
+
+        assertEquals(Map.of(PARTITION_0, new OffsetAndMetadata(12), PARTITION_1, new OffsetAndMetadata(7)),
+                progress.getCommitOffsets());
+        assertTrue(progress.getRetryOffsets().isEmpty());
+        verify(filterService, times(4)).validateAndForward(any());
+    }
+
+    @Test
+    void testProcess_CommitsUpToFirstIncompleteRecord() {
+        ConsumerRecord<String, byte[]> failed = record(0, 11, "TXN-2");
+        ConsumerRecord<String, byte[]> sameKeyAfterFailure = record(0, 13, "TXN-2");
+        List<ConsumerRecord<String, byte[]>> records = List.of(
+                record(0, 10, "TXN-1"), failed, record(0, 12, "TXN-3"), sameKeyAfterFailure, record(1, 5, "TXN-4"));
+        when(filterService.validateAndForward(any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(filterService.validateAndForward(failed))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Broker unavailable")));
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Broker unavailable")));
+
+        ParallelBatchProcessor.Progress progress = processor.process(records);
+
+        assertEquals(Map.of(PARTITION_0, new OffsetAndMetadata(11), PARTITION_1, new OffsetAndMetadata(6)),
+                progress.getCommitOffsets());
+        assertEquals(Map.of(PARTITION_0, 11L), progress.getRetryOffsets());
+        verify(filterService, never()).validateAndForward(sameKeyAfterFailure);
+    }
+
+    @Test
+    void testProcess_HandsFailedRecordToRetryTopicAndMovesOn() {
+        ConsumerRecord<String, byte[]> failed = record(0, 11, "TXN-2");
+        ConsumerRecord<String, byte[]> sameKeyAfterFailure = record(0, 12, "TXN-2");
+        List<ConsumerRecord<String, byte[]>> records = List.of(record(0, 10, "TXN-1"), failed, sameKeyAfterFailure);
+        when(filterService.validateAndForward(any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(filterService.validateAndForward(failed))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Mongo unavailable")));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+        ParallelBatchProcessor.Progress progress = processor.process(records);
+
+        assertEquals(Map.of(PARTITION_0, new OffsetAndMetadata(13)), progress.getCommitOffsets());
+        assertTrue(progress.getRetryOffsets().isEmpty());
+        verify(kafkaTemplate).send(argThat((ProducerRecord<String, byte[]> sent) ->
+                sent.topic().equals("transaction_generator-retry-0") && sent.key().equals("TXN-2")));
+        verify(filterService).validateAndForward(sameKeyAfterFailure);
+    }
+
+    @Test
+    void testProcess_KeepsOrderWithinKey() throws Exception {
+        ConsumerRecord<String, byte[]> first = record(0, 10, "TXN-1");
+        ConsumerRecord<String, byte[]> second = record(0, 11, "TXN-1");
+        ConsumerRecord<String, byte[]> otherKey = record(0, 12, "TXN-2");
+        CompletableFuture<Void> firstForward = new CompletableFuture<>();
+        when(filterService.validateAndForward(first)).thenReturn(firstForward);
+        when(filterService.validateAndForward(second)).thenReturn(CompletableFuture.completedFuture(null));
+        when(filterService.validateAndForward(otherKey)).thenReturn(CompletableFuture.completedFuture(null));
+
+        CompletableFuture<ParallelBatchProcessor.Progress> result =
+                CompletableFuture.supplyAsync(() -> processor.process(List.of(first, second, otherKey)));
+
+        verify(filterService, timeout(5_000)).validateAndForward(otherKey);
+        verify(filterService, never()).validateAndForward(second);
+        assertFalse(result.isDone());
+
+        firstForward.complete(null);
+
+        ParallelBatchProcessor.Progress progress = result.get(5, TimeUnit.SECONDS);
+        verify(filterService).validateAndForward(second);
+        assertEquals(Map.of(PARTITION_0, new OffsetAndMetadata(13)), progress.getCommitOffsets());
+    }
+
+    private static ConsumerRecord<String, byte[]> record(int partition, long offset, String key) {
+        return new ConsumerRecord<>("transaction_generator", partition, offset, key, new byte[0]);
+    }
+}
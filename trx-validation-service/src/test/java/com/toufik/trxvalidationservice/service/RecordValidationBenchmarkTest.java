@@ -0,0 +1,121 @@
+package com.toufik.trxvalidationservice.service;
+
+import com.toufik.trxcommon.kafka.MT103ContentLocator;
+import com.toufik.trxcommon.kafka.TransactionEventDeserializer;
+import com.toufik.trxcommon.kafka.TransactionEventSerializer;
+import com.toufik.trxcommon.model.Transaction;
+import com.toufik.trxcommon.model.TransactionWithMT103Event;
+import com.toufik.trxvalidationservice.util.MT103Validator;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Per-record cost of validating by binding the whole event and re-serializing it for the alert topic, against
+ * locating mt103Content in the record bytes and forwarding them as they are.
+ * Run with {@code mvn test -pl trx-validation-service -am -Dtest=RecordValidationBenchmarkTest -Dbenchmark=true
+ * -Dsurefire.failIfNoSpecifiedTests=false}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class RecordValidationBenchmarkTest {
+
+    private static final int ITERATIONS = 500_000;
+
+    private static final String MT103 = "{1:F01COBADEFFXXX0}{2:I103UNCRITMMXXX0N}{3:{108:cd6d508c-5049-4a}}\n" +
+            "{4:\n" +
+            ":20:cd6d508c-5049-4a\n" +
+            ":23B:CRED\n" +
+            ":32A:250622EUR38329,19\n" +
+            ":33B:EUR38329,19\n" +
+            ":71A:SHA\n" +
+            ":50K:/DE89370400440532013000\n" +
+            "Commerzbank AG\n" +
+            "456 Business Ave\n" +
+            "Frankfurt, Germany\n" +
+            ":52A:COBADEFF\n" +
+            ":53B:/COBADEFF\n" +
+            ":56A:UNCRITMM XXX\n" +
+            ":57A:UNCRITMM\n" +
+            ":59:/IT60X0542811101000000123456\n" +
+            "UniCredit Bank AG\n" +
+            "456 Business Ave\n" +
+            "Milan, Italy\n" +
+            ":70:Payment for services - TXN ID: cd6d508c - Cross-border transfer\n" +
+            ":72:/INS/COBADEFF\n" +
+            "}\n" +
+            "{5:{MAC:9A90B885}{CHK:E065669BF6C5}}";
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    void compareValidationPaths() {
+        TransactionWithMT103Event event = TransactionWithMT103Event.of(Transaction.builder()
+                .transactionId("cd6d508c-5049-4a")
+                .fromAccount("DE89370400440532013000")
+                .toAccount("IT60X0542811101000000123456")
+                .amount(new BigDecimal("38329.19"))
+                .currency("EUR")
+                .fromBankSwift("COBADEFF")
+                .toBankSwift("UNCRITMM")
+                .fromBankName("Commerzbank AG")
+                .toBankName("UniCredit Bank AG")
+                .timestamp(LocalDateTime.of(2025, 6, 22, 10, 30))
+                .status("PENDING")
+                .fromIBAN("DE89370400440532013000")
+                .toIBAN("IT60X0542811101000000123456")
+                .fromCountryCode("DE")
+                .toCountryCode("IT")
+                .build(), MT103);
+
+        TransactionEventDeserializer deserializer = new TransactionEventDeserializer();
+        for (String format : new String[]{"json", "binary"}) {
+            TransactionEventSerializer serializer = TransactionEventSerializer.forFormat(format);
+            RecordHeaders headers = new RecordHeaders();
+            byte[] record = serializer.serialize("transaction_generator", headers, event);
+
+            double[] full = measure(format + ": bind + validate + serialize", headers, record, (h, data) -> {
+                TransactionWithMT103Event bound = deserializer.deserialize("transaction_generator", h, data);
+                MT103Validator.validate(bound.getMt103Content());
+                return serializer.serialize("transaction_alert", new RecordHeaders(), bound);
+            });
+            double[] fast = measure(format + ": locate + validate", headers, record, (h, data) -> {
+                MT103Validator.validate(MT103ContentLocator.locate(h, data));
+                return data;
+            });
+
+            assertTrue(fast[0] < full[0]);
+            assertTrue(fast[1] < full[1]);
+        }
+    }
+
+    private double[] measure(String name, RecordHeaders headers, byte[] record,
+                             BiFunction<RecordHeaders, byte[], byte[]> path) {
+        long sink = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += path.apply(headers, record).length;
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += path.apply(headers, record).length;
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        assertNotEquals(0, sink);
+
+        double[] result = {elapsed / (double) ITERATIONS, allocated / (double) ITERATIONS};
+        System.out.printf("%-40s %8.1f ns/record %8.1f B/record%n", name, result[0], result[1]);
+        return result;
+    }
+}
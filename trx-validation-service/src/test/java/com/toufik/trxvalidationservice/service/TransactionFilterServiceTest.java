@@ -1,13 +1,37 @@
 package com.toufik.trxvalidationservice.service;
 
-import com.toufik.trxvalidationservice.model.Transaction;
-import com.toufik.trxvalidationservice.model.TransactionWithMT103Event;
+import com.toufik.trxcommon.kafka.TransactionEventSerializer;
+import com.toufik.trxcommon.model.MT103FieldIndex;
+import com.toufik.trxcommon.model.Transaction;
+import com.toufik.trxcommon.model.TransactionWithMT103Event;
+import com.toufik.trxvalidationservice.config.ValidationRulesConfig;
+import com.toufik.trxvalidationservice.entity.TransactionEntity;
+import com.toufik.trxvalidationservice.util.MT103Rule;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -17,41 +41,191 @@ class TransactionFilterServiceTest {
     @Mock
     private TransactionProducerService producerService;
 
+    @Mock
+    private TransactionPersistenceQueue persistenceQueue;
+
+    @Spy
+    private ValidationRuleChain ruleChain =
+            new ValidationRuleChain(new ValidationRulesConfig(), MT103Rule.canonicalOrder());
+
     @InjectMocks
     private TransactionFilterService filterService;
 
     @Test
     void shouldNotSendAlert_WhenContentIsNull() {
 
-        TransactionWithMT103Event event = createEvent(null);
-        filterService.process(event);
+        ConsumerRecord<String, byte[]> record = createRecord(null, "json");
+        filterService.validateAndForward(record).join();
         verify(producerService, never()).sendTransactionAlert(any());
     }
 
     @Test
     void shouldNotSendAlert_WhenContentIsEmpty() {
 
-        TransactionWithMT103Event event = createEvent("");
-        filterService.process(event);
+        ConsumerRecord<String, byte[]> record = createRecord("", "json");
+        filterService.validateAndForward(record).join();
         verify(producerService, never()).sendTransactionAlert(any());
     }
 
     @Test
     void shouldNotSendAlert_WhenContentIsInvalid() {
 
-        TransactionWithMT103Event event = createEvent("invalid content");
-        filterService.process(event);
+        ConsumerRecord<String, byte[]> record = createRecord("invalid content", "binary");
+        filterService.validateAndForward(record).join();
         verify(producerService, never()).sendTransactionAlert(any());
     }
 
     @Test
     void shouldSendAlert_WhenContentIsValid() {
+        when(producerService.sendTransactionAlert(any())).thenReturn(CompletableFuture.completedFuture(null));
 
         String validContent = createMinimalValidMT103();
-        TransactionWithMT103Event event = createEvent(validContent);
-        filterService.process(event);
+        for (String format : new String[]{"json", "binary"}) {
+            ConsumerRecord<String, byte[]> record = createRecord(validContent, format);
+            filterService.validateAndForward(record).join();
 
-        verify(producerService, times(1)).sendTransactionAlert(event);
+            verify(producerService, times(1)).sendTransactionAlert(record);
+        }
+        verifyNoInteractions(persistenceQueue);
+    }
+
+    @Test
+    void shouldAttachFieldIndex_WhenForwardingValidRecord() {
+        ConsumerRecord<String, byte[]> valid = createRecord(createMinimalValidMT103(), "binary");
+        ConsumerRecord<String, byte[]> invalid = createRecord("invalid content", "json");
+
+        filterService.processBatch(List.of(valid, invalid));
+        filterService.processBatch(List.of(valid));
+
+        assertEquals(2, valid.headers().toArray().length, "One index header next to the content type");
+        MT103FieldIndex index = MT103FieldIndex.decode(valid.headers().lastHeader(MT103FieldIndex.HEADER).value());
+        assertEquals(MT103FieldIndex.scan(createMinimalValidMT103()).toString(), index.toString());
+        assertNull(invalid.headers().lastHeader(MT103FieldIndex.HEADER));
+    }
+
+    @Test
+    void shouldPersistResult_WhenPersistenceIsEnabled() {
+        ReflectionTestUtils.setField(filterService, "persistenceEnabled", true);
+        when(persistenceQueue.enqueue(any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(producerService.sendTransactionAlert(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        filterService.validateAndForward(createRecord(createMinimalValidMT103(), "binary")).join();
+        filterService.validateAndForward(createRecord("invalid content", "json")).join();
+
+        verify(persistenceQueue).enqueue(argThat((TransactionEntity entity) ->
+                entity.isValid() && "Valid".equals(entity.getValidationReason())
+                        && "TXN-123".equals(entity.getTransactionId())));
+        verify(persistenceQueue).enqueue(argThat((TransactionEntity entity) ->
+                !entity.isValid() && "Missing required MT103 structure blocks".equals(entity.getValidationReason())));
+    }
+
+    @Test
+    void shouldFail_WhenResultIsNotStored() {
+        ReflectionTestUtils.setField(filterService, "persistenceEnabled", true);
+        when(persistenceQueue.enqueue(any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Mongo down")));
+        when(persistenceQueue.enqueueEach(any()))
+                .thenReturn(List.of(CompletableFuture.failedFuture(new IllegalStateException("Mongo down"))));
+        ConsumerRecord<String, byte[]> record = createRecord("invalid content", "json");
+
+        assertThrows(CompletionException.class,
+                () -> filterService.validateAndForward(createRecord("invalid content", "json")).join());
+        assertEquals(List.of(record), filterService.processBatch(List.of(record)));
+    }
+
+    @Test
+    void shouldNotSendAlert_WhenRecordIsMalformed() {
+        ConsumerRecord<String, byte[]> record =
+                new ConsumerRecord<>("transaction_generator", 0, 0L, "TXN-123", "{\"mt103Content\":".getBytes());
+
+        CompletionException failure =
+                assertThrows(CompletionException.class, () -> filterService.validateAndForward(record).join());
+
+        assertInstanceOf(SerializationException.class, failure.getCause());
+        verify(producerService, never()).sendTransactionAlert(any());
+    }
+
+    @Test
+    void shouldForwardValidRecordsOfBatchTogether() {
+        ConsumerRecord<String, byte[]> valid = createRecord(createMinimalValidMT103(), "binary");
+        ConsumerRecord<String, byte[]> invalid = createRecord("invalid content", "json");
+        ConsumerRecord<String, byte[]> malformed =
+                new ConsumerRecord<>("transaction_generator", 0, 2L, "TXN-456", "{\"mt103Content\":".getBytes());
+
+        assertEquals(List.of(malformed), filterService.processBatch(List.of(valid, invalid, malformed)));
+
+        verify(producerService).sendTransactionAlerts(List.of(valid));
+        verifyNoInteractions(persistenceQueue);
+    }
+
+    @Test
+    void shouldPersistBatchWithOneEnqueue_WhenPersistenceIsEnabled() {
+        ReflectionTestUtils.setField(filterService, "persistenceEnabled", true);
+        when(persistenceQueue.enqueueEach(any())).thenReturn(List.of(
+                CompletableFuture.completedFuture(null), CompletableFuture.completedFuture(null)));
+
+        filterService.processBatch(List.of(
+                createRecord(createMinimalValidMT103(), "json"), createRecord("invalid content", "binary")));
+
+        verify(persistenceQueue, times(1)).enqueueEach(argThat((List<TransactionEntity> entities) ->
+                entities.size() == 2 && entities.get(0).isValid() && !entities.get(1).isValid()));
+        verify(persistenceQueue, never()).enqueue(any());
+    }
+
+    @Test
+    void shouldNotForwardBatchRecord_WhenItsResultCannotBeStored() {
+        ReflectionTestUtils.setField(filterService, "persistenceEnabled", true);
+        when(persistenceQueue.enqueueEach(any())).thenReturn(List.of(CompletableFuture.completedFuture(null)));
+        ConsumerRecord<String, byte[]> valid = createRecord(createMinimalValidMT103(), "json");
+        ConsumerRecord<String, byte[]> record = createRecord(createMinimalValidMT103(), "json");
+        // Valid MT103 content, but the event around it is cut off and cannot be read into an entity
+        ConsumerRecord<String, byte[]> truncated = new ConsumerRecord<>("transaction_generator", 0, 1L, 0L,
+                TimestampType.CREATE_TIME, 0, record.serializedValueSize() - 1, "TXN-456",
+                Arrays.copyOf(record.value(), record.value().length - 1), record.headers(), Optional.empty());
+
+        assertEquals(List.of(truncated), filterService.processBatch(List.of(valid, truncated)));
+
+        verify(producerService).sendTransactionAlerts(List.of(valid));
+        verify(persistenceQueue).enqueueEach(argThat((List<TransactionEntity> entities) -> entities.size() == 1));
+    }
+
+    @Test
+    void shouldReturnOnlyBatchRecordsWhoseForwardOrStoreFailed() {
+        ReflectionTestUtils.setField(filterService, "persistenceEnabled", true);
+        ConsumerRecord<String, byte[]> done = createRecord(createMinimalValidMT103(), "json");
+        ConsumerRecord<String, byte[]> notSent = createRecord(createMinimalValidMT103(), "binary");
+        ConsumerRecord<String, byte[]> notStored = createRecord("invalid content", "json");
+        when(persistenceQueue.enqueueEach(any())).thenReturn(List.of(
+                CompletableFuture.completedFuture(null),
+                CompletableFuture.completedFuture(null),
+                CompletableFuture.failedFuture(new IllegalStateException("Mongo down"))));
+        when(producerService.sendTransactionAlerts(List.of(done, notSent))).thenReturn(List.of(
+                CompletableFuture.completedFuture(null),
+                CompletableFuture.failedFuture(new IllegalStateException("Broker unavailable"))));
+
+        assertEquals(List.of(notSent, notStored), filterService.processBatch(List.of(done, notSent, notStored)));
+    }
+
+    @Test
+    void shouldCompleteAfterForwardAndStore_WhenValidatingSingleRecord() {
+        ReflectionTestUtils.setField(filterService, "persistenceEnabled", true);
+        ConsumerRecord<String, byte[]> valid = createRecord(createMinimalValidMT103(), "binary");
+        CompletableFuture<SendResult<String, byte[]>> forward = new CompletableFuture<>();
+        CompletableFuture<Void> stored = new CompletableFuture<>();
+        when(producerService.sendTransactionAlert(valid)).thenReturn(forward);
+        when(persistenceQueue.enqueue(any())).thenAnswer(invocation ->
+                invocation.<TransactionEntity>getArgument(0).isValid() ? stored : CompletableFuture.completedFuture(null));
+
+        CompletableFuture<Void> validResult = filterService.validateAndForward(valid);
+        CompletableFuture<Void> invalidResult =
+                filterService.validateAndForward(createRecord("invalid content", "json"));
+
+        forward.complete(null);
+        assertFalse(validResult.isDone());
+        stored.complete(null);
+        assertTrue(validResult.isDone());
+        assertTrue(invalidResult.isDone());
+        verify(producerService, times(1)).sendTransactionAlert(any());
     }
 
     private String createMinimalValidMT103() {
@@ -81,14 +255,15 @@ class TransactionFilterServiceTest {
                 "{5:{MAC:9A90B885}{CHK:E065669BF6C5}}";
     }
 
-    private TransactionWithMT103Event createEvent(String mt103Content) {
-        Transaction transaction = new Transaction();
-        transaction.setTransactionId("TXN-123");
-
-        TransactionWithMT103Event event = new TransactionWithMT103Event();
-        event.setTransaction(transaction);
-        event.setMt103Content(mt103Content);
+    private ConsumerRecord<String, byte[]> createRecord(String mt103Content, String format) {
+        Transaction transaction = Transaction.builder()
+                .transactionId("TXN-123")
+                .build();
 
-        return event;
+        RecordHeaders headers = new RecordHeaders();
+        byte[] value = TransactionEventSerializer.forFormat(format).serialize("transaction_generator", headers,
+                TransactionWithMT103Event.of(transaction, mt103Content));
+        return new ConsumerRecord<>("transaction_generator", 0, 0L, 0L, TimestampType.CREATE_TIME,
+                0, value.length, "TXN-123", value, headers, Optional.empty());
     }
 }
\ No newline at end of file
@@ -0,0 +1,195 @@
+package com.toufik.trxvalidationservice.service;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.toufik.trxvalidationservice.config.PersistenceConfig;
+import com.toufik.trxvalidationservice.entity.TransactionEntity;
+import com.toufik.trxvalidationservice.model.PersistenceStats;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TransactionPersistenceQueueTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    private final List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+    private PersistenceConfig config;
+    private TransactionPersistenceQueue persistenceQueue;
+
+    @BeforeEach
+    void setUp() {
+        config = new PersistenceConfig();
+        config.setQueueCapacity(100);
+        config.setBatchSize(10);
+        config.setFlushIntervalMillis(50);
+        config.setEnqueueTimeoutMillis(100);
+        config.setMaxAttempts(3);
+        config.setInitialBackoffMillis(10);
+        config.setMaxBackoffMillis(20);
+
+        when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), eq(TransactionEntity.class)))
+                .thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenAnswer(invocation -> {
+            List<String> ids = new ArrayList<>();
+            for (Object entity : invocation.<List<?>>getArgument(0)) {
+                ids.add(((TransactionEntity) entity).getTransactionId());
+            }
+            batches.add(ids);
+            return bulkOperations;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (persistenceQueue != null) {
+            persistenceQueue.shutdown();
+        }
+    }
+
+    @Test
+    void testEnqueueAll_CompletesOnceBatchesAreStored() {
+        persistenceQueue = new TransactionPersistenceQueue(mongoTemplate, config);
+        List<TransactionEntity> entities = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            entities.add(entity(i));
+        }
+        CompletableFuture<Void> stored = persistenceQueue.enqueueAll(entities);
+        assertFalse(stored.isDone());
+
+        persistenceQueue.start();
+        stored.join();
+
+        assertEquals(List.of(10, 10, 5), batches.stream().map(List::size).toList());
+        PersistenceStats stats = persistenceQueue.getStats();
+        assertEquals(25, stats.getEnqueuedCount());
+        assertEquals(25, stats.getWrittenCount());
+        assertEquals(3, stats.getFlushCount());
+        assertTrue(entities.stream().allMatch(entity -> entity.getId() != null));
+    }
+
+    @Test
+    void testEnqueue_RejectsWhenQueueStaysFull() {
+        config.setQueueCapacity(2);
+        persistenceQueue = new TransactionPersistenceQueue(mongoTemplate, config);
+
+        persistenceQueue.enqueue(entity(1));
+        long start = System.nanoTime();
+        CompletableFuture<Void> rejected = persistenceQueue.enqueueAll(List.of(entity(2), entity(3), entity(4)));
+
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(1_000),
+                "Only the first entity that does not fit waits for the timeout");
+        assertThrows(CompletionException.class, rejected::join);
+        assertEquals(2, persistenceQueue.getStats().getRejectedCount());
+        assertEquals(2, persistenceQueue.getStats().getQueueDepth());
+    }
+
+    @Test
+    void testFlush_RetriesWithBackoffUntilStored() {
+        when(bulkOperations.execute())
+                .thenThrow(new RuntimeException("Mongo down"))
+                .thenThrow(new RuntimeException("Mongo down"))
+                .thenReturn(null);
+        persistenceQueue = new TransactionPersistenceQueue(mongoTemplate, config);
+        persistenceQueue.start();
+
+        persistenceQueue.enqueue(entity(1)).join();
+
+        PersistenceStats stats = persistenceQueue.getStats();
+        assertEquals(1, stats.getWrittenCount());
+        assertEquals(2, stats.getRetryCount());
+        assertEquals(0, stats.getFailedCount());
+    }
+
+    @Test
+    void testFlush_RetriesOnlyUnstoredDocumentsAndAcceptsDuplicates() {
+        when(bulkOperations.execute())
+                .thenThrow(bulkFailure(new BulkWriteError(11000, "duplicate key", new BsonDocument(), 0),
+                        new BulkWriteError(91, "shutdown in progress", new BsonDocument(), 2)))
+                .thenReturn(null);
+        persistenceQueue = new TransactionPersistenceQueue(mongoTemplate, config);
+        persistenceQueue.enqueueAll(List.of(entity(0), entity(1), entity(2)));
+
+        persistenceQueue.start();
+        await().atMost(Duration.ofSeconds(5)).until(() -> persistenceQueue.getStats().getWrittenCount() == 3);
+
+        assertEquals(List.of(List.of("TXN-0", "TXN-1", "TXN-2"), List.of("TXN-2")), batches);
+        assertEquals(1, persistenceQueue.getStats().getRetryCount());
+    }
+
+    @Test
+    void testFlush_FailsFutureAfterLastAttemptAndWriterContinues() {
+        when(bulkOperations.execute())
+                .thenThrow(new RuntimeException("Mongo down"))
+                .thenThrow(new RuntimeException("Mongo down"))
+                .thenThrow(new RuntimeException("Mongo down"))
+                .thenReturn(null);
+        persistenceQueue = new TransactionPersistenceQueue(mongoTemplate, config);
+        persistenceQueue.start();
+
+        CompletionException failure = assertThrows(CompletionException.class,
+                () -> persistenceQueue.enqueue(entity(1)).join());
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+        assertEquals(1, persistenceQueue.getStats().getFailedCount());
+
+        persistenceQueue.enqueue(entity(2)).join();
+        assertEquals(1, persistenceQueue.getStats().getWrittenCount());
+    }
+
+    @Test
+    void testShutdown_FlushesQueuedEntities() {
+        persistenceQueue = new TransactionPersistenceQueue(mongoTemplate, config);
+        persistenceQueue.start();
+        config.setFlushIntervalMillis(10_000);
+        CompletableFuture<Void> stored = persistenceQueue.enqueueAll(List.of(entity(0), entity(1), entity(2)));
+
+        persistenceQueue.shutdown();
+
+        assertTrue(stored.isDone());
+        assertEquals(3, persistenceQueue.getStats().getWrittenCount());
+        assertEquals(0, persistenceQueue.getStats().getQueueDepth());
+    }
+
+    private static BulkOperationException bulkFailure(BulkWriteError... errors) {
+        return new BulkOperationException("Bulk write failed", new MongoBulkWriteException(
+                BulkWriteResult.unacknowledged(), List.of(errors), null, new ServerAddress(), Set.of()));
+    }
+
+    private static TransactionEntity entity(int index) {
+        TransactionEntity entity = new TransactionEntity();
+        entity.setTransactionId("TXN-" + index);
+        return entity;
+    }
+}
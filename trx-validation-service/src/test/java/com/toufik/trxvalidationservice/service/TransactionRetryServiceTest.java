@@ -0,0 +1,174 @@
+package com.toufik.trxvalidationservice.service;
+
+import com.toufik.trxvalidationservice.config.RetryConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionRetryServiceTest {
+
+    @Mock
+    private TransactionFilterService filterService;
+
+    @Mock
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    @Mock
+    private ConsumerFactory<String, byte[]> consumerFactory;
+
+    private RetryConfig config;
+    private TransactionRetryService retryService;
+
+    @BeforeEach
+    void setUp() {
+        config = new RetryConfig();
+        config.setAttempts(3);
+        retryService = new TransactionRetryService(filterService, kafkaTemplate, config, consumerFactory);
+    }
+
+    @Test
+    void testForwardOrRetry_PassesFailingRecordThroughRetryTopicsToDeadLetterTopic() {
+        when(filterService.validateAndForward(any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Mongo unavailable")));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+        ConsumerRecord<String, byte[]> record = record("transaction_generator", 42, new byte[]{1, 2});
+        long start = System.currentTimeMillis();
+        List<ProducerRecord<String, byte[]>> published = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            retryService.forwardOrRetry(record);
+            ProducerRecord<String, byte[]> sent = lastSent(i + 1);
+            published.add(sent);
+            record = consumed(sent, i);
+        }
+
+        assertEquals(List.of("transaction_generator-retry-0", "transaction_generator-retry-1",
+                "transaction_generator-dlt"), published.stream().map(ProducerRecord::topic).toList());
+        assertEquals("1", text(published.get(0).headers(), "validation-retry-attempt"));
+        assertEquals("3", text(published.get(2).headers(), "validation-retry-attempt"));
+        long firstDue = Long.parseLong(text(published.get(0).headers(), "validation-retry-due"));
+        assertTrue(firstDue >= start + 1_000 && firstDue <= System.currentTimeMillis() + 1_000);
+        assertNull(published.get(2).headers().lastHeader("validation-retry-due"));
+        assertEquals("transaction_generator-0@42", text(published.get(2).headers(), "validation-retry-origin"));
+        assertEquals("java.lang.IllegalStateException: Mongo unavailable",
+                text(published.get(2).headers(), "validation-retry-error"));
+        assertEquals(1, count(published.get(2).headers(), "validation-retry-attempt"));
+        assertArrayEquals(new byte[]{1, 2}, published.get(2).value());
+    }
+
+    @Test
+    void testForwardOrRetry_PublishesUnreadableRecordToDeadLetterTopicStraightAway() {
+        when(filterService.validateAndForward(any())).thenReturn(
+                CompletableFuture.failedFuture(new SerializationException("Transaction event is not a JSON object")));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+        retryService.forwardOrRetry(record("transaction_generator", 5, new byte[]{'x'}));
+
+        ProducerRecord<String, byte[]> sent = lastSent(1);
+        assertEquals("transaction_generator-dlt", sent.topic());
+        assertArrayEquals(new byte[]{'x'}, sent.value());
+        assertEquals("org.apache.kafka.common.errors.SerializationException: Transaction event is not a JSON object",
+                text(sent.headers(), "validation-retry-error"));
+    }
+
+    @Test
+    void testForwardOrRetry_RemovesRetryHeadersBeforeForwarding() {
+        ConsumerRecord<String, byte[]> record = record("transaction_generator-retry-0", 7, new byte[0]);
+        record.headers().add("validation-retry-attempt", "1".getBytes(StandardCharsets.UTF_8));
+        record.headers().add("validation-retry-due", "0".getBytes(StandardCharsets.UTF_8));
+        record.headers().add("validation-retry-origin", "transaction_generator-0@3".getBytes(StandardCharsets.UTF_8));
+        record.headers().add("mt103-fields", new byte[]{1, 0});
+        when(filterService.validateAndForward(record)).thenAnswer(invocation -> {
+            Headers headers = record.headers();
+            assertNull(headers.lastHeader("validation-retry-attempt"));
+            assertNull(headers.lastHeader("validation-retry-origin"));
+            assertNotNull(headers.lastHeader("mt103-fields"));
+            return CompletableFuture.completedFuture(null);
+        });
+
+        retryService.forwardOrRetry(record);
+
+        verify(filterService).validateAndForward(record);
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    void testForwardOrRetry_ThrowsWhenRetryTopicIsUnavailable() {
+        when(filterService.validateAndForward(any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Broker unavailable")));
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Broker unavailable")));
+
+        assertThrows(IllegalStateException.class,
+                () -> retryService.forwardOrRetry(record("transaction_generator", 1, new byte[0])));
+    }
+
+    @Test
+    void testRetryTopics_AttemptsIncludeFirstDelivery() {
+        assertEquals(List.of("transaction_generator-retry-0", "transaction_generator-retry-1"),
+                retryService.retryTopics());
+
+        config.setAttempts(1);
+        assertEquals(List.of(), retryService.retryTopics());
+    }
+
+    @Test
+    void testDelayMillis_GrowsExponentiallyUpToMaximum() {
+        config.setInitialDelayMillis(1_000);
+        config.setMultiplier(3.0);
+        config.setMaxDelayMillis(5_000);
+
+        assertEquals(1_000, config.delayMillis(0));
+        assertEquals(3_000, config.delayMillis(1));
+        assertEquals(5_000, config.delayMillis(2));
+    }
+
+    @SuppressWarnings("unchecked")
+    private ProducerRecord<String, byte[]> lastSent(int sends) {
+        ArgumentCaptor<ProducerRecord<String, byte[]>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(sends)).send(captor.capture());
+        return captor.getValue();
+    }
+
+    private static ConsumerRecord<String, byte[]> consumed(ProducerRecord<String, byte[]> sent, long offset) {
+        ConsumerRecord<String, byte[]> record = record(sent.topic(), offset, sent.value());
+        sent.headers().forEach(record.headers()::add);
+        return record;
+    }
+
+    private static ConsumerRecord<String, byte[]> record(String topic, long offset, byte[] value) {
+        return new ConsumerRecord<>(topic, 0, offset, "TXN-1", value);
+    }
+
+    private static String text(Headers headers, String key) {
+        return new String(headers.lastHeader(key).value(), StandardCharsets.UTF_8);
+    }
+
+    private static int count(Headers headers, String key) {
+        int count = 0;
+        for (Header ignored : headers.headers(key)) {
+            count++;
+        }
+        return count;
+    }
+}
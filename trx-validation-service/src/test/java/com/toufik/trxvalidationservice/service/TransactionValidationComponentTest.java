@@ -1,20 +1,44 @@
 package com.toufik.trxvalidationservice.service;
 
-import com.toufik.trxvalidationservice.model.Transaction;
-import com.toufik.trxvalidationservice.model.TransactionWithMT103Event;
+import com.toufik.trxcommon.kafka.TransactionEventSerializer;
+import com.toufik.trxcommon.model.Transaction;
+import com.toufik.trxcommon.model.TransactionWithMT103Event;
+import com.toufik.trxvalidationservice.config.ListenerConfig;
+import com.toufik.trxvalidationservice.config.RetryConfig;
+import com.toufik.trxvalidationservice.config.ValidationRulesConfig;
+import com.toufik.trxvalidationservice.entity.TransactionEntity;
+import com.toufik.trxvalidationservice.util.MT103Rule;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -22,14 +46,39 @@ import static org.mockito.Mockito.*;
 class TransactionValidationComponentTest {
 
     @Mock
-    private KafkaTemplate<String, TransactionWithMT103Event> kafkaTemplate;
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
 
     @Mock
-    private SendResult<String, TransactionWithMT103Event> sendResult;
+    private SendResult<String, byte[]> sendResult;
+
+    @Mock
+    private Acknowledgment acknowledgment;
+
+    @Mock
+    private Consumer<String, byte[]> consumer;
+
+    @Mock
+    private ConsumerFactory<String, byte[]> consumerFactory;
+
+    @Mock
+    private TransactionPersistenceQueue persistenceQueue;
 
     private TransactionConsumerService consumerService;
+    private TransactionBatchConsumerService batchConsumerService;
     private TransactionFilterService filterService;
     private TransactionProducerService producerService;
+    private TransactionRetryService retryService;
+
+    private static final String VALID_MT103 = "{1:F01COBADEFFXXX0}{2:I103UNCRITMMXXX0N}{3:{108:cd6d508c-5049-4a}}\n" +
+            "{4:\n" +
+            ":20:cd6d508c-5049-4a\n" +
+            ":23B:CRED\n" +
+            ":32A:250622EUR38329,19\n" +
+            ":52A:COBADEFF\n" +
+            ":57A:UNCRITMM\n" +
+            ":59:/201093193710\n" +
+            "}\n" +
+            "{5:{MAC:9A90B885}{CHK:E065669BF6C5}}";
 
     @BeforeEach
     void setUp() {
@@ -40,10 +89,19 @@ class TransactionValidationComponentTest {
         // Create the filter service with the producer service
         filterService = new TransactionFilterService();
         ReflectionTestUtils.setField(filterService, "producerService", producerService);
+        ReflectionTestUtils.setField(filterService, "ruleChain",
+                new ValidationRuleChain(new ValidationRulesConfig(), MT103Rule.canonicalOrder()));
 
-        // Create the consumer service with the filter service
+        // Failed records are handed to the retry topics through the same template
+        retryService = new TransactionRetryService(filterService, kafkaTemplate, new RetryConfig(), consumerFactory);
+
+        // Create the consumer service with the retry service
         consumerService = new TransactionConsumerService();
-        ReflectionTestUtils.setField(consumerService, "filterService", filterService);
+        ReflectionTestUtils.setField(consumerService, "retryService", retryService);
+
+        batchConsumerService = new TransactionBatchConsumerService();
+        ReflectionTestUtils.setField(batchConsumerService, "filterService", filterService);
+        ReflectionTestUtils.setField(batchConsumerService, "retryService", retryService);
     }
 
     @Test
@@ -87,21 +145,23 @@ class TransactionValidationComponentTest {
                 .mt103Content(validMT103)
                 .build();
 
+        ConsumerRecord<String, byte[]> record = createRecord(validEvent, 100L);
+
         // Mock successful Kafka send for this specific test
-        CompletableFuture<SendResult<String, TransactionWithMT103Event>> future =
+        CompletableFuture<SendResult<String, byte[]>> future =
                 CompletableFuture.completedFuture(sendResult);
-        when(kafkaTemplate.send(eq("transaction_alert"), eq("cd6d508c-5049-4a"), eq(validEvent)))
-                .thenReturn(future);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(future);
 
         // When - Process the valid transaction
-        consumerService.consume(validEvent, "transaction_generator", 0, 100L);
-
-        // Then - Verify transaction was sent to alert topic
-        verify(kafkaTemplate, times(1)).send(
-                eq("transaction_alert"),
-                eq("cd6d508c-5049-4a"),
-                eq(validEvent)
-        );
+        consumerService.consume(record, acknowledgment);
+
+        // Then - Verify the original record bytes were sent to the alert topic
+        verify(kafkaTemplate, times(1)).send(argThat((ProducerRecord<String, byte[]> sent) ->
+                sent.topic().equals("transaction_alert")
+                        && sent.key().equals("cd6d508c-5049-4a")
+                        && sent.value() == record.value()
+                        && sent.headers().equals(record.headers())));
+        verify(acknowledgment).acknowledge();
     }
 
     @Test
@@ -134,8 +194,189 @@ class TransactionValidationComponentTest {
                 .mt103Content(invalidMT103)
                 .build();
 
-        consumerService.consume(invalidEvent, "transaction_generator", 0, 101L);
+        consumerService.consume(createRecord(invalidEvent, 101L), acknowledgment);
+
+        verify(kafkaTemplate, never()).send(any(ProducerRecord.class));
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void shouldForwardValidRecordsOfBatchAndAcknowledgeOnce() {
+        ConsumerRecord<String, byte[]> valid = createRecord(event("batch-valid", VALID_MT103), 200L);
+        ConsumerRecord<String, byte[]> invalid = createRecord(event("batch-invalid", VALID_MT103.replace(":23B:CRED\n", "")), 201L);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(sendResult));
+
+        batchConsumerService.consume(List.of(valid, invalid), acknowledgment);
+
+        verify(kafkaTemplate, times(1)).send(argThat((ProducerRecord<String, byte[]> sent) ->
+                sent.key().equals("batch-valid") && sent.value() == valid.value()));
+        verify(kafkaTemplate).flush();
+        verify(acknowledgment, times(1)).acknowledge();
+    }
+
+    @Test
+    void shouldNotAcknowledgeBatch_WhenForwardFails() {
+        ConsumerRecord<String, byte[]> valid = createRecord(event("batch-valid", VALID_MT103), 300L);
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Broker unavailable")));
+
+        assertThrows(RuntimeException.class, () -> batchConsumerService.consume(List.of(valid), acknowledgment));
+
+        verify(acknowledgment, never()).acknowledge();
+    }
+
+    @Test
+    void shouldHandFailedRecordsOfBatchToRetryTopicAndAcknowledge() {
+        ConsumerRecord<String, byte[]> forwarded = createRecord(event("batch-ok", VALID_MT103), 500L);
+        ConsumerRecord<String, byte[]> failed = createRecord(event("batch-failed", VALID_MT103), 501L);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+            ProducerRecord<String, byte[]> sent = invocation.getArgument(0);
+            return sent.topic().equals("transaction_alert") && sent.key().equals("batch-failed")
+                    ? CompletableFuture.failedFuture(new IllegalStateException("Broker unavailable"))
+                    : CompletableFuture.completedFuture(sendResult);
+        });
+
+        batchConsumerService.consume(List.of(forwarded, failed), acknowledgment);
+
+        verify(kafkaTemplate).send(argThat((ProducerRecord<String, byte[]> sent) ->
+                sent.topic().equals("transaction_generator-retry-0")
+                        && sent.key().equals("batch-failed")
+                        && sent.value() == failed.value()
+                        && sent.headers().lastHeader("validation-retry-attempt") != null
+                        && sent.headers().lastHeader("validation-retry-due") != null));
+        verify(kafkaTemplate, never()).send(argThat((ProducerRecord<String, byte[]> sent) ->
+                sent.topic().startsWith("transaction_generator-") && sent.key().equals("batch-ok")));
+        verify(kafkaTemplate, times(1)).send(argThat((ProducerRecord<String, byte[]> sent) ->
+                sent.topic().equals("transaction_alert") && sent.key().equals("batch-ok")));
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void shouldPublishGarbageRecordOfBatchToDeadLetterTopic() {
+        ConsumerRecord<String, byte[]> valid = createRecord(event("batch-valid", VALID_MT103), 800L);
+        byte[] garbage = {(byte) 0xCA, (byte) 0xFE, 0x00, 0x7B, 0x13};
+        ConsumerRecord<String, byte[]> poison =
+                new ConsumerRecord<>("transaction_generator", 0, 801L, "garbage", garbage);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(sendResult));
+
+        batchConsumerService.consume(List.of(valid, poison), acknowledgment);
+
+        verify(kafkaTemplate).send(argThat((ProducerRecord<String, byte[]> sent) ->
+                sent.topic().equals("transaction_generator-dlt")
+                        && sent.key().equals("garbage")
+                        && sent.value() == garbage
+                        && new String(sent.headers().lastHeader("validation-retry-error").value(),
+                        StandardCharsets.UTF_8).startsWith("org.apache.kafka.common.errors.SerializationException")));
+        verify(kafkaTemplate, never()).send(argThat((ProducerRecord<String, byte[]> sent) ->
+                sent.key().equals("garbage") && !sent.topic().equals("transaction_generator-dlt")));
+        verify(kafkaTemplate, times(1)).send(argThat((ProducerRecord<String, byte[]> sent) ->
+                sent.topic().equals("transaction_alert") && sent.key().equals("batch-valid")));
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void shouldStoreOneResultPerRecord_WhenForwardFailsAfterStoreIsQueued() {
+        ReflectionTestUtils.setField(filterService, "persistenceEnabled", true);
+        ReflectionTestUtils.setField(filterService, "persistenceQueue", persistenceQueue);
+        // Keyed like the collection: a second insert with the same id is a duplicate, not a new document
+        Map<String, TransactionEntity> stored = new ConcurrentHashMap<>();
+        List<String> queued = new ArrayList<>();
+        when(persistenceQueue.enqueueEach(any())).thenAnswer(invocation -> {
+            List<TransactionEntity> entities = invocation.getArgument(0);
+            entities.forEach(entity -> {
+                queued.add(entity.getTransactionId());
+                stored.putIfAbsent(entity.getId(), entity);
+            });
+            return entities.stream().map(entity -> CompletableFuture.<Void>completedFuture(null)).toList();
+        });
+        when(persistenceQueue.enqueue(any())).thenAnswer(invocation -> {
+            TransactionEntity entity = invocation.getArgument(0);
+            queued.add(entity.getTransactionId());
+            stored.putIfAbsent(entity.getId(), entity);
+            return CompletableFuture.completedFuture(null);
+        });
+        ConsumerRecord<String, byte[]> forwarded = createRecord(event("stored-ok", VALID_MT103), 700L);
+        ConsumerRecord<String, byte[]> failed = createRecord(event("stored-failed", VALID_MT103), 701L);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+            ProducerRecord<String, byte[]> sent = invocation.getArgument(0);
+            return sent.topic().equals("transaction_alert") && sent.key().equals("stored-failed")
+                    ? CompletableFuture.failedFuture(new IllegalStateException("Broker unavailable"))
+                    : CompletableFuture.completedFuture(sendResult);
+        });
+
+        batchConsumerService.consume(List.of(forwarded, failed), acknowledgment);
+
+        assertEquals(List.of("stored-ok", "stored-failed", "stored-failed"), queued);
+        assertEquals(Set.of("stored-ok", "stored-failed"), stored.keySet());
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void shouldWaitForRetryRecordToFallDueBeforeForwarding() {
+        TransactionRetryConsumerService retryConsumerService = new TransactionRetryConsumerService(retryService, null);
+        ConsumerRecord<String, byte[]> notDue = createRecord(event("retry-later", VALID_MT103), 600L);
+        notDue.headers().add("validation-retry-attempt", "1".getBytes(StandardCharsets.UTF_8));
+        notDue.headers().add("validation-retry-due",
+                String.valueOf(System.currentTimeMillis() + 60_000).getBytes(StandardCharsets.UTF_8));
+        ConsumerRecord<String, byte[]> due = createRecord(event("retry-now", VALID_MT103), 601L);
+        due.headers().add("validation-retry-attempt", "1".getBytes(StandardCharsets.UTF_8));
+        due.headers().add("validation-retry-due", "0".getBytes(StandardCharsets.UTF_8));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(sendResult));
+
+        retryConsumerService.onMessage(notDue, acknowledgment);
+        retryConsumerService.onMessage(due, acknowledgment);
+
+        verify(acknowledgment).nack(argThat(sleep -> sleep.toMillis() > 50_000));
+        verify(kafkaTemplate).send(argThat((ProducerRecord<String, byte[]> sent) ->
+                sent.topic().equals("transaction_alert")
+                        && sent.key().equals("retry-now")
+                        && sent.headers().lastHeader("validation-retry-attempt") == null));
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void shouldCommitParallelBatchUpToFirstFailedForward() {
+        ListenerConfig config = new ListenerConfig();
+        config.setParallelism(2);
+        ParallelBatchProcessor processor = new ParallelBatchProcessor(retryService, config);
+        TransactionParallelConsumerService parallelConsumerService = new TransactionParallelConsumerService();
+        ReflectionTestUtils.setField(parallelConsumerService, "batchProcessor", processor);
+
+        ConsumerRecord<String, byte[]> forwarded = createRecord(event("parallel-ok", VALID_MT103), 400L);
+        ConsumerRecord<String, byte[]> failed = createRecord(event("parallel-failed", VALID_MT103), 401L);
+        ConsumerRecord<String, byte[]> after = createRecord(event("parallel-after", VALID_MT103), 402L);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation ->
+                "parallel-failed".equals(invocation.<ProducerRecord<String, byte[]>>getArgument(0).key())
+                        ? CompletableFuture.failedFuture(new IllegalStateException("Broker unavailable"))
+                        : CompletableFuture.completedFuture(sendResult));
+
+        try {
+            parallelConsumerService.consume(List.of(forwarded, failed, after), consumer);
+        } finally {
+            processor.shutdown();
+        }
+
+        TopicPartition partition = new TopicPartition("transaction_generator", 0);
+        verify(kafkaTemplate, times(3)).send(argThat((ProducerRecord<String, byte[]> sent) ->
+                sent.topic().equals("transaction_alert")));
+        verify(kafkaTemplate).send(argThat((ProducerRecord<String, byte[]> sent) ->
+                sent.topic().equals("transaction_generator-retry-0") && sent.key().equals("parallel-failed")));
+        verify(consumer).commitSync(Map.of(partition, new OffsetAndMetadata(401L)));
+        verify(consumer).seek(partition, 401L);
+    }
+
+    private static TransactionWithMT103Event event(String transactionId, String mt103Content) {
+        return TransactionWithMT103Event.of(Transaction.builder()
+                .transactionId(transactionId)
+                .amount(BigDecimal.valueOf(38329.19))
+                .currency("EUR")
+                .build(), mt103Content);
+    }
 
-        verify(kafkaTemplate, never()).send(anyString(), anyString(), any(TransactionWithMT103Event.class));
+    private static ConsumerRecord<String, byte[]> createRecord(TransactionWithMT103Event event, long offset) {
+        RecordHeaders headers = new RecordHeaders();
+        byte[] value = TransactionEventSerializer.forFormat("json").serialize("transaction_generator", headers, event);
+        return new ConsumerRecord<>("transaction_generator", 0, offset, 0L, TimestampType.CREATE_TIME,
+                0, value.length, event.getTransaction().getTransactionId(), value, headers, Optional.empty());
     }
 }
\ No newline at end of file
@@ -1,8 +1,8 @@
 package com.toufik.trxvalidationservice.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.toufik.trxvalidationservice.model.Transaction;
-import com.toufik.trxvalidationservice.model.TransactionWithMT103Event;
+import com.toufik.trxcommon.model.Transaction;
+import com.toufik.trxcommon.model.TransactionWithMT103Event;
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
@@ -210,13 +210,10 @@ class TransactionValidationIntegrationTest {
 
 
     private TransactionWithMT103Event createTransactionEvent(String transactionId, String mt103Content) {
-        Transaction transaction = new Transaction();
-        transaction.setTransactionId(transactionId);
+        Transaction transaction = Transaction.builder()
+                .transactionId(transactionId)
+                .build();
 
-        TransactionWithMT103Event event = new TransactionWithMT103Event();
-        event.setTransaction(transaction);
-        event.setMt103Content(mt103Content);
-
-        return event;
+        return TransactionWithMT103Event.of(transaction, mt103Content);
     }
 }
\ No newline at end of file
@@ -0,0 +1,145 @@
+package com.toufik.trxvalidationservice.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.toufik.trxcommon.json.TransactionJson;
+import com.toufik.trxvalidationservice.config.ValidationRulesConfig;
+import com.toufik.trxvalidationservice.model.ValidationRuleStats;
+import com.toufik.trxvalidationservice.util.MT103Rule;
+import com.toufik.trxvalidationservice.util.MT103Tokenizer;
+import com.toufik.trxvalidationservice.util.MT103ValidationRule;
+import com.toufik.trxvalidationservice.util.MT103Validator;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidationRuleChainTest {
+
+    private ValidationRulesConfig config;
+
+    @BeforeEach
+    void setUp() {
+        config = new ValidationRulesConfig();
+        config.setMinEvaluations(0);
+    }
+
+    @Test
+    void testValidate_MatchesValidatorOnCorpusBeforeAndAfterReorder() throws Exception {
+        List<String> corpus = loadCorpus();
+        ValidationRuleChain chain = new ValidationRuleChain(config, MT103Rule.canonicalOrder());
+
+        for (String content : corpus) {
+            assertEquals(MT103Validator.validate(content), chain.validate(content), content);
+        }
+        chain.reorder();
+        assertNotEquals(ruleNames(MT103Rule.canonicalOrder()), chain.getOrder());
+
+        for (String content : corpus) {
+            assertEquals(MT103Validator.validate(content), chain.validate(content), content);
+        }
+    }
+
+    @Test
+    void testValidate_ReportsFirstCanonicalFailureWhenReordered() {
+        ValidationRuleChain chain = new ValidationRuleChain(config,
+                List.of(rejecting("RARE", 'a'), rejecting("FREQUENT", 'b'), rejecting("NEVER", 'c')));
+        for (int i = 0; i < 100; i++) {
+            chain.validate("b");
+        }
+        chain.validate("a");
+
+        chain.reorder();
+
+        assertEquals(List.of("FREQUENT", "RARE", "NEVER"), chain.getOrder());
+        assertEquals("RARE", chain.validate("ab"));
+        assertEquals("FREQUENT", chain.validate("bc"));
+        assertNull(chain.validate("x"));
+    }
+
+    @Test
+    void testGetStats_CountsEvaluationsAndFailuresPerRule() {
+        ValidationRuleChain chain = new ValidationRuleChain(config,
+                List.of(rejecting("FIRST", 'a'), rejecting("SECOND", 'b')));
+
+        chain.validate("a");
+        chain.validate("b");
+        chain.validate("x");
+        chain.validate(" ");
+
+        List<ValidationRuleStats> stats = chain.getStats();
+        assertEquals(3, stats.get(0).getEvaluationCount());
+        assertEquals(1, stats.get(0).getFailureCount());
+        assertEquals(2, stats.get(1).getEvaluationCount());
+        assertEquals(1, stats.get(1).getFailureCount());
+        assertEquals(0.5, stats.get(1).getFailureRate());
+    }
+
+    @Test
+    void testReorder_WaitsForMinimumEvaluations() {
+        config.setMinEvaluations(5);
+        ValidationRuleChain chain = new ValidationRuleChain(config,
+                List.of(rejecting("RARE", 'a'), rejecting("FREQUENT", 'b')));
+        chain.validate("b");
+
+        chain.reorder();
+
+        assertEquals(List.of("RARE", "FREQUENT"), chain.getOrder());
+    }
+
+    @Test
+    void testBindTo_PublishesRuleMeters() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ValidationRuleChain chain = new ValidationRuleChain(config,
+                List.of(rejecting("RARE", 'a'), rejecting("FREQUENT", 'b')));
+        chain.bindTo(registry);
+
+        chain.validate("b");
+        chain.validate("b");
+        chain.reorder();
+
+        FunctionTimer timer = registry.get("validation.rule").tag("rule", "FREQUENT").functionTimer();
+        assertEquals(2, timer.count());
+        assertEquals(2, registry.get("validation.rule.failures").tag("rule", "FREQUENT").functionCounter().count());
+        assertEquals(0, registry.get("validation.rule.position").tag("rule", "FREQUENT").gauge().value());
+        assertEquals(1, registry.get("validation.rule.reorders").functionCounter().count());
+    }
+
+    private static MT103ValidationRule rejecting(String name, char marker) {
+        return new MT103ValidationRule() {
+            @Override
+            public String check(CharSequence content, MT103Tokenizer tokens) {
+                return content.toString().indexOf(marker) >= 0 ? name : null;
+            }
+
+            @Override
+            public String getRuleName() {
+                return name;
+            }
+        };
+    }
+
+    private static List<String> ruleNames(List<MT103ValidationRule> rules) {
+        return rules.stream().map(MT103ValidationRule::getRuleName).toList();
+    }
+
+    private static List<String> loadCorpus() throws Exception {
+        List<String> corpus = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                ValidationRuleChainTest.class.getResourceAsStream("/mt103-corpus.jsonl"), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                JsonNode entry = TransactionJson.objectMapper().readTree(line);
+                corpus.add(entry.get("content").asText());
+            }
+        }
+        return corpus;
+    }
+}
@@ -0,0 +1,226 @@
+package com.toufik.trxvalidationservice.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.toufik.trxcommon.codec.Latin1Chars;
+import com.toufik.trxcommon.json.TransactionJson;
+import com.toufik.trxcommon.model.MT103FieldIndex;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MT103ValidatorTest {
+
+    /**
+     * Characters the mutations insert: structural MT103 characters, whitespace the checks treat differently,
+     * line terminators the old patterns stopped at and characters valid in BICs, dates and amounts.
+     */
+    private static final char[] MUTATION_CHARS = {
+            '{', '}', ':', ';', '\n', '\r', ' ', '\t', '\u000B', '\f', '\u0001', '\u0085', '\u2028', '\u2029',
+            '1', '2', '3', '4', '5', '9', 'A', 'B', 'F', 'Z', 'a', ',', '.', '-', '/'
+    };
+
+    private static final String VALID_MT103 =
+            "{1:F01COBADEFFXXX0}{2:I103UNCRITMMXXX0N}{3:{108:cd6d508c-5049-4a}}\n" +
+            "{4:\n" +
+            ":20:cd6d508c-5049-4a\n" +
+            ":23B:CRED\n" +
+            ":32A:250622EUR38329,19\n" +
+            ":50K:/220576400523\n" +
+            "10040000\n" +
+            ":52A:COBADEFF\n" +
+            ":57A:UNCRITMM\n" +
+            ":59:/201093193710\n" +
+            "02008\n" +
+            ":70:Payment for services\n" +
+            "}\n" +
+            "{5:{MAC:9A90B885}{CHK:E065669BF6C5}}";
+
+    private static List<String[]> corpus;
+
+    @BeforeAll
+    static void loadCorpus() throws Exception {
+        corpus = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                MT103ValidatorTest.class.getResourceAsStream("/mt103-corpus.jsonl"), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                JsonNode entry = TransactionJson.objectMapper().readTree(line);
+                corpus.add(new String[]{entry.get("scenario").asText(), entry.get("content").asText()});
+            }
+        }
+    }
+
+    @Test
+    void testValidate_MatchesLegacyOnCorruptorCorpus() {
+        int rejected = 0;
+        for (String[] entry : corpus) {
+            String expected = LegacyMT103Validator.validate(entry[1]);
+            assertEquals(expected, MT103Validator.validate(entry[1]), entry[0] + ": " + entry[1]);
+            assertEquals(expected, MT103Validator.validate(latin1(entry[1])), entry[0] + " as bytes: " + entry[1]);
+            if (expected != null) {
+                rejected++;
+            }
+        }
+        assertTrue(rejected > 0);
+        assertTrue(rejected < corpus.size());
+    }
+
+    @Test
+    void testValidate_MatchesLegacyOnMutatedMessages() {
+        Random random = new Random(42);
+        for (String[] entry : corpus) {
+            for (int i = 0; i < 40; i++) {
+                String mutated = mutate(entry[1], random);
+                assertEquals(LegacyMT103Validator.validate(mutated), MT103Validator.validate(mutated),
+                        entry[0] + " mutated: " + mutated);
+            }
+        }
+    }
+
+    @Test
+    void testFieldIndex_MatchesScanOnCorpusAndMutations() {
+        Random random = new Random(7);
+        for (String[] entry : corpus) {
+            for (String content : new String[]{entry[1], mutate(entry[1], random)}) {
+                MT103Validator.validate(content);
+                String expected = MT103FieldIndex.scan(content).toString();
+                assertEquals(expected, MT103Validator.fieldIndex(content).toString(), entry[0] + ": " + content);
+                assertEquals(expected, MT103Validator.fieldIndex(latin1(content)).toString(), entry[0] + " as bytes");
+            }
+        }
+    }
+
+    @Test
+    void testFieldIndex_ValidMessage() {
+        MT103FieldIndex index = MT103Validator.fieldIndex(VALID_MT103);
+
+        assertEquals("250622EUR38329,19", index.value(VALID_MT103, index.indexOf("32A")).toString());
+        assertEquals("/220576400523\n10040000", index.value(VALID_MT103, index.indexOf("50K")).toString());
+        assertEquals("Payment for services", index.value(VALID_MT103, index.indexOf("70")).toString());
+    }
+
+    @Test
+    void testValidate_ValidMessage() {
+        assertNull(MT103Validator.validate(VALID_MT103));
+    }
+
+    @Test
+    void testValidate_NullOrBlank() {
+        assertEquals("Content is null or blank", MT103Validator.validate(null));
+        assertEquals("Content is null or blank", MT103Validator.validate(" \n\t"));
+    }
+
+    @Test
+    void testValidate_BlockOpenersSplitByWhitespace() {
+        String content = VALID_MT103.replace("{2:", "{ 2\n:").replace("{5:", "{\t5:");
+
+        assertNull(LegacyMT103Validator.validate(content));
+        assertNull(MT103Validator.validate(content));
+    }
+
+    @Test
+    void testValidate_LineSeparatorFailsHeaderBlock() {
+        String content = VALID_MT103.replace(":70:Payment", ":70:Pay\u2028ment");
+
+        assertEquals(LegacyMT103Validator.validate(content), MT103Validator.validate(content));
+        assertEquals("Invalid header block 1 format", MT103Validator.validate(content));
+    }
+
+    @Test
+    void testValidate_SemicolonSeparator() {
+        assertEquals("Invalid field structure: semicolon instead of colon",
+                MT103Validator.validate(VALID_MT103.replace(":59:", " :59;")));
+        assertNull(MT103Validator.validate(VALID_MT103.replace(":59:/201093193710", ":59;/2010\r93193710")));
+        assertEquals("Invalid field structure: semicolon instead of colon",
+                MT103Validator.validate(VALID_MT103.replace(":59:/201093193710", ":59;/201093193710\r")));
+    }
+
+    @Test
+    void testValidate_InvalidBIC() {
+        assertEquals("Invalid BIC in field :57A:: BIC format invalid: UNCR1TMM",
+                MT103Validator.validate(VALID_MT103.replace(":57A:UNCRITMM", ":57A:UNCR1TMM")));
+        assertEquals("Invalid BIC in field :52A:: BIC length invalid: COBADEFFXXXXX",
+                MT103Validator.validate(VALID_MT103.replace(":52A:COBADEFF", ":52A:COBADEFFXXXXX")));
+    }
+
+    @Test
+    void testValidate_InvalidField32A() {
+        assertEquals("Invalid date values in :32A:",
+                MT103Validator.validate(VALID_MT103.replace(":32A:250622", ":32A:251322")));
+        assertEquals("Invalid amount format: 38329,199",
+                MT103Validator.validate(VALID_MT103.replace("38329,19\n:50K:", "38329,199\n:50K:")));
+    }
+
+    /**
+     * Run with {@code mvn test -pl trx-validation-service -am -Dtest=MT103ValidatorTest -Dbenchmark=true
+     * -Dsurefire.failIfNoSpecifiedTests=false}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkAgainstLegacy() {
+        String[] messages = corpus.stream().map(entry -> entry[1]).toArray(String[]::new);
+
+        double[] legacy = measure(LegacyMT103Validator::validate, messages);
+        double[] tokenizer = measure(MT103Validator::validate, messages);
+
+        System.out.printf("Regex + substring %8.1f ns/msg %8.1f B/msg%n", legacy[0], legacy[1]);
+        System.out.printf("Tokenizer         %8.1f ns/msg %8.1f B/msg%n", tokenizer[0], tokenizer[1]);
+        assertTrue(tokenizer[0] < legacy[0]);
+        assertTrue(tokenizer[1] < legacy[1]);
+    }
+
+    private static double[] measure(Function<String, String> validator, String[] messages) {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        int iterations = 500_000;
+        long sink = 0;
+        for (int i = 0; i < iterations; i++) {
+            String reason = validator.apply(messages[i % messages.length]);
+            sink += reason == null ? 1 : reason.length();
+        }
+
+        long allocatedBefore = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            String reason = validator.apply(messages[i % messages.length]);
+            sink += reason == null ? 1 : reason.length();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocatedBefore;
+        assertNotEquals(0, sink);
+        return new double[]{elapsed / (double) iterations, allocated / (double) iterations};
+    }
+
+    private static CharSequence latin1(String content) {
+        byte[] data = ("xx" + content + "yy").getBytes(StandardCharsets.ISO_8859_1);
+        return new Latin1Chars(data, 2, data.length - 4);
+    }
+
+    /**
+     * One to three random insertions, deletions or replacements.
+     */
+    private static String mutate(String content, Random random) {
+        StringBuilder mutated = new StringBuilder(content);
+        int edits = 1 + random.nextInt(3);
+        for (int i = 0; i < edits && !mutated.isEmpty(); i++) {
+            int at = random.nextInt(mutated.length());
+            char c = MUTATION_CHARS[random.nextInt(MUTATION_CHARS.length)];
+            switch (random.nextInt(3)) {
+                case 0 -> mutated.insert(at, c);
+                case 1 -> mutated.deleteCharAt(at);
+                default -> mutated.setCharAt(at, c);
+            }
+        }
+        return mutated.toString();
+    }
+}
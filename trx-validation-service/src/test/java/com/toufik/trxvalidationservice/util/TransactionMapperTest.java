@@ -0,0 +1,70 @@
+package com.toufik.trxvalidationservice.util;
+
+import com.toufik.trxcommon.model.Transaction;
+import com.toufik.trxvalidationservice.entity.TransactionEntity;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionMapperTest {
+
+    @Test
+    void testToEntity_CopiesEveryTransactionField() throws Exception {
+        Transaction transaction = populated();
+
+        TransactionEntity entity = TransactionMapper.toEntity(transaction, true, "ok", LocalDateTime.now());
+
+        for (Field field : Transaction.class.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            Field target = TransactionEntity.class.getDeclaredField(field.getName());
+            field.setAccessible(true);
+            target.setAccessible(true);
+            assertNotNull(field.get(transaction), field.getName());
+            assertEquals(field.get(transaction), target.get(entity), field.getName());
+        }
+    }
+
+    @Test
+    void testToEntity_SetsValidationOutcome() throws Exception {
+        LocalDateTime processedAt = LocalDateTime.of(2024, 2, 1, 12, 0);
+
+        TransactionEntity entity = TransactionMapper.toEntity(populated(), false, "Invalid BIC", processedAt);
+
+        assertEquals(entity.getTransactionId(), entity.getId());
+        assertFalse(entity.isValid());
+        assertEquals("Invalid BIC", entity.getValidationReason());
+        assertEquals(processedAt, entity.getProcessedAt());
+    }
+
+    /**
+     * Every field set to a distinct value, so a missed or swapped field fails the comparison.
+     */
+    private static Transaction populated() throws IllegalAccessException {
+        Transaction transaction = Transaction.builder().build();
+        int counter = 0;
+        for (Field field : Transaction.class.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            field.setAccessible(true);
+            counter++;
+            if (field.getType() == String.class) {
+                field.set(transaction, field.getName() + "-" + counter);
+            } else if (field.getType() == BigDecimal.class) {
+                field.set(transaction, new BigDecimal("1234.5" + counter));
+            } else if (field.getType() == LocalDateTime.class) {
+                field.set(transaction, LocalDateTime.of(2024, 1, 15, 10, counter));
+            } else {
+                fail("Unhandled field type " + field.getType() + " for " + field.getName());
+            }
+        }
+        return transaction;
+    }
+}